@@ -0,0 +1,60 @@
+package com.example.traidingsim;
+
+import com.example.traidingsim.marketdata.FeedMonitor;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.model.dto.BroadcastStatsDTO;
+import com.example.traidingsim.model.dto.FeedStatusDTO;
+import com.example.traidingsim.websocket.FrontendWebSocketService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/market-data")
+@CrossOrigin(origins = "*")
+public class MarketDataController {
+
+    private final FrontendWebSocketService frontendWebSocketService;
+    private final SymbolRegistry symbolRegistry;
+    private final FeedMonitor feedMonitor;
+
+    public MarketDataController(FrontendWebSocketService frontendWebSocketService, SymbolRegistry symbolRegistry,
+                                FeedMonitor feedMonitor) {
+        this.frontendWebSocketService = frontendWebSocketService;
+        this.symbolRegistry = symbolRegistry;
+        this.feedMonitor = feedMonitor;
+    }
+
+    /**
+     * Endpoint to fetch the symbol dictionary used by the binary price feed.
+     * @return The known symbols, indexed by symbol ID.
+     */
+    @GetMapping("/symbols")
+    public ResponseEntity<List<String>> getSymbols() {
+        List<String> symbols = new ArrayList<>(symbolRegistry.size());
+        for (int id = 0; id < symbolRegistry.size(); id++) {
+            symbols.add(symbolRegistry.symbolOf(id));
+        }
+        return ResponseEntity.ok(symbols);
+    }
+
+    /**
+     * Endpoint to fetch the counters of the price broadcast stage.
+     * @return Ticks received, ticks conflated away and messages sent to frontend clients.
+     */
+    @GetMapping("/broadcast-stats")
+    public ResponseEntity<BroadcastStatsDTO> getBroadcastStats() {
+        return ResponseEntity.ok(frontendWebSocketService.getBroadcastStats());
+    }
+
+    /**
+     * Endpoint to fetch the health of the market data feed.
+     * @return Liveness, time since the last frame, reconnect and gap counters, and the age of every symbol's price.
+     */
+    @GetMapping("/feed")
+    public ResponseEntity<FeedStatusDTO> getFeedStatus() {
+        return ResponseEntity.ok(feedMonitor.getStatus());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.traidingsim;
+
+import com.example.traidingsim.model.dto.CryptoPriceDTO;
+import com.example.traidingsim.model.dto.PriceSubscriptionDTO;
+import com.example.traidingsim.model.dto.PriceSubscriptionRequestDTO;
+import com.example.traidingsim.websocket.KrakenWebSocketService;
+import com.example.traidingsim.websocket.PriceSubscriptionRegistry;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Controller
+public class PriceSubscriptionController {
+
+    private final KrakenWebSocketService krakenWebSocketService;
+    private final PriceSubscriptionRegistry subscriptionRegistry;
+
+    public PriceSubscriptionController(KrakenWebSocketService krakenWebSocketService,
+                                       PriceSubscriptionRegistry subscriptionRegistry) {
+        this.krakenWebSocketService = krakenWebSocketService;
+        this.subscriptionRegistry = subscriptionRegistry;
+    }
+
+    /**
+     * STOMP endpoint ({@code /app/prices/subscribe}) to look up the per-symbol price destinations.
+     * Replies on {@code /user/queue/prices} with the destination of every requested symbol and its current price,
+     * so the client can subscribe to just those destinations without waiting for the next snapshot. A symbol the feed
+     * has not delivered yet gets its destination too, and a subscription to it is pending until its first price.
+     * @param request The symbols the client wants to watch (e.g., BTC/USD, ETH/USD).
+     * @return The destinations to subscribe to and the latest known prices.
+     */
+    @MessageMapping("/prices/subscribe")
+    @SendToUser(destinations = "/queue/prices", broadcast = false)
+    public PriceSubscriptionDTO subscribe(PriceSubscriptionRequestDTO request) {
+        Map<String, Double> latestPrices = krakenWebSocketService.getCryptoPrices();
+        Map<String, String> destinations = new LinkedHashMap<>();
+        List<CryptoPriceDTO> prices = new ArrayList<>();
+
+        if (request.getSymbols() != null) {
+            for (String symbol : request.getSymbols()) {
+                String destination = subscriptionRegistry.destinationOf(symbol);
+                if (destination == null) {
+                    continue;
+                }
+                destinations.put(symbol, destination);
+                Double price = latestPrices.get(symbol);
+                if (price != null) {
+                    prices.add(CryptoPriceDTO.builder().symbol(symbol).price(price).build());
+                }
+            }
+        }
+
+        return PriceSubscriptionDTO.builder()
+                .destinations(destinations)
+                .prices(prices)
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.traidingsim;
+
+import com.example.traidingsim.exception.InvalidRequestException;
+import com.example.traidingsim.model.enumeration.StreamBackpressure;
+import com.example.traidingsim.service.TradingService;
+import com.example.traidingsim.stream.PriceStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/api/stream")
+@CrossOrigin(origins = "*")
+public class StreamController {
+
+    private static final int MAX_BUFFER_SIZE = 4096;
+
+    private final PriceStreamService priceStreamService;
+    private final TradingService tradingService;
+
+    public StreamController(PriceStreamService priceStreamService, TradingService tradingService) {
+        this.priceStreamService = priceStreamService;
+        this.tradingService = tradingService;
+    }
+
+    /**
+     * Endpoint to stream prices as Server-Sent Events: a {@code prices} event with a snapshot of every symbol's
+     * latest price on every broadcast, starting with the current prices.
+     * @param backpressure What happens when the client reads slower than prices arrive: LATEST skips to the newest
+     *                     snapshot, BUFFER queues up to {@code bufferSize} snapshots and ends the stream on overflow.
+     * @param bufferSize The snapshots queued for the client with BUFFER.
+     */
+    @GetMapping(value = "/prices", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamPrices(@RequestParam(defaultValue = "LATEST") StreamBackpressure backpressure,
+                                                      @RequestParam(defaultValue = "256") int bufferSize) {
+        if (bufferSize < 1 || bufferSize > MAX_BUFFER_SIZE) {
+            throw new InvalidRequestException("Buffer size must be between 1 and " + MAX_BUFFER_SIZE);
+        }
+        return priceStreamService.prices(backpressure, bufferSize);
+    }
+
+    /**
+     * Endpoint to stream the portfolio of an account as Server-Sent Events: a {@code portfolio} event with its
+     * balance, holdings and positions valued at the live price whenever they change, starting with the current one.
+     * A client that reads slower than prices arrive gets the latest portfolio.
+     */
+    @GetMapping(value = "/portfolio", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamPortfolio(@RequestParam(defaultValue = "1") long accountId) {
+        return priceStreamService.follow("portfolio", () -> tradingService.getPortfolio(accountId));
+    }
+}
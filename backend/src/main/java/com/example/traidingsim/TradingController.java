@@ -1,11 +1,36 @@
 package com.example.traidingsim;
 
-import com.example.traidingsim.model.Transaction;
+import com.example.traidingsim.engine.MarketOrder;
+import com.example.traidingsim.exception.InvalidRequestException;
+import com.example.traidingsim.mapper.OrderBatchMapper;
+import com.example.traidingsim.model.dto.AccountDTO;
 import com.example.traidingsim.model.dto.ApiResponse;
+import com.example.traidingsim.model.dto.BacktestResultDTO;
+import com.example.traidingsim.model.dto.CandleDTO;
+import com.example.traidingsim.model.dto.OrderBatchRequestDTO;
+import com.example.traidingsim.model.dto.OrderBatchResultDTO;
+import com.example.traidingsim.model.dto.OrderDTO;
+import com.example.traidingsim.model.dto.PositionDTO;
+import com.example.traidingsim.model.dto.StrategyDTO;
+import com.example.traidingsim.model.dto.TransactionPageDTO;
+import com.example.traidingsim.model.enumeration.OrderType;
+import com.example.traidingsim.model.enumeration.Type;
+import com.example.traidingsim.service.BacktestService;
+import com.example.traidingsim.service.CandleService;
+import com.example.traidingsim.service.OrderService;
+import com.example.traidingsim.service.StrategyService;
 import com.example.traidingsim.service.TradingService;
+import com.example.traidingsim.service.TransactionHistoryService;
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
@@ -14,10 +39,30 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class TradingController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_BATCH_ORDERS = 1000;
+    private static final String BATCH_TOO_LARGE =
+            "An order batch must have between 1 and " + MAX_BATCH_ORDERS + " orders";
+
     private final TradingService tradingService;
+    private final TransactionHistoryService transactionHistoryService;
+    private final CandleService candleService;
+    private final OrderService orderService;
+    private final BacktestService backtestService;
+    private final StrategyService strategyService;
+    private final ObjectMapper objectMapper;
 
-    public TradingController(TradingService tradingService) {
+    public TradingController(TradingService tradingService, TransactionHistoryService transactionHistoryService,
+                             CandleService candleService, OrderService orderService,
+                             BacktestService backtestService, StrategyService strategyService,
+                             ObjectMapper objectMapper) {
         this.tradingService = tradingService;
+        this.transactionHistoryService = transactionHistoryService;
+        this.candleService = candleService;
+        this.orderService = orderService;
+        this.backtestService = backtestService;
+        this.strategyService = strategyService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -30,16 +75,113 @@ public class TradingController {
         return ResponseEntity.ok(latestPrices);
     }
 
+    /**
+     * Endpoint to fetch OHLCV candles rolled up from the received ticks.
+     * @param crypto The cryptocurrency symbol (e.g., BTC or BTC/USD).
+     * @param interval The candle interval: 1s, 1m, 5m or 1h.
+     * @param from Only candles opened at or after this instant, the {@code limit} intervals before {@code to} by default.
+     * @param to Only candles opened before this instant, now by default.
+     * @param limit The number of most recent intervals in the range to return candles for.
+     * @return The candles, oldest first. The volume of a candle is its number of ticks.
+     */
+    @GetMapping("/candles")
+    public ResponseEntity<List<CandleDTO>> getCandles(@RequestParam String crypto,
+                                                      @RequestParam(defaultValue = "1m") String interval,
+                                                      @RequestParam(required = false) Instant from,
+                                                      @RequestParam(required = false) Instant to,
+                                                      @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(candleService.getCandles(crypto, interval, from, to, limit));
+    }
+
+    /**
+     * Endpoint to backtest a moving average cross strategy over the recorded ticks of a symbol, sweeping every
+     * combination of the given windows in parallel. Each run trades its own account, starting from {@code balance}.
+     * @param crypto The cryptocurrency symbol (e.g., BTC or BTC/USD).
+     * @param from Only ticks received at or after this instant, a day before {@code to} by default.
+     * @param to Only ticks received before this instant, now by default.
+     * @param fast The fast moving average windows, in ticks.
+     * @param slow The slow moving average windows, in ticks. Only pairs with a shorter fast window are run.
+     * @param amount The amount bought when the fast average crosses above the slow one.
+     * @return Throughput, final balance and P&L of every run. Trades fill at the last price of the replayed ticks,
+     * not by walking an order book as live market orders do.
+     */
+    @PostMapping("/backtests")
+    public ResponseEntity<List<BacktestResultDTO>> backtest(@RequestParam String crypto,
+                                                            @RequestParam(required = false) Instant from,
+                                                            @RequestParam(required = false) Instant to,
+                                                            @RequestParam List<Integer> fast,
+                                                            @RequestParam List<Integer> slow,
+                                                            @RequestParam double amount,
+                                                            @RequestParam(defaultValue = "10000") double balance) {
+        return ResponseEntity.ok(backtestService.sweepMovingAverageCross(crypto, from, to, fast, slow, amount, balance));
+    }
+
+    /**
+     * Endpoint to deploy a moving average cross strategy that trades an account on every live price update.
+     * @param name A unique name for the strategy.
+     * @param crypto The cryptocurrency symbol (e.g., BTC or BTC/USD).
+     * @param fast The fast moving average window, in ticks.
+     * @param slow The slow moving average window, in ticks, longer than the fast one.
+     * @param amount The amount bought when the fast average crosses above the slow one.
+     * @return The deployed strategy.
+     */
+    @PostMapping("/strategies")
+    public ResponseEntity<StrategyDTO> deployStrategy(@RequestParam(defaultValue = "1") long accountId,
+                                                      @RequestParam String name, @RequestParam String crypto,
+                                                      @RequestParam int fast, @RequestParam int slow,
+                                                      @RequestParam double amount) {
+        return ResponseEntity.ok(strategyService.deployMovingAverageCross(name, accountId, crypto, fast, slow, amount));
+    }
+
+    /**
+     * Endpoint to list the deployed strategies.
+     * @return Every strategy with its queue, drop and latency metrics, by name.
+     */
+    @GetMapping("/strategies")
+    public ResponseEntity<List<StrategyDTO>> getStrategies() {
+        return ResponseEntity.ok(strategyService.getStrategies());
+    }
+
+    /**
+     * Endpoint to stop and remove a strategy.
+     * @return The strategy with its final metrics.
+     */
+    @DeleteMapping("/strategies/{name}")
+    public ResponseEntity<StrategyDTO> undeployStrategy(@PathVariable String name) {
+        return ResponseEntity.ok(strategyService.undeploy(name));
+    }
+
+    /**
+     * Endpoint to open a new account.
+     * @param balance The starting balance, the initial balance of $10000 by default.
+     * @return The new account.
+     */
+    @PostMapping("/accounts")
+    public ResponseEntity<AccountDTO> createAccount(@RequestParam(required = false) Double balance) {
+        return ResponseEntity.ok(tradingService.createAccount(balance));
+    }
+
+    /**
+     * Endpoint to list all accounts.
+     * @return Every account with its balance and holdings.
+     */
+    @GetMapping("/accounts")
+    public ResponseEntity<List<AccountDTO>> getAccounts() {
+        return ResponseEntity.ok(tradingService.getAccounts());
+    }
+
     /**
      * Endpoint to buy cryptocurrency.
+     * @param accountId The account to trade on, account 1 by default.
      * @param crypto The cryptocurrency symbol to buy (e.g., BTC, ETH).
      * @param amount The amount of cryptocurrency to purchase.
      * @return Success or error message.
      */
     @PostMapping("/buy")
-    public ResponseEntity<ApiResponse> buyCrypto(@RequestParam String crypto, @RequestParam double amount) {
+    public ResponseEntity<ApiResponse> buyCrypto(@RequestParam(defaultValue = "1") long accountId,
+                                                 @RequestParam String crypto, @RequestParam double amount) {
         try {
-            String message = tradingService.buyCrypto(crypto, amount);
+            String message = tradingService.buyCrypto(accountId, crypto, amount);
             return ResponseEntity.ok(new ApiResponse(true, message));
         } catch (RuntimeException ex) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, ex.getMessage()));
@@ -48,14 +190,16 @@ public class TradingController {
 
     /**
      * Endpoint to sell cryptocurrency.
+     * @param accountId The account to trade on, account 1 by default.
      * @param crypto The cryptocurrency symbol to sell (e.g., BTC, ETH).
      * @param amount The amount of cryptocurrency to sell.
      * @return Success or error message.
      */
     @PostMapping("/sell")
-    public ResponseEntity<ApiResponse> sellCrypto(@RequestParam String crypto, @RequestParam double amount) {
+    public ResponseEntity<ApiResponse> sellCrypto(@RequestParam(defaultValue = "1") long accountId,
+                                                  @RequestParam String crypto, @RequestParam double amount) {
         try {
-            String message = tradingService.sellCrypto(crypto, amount);
+            String message = tradingService.sellCrypto(accountId, crypto, amount);
             return ResponseEntity.ok(new ApiResponse(true, message));
         } catch (RuntimeException ex) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, ex.getMessage()));
@@ -63,12 +207,121 @@ public class TradingController {
     }
 
     /**
-     * Endpoint to retrieve the transaction history.
-     * @return A list of all transactions made (both buy and sell).
+     * Endpoint to execute a batch of market orders on one account, in order. Every order is validated and filled
+     * against the same snapshot of the prices, and an order that cannot execute is rejected without affecting the
+     * others. The executed trades are persisted together.
+     * @param accountId The account to trade on, account 1 by default.
+     * @param body Up to 1000 orders, each with a crypto, a side (BUY or SELL) and an amount, in at most
+     *             {@value OrderBatchMapper#MAX_JSON_ORDER_SIZE} bytes per order.
+     * @return The outcome of every order, in batch order: its price and total, or why it was rejected.
+     */
+    @PostMapping(value = "/orders/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OrderBatchResultDTO> executeOrderBatch(@RequestParam(defaultValue = "1") long accountId,
+                                                                 InputStream body) throws IOException {
+        // Read within a cap before parsing, so an oversized body is never turned into orders only to be rejected
+        byte[] json = OrderBatchMapper.read(body, MAX_BATCH_ORDERS * OrderBatchMapper.MAX_JSON_ORDER_SIZE,
+                BATCH_TOO_LARGE);
+        OrderBatchRequestDTO request;
+        try {
+            request = objectMapper.readValue(json, OrderBatchRequestDTO.class);
+        } catch (JacksonException e) {
+            throw new InvalidRequestException("Malformed order batch: " + e.getOriginalMessage());
+        }
+        return executeOrderBatch(accountId, OrderBatchMapper.fromDTO(request));
+    }
+
+    /**
+     * Endpoint to execute a batch of market orders sent in the binary format of {@link OrderBatchMapper}, which
+     * avoids parsing JSON for large batches. Otherwise the same as the JSON endpoint.
+     */
+    @PostMapping(value = "/orders/batch", consumes = OrderBatchMapper.BINARY_MEDIA_TYPE)
+    public ResponseEntity<OrderBatchResultDTO> executeBinaryOrderBatch(@RequestParam(defaultValue = "1") long accountId,
+                                                                       InputStream body) throws IOException {
+        return executeOrderBatch(accountId, OrderBatchMapper.decode(
+                OrderBatchMapper.read(body, MAX_BATCH_ORDERS * OrderBatchMapper.ORDER_SIZE, BATCH_TOO_LARGE)));
+    }
+
+    /**
+     * Endpoint to place a limit, stop-loss or take-profit order.
+     * @param accountId The account to trade on, account 1 by default.
+     * @param crypto The cryptocurrency symbol to trade (e.g., BTC, ETH).
+     * @param type The order type: LIMIT, STOP_LOSS or TAKE_PROFIT.
+     * @param side BUY or SELL.
+     * @param amount The amount of cryptocurrency to trade.
+     * @param price The price at which the order triggers.
+     * @return The resting order.
+     */
+    @PostMapping("/orders")
+    public ResponseEntity<OrderDTO> placeOrder(@RequestParam(defaultValue = "1") long accountId,
+                                               @RequestParam String crypto, @RequestParam OrderType type,
+                                               @RequestParam Type side, @RequestParam double amount,
+                                               @RequestParam double price) {
+        return ResponseEntity.ok(orderService.placeOrder(accountId, crypto, type, side, amount, price));
+    }
+
+    /**
+     * Endpoint to list the open orders of an account.
+     * @return The orders that have not been filled, rejected or cancelled yet, oldest first.
+     */
+    @GetMapping("/orders")
+    public ResponseEntity<List<OrderDTO>> getOpenOrders(@RequestParam(defaultValue = "1") long accountId) {
+        return ResponseEntity.ok(orderService.getOpenOrders(accountId));
+    }
+
+    /**
+     * Endpoint to look up an order of an account, open or recently closed.
+     * @return The order with its status, and why it was rejected if it was.
+     */
+    @GetMapping("/orders/{orderId}")
+    public ResponseEntity<OrderDTO> getOrder(@RequestParam(defaultValue = "1") long accountId,
+                                             @PathVariable long orderId) {
+        return ResponseEntity.ok(orderService.getOrder(accountId, orderId));
+    }
+
+    /**
+     * Endpoint to cancel an open order.
+     * @return The cancelled order.
+     */
+    @DeleteMapping("/orders/{orderId}")
+    public ResponseEntity<OrderDTO> cancelOrder(@RequestParam(defaultValue = "1") long accountId,
+                                                @PathVariable long orderId) {
+        return ResponseEntity.ok(orderService.cancelOrder(accountId, orderId));
+    }
+
+    /**
+     * Endpoint to retrieve the transaction history, newest first, one page at a time.
+     * @param crypto Only transactions of this cryptocurrency, if given.
+     * @param type Only buys or only sells, if given.
+     * @param from Only transactions executed at or after this instant, if given.
+     * @param to Only transactions executed before this instant, if given.
+     * @param cursor The {@code nextCursor} of the previous page, omitted for the first page.
+     * @param limit The maximum number of transactions in the page.
+     * @return The page of transactions and the cursor of the next page.
      */
     @GetMapping("/transactions")
-    public ResponseEntity<List<Transaction>> getTransactionHistory() {
-        return ResponseEntity.ok(tradingService.getTransactionHistory());
+    public ResponseEntity<TransactionPageDTO> getTransactionHistory(@RequestParam(defaultValue = "1") long accountId,
+                                                                    @RequestParam(required = false) String crypto,
+                                                                    @RequestParam(required = false) Type type,
+                                                                    @RequestParam(required = false) Instant from,
+                                                                    @RequestParam(required = false) Instant to,
+                                                                    @RequestParam(required = false) String cursor,
+                                                                    @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(transactionHistoryService.getPage(accountId, crypto, type, from, to, cursor, limit));
+    }
+
+    /**
+     * Endpoint to export the transaction history, oldest first, as newline-delimited JSON.
+     * Takes the same filters as {@link #getTransactionHistory}; rows are streamed as they are read.
+     */
+    @GetMapping(value = "/transactions/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportTransactionHistory(@RequestParam(defaultValue = "1") long accountId,
+                                                                          @RequestParam(required = false) String crypto,
+                                                                          @RequestParam(required = false) Type type,
+                                                                          @RequestParam(required = false) Instant from,
+                                                                          @RequestParam(required = false) Instant to) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(transactionHistoryService.export(accountId, crypto, type, from, to));
     }
 
 
@@ -77,9 +330,9 @@ public class TradingController {
      * @return Success message indicating the account has been reset.
      */
     @PostMapping("/reset")
-    public ResponseEntity<ApiResponse> resetAccount() {
+    public ResponseEntity<ApiResponse> resetAccount(@RequestParam(defaultValue = "1") long accountId) {
         try {
-            String message = tradingService.resetAccount();
+            String message = tradingService.resetAccount(accountId);
             return ResponseEntity.ok(new ApiResponse(true, message));
         } catch (Exception ex) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, ex.getMessage()));
@@ -91,8 +344,8 @@ public class TradingController {
      * @return The current account balance as a double.
      */
     @GetMapping("/balance")
-    public ResponseEntity<Double> getAccountBalance() {
-        return ResponseEntity.ok(tradingService.getAccountBalance());
+    public ResponseEntity<Double> getAccountBalance(@RequestParam(defaultValue = "1") long accountId) {
+        return ResponseEntity.ok(tradingService.getAccountBalance(accountId));
     }
 
 
@@ -101,8 +354,8 @@ public class TradingController {
      * @return A map of cryptocurrencies and the amounts held.
      */
     @GetMapping("/holdings")
-    public ResponseEntity<Map<String, Double>> getCryptoHoldings() {
-        return ResponseEntity.ok(tradingService.getCryptoHoldings());
+    public ResponseEntity<Map<String, Double>> getCryptoHoldings(@RequestParam(defaultValue = "1") long accountId) {
+        return ResponseEntity.ok(tradingService.getCryptoHoldings(accountId));
     }
 
     /**
@@ -110,9 +363,24 @@ public class TradingController {
      * @return A map of the profit or loss made from all transactions.
      */
     @GetMapping("/profit-loss")
-    public ResponseEntity<Map<String, Double>> getProfitLoss() {
-        Map<String, Double> profitLossMap = tradingService.calculateProfitLoss();
+    public ResponseEntity<Map<String, Double>> getProfitLoss(@RequestParam(defaultValue = "1") long accountId) {
+        Map<String, Double> profitLossMap = tradingService.calculateProfitLoss(accountId);
         return ResponseEntity.ok(profitLossMap);
     }
 
-}
\ No newline at end of file
+    /**
+     * Endpoint to fetch the running position of each cryptocurrency the account has bought.
+     * @return Quantity, average cost and realized/unrealized profit or loss per cryptocurrency.
+     */
+    @GetMapping("/positions")
+    public ResponseEntity<List<PositionDTO>> getPositions(@RequestParam(defaultValue = "1") long accountId) {
+        return ResponseEntity.ok(tradingService.getPositions(accountId));
+    }
+
+    private ResponseEntity<OrderBatchResultDTO> executeOrderBatch(long accountId, List<MarketOrder> orders) {
+        if (orders.isEmpty() || orders.size() > MAX_BATCH_ORDERS) {
+            throw new InvalidRequestException(BATCH_TOO_LARGE);
+        }
+        return ResponseEntity.ok(tradingService.executeBatch(accountId, orders));
+    }
+}
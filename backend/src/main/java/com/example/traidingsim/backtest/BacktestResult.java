@@ -0,0 +1,13 @@
+package com.example.traidingsim.backtest;
+
+/**
+ * Outcome of one backtest run. {@code profitLoss} is realized plus unrealized P&L against the last price on the
+ * tape, summed over every symbol traded; {@code equity} is the final balance plus the holdings at those prices.
+ */
+public record BacktestResult(String name, int ticks, int trades, long elapsedNanos, double finalBalance,
+                             double profitLoss, double equity) {
+
+    public double ticksPerSecond() {
+        return elapsedNanos > 0 ? ticks * 1e9 / elapsedNanos : 0.0;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.traidingsim.backtest;
+
+import com.example.traidingsim.strategy.Strategy;
+
+import java.util.function.Supplier;
+
+/**
+ * One run of a parameter sweep. The supplier is called once, on the thread that executes the run, so every run
+ * gets its own strategy instance.
+ */
+public record BacktestRun(String name, Supplier<? extends Strategy> strategy) {
+}
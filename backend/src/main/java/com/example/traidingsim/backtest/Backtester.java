@@ -0,0 +1,184 @@
+package com.example.traidingsim.backtest;
+
+import com.example.traidingsim.engine.PositionSnapshot;
+import com.example.traidingsim.engine.TradeEngine;
+import com.example.traidingsim.engine.TradePersister;
+import com.example.traidingsim.engine.TradeResult;
+import com.example.traidingsim.marketdata.OrderBooks;
+import com.example.traidingsim.marketdata.PriceBook;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import com.example.traidingsim.marketdata.history.TickTape;
+import com.example.traidingsim.strategy.Strategy;
+import com.example.traidingsim.strategy.StrategyContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Replays a {@link TickTape} through a {@link Strategy} as fast as one thread can go. Every run gets its own
+ * {@link PriceBook} and {@link TradeEngine}, holding a single in-memory account, so trades fill and P&L is
+ * accounted exactly as for trades placed through the API, while the engine's clock follows the tape instead of
+ * the wall clock. Nothing is persisted and no state is shared between runs, so the runs of a sweep execute in
+ * parallel.
+ * Trades fill at the last price of the tape. The tick history records last prices but not order book frames, so a
+ * run has no book to walk and, unlike a live trade, a fill does not depend on its size.
+ */
+public class Backtester {
+
+    static final long ACCOUNT_ID = 1L;
+
+    private final SymbolRegistry symbolRegistry;
+
+    public Backtester(SymbolRegistry symbolRegistry) {
+        this.symbolRegistry = symbolRegistry;
+    }
+
+    /**
+     * Run a strategy over every tick of the tape on the calling thread.
+     */
+    public BacktestResult run(TickTape tape, String name, Strategy strategy, double initialBalance) {
+        BacktestContext context = new BacktestContext(symbolRegistry, initialBalance);
+        TickBatch batch = new TickBatch();
+
+        long start = System.nanoTime();
+        strategy.start(context);
+        int size = tape.size();
+        int i = 0;
+        while (i < size) {
+            long timestamp = tape.timestamp(i);
+            batch.clear();
+            for (; i < size && tape.timestamp(i) == timestamp; i++) {
+                batch.add(tape.symbolId(i), tape.price(i));
+            }
+            context.now = timestamp;
+            context.priceBook.apply(batch, timestamp);
+            for (int j = 0; j < batch.size(); j++) {
+                strategy.onPrice(context, batch.symbolId(j), batch.price(j));
+            }
+        }
+        strategy.stop(context);
+        long elapsed = System.nanoTime() - start;
+
+        return context.result(name, size, elapsed);
+    }
+
+    /**
+     * Run every strategy of a sweep over the same tape, up to {@code parallelism} at a time.
+     * @return The results, in the order of the runs.
+     */
+    public List<BacktestResult> sweep(TickTape tape, List<BacktestRun> runs, double initialBalance, int parallelism) {
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "backtest");
+            thread.setDaemon(true);
+            return thread;
+        })) {
+            List<Future<BacktestResult>> futures = new ArrayList<>(runs.size());
+            for (BacktestRun run : runs) {
+                futures.add(executor.submit(() -> run(tape, run.name(), run.strategy().get(), initialBalance)));
+            }
+
+            List<BacktestResult> results = new ArrayList<>(runs.size());
+            for (Future<BacktestResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * The engine and account of one run, with the virtual clock the engine stamps trades with.
+     */
+    private static class BacktestContext implements StrategyContext {
+
+        private final SymbolRegistry symbolRegistry;
+        private final PriceBook priceBook;
+        private final TradeEngine engine;
+
+        private long now;
+        private int trades;
+
+        BacktestContext(SymbolRegistry symbolRegistry, double initialBalance) {
+            this.symbolRegistry = symbolRegistry;
+            this.priceBook = new PriceBook(symbolRegistry);
+            // No book frames on the tape: every fill is at the last price
+            this.engine = new TradeEngine(priceBook, new OrderBooks(0), symbolRegistry, TradePersister.NONE,
+                    () -> now);
+            engine.openAccount(ACCOUNT_ID, initialBalance);
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return now;
+        }
+
+        @Override
+        public int resolve(String crypto) {
+            return symbolRegistry.resolve(crypto);
+        }
+
+        @Override
+        public String symbolOf(int symbolId) {
+            return symbolRegistry.symbolOf(symbolId);
+        }
+
+        @Override
+        public double price(int symbolId) {
+            return priceBook.price(symbolId);
+        }
+
+        @Override
+        public long accountId() {
+            return ACCOUNT_ID;
+        }
+
+        @Override
+        public double balance() {
+            return engine.balance(ACCOUNT_ID);
+        }
+
+        @Override
+        public double holding(String crypto) {
+            return engine.holding(ACCOUNT_ID, crypto);
+        }
+
+        @Override
+        public TradeResult buy(String crypto, double amount) {
+            TradeResult result = engine.buy(ACCOUNT_ID, crypto, amount);
+            trades++;
+            return result;
+        }
+
+        @Override
+        public TradeResult sell(String crypto, double amount) {
+            TradeResult result = engine.sell(ACCOUNT_ID, crypto, amount);
+            trades++;
+            return result;
+        }
+
+        BacktestResult result(String name, int ticks, long elapsedNanos) {
+            double balance = engine.balance(ACCOUNT_ID);
+            double profitLoss = 0;
+            double equity = balance;
+            for (Map.Entry<String, PositionSnapshot> entry : engine.positions(ACCOUNT_ID).entrySet()) {
+                PositionSnapshot position = entry.getValue();
+                double price = engine.livePrice(entry.getKey());
+                double unrealized = Double.isNaN(price) ? 0.0 : position.unrealizedProfitLoss(price);
+                profitLoss += position.realizedProfitLoss() + unrealized;
+                equity += Double.isNaN(price) ? 0.0 : position.quantity() * price;
+            }
+            return new BacktestResult(name, ticks, trades, elapsedNanos, balance, profitLoss, equity);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.traidingsim.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class AsyncWebConfig {
+
+    /**
+     * Streamed responses, such as the Server-Sent Event streams, are written on virtual threads: a stream waiting
+     * for its next event holds no thread, and a write blocked on a slow client only parks a virtual thread.
+     */
+    @Bean
+    public WebMvcConfigurer asyncSupportConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mvc-async-");
+                executor.setVirtualThreads(true);
+                configurer.setTaskExecutor(executor);
+            }
+        };
+    }
+}
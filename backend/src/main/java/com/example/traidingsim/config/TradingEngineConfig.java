@@ -0,0 +1,69 @@
+package com.example.traidingsim.config;
+
+import com.example.traidingsim.backtest.Backtester;
+import com.example.traidingsim.engine.OrderTriggerIndex;
+import com.example.traidingsim.engine.TradeEngine;
+import com.example.traidingsim.engine.TradePersister;
+import com.example.traidingsim.engine.TradeShards;
+import com.example.traidingsim.journal.JournalTradePersister;
+import com.example.traidingsim.marketdata.FeedMonitor;
+import com.example.traidingsim.marketdata.OrderBooks;
+import com.example.traidingsim.marketdata.PriceBook;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.metrics.TradingMetrics;
+import com.example.traidingsim.service.TradePersistenceService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.nio.file.Path;
+
+@Configuration
+public class TradingEngineConfig {
+
+    /**
+     * Trade engine that rejects trades while the {@link FeedMonitor} reports the feed or a symbol's price as stale,
+     * and times the phases of its trades into the {@link TradingMetrics}.
+     */
+    @Bean
+    public TradeEngine tradeEngine(PriceBook priceBook, OrderBooks orderBooks, SymbolRegistry symbolRegistry,
+                                   TradePersister tradePersister, FeedMonitor feedMonitor,
+                                   TradingMetrics tradingMetrics) {
+        return new TradeEngine(priceBook, orderBooks, symbolRegistry, tradePersister, System::currentTimeMillis,
+                feedMonitor, tradingMetrics);
+    }
+
+    /**
+     * Trade shards for triggered resting orders, one per available processor unless {@code trading.shards} is set.
+     */
+    @Bean
+    public TradeShards tradeShards(@Value("${trading.shards:0}") int shards) {
+        return new TradeShards(shards > 0 ? shards : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Bean
+    public OrderTriggerIndex orderTriggerIndex() {
+        return new OrderTriggerIndex();
+    }
+
+    @Bean
+    public Backtester backtester(SymbolRegistry symbolRegistry) {
+        return new Backtester(symbolRegistry);
+    }
+
+    /**
+     * With {@code trading.persistence.mode=journal} the engine persists to an append-only journal, and the
+     * database is updated behind it as a query projection.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "trading.persistence.mode", havingValue = "journal")
+    public JournalTradePersister journalTradePersister(TradePersistenceService tradePersistenceService,
+                                                       @Value("${trading.journal.directory:journal}") String directory,
+                                                       @Value("${trading.journal.segment-records:1048576}") int segmentRecords,
+                                                       @Value("${trading.journal.fsync:false}") boolean fsync) {
+        return new JournalTradePersister(Path.of(directory), segmentRecords, fsync, tradePersistenceService);
+    }
+}
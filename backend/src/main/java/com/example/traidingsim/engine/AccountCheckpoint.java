@@ -0,0 +1,10 @@
+package com.example.traidingsim.engine;
+
+import java.util.Map;
+
+/**
+ * State of one account, aggregates included, captured by {@link TradeEngine#checkpoint} together with the
+ * persister position it is consistent with.
+ */
+public record AccountCheckpoint(AccountSnapshot account, Map<String, PositionSnapshot> positions, long position) {
+}
@@ -0,0 +1,9 @@
+package com.example.traidingsim.engine;
+
+import java.util.Map;
+
+/**
+ * Immutable copy of an account's state, taken by the {@link TradeEngine} right after a change.
+ */
+public record AccountSnapshot(long accountId, double balance, Map<String, Double> holdings) {
+}
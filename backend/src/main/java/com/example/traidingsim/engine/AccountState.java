@@ -0,0 +1,81 @@
+package com.example.traidingsim.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory state of one account. Only the {@link TradeEngine} reads or mutates it, while holding {@link #lock}.
+ */
+class AccountState {
+
+    final ReentrantLock lock = new ReentrantLock();
+
+    private final long accountId;
+    private double balance;
+    private final Map<String, Double> holdings = new HashMap<>();
+    private final Map<String, Position> positions = new HashMap<>();
+
+    AccountState(long accountId, double balance, Map<String, Double> holdings) {
+        this.accountId = accountId;
+        this.balance = balance;
+        this.holdings.putAll(holdings);
+    }
+
+    long getAccountId() {
+        return accountId;
+    }
+
+    double getBalance() {
+        return balance;
+    }
+
+    void setBalance(double balance) {
+        this.balance = balance;
+    }
+
+    double getHolding(String crypto) {
+        return holdings.getOrDefault(crypto, 0.0);
+    }
+
+    void setHolding(String crypto, double amount) {
+        if (amount <= 0) {
+            holdings.remove(crypto);
+        } else {
+            holdings.put(crypto, amount);
+        }
+    }
+
+    Position getPosition(String crypto) {
+        return positions.computeIfAbsent(crypto, key -> new Position());
+    }
+
+    /**
+     * Restore a position, adding to the one already held in the symbol, if any.
+     */
+    void restorePosition(String crypto, PositionSnapshot snapshot) {
+        Position position = positions.get(crypto);
+        if (position == null) {
+            positions.put(crypto, Position.restore(snapshot));
+        } else {
+            position.add(snapshot);
+        }
+    }
+
+    void reset(double balance, Map<String, Double> holdings) {
+        this.balance = balance;
+        this.holdings.clear();
+        this.holdings.putAll(holdings);
+        positions.clear();
+    }
+
+    AccountSnapshot snapshot() {
+        return new AccountSnapshot(accountId, balance, Map.copyOf(holdings));
+    }
+
+    Map<String, PositionSnapshot> positionSnapshots() {
+        Map<String, PositionSnapshot> snapshots = new HashMap<>(positions.size() * 2);
+        positions.forEach((crypto, position) -> snapshots.put(crypto, position.snapshot(crypto)));
+        return snapshots;
+    }
+}
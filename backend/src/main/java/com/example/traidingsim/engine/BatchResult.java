@@ -0,0 +1,21 @@
+package com.example.traidingsim.engine;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Outcome of an order batch, one result per order in batch order. {@code persisted} completes once every executed
+ * trade of the batch is durable according to the configured durability mode.
+ */
+public record BatchResult(List<MarketOrderResult> results, CompletableFuture<Void> persisted) {
+
+    public int executedCount() {
+        int executed = 0;
+        for (MarketOrderResult result : results) {
+            if (result.isExecuted()) {
+                executed++;
+            }
+        }
+        return executed;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.traidingsim.engine;
+
+import com.example.traidingsim.model.enumeration.Type;
+
+/**
+ * One market order of a batch executed by {@link TradeEngine#executeBatch}.
+ */
+public record MarketOrder(String crypto, Type type, double amount) {
+}
@@ -0,0 +1,19 @@
+package com.example.traidingsim.engine;
+
+/**
+ * Outcome of one order of a batch: the price and total it executed at, or the exception that rejected it.
+ */
+public record MarketOrderResult(MarketOrder order, double price, double total, RuntimeException rejection) {
+
+    static MarketOrderResult executed(MarketOrder order, double price, double total) {
+        return new MarketOrderResult(order, price, total, null);
+    }
+
+    static MarketOrderResult rejected(MarketOrder order, RuntimeException rejection) {
+        return new MarketOrderResult(order, Double.NaN, Double.NaN, rejection);
+    }
+
+    public boolean isExecuted() {
+        return rejection == null;
+    }
+}
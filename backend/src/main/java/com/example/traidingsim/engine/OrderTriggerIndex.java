@@ -0,0 +1,110 @@
+package com.example.traidingsim.engine;
+
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resting orders indexed by symbol and trigger price. Each symbol has two {@link TriggerHeap}s: orders that
+ * trigger when the price rises to their price, keyed by that price, and orders that trigger when it falls to it,
+ * keyed by its negation. Either way the next order to trigger is at the top of its heap, so a tick costs
+ * O(log n) per order it triggers and a constant-time look at each heap otherwise, however many orders rest.
+ * Each symbol is guarded by its own lock, so placing or cancelling orders only contends with ticks of the
+ * same symbol.
+ */
+public class OrderTriggerIndex {
+
+    private final SymbolOrders[] symbols = new SymbolOrders[SymbolRegistry.CAPACITY];
+    private final Map<Long, RestingOrder> orders = new ConcurrentHashMap<>();
+
+    public OrderTriggerIndex() {
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = new SymbolOrders();
+        }
+    }
+
+    public void add(RestingOrder order) {
+        SymbolOrders symbol = symbols[order.getSymbolId()];
+        synchronized (symbol) {
+            orders.put(order.getId(), order);
+            if (order.triggersAbove()) {
+                symbol.above.add(order.getPrice(), order);
+            } else {
+                symbol.below.add(-order.getPrice(), order);
+            }
+        }
+    }
+
+    /**
+     * Remove a resting order.
+     * @return The order, or {@code null} if it is not resting, for example because it has just been triggered.
+     */
+    public RestingOrder remove(long orderId) {
+        RestingOrder order = orders.get(orderId);
+        if (order == null) {
+            return null;
+        }
+        SymbolOrders symbol = symbols[order.getSymbolId()];
+        synchronized (symbol) {
+            if (orders.remove(orderId) == null) {
+                return null;
+            }
+            (order.triggersAbove() ? symbol.above : symbol.below).remove(order);
+            return order;
+        }
+    }
+
+    public RestingOrder get(long orderId) {
+        return orders.get(orderId);
+    }
+
+    public int size() {
+        return orders.size();
+    }
+
+    /**
+     * Resting orders of an account, oldest first.
+     */
+    public List<RestingOrder> ordersOf(long accountId) {
+        return orders.values().stream()
+                .filter(order -> order.getAccountId() == accountId)
+                .sorted(Comparator.comparingLong(RestingOrder::getId))
+                .toList();
+    }
+
+    /**
+     * Remove every order triggered by the ticks of a batch and append it to {@code triggered}.
+     */
+    public void trigger(TickBatch batch, List<RestingOrder> triggered) {
+        for (int i = 0; i < batch.size(); i++) {
+            trigger(batch.symbolId(i), batch.price(i), triggered);
+        }
+    }
+
+    /**
+     * Remove every order of a symbol triggered by the given price and append it to {@code triggered}.
+     */
+    public void trigger(int symbolId, double price, List<RestingOrder> triggered) {
+        SymbolOrders symbol = symbols[symbolId];
+        synchronized (symbol) {
+            RestingOrder order;
+            while ((order = symbol.above.pollAtMost(price)) != null) {
+                orders.remove(order.getId());
+                triggered.add(order);
+            }
+            while ((order = symbol.below.pollAtMost(-price)) != null) {
+                orders.remove(order.getId());
+                triggered.add(order);
+            }
+        }
+    }
+
+    private static class SymbolOrders {
+        final TriggerHeap above = new TriggerHeap();
+        final TriggerHeap below = new TriggerHeap();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.traidingsim.engine;
+
+/**
+ * Running aggregates of one account's trades in one symbol, updated in O(1) on every trade.
+ * The cost basis of the open quantity is tracked at average cost: a sell realizes the difference between its
+ * revenue and the average cost of the amount sold.
+ */
+class Position {
+
+    private double quantity;
+    private double costBasis;
+    private double totalBought;
+    private double totalSold;
+    private double amountBought;
+    private double amountSold;
+    private double realizedProfitLoss;
+
+    static Position restore(PositionSnapshot snapshot) {
+        Position position = new Position();
+        position.quantity = snapshot.quantity();
+        position.costBasis = snapshot.costBasis();
+        position.totalBought = snapshot.totalBought();
+        position.totalSold = snapshot.totalSold();
+        position.amountBought = snapshot.amountBought();
+        position.amountSold = snapshot.amountSold();
+        position.realizedProfitLoss = snapshot.realizedProfitLoss();
+        return position;
+    }
+
+    /**
+     * Fold in the aggregates of another position in the same symbol.
+     */
+    void add(PositionSnapshot snapshot) {
+        quantity += snapshot.quantity();
+        costBasis += snapshot.costBasis();
+        totalBought += snapshot.totalBought();
+        totalSold += snapshot.totalSold();
+        amountBought += snapshot.amountBought();
+        amountSold += snapshot.amountSold();
+        realizedProfitLoss += snapshot.realizedProfitLoss();
+    }
+
+    void onBuy(double amount, double total) {
+        quantity += amount;
+        costBasis += total;
+        totalBought += total;
+        amountBought += amount;
+    }
+
+    void onSell(double amount, double total) {
+        double averageCost = quantity > 0 ? costBasis / quantity : 0.0;
+        double soldCost = averageCost * Math.min(amount, quantity);
+
+        realizedProfitLoss += total - soldCost;
+        totalSold += total;
+        amountSold += amount;
+        quantity -= amount;
+        costBasis -= soldCost;
+        if (quantity <= 0) {
+            quantity = 0.0;
+            costBasis = 0.0;
+        }
+    }
+
+    PositionSnapshot snapshot(String crypto) {
+        return new PositionSnapshot(crypto, quantity, quantity > 0 ? costBasis / quantity : 0.0, costBasis,
+                totalBought, totalSold, amountBought, amountSold, realizedProfitLoss);
+    }
+}
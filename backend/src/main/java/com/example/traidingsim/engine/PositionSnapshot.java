@@ -0,0 +1,16 @@
+package com.example.traidingsim.engine;
+
+/**
+ * Copy of an account's running aggregates for one symbol.
+ */
+public record PositionSnapshot(String crypto, double quantity, double averageCost, double costBasis,
+                               double totalBought, double totalSold, double amountBought, double amountSold,
+                               double realizedProfitLoss) {
+
+    /**
+     * Profit or loss of the open quantity if it were sold at the given price.
+     */
+    public double unrealizedProfitLoss(double price) {
+        return quantity * price - costBasis;
+    }
+}
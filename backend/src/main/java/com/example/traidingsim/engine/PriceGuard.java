@@ -0,0 +1,20 @@
+package com.example.traidingsim.engine;
+
+/**
+ * Decides whether the {@link TradeEngine} may execute trades at the prices it currently holds.
+ */
+@FunctionalInterface
+public interface PriceGuard {
+
+    /**
+     * Guard that accepts every price, for engines that are not driven by a live feed.
+     */
+    PriceGuard NONE = (crypto, priceTimestamp) -> {
+    };
+
+    /**
+     * @param priceTimestamp Epoch millis at which the symbol's last price was received, or 0 if none has been.
+     * @throws com.example.traidingsim.exception.StalePriceException If trades in the symbol must not execute now.
+     */
+    void check(String crypto, long priceTimestamp);
+}
@@ -0,0 +1,87 @@
+package com.example.traidingsim.engine;
+
+import com.example.traidingsim.exception.CryptoNotFoundException;
+import com.example.traidingsim.marketdata.L2Book;
+import com.example.traidingsim.marketdata.OrderBooks;
+import com.example.traidingsim.marketdata.PriceBook;
+import com.example.traidingsim.marketdata.PriceQuote;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.model.enumeration.Type;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The market as an order batch sees it: the last price, order book and staleness of every symbol in the batch,
+ * read once before any of its orders executes, so all of them are validated and filled against the same prices.
+ * Last prices are read as of one moment of the {@link PriceBook}, and each order book is copied.
+ */
+final class PriceSnapshot {
+
+    private final Map<String, SymbolPrice> symbols;
+
+    private PriceSnapshot(Map<String, SymbolPrice> symbols) {
+        this.symbols = symbols;
+    }
+
+    static PriceSnapshot read(List<MarketOrder> orders, PriceBook priceBook, OrderBooks orderBooks,
+                              SymbolRegistry symbolRegistry, PriceGuard priceGuard) {
+        Map<String, Integer> symbolIds = new HashMap<>();
+        for (MarketOrder order : orders) {
+            symbolIds.computeIfAbsent(order.crypto(), symbolRegistry::resolve);
+        }
+        String[] cryptos = symbolIds.keySet().toArray(String[]::new);
+        int[] known = new int[cryptos.length];
+        PriceQuote[] quotes = new PriceQuote[cryptos.length];
+        for (int i = 0; i < cryptos.length; i++) {
+            // Unknown symbols read symbol 0 and are ignored below
+            known[i] = Math.max(symbolIds.get(cryptos[i]), 0);
+            quotes[i] = new PriceQuote();
+        }
+        priceBook.read(known, quotes);
+
+        Map<String, SymbolPrice> symbols = new HashMap<>(cryptos.length * 2);
+        for (int i = 0; i < cryptos.length; i++) {
+            int symbolId = symbolIds.get(cryptos[i]);
+            boolean priced = symbolId >= 0 && quotes[i].getSequence() > 0;
+            RuntimeException rejection = null;
+            if (symbolId < 0) {
+                rejection = new CryptoNotFoundException("No price available for " + cryptos[i]);
+            } else {
+                try {
+                    priceGuard.check(cryptos[i], priced ? quotes[i].getTimestamp() : 0);
+                } catch (RuntimeException e) {
+                    rejection = e;
+                }
+            }
+            symbols.put(cryptos[i], new SymbolPrice(priced ? quotes[i].getPrice() : Double.NaN,
+                    orderBooks.copyOf(symbolId), rejection));
+        }
+        return new PriceSnapshot(symbols);
+    }
+
+    /**
+     * Price of filling an order: the volume-weighted average price of walking the symbol's book, or its last price
+     * when there is no book data for it.
+     * @throws RuntimeException The exception of the {@link PriceGuard} if the symbol's price was stale, or a
+     * {@link CryptoNotFoundException} if there is no price for it.
+     */
+    double fillPrice(String crypto, double amount, Type type) {
+        SymbolPrice symbol = symbols.get(crypto);
+        if (symbol.rejection() != null) {
+            throw symbol.rejection();
+        }
+        double price = symbol.book() != null ? symbol.book().fillPrice(type == Type.BUY, amount) : Double.NaN;
+        if (Double.isNaN(price)) {
+            price = symbol.lastPrice();
+        }
+        if (Double.isNaN(price)) {
+            throw new CryptoNotFoundException("No price available for " + crypto);
+        }
+        return price;
+    }
+
+    private record SymbolPrice(double lastPrice, L2Book book, RuntimeException rejection) {
+    }
+}
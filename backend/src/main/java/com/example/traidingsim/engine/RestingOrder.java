@@ -0,0 +1,126 @@
+package com.example.traidingsim.engine;
+
+import com.example.traidingsim.model.enumeration.OrderStatus;
+import com.example.traidingsim.model.enumeration.OrderType;
+import com.example.traidingsim.model.enumeration.Type;
+
+/**
+ * An order waiting in the {@link OrderTriggerIndex} for the price of its symbol to cross its trigger price.
+ * <ul>
+ *     <li>{@code LIMIT}: buy at or below, or sell at or above, the price.</li>
+ *     <li>{@code STOP_LOSS}: sell once the price falls to, or buy once it rises to, the price.</li>
+ *     <li>{@code TAKE_PROFIT}: sell once the price rises to, or buy once it falls to, the price.</li>
+ * </ul>
+ * An order is {@code OPEN} while it rests, waits to be executed or waits to be retried, until it is closed as
+ * filled, rejected or cancelled. Closing synchronizes on the order, so whoever executes an order holds its monitor
+ * to keep it from being cancelled halfway.
+ */
+public class RestingOrder {
+
+    private final long id;
+    private final long accountId;
+    private final String crypto;
+    private final int symbolId;
+    private final OrderType type;
+    private final Type side;
+    private final double amount;
+    private final double price;
+    private final long createdAt;
+    private volatile OrderStatus status = OrderStatus.OPEN;
+    private volatile String reason;
+
+    /**
+     * Position in the heap holding the order, or -1 while it is not resting.
+     */
+    int heapIndex = -1;
+
+    public RestingOrder(long id, long accountId, String crypto, int symbolId, OrderType type, Type side,
+                        double amount, double price, long createdAt) {
+        this.id = id;
+        this.accountId = accountId;
+        this.crypto = crypto;
+        this.symbolId = symbolId;
+        this.type = type;
+        this.side = side;
+        this.amount = amount;
+        this.price = price;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Whether the order triggers when the price rises to its price, rather than when it falls to it.
+     */
+    public boolean triggersAbove() {
+        return switch (type) {
+            case LIMIT, TAKE_PROFIT -> side == Type.SELL;
+            case STOP_LOSS -> side == Type.BUY;
+        };
+    }
+
+    /**
+     * Whether the given market price has reached the order's price.
+     */
+    public boolean isTriggeredBy(double marketPrice) {
+        return triggersAbove() ? marketPrice >= price : marketPrice <= price;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public String getCrypto() {
+        return crypto;
+    }
+
+    public int getSymbolId() {
+        return symbolId;
+    }
+
+    public OrderType getType() {
+        return type;
+    }
+
+    public Type getSide() {
+        return side;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Why the order was rejected, or {@code null}.
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Close an open order.
+     * @return Whether the order was still open.
+     */
+    public synchronized boolean close(OrderStatus status, String reason) {
+        if (this.status != OrderStatus.OPEN) {
+            return false;
+        }
+        this.reason = reason;
+        this.status = status;
+        return true;
+    }
+}
@@ -0,0 +1,463 @@
+package com.example.traidingsim.engine;
+
+import com.example.traidingsim.exception.*;
+import com.example.traidingsim.marketdata.OrderBooks;
+import com.example.traidingsim.marketdata.PriceBook;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.model.enumeration.Type;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import static com.example.traidingsim.model.enumeration.Type.BUY;
+import static com.example.traidingsim.model.enumeration.Type.SELL;
+
+/**
+ * In-memory order execution engine. Account balances and holdings held here are the source of truth;
+ * every change is validated and applied under its account's lock and then handed to a {@link TradePersister},
+ * which makes it durable without the engine waiting on the database.
+ * Trades on different accounts never contend; trades on the same account are serialized, so the
+ * read-validate-write sequence cannot overdraw an account or lose a holdings update.
+ * Market orders fill at the volume-weighted average price of walking the symbol's {@link OrderBooks} book, or at
+ * the last traded price when there is no book data for the symbol.
+ * Trades are stamped with the time given by the engine's clock, the system clock unless a backtest drives the
+ * engine on the virtual time of recorded ticks. A {@link PriceGuard} rejects trades while the prices are stale,
+ * and a {@link TradeTimer} receives the duration of each phase of every executed trade.
+ * Batches of market orders execute on one account under a single lock acquisition, priced from one snapshot.
+ */
+public class TradeEngine {
+
+    private final PriceBook priceBook;
+    private final OrderBooks orderBooks;
+    private final SymbolRegistry symbolRegistry;
+    private final TradePersister persister;
+    private final LongSupplier clock;
+    private final PriceGuard priceGuard;
+    private final TradeTimer tradeTimer;
+    private final boolean timed;
+    private final Map<Long, AccountState> accounts = new ConcurrentHashMap<>();
+
+    public TradeEngine(PriceBook priceBook, SymbolRegistry symbolRegistry, TradePersister persister) {
+        this(priceBook, new OrderBooks(0), symbolRegistry, persister);
+    }
+
+    public TradeEngine(PriceBook priceBook, OrderBooks orderBooks, SymbolRegistry symbolRegistry,
+                       TradePersister persister) {
+        this(priceBook, orderBooks, symbolRegistry, persister, System::currentTimeMillis);
+    }
+
+    public TradeEngine(PriceBook priceBook, OrderBooks orderBooks, SymbolRegistry symbolRegistry,
+                       TradePersister persister, LongSupplier clock) {
+        this(priceBook, orderBooks, symbolRegistry, persister, clock, PriceGuard.NONE);
+    }
+
+    public TradeEngine(PriceBook priceBook, OrderBooks orderBooks, SymbolRegistry symbolRegistry,
+                       TradePersister persister, LongSupplier clock, PriceGuard priceGuard) {
+        this(priceBook, orderBooks, symbolRegistry, persister, clock, priceGuard, TradeTimer.NONE);
+    }
+
+    public TradeEngine(PriceBook priceBook, OrderBooks orderBooks, SymbolRegistry symbolRegistry,
+                       TradePersister persister, LongSupplier clock, PriceGuard priceGuard, TradeTimer tradeTimer) {
+        this.priceBook = priceBook;
+        this.orderBooks = orderBooks;
+        this.symbolRegistry = symbolRegistry;
+        this.persister = persister;
+        this.clock = clock;
+        this.priceGuard = priceGuard;
+        this.tradeTimer = tradeTimer;
+        this.timed = tradeTimer != TradeTimer.NONE;
+    }
+
+    /**
+     * Load an account's persisted state into the engine, replacing any state held for it.
+     */
+    public void loadAccount(long accountId, double balance, Map<String, Double> holdings) {
+        Map<String, Double> canonicalHoldings = canonical(holdings);
+        AccountState account = accounts.computeIfAbsent(accountId,
+                id -> new AccountState(id, balance, canonicalHoldings));
+        account.lock.lock();
+        try {
+            account.reset(balance, canonicalHoldings);
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    /**
+     * Open a new account with the given balance and no holdings.
+     * @return A future completed once the opening is durable.
+     */
+    public CompletableFuture<Void> openAccount(long accountId, double balance) {
+        AccountState account = accounts.computeIfAbsent(accountId, id -> new AccountState(id, balance, Map.of()));
+        account.lock.lock();
+        try {
+            account.reset(balance, Map.of());
+            return persister.accountOpened(account.snapshot());
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    /**
+     * Fold a previously persisted trade into an account's running aggregates without touching its balance
+     * or holdings, which were loaded as they stood after the trade.
+     */
+    public void restoreTrade(long accountId, String crypto, double amount, double total, Type type) {
+        AccountState account = getAccount(accountId);
+        account.lock.lock();
+        try {
+            Position position = account.getPosition(canonical(crypto));
+            if (type == BUY) {
+                position.onBuy(amount, total);
+            } else {
+                position.onSell(amount, total);
+            }
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    /**
+     * Re-apply a previously persisted trade to an account's balance, holdings and aggregates, without validating
+     * or persisting it again.
+     */
+    public void recoverTrade(TradeRecord trade) {
+        AccountState account = getAccount(trade.accountId());
+        account.lock.lock();
+        try {
+            apply(account, canonical(trade.crypto()), trade.amount(), trade.total(), trade.type());
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    /**
+     * Replace an account's state, including its aggregates, with a checkpoint taken earlier.
+     */
+    public void recoverAccount(AccountCheckpoint checkpoint) {
+        AccountSnapshot snapshot = checkpoint.account();
+        loadAccount(snapshot.accountId(), snapshot.balance(), snapshot.holdings());
+
+        AccountState account = getAccount(snapshot.accountId());
+        account.lock.lock();
+        try {
+            checkpoint.positions().forEach((crypto, position) -> account.restorePosition(canonical(crypto), position));
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    /**
+     * Capture the state of every account. Each account is captured under its own lock together with
+     * {@code position()} read at that moment, so the checkpoint of an account reflects exactly the changes
+     * persisted before that position.
+     */
+    public List<AccountCheckpoint> checkpoint(LongSupplier position) {
+        List<AccountCheckpoint> checkpoints = new ArrayList<>(accounts.size());
+        for (AccountState account : accounts.values()) {
+            account.lock.lock();
+            try {
+                checkpoints.add(new AccountCheckpoint(account.snapshot(), account.positionSnapshots(),
+                        position.getAsLong()));
+            } finally {
+                account.lock.unlock();
+            }
+        }
+        return checkpoints;
+    }
+
+    public boolean hasAccount(long accountId) {
+        return accounts.containsKey(accountId);
+    }
+
+    public Set<Long> getAccountIds() {
+        return Set.copyOf(accounts.keySet());
+    }
+
+    public TradeResult buy(long accountId, String crypto, double amount) {
+        return buy(accountId, crypto, amount, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Buy at a fill price no higher than {@code limit}.
+     * @throws LimitPriceException If filling the amount against the book would cost more than the limit per unit.
+     */
+    public TradeResult buy(long accountId, String crypto, double amount, double limit) {
+        long start = nanoTime();
+        validateAmount(amount);
+        String symbol = canonical(crypto);
+
+        AccountState account = getAccount(accountId);
+        account.lock.lock();
+        try {
+            long validated = nanoTime();
+            double price = getFillPrice(crypto, amount, BUY);
+            if (price > limit) {
+                throw new LimitPriceException("Buying " + amount + " " + crypto + " would fill at $" + price
+                        + ", above the limit of $" + limit);
+            }
+            long priced = nanoTime();
+            double totalCost = price * amount;
+
+            if (totalCost > account.getBalance()) {
+                throw new InsufficientFundsException("Insufficient funds. Your balance is $" + account.getBalance());
+            }
+
+            apply(account, symbol, amount, totalCost, BUY);
+            TradeResult result = execute(account, symbol, crypto, amount, price, totalCost, BUY);
+            recordPhases(BUY, start, validated, priced);
+            return result;
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    public TradeResult sell(long accountId, String crypto, double amount) {
+        return sell(accountId, crypto, amount, 0);
+    }
+
+    /**
+     * Sell at a fill price no lower than {@code limit}.
+     * @throws LimitPriceException If filling the amount against the book would return less than the limit per unit.
+     */
+    public TradeResult sell(long accountId, String crypto, double amount, double limit) {
+        long start = nanoTime();
+        validateAmount(amount);
+        String symbol = canonical(crypto);
+
+        AccountState account = getAccount(accountId);
+        account.lock.lock();
+        try {
+            if (account.getHolding(symbol) < amount) {
+                throw new InsufficientHoldingsException("Insufficient holdings of " + crypto);
+            }
+
+            long validated = nanoTime();
+            double price = getFillPrice(crypto, amount, SELL);
+            if (price < limit) {
+                throw new LimitPriceException("Selling " + amount + " " + crypto + " would fill at $" + price
+                        + ", below the limit of $" + limit);
+            }
+            long priced = nanoTime();
+            double totalRevenue = price * amount;
+
+            apply(account, symbol, amount, totalRevenue, SELL);
+            TradeResult result = execute(account, symbol, crypto, amount, price, totalRevenue, SELL);
+            recordPhases(SELL, start, validated, priced);
+            return result;
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    /**
+     * Execute a batch of market orders on one account, in order, under a single acquisition of its lock. Every order
+     * is validated and filled against one {@link PriceSnapshot} read before the first of them, and an order that
+     * cannot execute is rejected without affecting the others. The executed trades share one timestamp and are
+     * handed to the persister together.
+     * @return The outcome of every order, in batch order.
+     */
+    public BatchResult executeBatch(long accountId, List<MarketOrder> orders) {
+        AccountState account = getAccount(accountId);
+        PriceSnapshot prices = PriceSnapshot.read(orders, priceBook, orderBooks, symbolRegistry, priceGuard);
+        List<MarketOrderResult> results = new ArrayList<>(orders.size());
+        List<TradeRecord> trades = new ArrayList<>(orders.size());
+
+        account.lock.lock();
+        try {
+            long timestamp = clock.getAsLong();
+            for (MarketOrder order : orders) {
+                try {
+                    TradeRecord trade = fill(account, order, prices, timestamp);
+                    trades.add(trade);
+                    results.add(MarketOrderResult.executed(order, trade.price(), trade.total()));
+                } catch (InvalidAmountException | InsufficientFundsException | InsufficientHoldingsException
+                         | CryptoNotFoundException | StalePriceException e) {
+                    results.add(MarketOrderResult.rejected(order, e));
+                }
+            }
+            CompletableFuture<Void> persisted = trades.isEmpty()
+                    ? CompletableFuture.completedFuture(null)
+                    : persister.tradesExecuted(trades, account.snapshot());
+            return new BatchResult(results, persisted);
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    /**
+     * Reset an account to the given balance with no holdings.
+     * @return A future completed once the reset is durable.
+     */
+    public CompletableFuture<Void> reset(long accountId, double balance) {
+        AccountState account = accounts.computeIfAbsent(accountId, id -> new AccountState(id, balance, Map.of()));
+        account.lock.lock();
+        try {
+            account.reset(balance, Map.of());
+            return persister.accountReset(account.snapshot());
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    /**
+     * Consistent copy of an account's balance and holdings.
+     */
+    public AccountSnapshot snapshot(long accountId) {
+        AccountState account = getAccount(accountId);
+        account.lock.lock();
+        try {
+            return account.snapshot();
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    public double balance(long accountId) {
+        AccountState account = getAccount(accountId);
+        account.lock.lock();
+        try {
+            return account.getBalance();
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    public double holding(long accountId, String crypto) {
+        AccountState account = getAccount(accountId);
+        account.lock.lock();
+        try {
+            return account.getHolding(canonical(crypto));
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    /**
+     * Running per-symbol aggregates of an account, keyed by symbol.
+     */
+    public Map<String, PositionSnapshot> positions(long accountId) {
+        AccountState account = getAccount(accountId);
+        account.lock.lock();
+        try {
+            return account.positionSnapshots();
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    /**
+     * @see SymbolRegistry#canonical(String)
+     */
+    private String canonical(String crypto) {
+        return symbolRegistry.canonical(crypto);
+    }
+
+    private Map<String, Double> canonical(Map<String, Double> holdings) {
+        Map<String, Double> canonicalHoldings = new HashMap<>(holdings.size() * 2);
+        holdings.forEach((crypto, amount) -> canonicalHoldings.merge(canonical(crypto), amount, Double::sum));
+        return canonicalHoldings;
+    }
+
+    private static void apply(AccountState account, String crypto, double amount, double total, Type type) {
+        if (type == BUY) {
+            account.setBalance(account.getBalance() - total);
+            account.setHolding(crypto, account.getHolding(crypto) + amount);
+            account.getPosition(crypto).onBuy(amount, total);
+        } else {
+            account.setBalance(account.getBalance() + total);
+            account.setHolding(crypto, account.getHolding(crypto) - amount);
+            account.getPosition(crypto).onSell(amount, total);
+        }
+    }
+
+    /**
+     * Record a trade of the canonical {@code symbol}; the result keeps the {@code crypto} as requested.
+     */
+    private TradeResult execute(AccountState account, String symbol, String crypto, double amount, double price,
+                                double total, Type type) {
+        TradeRecord trade = new TradeRecord(account.getAccountId(), symbol, amount, price, total, type,
+                clock.getAsLong());
+        return new TradeResult(crypto, amount, price, total, type, persister.tradeExecuted(trade, account.snapshot()));
+    }
+
+    /**
+     * Validate and apply one order of a batch, with the same checks in the same order as {@link #buy} and
+     * {@link #sell}.
+     */
+    private TradeRecord fill(AccountState account, MarketOrder order, PriceSnapshot prices, long timestamp) {
+        validateAmount(order.amount());
+        String symbol = canonical(order.crypto());
+        if (order.type() == SELL && account.getHolding(symbol) < order.amount()) {
+            throw new InsufficientHoldingsException("Insufficient holdings of " + order.crypto());
+        }
+
+        double price = prices.fillPrice(order.crypto(), order.amount(), order.type());
+        double total = price * order.amount();
+        if (order.type() == BUY && total > account.getBalance()) {
+            throw new InsufficientFundsException("Insufficient funds. Your balance is $" + account.getBalance());
+        }
+
+        apply(account, symbol, order.amount(), total, order.type());
+        return new TradeRecord(account.getAccountId(), symbol, order.amount(), price, total, order.type(), timestamp);
+    }
+
+    private long nanoTime() {
+        return timed ? System.nanoTime() : 0;
+    }
+
+    private void recordPhases(Type type, long start, long validated, long priced) {
+        if (timed) {
+            tradeTimer.record(type, validated - start, priced - validated, System.nanoTime() - priced);
+        }
+    }
+
+    private AccountState getAccount(long accountId) {
+        AccountState account = accounts.get(accountId);
+        if (account == null) {
+            throw new AccountNotFoundException("Account not found");
+        }
+        return account;
+    }
+
+    /**
+     * Latest price of a symbol, or {@code NaN} if none has been received.
+     */
+    public double livePrice(String crypto) {
+        int symbolId = symbolRegistry.resolve(crypto);
+        return symbolId >= 0 ? priceBook.price(symbolId) : Double.NaN;
+    }
+
+    private double getFillPrice(String crypto, double amount, Type type) {
+        int symbolId = symbolRegistry.resolve(crypto);
+        // Only registered symbols and their aliases trade, which bounds their length for the persister
+        if (symbolId < 0) {
+            throw new CryptoNotFoundException("No price available for " + crypto);
+        }
+        priceGuard.check(crypto, priceBook.timestamp(symbolId));
+        double price = orderBooks.fillPrice(symbolId, type == BUY, amount);
+        if (Double.isNaN(price)) {
+            price = priceBook.price(symbolId);
+        }
+        if (Double.isNaN(price)) {
+            throw new CryptoNotFoundException("No price available for " + crypto);
+        }
+        return price;
+    }
+
+    /**
+     * Rejects amounts that are not positive and finite. NaN compares false to everything, so it fails the check
+     * instead of slipping past the holdings and funds checks.
+     */
+    private static void validateAmount(double amount) {
+        if (!(amount > 0) || Double.isInfinite(amount)) {
+            throw new InvalidAmountException("Amount must be greater than 0");
+        }
+    }
+}
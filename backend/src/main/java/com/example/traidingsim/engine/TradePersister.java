@@ -0,0 +1,75 @@
+package com.example.traidingsim.engine;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Receives every change applied by the {@link TradeEngine} so it can be made durable.
+ * Calls are made in execution order while the engine holds the account's lock, so implementations must only
+ * enqueue work and never block on I/O. They may wait for room in a bounded queue, which pushes back on the trades
+ * of that account while the writer is behind.
+ */
+public interface TradePersister {
+
+    /**
+     * Persister that keeps nothing, for engines whose state only lives in memory.
+     */
+    TradePersister NONE = new TradePersister() {
+        @Override
+        public CompletableFuture<Void> tradeExecuted(TradeRecord trade, AccountSnapshot account) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> accountReset(AccountSnapshot account) {
+            return CompletableFuture.completedFuture(null);
+        }
+    };
+
+    /**
+     * Whether {@link #recover} restores the whole engine state on its own, so the accounts and their trade history
+     * need not be loaded from the database first.
+     */
+    default boolean recoversState() {
+        return false;
+    }
+
+    /**
+     * Restore into the engine any state this persister holds beyond what was loaded from the database.
+     * Called once at startup, after the database state has been loaded unless {@link #recoversState()}, and before any
+     * trade is executed.
+     */
+    default void recover(TradeEngine engine) {
+    }
+
+    /**
+     * @return A future completed once the new account is durable. The database persister has nothing to do here,
+     * the account row is created before the account is opened in the engine.
+     */
+    default CompletableFuture<Void> accountOpened(AccountSnapshot account) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * @return A future completed once the trade and the account state after it are durable.
+     */
+    CompletableFuture<Void> tradeExecuted(TradeRecord trade, AccountSnapshot account);
+
+    /**
+     * Trades executed as one batch on one account, in order; {@code account} is its state after the last of them.
+     * Persisters that write in batches should store them in a single write.
+     * @return A future completed once the trades and the account state after them are durable.
+     */
+    default CompletableFuture<Void> tradesExecuted(List<TradeRecord> trades, AccountSnapshot account) {
+        CompletableFuture<?>[] persisted = new CompletableFuture<?>[trades.size()];
+        for (int i = 0; i < trades.size(); i++) {
+            persisted[i] = tradeExecuted(trades.get(i), account);
+        }
+        return CompletableFuture.allOf(persisted);
+    }
+
+    /**
+     * @return A future completed once the reset account state is durable and its trades have been removed.
+     */
+    CompletableFuture<Void> accountReset(AccountSnapshot account);
+}
@@ -0,0 +1,10 @@
+package com.example.traidingsim.engine;
+
+import com.example.traidingsim.model.enumeration.Type;
+
+/**
+ * A trade applied by the {@link TradeEngine}, as handed to the {@link TradePersister}.
+ */
+public record TradeRecord(long accountId, String crypto, double amount, double price, double total, Type type,
+                          long timestamp) {
+}
@@ -0,0 +1,13 @@
+package com.example.traidingsim.engine;
+
+import com.example.traidingsim.model.enumeration.Type;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Outcome of a trade. {@code persisted} completes once the trade is durable according to the configured
+ * durability mode; in asynchronous mode it is already complete.
+ */
+public record TradeResult(String crypto, double amount, double price, double total, Type type,
+                          CompletableFuture<Void> persisted) {
+}
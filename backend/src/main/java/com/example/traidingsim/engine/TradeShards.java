@@ -0,0 +1,53 @@
+package com.example.traidingsim.engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fixed set of single-threaded workers that background trade processing, such as triggered resting orders, is
+ * partitioned over by account ID. All work for one account runs on the same shard, in submission order, and
+ * unrelated accounts on other shards run in parallel. Requests that wait for their trade execute on their own thread
+ * under the account's lock in the {@link TradeEngine} instead.
+ */
+public class TradeShards implements AutoCloseable {
+
+    private final ExecutorService[] shards;
+
+    public TradeShards(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be greater than 0");
+        }
+        shards = new ExecutorService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            String name = "trade-shard-" + i;
+            shards[i] = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public int shardOf(long accountId) {
+        return (int) Math.floorMod(Long.hashCode(accountId) * 0x9E3779B9L, shards.length);
+    }
+
+    /**
+     * Run a task on the account's shard without waiting for it.
+     */
+    public CompletableFuture<Void> submit(long accountId, Runnable task) {
+        return CompletableFuture.runAsync(task, shards[shardOf(accountId)]);
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService shard : shards) {
+            shard.shutdown();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.traidingsim.engine;
+
+import com.example.traidingsim.model.enumeration.Type;
+
+/**
+ * Receives the duration of each phase of every trade the {@link TradeEngine} executes.
+ */
+@FunctionalInterface
+public interface TradeTimer {
+
+    /**
+     * Timer that records nothing; the engine then does not read the clock at all.
+     */
+    TradeTimer NONE = (type, validateNanos, priceNanos, applyNanos) -> {
+    };
+
+    /**
+     * Called on the trading thread after the trade has been handed to the persister, so implementations must not block.
+     * @param validateNanos Amount check, account lookup, waiting for the account's lock and, for sells, the holdings
+     *                      check.
+     * @param priceNanos Price guard and fill price from the book.
+     * @param applyNanos Funds check for buys, state update and hand-off to the {@link TradePersister}.
+     */
+    void record(Type type, long validateNanos, long priceNanos, long applyNanos);
+}
@@ -0,0 +1,107 @@
+package com.example.traidingsim.engine;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of resting orders keyed by a primitive {@code double}, ties broken by order ID so orders at
+ * the same price trigger first come, first served. Keys and IDs live in parallel arrays, so sifting compares
+ * primitives without touching the order objects. Each order records its position, so it can be removed in
+ * O(log n). Not thread-safe.
+ */
+class TriggerHeap {
+
+    private double[] keys = new double[16];
+    private long[] ids = new long[16];
+    private RestingOrder[] orders = new RestingOrder[16];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void add(double key, RestingOrder order) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+            orders = Arrays.copyOf(orders, size * 2);
+        }
+        set(size, key, order.getId(), order);
+        siftUp(size++);
+    }
+
+    void remove(RestingOrder order) {
+        int index = order.heapIndex;
+        order.heapIndex = -1;
+        int last = --size;
+        if (index != last) {
+            set(index, keys[last], ids[last], orders[last]);
+            orders[last] = null;
+            if (!siftUp(index)) {
+                siftDown(index);
+            }
+        } else {
+            orders[last] = null;
+        }
+    }
+
+    /**
+     * Remove and return the order with the smallest key if that key is at most {@code threshold}.
+     * @return The order, or {@code null} if there is none.
+     */
+    RestingOrder pollAtMost(double threshold) {
+        if (size == 0 || keys[0] > threshold) {
+            return null;
+        }
+        RestingOrder order = orders[0];
+        remove(order);
+        return order;
+    }
+
+    private boolean siftUp(int index) {
+        int start = index;
+        double key = keys[index];
+        long id = ids[index];
+        RestingOrder order = orders[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!less(key, id, keys[parent], ids[parent])) {
+                break;
+            }
+            set(index, keys[parent], ids[parent], orders[parent]);
+            index = parent;
+        }
+        set(index, key, id, order);
+        return index != start;
+    }
+
+    private void siftDown(int index) {
+        double key = keys[index];
+        long id = ids[index];
+        RestingOrder order = orders[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && less(keys[right], ids[right], keys[child], ids[child])) {
+                child = right;
+            }
+            if (!less(keys[child], ids[child], key, id)) {
+                break;
+            }
+            set(index, keys[child], ids[child], orders[child]);
+            index = child;
+        }
+        set(index, key, id, order);
+    }
+
+    private void set(int index, double key, long id, RestingOrder order) {
+        keys[index] = key;
+        ids[index] = id;
+        orders[index] = order;
+        order.heapIndex = index;
+    }
+
+    private static boolean less(double key, long id, double otherKey, long otherId) {
+        return key < otherKey || (key == otherKey && id < otherId);
+    }
+}
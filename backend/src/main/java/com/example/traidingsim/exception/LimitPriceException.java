@@ -0,0 +1,7 @@
+package com.example.traidingsim.exception;
+
+public class LimitPriceException extends RuntimeException {
+    public LimitPriceException(String message) {
+        super(message);
+    }
+}
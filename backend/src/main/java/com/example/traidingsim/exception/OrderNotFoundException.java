@@ -0,0 +1,7 @@
+package com.example.traidingsim.exception;
+
+public class OrderNotFoundException extends RuntimeException {
+    public OrderNotFoundException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.example.traidingsim.exception;
+
+public class StrategyNotFoundException extends RuntimeException {
+    public StrategyNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.traidingsim.journal;
+
+import com.example.traidingsim.engine.TradeRecord;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.model.enumeration.Type;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One fixed-size journal record, reused while reading a journal.
+ * <p>
+ * Layout (64 bytes, little-endian): {@code u8 kind}, {@code u8 crypto length}, 6 reserved bytes,
+ * {@code i64 account id}, {@code i64 timestamp}, {@code f64 amount}, {@code f64 price},
+ * {@code f64 total} (the new balance for {@code OPEN} and {@code RESET}), 15 bytes of ASCII crypto symbol and
+ * one reserved byte. A kind of 0 marks a slot that has not been written.
+ */
+public class JournalRecord {
+
+    public static final int SIZE = 64;
+    public static final int MAX_CRYPTO_LENGTH = SymbolRegistry.MAX_SYMBOL_LENGTH;
+
+    public static final byte EMPTY = 0;
+    public static final byte OPEN = 1;
+    public static final byte BUY = 2;
+    public static final byte SELL = 3;
+    public static final byte RESET = 4;
+
+    private static final int KIND = 0;
+    private static final int CRYPTO_LENGTH = 1;
+    private static final int ACCOUNT_ID = 8;
+    private static final int TIMESTAMP = 16;
+    private static final int AMOUNT = 24;
+    private static final int PRICE = 32;
+    private static final int TOTAL = 40;
+    private static final int CRYPTO = 48;
+
+    private final byte[] cryptoBytes = new byte[MAX_CRYPTO_LENGTH];
+
+    private long sequence;
+    private byte kind;
+    private long accountId;
+    private long timestamp;
+    private double amount;
+    private double price;
+    private double total;
+    private String crypto;
+
+    /**
+     * Write a record at {@code offset}. The kind byte is written last, so a record cut short by a crash reads as
+     * an empty slot.
+     */
+    static void write(ByteBuffer buffer, int offset, byte kind, long accountId, String crypto, double amount,
+                      double price, double total, long timestamp) {
+        int cryptoLength = 0;
+        if (crypto != null) {
+            cryptoLength = crypto.length();
+            if (cryptoLength > MAX_CRYPTO_LENGTH) {
+                throw new IllegalArgumentException("Symbol too long for the journal: " + crypto);
+            }
+            for (int i = 0; i < cryptoLength; i++) {
+                buffer.put(offset + CRYPTO + i, (byte) crypto.charAt(i));
+            }
+        }
+        buffer.put(offset + CRYPTO_LENGTH, (byte) cryptoLength);
+        buffer.putLong(offset + ACCOUNT_ID, accountId);
+        buffer.putLong(offset + TIMESTAMP, timestamp);
+        buffer.putDouble(offset + AMOUNT, amount);
+        buffer.putDouble(offset + PRICE, price);
+        buffer.putDouble(offset + TOTAL, total);
+        buffer.put(offset + KIND, kind);
+    }
+
+    static byte kindAt(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + KIND);
+    }
+
+    void read(ByteBuffer buffer, int offset, long sequence) {
+        this.sequence = sequence;
+        kind = buffer.get(offset + KIND);
+        accountId = buffer.getLong(offset + ACCOUNT_ID);
+        timestamp = buffer.getLong(offset + TIMESTAMP);
+        amount = buffer.getDouble(offset + AMOUNT);
+        price = buffer.getDouble(offset + PRICE);
+        total = buffer.getDouble(offset + TOTAL);
+        int cryptoLength = buffer.get(offset + CRYPTO_LENGTH);
+        buffer.get(offset + CRYPTO, cryptoBytes, 0, cryptoLength);
+        crypto = cryptoLength > 0 ? new String(cryptoBytes, 0, cryptoLength, StandardCharsets.US_ASCII) : null;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public byte getKind() {
+        return kind;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public TradeRecord toTradeRecord() {
+        return new TradeRecord(accountId, crypto, amount, price, total, kind == BUY ? Type.BUY : Type.SELL, timestamp);
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.traidingsim.journal;
+
+import com.example.traidingsim.engine.AccountCheckpoint;
+import com.example.traidingsim.engine.AccountSnapshot;
+import com.example.traidingsim.engine.TradeEngine;
+import com.example.traidingsim.engine.TradePersister;
+import com.example.traidingsim.engine.TradeRecord;
+import com.example.traidingsim.model.enumeration.Type;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event-sourced {@link TradePersister}. Every account change is appended to a memory-mapped {@link TradeJournal},
+ * which is the source of truth, and acknowledged as soon as it has been appended; it is then handed to a delegate
+ * persister that maintains the database as a query projection.
+ * A snapshot of the engine is taken after recovery and each time the journal rolls to a new segment, after which
+ * older segments and snapshots are deleted. Recovery loads the latest snapshot and replays the records after it.
+ */
+@Slf4j
+public class JournalTradePersister implements TradePersister, AutoCloseable {
+
+    private final TradeJournal journal;
+    private final SnapshotStore snapshots;
+    private final TradePersister delegate;
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile TradeEngine engine;
+
+    public JournalTradePersister(Path directory, int segmentRecords, boolean fsync, TradePersister delegate) {
+        this.journal = new TradeJournal(directory, segmentRecords, fsync, this::segmentRolled);
+        this.snapshots = new SnapshotStore(directory);
+        this.delegate = delegate;
+    }
+
+    /**
+     * Once a snapshot has been written, the snapshot and the journal after it hold the state of every account.
+     * Before that, on the first start in journal mode, the state is loaded from the database and snapshotted by
+     * {@link #recover}.
+     */
+    @Override
+    public boolean recoversState() {
+        try {
+            return snapshots.exists();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Restore the engine from the latest snapshot and the journal records after it, then open the journal
+     * for appending.
+     */
+    @Override
+    public void recover(TradeEngine engine) {
+        Optional<SnapshotStore.Snapshot> snapshot = readLatestSnapshot();
+        long start = snapshot.map(SnapshotStore.Snapshot::sequence).orElse(0L);
+        Map<Long, Long> positions = new HashMap<>();
+        snapshot.ifPresent(latest -> {
+            for (AccountCheckpoint checkpoint : latest.accounts()) {
+                engine.recoverAccount(checkpoint);
+                positions.put(checkpoint.account().accountId(), checkpoint.position());
+            }
+        });
+
+        long[] replayed = new long[1];
+        journal.open(start, record -> {
+            if (record.getSequence() < positions.getOrDefault(record.getAccountId(), start)) {
+                return;
+            }
+            switch (record.getKind()) {
+                case JournalRecord.OPEN, JournalRecord.RESET ->
+                        engine.loadAccount(record.getAccountId(), record.getTotal(), Map.of());
+                case JournalRecord.BUY, JournalRecord.SELL -> engine.recoverTrade(record.toTradeRecord());
+                default -> throw new IllegalStateException("Unknown journal record kind " + record.getKind()
+                        + " at sequence " + record.getSequence());
+            }
+            replayed[0]++;
+        });
+        log.info("Recovered {} accounts from the journal snapshot at {} and {} journal records",
+                positions.size(), start, replayed[0]);
+
+        this.engine = engine;
+        snapshot();
+    }
+
+    @Override
+    public CompletableFuture<Void> accountOpened(AccountSnapshot account) {
+        journal.append(JournalRecord.OPEN, account.accountId(), null, 0, 0, account.balance(),
+                System.currentTimeMillis());
+        delegate.accountOpened(account);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> tradeExecuted(TradeRecord trade, AccountSnapshot account) {
+        append(trade);
+        delegate.tradeExecuted(trade, account);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> tradesExecuted(List<TradeRecord> trades, AccountSnapshot account) {
+        trades.forEach(this::append);
+        delegate.tradesExecuted(trades, account);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> accountReset(AccountSnapshot account) {
+        journal.append(JournalRecord.RESET, account.accountId(), null, 0, 0, account.balance(),
+                System.currentTimeMillis());
+        delegate.accountReset(account);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        snapshotExecutor.shutdown();
+        snapshotExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        journal.close();
+    }
+
+    long nextSequence() {
+        return journal.nextSequence();
+    }
+
+    private void append(TradeRecord trade) {
+        journal.append(trade.type() == Type.BUY ? JournalRecord.BUY : JournalRecord.SELL, trade.accountId(),
+                trade.crypto(), trade.amount(), trade.price(), trade.total(), trade.timestamp());
+    }
+
+    private void segmentRolled(long segmentStart) {
+        if (engine != null) {
+            snapshotExecutor.execute(this::snapshot);
+        }
+    }
+
+    /**
+     * Write a snapshot of the engine, then delete what it makes redundant. Every account is captured together
+     * with the journal position at that moment, so the snapshot is complete from the position read before any
+     * account was captured.
+     */
+    private void snapshot() {
+        try {
+            long start = journal.nextSequence();
+            snapshots.write(new SnapshotStore.Snapshot(start, engine.checkpoint(journal::nextSequence)));
+            snapshots.deleteBefore(start);
+            journal.deleteBefore(start);
+            log.debug("Wrote journal snapshot at {}", start);
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Failed to write a journal snapshot", e);
+        }
+    }
+
+    private Optional<SnapshotStore.Snapshot> readLatestSnapshot() {
+        try {
+            return snapshots.readLatest();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.traidingsim.journal;
+
+import com.example.traidingsim.engine.AccountCheckpoint;
+import com.example.traidingsim.engine.AccountSnapshot;
+import com.example.traidingsim.engine.PositionSnapshot;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Stores engine checkpoints as {@code snapshot-<sequence>.dat} files, where {@code sequence} is the journal
+ * sequence from which the checkpoint is complete: replaying every later record on top of it restores the engine.
+ * A snapshot is written to a temporary file and moved into place, so a partly written snapshot is never read.
+ */
+public class SnapshotStore {
+
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".dat";
+    private static final int VERSION = 1;
+
+    private final Path directory;
+
+    public SnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * A checkpoint read back from disk.
+     * @param sequence Journal sequence at which the checkpoint was started; no account in it is older than that.
+     */
+    public record Snapshot(long sequence, List<AccountCheckpoint> accounts) {
+    }
+
+    public void write(Snapshot snapshot) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(PREFIX + snapshot.sequence() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(VERSION);
+            out.writeLong(snapshot.sequence());
+            out.writeInt(snapshot.accounts().size());
+            for (AccountCheckpoint checkpoint : snapshot.accounts()) {
+                AccountSnapshot account = checkpoint.account();
+                out.writeLong(account.accountId());
+                out.writeLong(checkpoint.position());
+                out.writeDouble(account.balance());
+                out.writeInt(account.holdings().size());
+                for (Map.Entry<String, Double> holding : account.holdings().entrySet()) {
+                    out.writeUTF(holding.getKey());
+                    out.writeDouble(holding.getValue());
+                }
+                out.writeInt(checkpoint.positions().size());
+                for (PositionSnapshot position : checkpoint.positions().values()) {
+                    out.writeUTF(position.crypto());
+                    out.writeDouble(position.quantity());
+                    out.writeDouble(position.averageCost());
+                    out.writeDouble(position.costBasis());
+                    out.writeDouble(position.totalBought());
+                    out.writeDouble(position.totalSold());
+                    out.writeDouble(position.amountBought());
+                    out.writeDouble(position.amountSold());
+                    out.writeDouble(position.realizedProfitLoss());
+                }
+            }
+        }
+        Files.move(temporary, path(snapshot.sequence()), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return The most recent snapshot, if any.
+     */
+    public Optional<Snapshot> readLatest() throws IOException {
+        List<Long> sequences = sequences();
+        if (sequences.isEmpty()) {
+            return Optional.empty();
+        }
+        long latest = sequences.get(sequences.size() - 1);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path(latest))))) {
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            long sequence = in.readLong();
+            int accountCount = in.readInt();
+            List<AccountCheckpoint> accounts = new ArrayList<>(accountCount);
+            for (int i = 0; i < accountCount; i++) {
+                long accountId = in.readLong();
+                long position = in.readLong();
+                double balance = in.readDouble();
+                int holdingCount = in.readInt();
+                Map<String, Double> holdings = new HashMap<>(holdingCount * 2);
+                for (int j = 0; j < holdingCount; j++) {
+                    holdings.put(in.readUTF(), in.readDouble());
+                }
+                int positionCount = in.readInt();
+                Map<String, PositionSnapshot> positions = new HashMap<>(positionCount * 2);
+                for (int j = 0; j < positionCount; j++) {
+                    PositionSnapshot snapshot = new PositionSnapshot(in.readUTF(), in.readDouble(), in.readDouble(),
+                            in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(),
+                            in.readDouble());
+                    positions.put(snapshot.crypto(), snapshot);
+                }
+                accounts.add(new AccountCheckpoint(new AccountSnapshot(accountId, balance, holdings), positions,
+                        position));
+            }
+            return Optional.of(new Snapshot(sequence, accounts));
+        }
+    }
+
+    /**
+     * Whether any snapshot has been written.
+     */
+    public boolean exists() throws IOException {
+        return !sequences().isEmpty();
+    }
+
+    /**
+     * Delete the snapshots older than the one at {@code sequence}.
+     */
+    public void deleteBefore(long sequence) throws IOException {
+        for (long older : sequences()) {
+            if (older < sequence) {
+                Files.deleteIfExists(path(older));
+            }
+        }
+    }
+
+    private List<Long> sequences() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path path(long sequence) {
+        return directory.resolve(PREFIX + sequence + SUFFIX);
+    }
+}
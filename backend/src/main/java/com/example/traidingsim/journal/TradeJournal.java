@@ -0,0 +1,184 @@
+package com.example.traidingsim.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of fixed-size {@link JournalRecord}s in memory-mapped segment files of
+ * {@code segmentRecords} records each. Every record has a global sequence number: the start sequence of its
+ * segment, which is part of the file name, plus its index in the segment.
+ * An append is a copy into the mapped file, visible to the OS as soon as it returns, so it survives a crash of the
+ * process; with {@code fsync} it is also forced to disk before returning.
+ */
+public class TradeJournal implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final boolean fsync;
+    private final LongConsumer onRoll;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long segmentStart;
+    private int index;
+
+    /**
+     * @param onRoll Called with the start sequence of every new segment opened once the journal is in use.
+     */
+    public TradeJournal(Path directory, int segmentRecords, boolean fsync, LongConsumer onRoll) {
+        if (segmentRecords <= 0) {
+            throw new IllegalArgumentException("Segment size must be greater than 0");
+        }
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.fsync = fsync;
+        this.onRoll = onRoll;
+    }
+
+    /**
+     * Read every record from {@code fromSequence} on, in order, then position the journal after the last one.
+     */
+    public synchronized void open(long fromSequence, Consumer<JournalRecord> replay) {
+        try {
+            Files.createDirectories(directory);
+            JournalRecord record = new JournalRecord();
+            List<Long> segments = segmentStarts();
+            for (long start : segments) {
+                if (start + segmentRecords <= fromSequence) {
+                    continue;
+                }
+                map(start);
+                index = 0;
+                while (index < segmentRecords && JournalRecord.kindAt(buffer, offset(index)) != JournalRecord.EMPTY) {
+                    if (start + index >= fromSequence) {
+                        record.read(buffer, offset(index), start + index);
+                        replay.accept(record);
+                    }
+                    index++;
+                }
+            }
+            if (channel == null) {
+                map(fromSequence);
+                index = 0;
+            } else if (index == segmentRecords) {
+                roll();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sequence number the next appended record will get.
+     */
+    public synchronized long nextSequence() {
+        return segmentStart + index;
+    }
+
+    /**
+     * Append one record.
+     * @return The sequence number of the record.
+     */
+    public synchronized long append(byte kind, long accountId, String crypto, double amount, double price,
+                                    double total, long timestamp) {
+        if (buffer == null) {
+            throw new IllegalStateException("Journal is not open");
+        }
+        int offset = offset(index);
+        JournalRecord.write(buffer, offset, kind, accountId, crypto, amount, price, total, timestamp);
+        if (fsync) {
+            buffer.force(offset, JournalRecord.SIZE);
+        }
+        long sequence = segmentStart + index++;
+        if (index == segmentRecords) {
+            roll();
+        }
+        return sequence;
+    }
+
+    /**
+     * Delete the segments whose records all come before {@code sequence}.
+     */
+    public synchronized void deleteBefore(long sequence) {
+        try {
+            for (long start : segmentStarts()) {
+                if (start + segmentRecords <= sequence && start != segmentStart) {
+                    Files.deleteIfExists(segmentPath(start));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        unmap();
+    }
+
+    private void roll() {
+        long start = segmentStart + segmentRecords;
+        try {
+            map(start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        index = 0;
+        onRoll.accept(start);
+    }
+
+    private void map(long start) throws IOException {
+        unmap();
+        channel = FileChannel.open(segmentPath(start), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * JournalRecord.SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        segmentStart = start;
+    }
+
+    private void unmap() {
+        if (channel == null) {
+            return;
+        }
+        buffer.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        channel = null;
+        buffer = null;
+    }
+
+    private List<Long> segmentStarts() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long start) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, start, SEGMENT_SUFFIX));
+    }
+
+    private static int offset(int index) {
+        return index * JournalRecord.SIZE;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.traidingsim.logging;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps a logger for messages on hot paths: at most {@code limit} messages are logged per interval and the rest
+ * are only counted. The first message logged after messages were dropped reports how many were dropped.
+ * Thread safe and lock free, so many trade threads can share one instance.
+ */
+public class RateLimitedLogger {
+
+    private final Logger logger;
+    private final int limit;
+    private final long intervalMillis;
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicInteger logged = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public RateLimitedLogger(Logger logger, int limit, long intervalMillis) {
+        this.logger = logger;
+        this.limit = limit;
+        this.intervalMillis = intervalMillis;
+    }
+
+    public void info(String format, Object... arguments) {
+        if (logger.isInfoEnabled() && acquire()) {
+            logger.info(format, arguments);
+        }
+    }
+
+    public void warn(String format, Object... arguments) {
+        if (logger.isWarnEnabled() && acquire()) {
+            logger.warn(format, arguments);
+        }
+    }
+
+    public void error(String format, Object... arguments) {
+        if (logger.isErrorEnabled() && acquire()) {
+            logger.error(format, arguments);
+        }
+    }
+
+    /**
+     * Messages dropped since the last report.
+     */
+    public long getSuppressed() {
+        return suppressed.get();
+    }
+
+    private boolean acquire() {
+        long now = System.currentTimeMillis();
+        long start = windowStart.get();
+        if (now - start >= intervalMillis && windowStart.compareAndSet(start, now)) {
+            logged.set(0);
+        }
+        if (logged.incrementAndGet() > limit) {
+            suppressed.incrementAndGet();
+            return false;
+        }
+        long dropped = suppressed.getAndSet(0);
+        if (dropped > 0) {
+            logger.warn("{} similar messages were not logged, at most {} are logged every {} ms", dropped, limit,
+                    intervalMillis);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.traidingsim.mapper;
+
+import com.example.traidingsim.engine.BatchResult;
+import com.example.traidingsim.engine.MarketOrder;
+import com.example.traidingsim.engine.MarketOrderResult;
+import com.example.traidingsim.exception.InvalidRequestException;
+import com.example.traidingsim.model.dto.MarketOrderDTO;
+import com.example.traidingsim.model.dto.MarketOrderResultDTO;
+import com.example.traidingsim.model.dto.OrderBatchRequestDTO;
+import com.example.traidingsim.model.dto.OrderBatchResultDTO;
+import com.example.traidingsim.model.enumeration.Type;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Order batches as they are sent to {@code /api/orders/batch}, as JSON or in the binary format below.
+ * <p>
+ * Binary layout: a sequence of 32-byte orders (little-endian): {@code u8 side} (1 for BUY, 2 for SELL),
+ * {@code u8 crypto length}, 6 reserved bytes, {@code f64 amount} and 16 bytes of ASCII crypto symbol.
+ */
+public class OrderBatchMapper {
+
+    public static final String BINARY_MEDIA_TYPE = "application/x-order-batch";
+    public static final int ORDER_SIZE = 32;
+    public static final int MAX_CRYPTO_LENGTH = 16;
+    /**
+     * Room for one JSON order with generous whitespace, e.g. {@code {"crypto":"BTC/USD","side":"BUY","amount":0.5}}
+     * is 49 bytes.
+     */
+    public static final int MAX_JSON_ORDER_SIZE = 256;
+
+    private static final byte BUY = 1;
+    private static final byte SELL = 2;
+
+    private static final int SIDE = 0;
+    private static final int CRYPTO_LENGTH = 1;
+    private static final int AMOUNT = 8;
+    private static final int CRYPTO = 16;
+
+    public static List<MarketOrder> fromDTO(OrderBatchRequestDTO request) {
+        List<MarketOrderDTO> orders = request.getOrders() != null ? request.getOrders() : List.of();
+        List<MarketOrder> batch = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            MarketOrderDTO order = orders.get(i);
+            if (order == null || order.getCrypto() == null || order.getSide() == null) {
+                throw new InvalidRequestException("Order " + i + " must have a crypto and a side");
+            }
+            batch.add(new MarketOrder(order.getCrypto(), order.getSide(), order.getAmount()));
+        }
+        return batch;
+    }
+
+    /**
+     * Read a request body of at most {@code maxBytes}, rejecting a larger one as soon as it is seen to be larger, so
+     * that neither its bytes nor what they would be parsed into are held in memory.
+     */
+    public static byte[] read(InputStream body, int maxBytes, String tooLarge) throws IOException {
+        byte[] bytes = body.readNBytes(maxBytes + 1);
+        if (bytes.length > maxBytes) {
+            throw new InvalidRequestException(tooLarge);
+        }
+        return bytes;
+    }
+
+    public static List<MarketOrder> decode(byte[] body) {
+        if (body.length % ORDER_SIZE != 0) {
+            throw new InvalidRequestException("An order batch must be a sequence of " + ORDER_SIZE + "-byte orders");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+        List<MarketOrder> batch = new ArrayList<>(body.length / ORDER_SIZE);
+        for (int offset = 0; offset < body.length; offset += ORDER_SIZE) {
+            int i = offset / ORDER_SIZE;
+            Type type = switch (buffer.get(offset + SIDE)) {
+                case BUY -> Type.BUY;
+                case SELL -> Type.SELL;
+                default -> throw new InvalidRequestException("Order " + i + " has an unknown side");
+            };
+            int cryptoLength = buffer.get(offset + CRYPTO_LENGTH);
+            if (cryptoLength <= 0 || cryptoLength > MAX_CRYPTO_LENGTH) {
+                throw new InvalidRequestException("Order " + i + " has an invalid crypto length");
+            }
+            char[] crypto = new char[cryptoLength];
+            for (int c = 0; c < cryptoLength; c++) {
+                byte ascii = buffer.get(offset + CRYPTO + c);
+                if (ascii < 0) {
+                    throw new InvalidRequestException("Order " + i + " has a crypto that is not ASCII");
+                }
+                crypto[c] = (char) ascii;
+            }
+            batch.add(new MarketOrder(new String(crypto), type, buffer.getDouble(offset + AMOUNT)));
+        }
+        return batch;
+    }
+
+    public static byte[] encode(List<MarketOrder> orders) {
+        ByteBuffer buffer = ByteBuffer.allocate(orders.size() * ORDER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < orders.size(); i++) {
+            MarketOrder order = orders.get(i);
+            int offset = i * ORDER_SIZE;
+            if (order.crypto().length() > MAX_CRYPTO_LENGTH) {
+                throw new IllegalArgumentException("Symbol too long for an order batch: " + order.crypto());
+            }
+            buffer.put(offset + SIDE, order.type() == Type.BUY ? BUY : SELL);
+            buffer.put(offset + CRYPTO_LENGTH, (byte) order.crypto().length());
+            buffer.putDouble(offset + AMOUNT, order.amount());
+            for (int c = 0; c < order.crypto().length(); c++) {
+                char ascii = order.crypto().charAt(c);
+                if (ascii > 0x7F) {
+                    throw new IllegalArgumentException("Symbol not ASCII: " + order.crypto());
+                }
+                buffer.put(offset + CRYPTO + c, (byte) ascii);
+            }
+        }
+        return buffer.array();
+    }
+
+    public static OrderBatchResultDTO toDTO(long accountId, BatchResult result) {
+        List<MarketOrderResultDTO> results = new ArrayList<>(result.results().size());
+        for (MarketOrderResult order : result.results()) {
+            results.add(MarketOrderResultDTO.builder()
+                    .success(order.isExecuted())
+                    .crypto(order.order().crypto())
+                    .side(order.order().type())
+                    .amount(order.order().amount())
+                    .price(order.isExecuted() ? order.price() : null)
+                    .total(order.isExecuted() ? order.total() : null)
+                    .message(order.isExecuted() ? null : order.rejection().getMessage())
+                    .build());
+        }
+        int executed = result.executedCount();
+        return OrderBatchResultDTO.builder()
+                .accountId(accountId)
+                .executed(executed)
+                .rejected(results.size() - executed)
+                .results(results)
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.traidingsim.marketdata;
+
+import com.example.traidingsim.engine.PriceGuard;
+import com.example.traidingsim.exception.StalePriceException;
+import com.example.traidingsim.model.dto.FeedStatusDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Liveness of the market data feed. Every frame received counts as a heartbeat, so the feed is live while
+ * frames keep arriving within {@code market-data.feed.heartbeat-timeout-ms} and the source has not reported a
+ * disconnect. A silence longer than {@code market-data.feed.gap-threshold-ms} between two frames is counted as a
+ * gap. Sources that hold a connection, such as Kraken, also report connects, disconnects and heartbeat timeouts.
+ * As the engine's {@link PriceGuard} it rejects trades while the feed is not live, and trades in a symbol whose
+ * last price is older than {@code trading.max-price-age-ms}.
+ */
+@Component
+@Slf4j
+public class FeedMonitor implements PriceGuard {
+
+    private final PriceBook priceBook;
+    private final SymbolRegistry symbolRegistry;
+    private final long heartbeatTimeoutMillis;
+    private final long gapThresholdMillis;
+    private final long maxPriceAgeMillis;
+
+    private final AtomicLong connects = new AtomicLong();
+    private final AtomicLong disconnects = new AtomicLong();
+    private final AtomicLong heartbeatTimeouts = new AtomicLong();
+
+    private volatile boolean connected = true;
+
+    // Written by the market data thread only
+    private volatile long lastFrameAt;
+    private volatile long gaps;
+    private volatile long maxGapMillis;
+
+    public FeedMonitor(PriceBook priceBook, SymbolRegistry symbolRegistry,
+                       @Value("${market-data.feed.heartbeat-timeout-ms:10000}") long heartbeatTimeoutMillis,
+                       @Value("${market-data.feed.gap-threshold-ms:3000}") long gapThresholdMillis,
+                       @Value("${trading.max-price-age-ms:120000}") long maxPriceAgeMillis) {
+        this.priceBook = priceBook;
+        this.symbolRegistry = symbolRegistry;
+        this.heartbeatTimeoutMillis = heartbeatTimeoutMillis;
+        this.gapThresholdMillis = gapThresholdMillis;
+        this.maxPriceAgeMillis = maxPriceAgeMillis;
+    }
+
+    /**
+     * Record the arrival of a frame. Called by the single market data thread.
+     */
+    public void onFrame(long now) {
+        long previous = lastFrameAt;
+        if (previous > 0 && now - previous > gapThresholdMillis) {
+            gaps = gaps + 1;
+            if (now - previous > maxGapMillis) {
+                maxGapMillis = now - previous;
+            }
+            log.warn("No market data was received for {} ms", now - previous);
+        }
+        lastFrameAt = now;
+    }
+
+    public void onConnected() {
+        connects.incrementAndGet();
+        connected = true;
+    }
+
+    public void onDisconnected() {
+        disconnects.incrementAndGet();
+        connected = false;
+    }
+
+    public void onHeartbeatTimeout() {
+        heartbeatTimeouts.incrementAndGet();
+    }
+
+    public long getHeartbeatTimeoutMillis() {
+        return heartbeatTimeoutMillis;
+    }
+
+    /**
+     * Whether the source is connected and a frame has arrived within the heartbeat timeout.
+     */
+    public boolean isLive(long now) {
+        long last = lastFrameAt;
+        return connected && last > 0 && now - last <= heartbeatTimeoutMillis;
+    }
+
+    @Override
+    public void check(String crypto, long priceTimestamp) {
+        long now = System.currentTimeMillis();
+        if (!isLive(now)) {
+            throw new StalePriceException("Market data feed is down, trading " + crypto + " is suspended");
+        }
+        if (maxPriceAgeMillis > 0 && priceTimestamp > 0 && now - priceTimestamp > maxPriceAgeMillis) {
+            throw new StalePriceException("The last price of " + crypto + " is " + (now - priceTimestamp) / 1000
+                    + " s old, trading it is suspended");
+        }
+    }
+
+    public FeedStatusDTO getStatus() {
+        long now = System.currentTimeMillis();
+        long last = lastFrameAt;
+        long connectCount = connects.get();
+
+        List<FeedStatusDTO.SymbolStatus> symbols = new ArrayList<>();
+        PriceQuote quote = new PriceQuote();
+        for (int id = 0; id < symbolRegistry.size(); id++) {
+            if (priceBook.read(id, quote)) {
+                long age = now - quote.getTimestamp();
+                symbols.add(FeedStatusDTO.SymbolStatus.builder()
+                        .symbol(symbolRegistry.symbolOf(id))
+                        .lastUpdateAt(Instant.ofEpochMilli(quote.getTimestamp()))
+                        .ageMillis(age)
+                        .updates(quote.getSequence())
+                        .stale(maxPriceAgeMillis > 0 && age > maxPriceAgeMillis)
+                        .build());
+            }
+        }
+
+        return FeedStatusDTO.builder()
+                .live(isLive(now))
+                .connected(connected)
+                .lastFrameAt(last > 0 ? Instant.ofEpochMilli(last) : null)
+                .lagMillis(last > 0 ? now - last : -1)
+                .connects(connectCount)
+                .reconnects(Math.max(0, connectCount - 1))
+                .disconnects(disconnects.get())
+                .heartbeatTimeouts(heartbeatTimeouts.get())
+                .gaps(gaps)
+                .maxGapMillis(maxGapMillis)
+                .symbols(symbols)
+                .build();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.traidingsim.marketdata;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Streaming decoder for Kraken v2 {@code book} frames, applying every level straight to the symbol's
+ * {@link L2Book}. A {@code snapshot} replaces both sides of the book; an {@code update} sets or, with a quantity
+ * of zero, removes the levels it lists. Each element of the {@code data} array is applied as one update of its
+ * book. As with {@link KrakenTickerDecoder}, symbols and prices are read from the parser buffer, so decoding
+ * allocates nothing beyond the parser. Checksums are not verified.
+ */
+public class KrakenBookDecoder {
+
+    private static final String BOOK_CHANNEL = "book";
+    private static final String SNAPSHOT_TYPE = "snapshot";
+    private static final String BOOK_FRAME_PREFIX = "{\"channel\":\"book\"";
+
+    private final JsonFactory jsonFactory;
+    private final SymbolRegistry symbolRegistry;
+    private final OrderBooks orderBooks;
+
+    public KrakenBookDecoder(JsonFactory jsonFactory, SymbolRegistry symbolRegistry, OrderBooks orderBooks) {
+        this.jsonFactory = jsonFactory;
+        this.symbolRegistry = symbolRegistry;
+        this.orderBooks = orderBooks;
+    }
+
+    /**
+     * Cheap check for a book frame, relying on Kraken sending the channel first.
+     */
+    public static boolean isBookFrame(String frame) {
+        return frame.startsWith(BOOK_FRAME_PREFIX);
+    }
+
+    /**
+     * Decode a book frame and apply it to the order books.
+     * @return {@code true} if at least one book was updated. Frames are ignored when book data is disabled.
+     */
+    public boolean decode(String frame) throws IOException {
+        if (orderBooks.getDepth() == 0) {
+            return false;
+        }
+        boolean snapshot = false;
+        boolean applied = false;
+
+        try (JsonParser parser = jsonFactory.createParser(frame)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if ("channel".equals(field) && value == JsonToken.VALUE_STRING) {
+                    if (!KrakenTickerDecoder.textEquals(parser, BOOK_CHANNEL)) {
+                        return false;
+                    }
+                } else if ("type".equals(field) && value == JsonToken.VALUE_STRING) {
+                    snapshot = KrakenTickerDecoder.textEquals(parser, SNAPSHOT_TYPE);
+                } else if ("data".equals(field) && value == JsonToken.START_ARRAY) {
+                    applied |= readData(parser, snapshot);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return applied;
+    }
+
+    private boolean readData(JsonParser parser, boolean snapshot) throws IOException {
+        boolean applied = false;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            L2Book book = null;
+            try {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+
+                    if ("symbol".equals(field) && value == JsonToken.VALUE_STRING && book == null) {
+                        int symbolId = symbolRegistry.intern(parser.getTextCharacters(), parser.getTextOffset(),
+                                parser.getTextLength());
+                        if (symbolId >= 0) {
+                            book = orderBooks.book(symbolId);
+                            book.beginUpdate();
+                            if (snapshot) {
+                                book.clear();
+                            }
+                        }
+                    } else if (("bids".equals(field) || "asks".equals(field)) && value == JsonToken.START_ARRAY
+                            && book != null) {
+                        readLevels(parser, book, "bids".equals(field));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } finally {
+                if (book != null) {
+                    book.endUpdate();
+                    applied = true;
+                }
+            }
+        }
+        return applied;
+    }
+
+    private static void readLevels(JsonParser parser, L2Book book, boolean bids) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            double price = Double.NaN;
+            double quantity = Double.NaN;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("price".equals(field) && (value.isNumeric() || value == JsonToken.VALUE_STRING)) {
+                    price = KrakenTickerDecoder.parsePrice(parser.getTextCharacters(), parser.getTextOffset(),
+                            parser.getTextLength());
+                } else if ("qty".equals(field) && (value.isNumeric() || value == JsonToken.VALUE_STRING)) {
+                    quantity = KrakenTickerDecoder.parsePrice(parser.getTextCharacters(), parser.getTextOffset(),
+                            parser.getTextLength());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (Double.isNaN(price) || Double.isNaN(quantity)) {
+                continue;
+            }
+            if (bids) {
+                book.updateBid(price, quantity);
+            } else {
+                book.updateAsk(price, quantity);
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.traidingsim.marketdata;
+
+import com.example.traidingsim.model.dto.SubscribeMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.websocket.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Live market data from the Kraken v2 WebSocket API.
+ * The connection is supervised: when it cannot be opened, closes, fails, or carries no frame (Kraken sends a
+ * heartbeat every second) for {@code market-data.feed.heartbeat-timeout-ms}, it is reopened after an exponential
+ * backoff between {@code kraken.reconnect.initial-backoff-ms} and {@code kraken.reconnect.max-backoff-ms}, and
+ * the channels are subscribed to again. Connects, disconnects and heartbeat timeouts are reported to the
+ * {@link FeedMonitor}.
+ * When {@code market-data.record.file} is set, every received frame is also appended to that file
+ * so it can be replayed later with {@link ReplayMarketDataSource}.
+ */
+@ClientEndpoint
+@Component
+@ConditionalOnProperty(name = "market-data.source", havingValue = "kraken", matchIfMissing = true)
+@Slf4j
+public class KrakenMarketDataSource implements MarketDataSource {
+
+    private final ObjectMapper objectMapper;
+    private final OrderBooks orderBooks;
+    private final FeedMonitor feedMonitor;
+    private final URI uri;
+    private final String recordFile;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final ScheduledExecutorService supervisor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "kraken-supervisor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Consumer<String> frameHandler;
+    private volatile Session session;
+    private volatile boolean running;
+    private volatile long lastFrameNanos;
+    private volatile int failedAttempts;
+    private boolean reconnectScheduled;
+    private BufferedWriter recorder;
+
+    public KrakenMarketDataSource(ObjectMapper objectMapper, OrderBooks orderBooks, FeedMonitor feedMonitor,
+                                  @Value("${kraken.websocket.uri}") URI uri,
+                                  @Value("${market-data.record.file:}") String recordFile,
+                                  @Value("${kraken.reconnect.initial-backoff-ms:500}") long initialBackoffMillis,
+                                  @Value("${kraken.reconnect.max-backoff-ms:30000}") long maxBackoffMillis) {
+        this.objectMapper = objectMapper;
+        this.orderBooks = orderBooks;
+        this.feedMonitor = feedMonitor;
+        this.uri = uri;
+        this.recordFile = recordFile;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    @Override
+    public void start(Consumer<String> frameHandler) {
+        this.frameHandler = frameHandler;
+        running = true;
+        openRecorder();
+        supervisor.execute(this::connect);
+
+        long checkInterval = Math.max(1, feedMonitor.getHeartbeatTimeoutMillis() / 4);
+        supervisor.scheduleWithFixedDelay(this::checkHeartbeat, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        supervisor.shutdownNow();
+        Session current = session;
+        session = null;
+        close(current);
+        closeRecorder();
+    }
+
+    /**
+     * Number of failed connection attempts since frames last arrived.
+     */
+    public int getFailedAttempts() {
+        return failedAttempts;
+    }
+
+    private void connect() {
+        synchronized (this) {
+            reconnectScheduled = false;
+        }
+        if (!running || session != null) {
+            return;
+        }
+        try {
+            WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+            lastFrameNanos = System.nanoTime();
+            Session opened = container.connectToServer(this, uri);
+            if (!running) {
+                close(opened);
+                return;
+            }
+            session = opened;
+            log.info("Connected to Kraken WebSocket");
+            if (!opened.isOpen()) {
+                // Closed before it became the current session, so its close callback was ignored
+                disconnected(opened);
+            }
+        } catch (Exception e) {
+            failedAttempts++;
+            log.error("Error connecting to Kraken WebSocket: {}", e.getMessage());
+            scheduleReconnect();
+        }
+    }
+
+    /**
+     * Reopen the connection after the backoff for the number of consecutive failed attempts, with up to 20% jitter
+     * so that many clients do not reconnect in lockstep.
+     */
+    private synchronized void scheduleReconnect() {
+        if (!running || reconnectScheduled) {
+            return;
+        }
+        reconnectScheduled = true;
+        long backoff = initialBackoffMillis << Math.min(Math.max(failedAttempts - 1, 0), 20);
+        backoff = Math.min(backoff, maxBackoffMillis);
+        backoff += (long) (backoff * 0.2 * ThreadLocalRandom.current().nextDouble());
+        log.info("Reconnecting to Kraken WebSocket in {} ms", backoff);
+        supervisor.schedule(this::connect, backoff, TimeUnit.MILLISECONDS);
+    }
+
+    private void checkHeartbeat() {
+        Session current = session;
+        long silence = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastFrameNanos);
+        if (current == null || silence <= feedMonitor.getHeartbeatTimeoutMillis()) {
+            return;
+        }
+        log.warn("No frame from Kraken WebSocket for {} ms, reconnecting", silence);
+        feedMonitor.onHeartbeatTimeout();
+        failedAttempts++;
+        disconnected(current);
+        close(current);
+    }
+
+    /**
+     * Forget the session if it is still the current one and schedule a reconnect. Callbacks of sessions that
+     * have already been replaced are ignored.
+     */
+    private void disconnected(Session closed) {
+        synchronized (this) {
+            if (closed == null || session != closed) {
+                return;
+            }
+            session = null;
+        }
+        feedMonitor.onDisconnected();
+        scheduleReconnect();
+    }
+
+    private static void close(Session closing) {
+        try {
+            if (closing != null && closing.isOpen()) {
+                closing.close();
+            }
+        } catch (IOException e) {
+            log.warn("Error closing Kraken WebSocket session: {}", e.getMessage());
+        }
+    }
+
+    @OnOpen
+    public void onOpen(Session session) {
+        feedMonitor.onConnected();
+        try {
+            SubscribeMessage subscribeMessage = SubscribeMessage.createDefaultSubscription();
+            String jsonMessage = objectMapper.writeValueAsString(subscribeMessage);
+            session.getAsyncRemote().sendText(jsonMessage);
+            log.info("Subscribed to Kraken ticker channel: {}", jsonMessage);
+
+            if (orderBooks.getDepth() > 0) {
+                String bookMessage = objectMapper.writeValueAsString(
+                        SubscribeMessage.createBookSubscription(orderBooks.getDepth()));
+                session.getAsyncRemote().sendText(bookMessage);
+                log.info("Subscribed to Kraken book channel: {}", bookMessage);
+            }
+        } catch (Exception e) {
+            log.error("Error sending subscription message", e);
+        }
+    }
+
+    @OnMessage
+    public void onMessage(String message) {
+        lastFrameNanos = System.nanoTime();
+        if (failedAttempts != 0) {
+            failedAttempts = 0;
+        }
+        record(message);
+        frameHandler.accept(message);
+    }
+
+    @OnClose
+    public void onClose(Session session, CloseReason reason) {
+        log.warn("Kraken WebSocket closed: {}", reason);
+        disconnected(session);
+    }
+
+    @OnError
+    public void onError(Session session, Throwable error) {
+        log.error("Kraken WebSocket error: {}", error.getMessage());
+        disconnected(session);
+        close(session);
+    }
+
+    private void openRecorder() {
+        if (recordFile == null || recordFile.isBlank()) {
+            return;
+        }
+        try {
+            recorder = Files.newBufferedWriter(Path.of(recordFile),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            log.info("Recording Kraken frames to {}", recordFile);
+        } catch (IOException e) {
+            log.error("Error opening record file {}: {}", recordFile, e.getMessage());
+        }
+    }
+
+    private synchronized void record(String message) {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.write(message);
+            recorder.newLine();
+        } catch (IOException e) {
+            log.error("Error recording Kraken frame, recording disabled: {}", e.getMessage());
+            closeRecorder();
+        }
+    }
+
+    private synchronized void closeRecorder() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            log.warn("Error closing record file: {}", e.getMessage());
+        }
+        recorder = null;
+    }
+}
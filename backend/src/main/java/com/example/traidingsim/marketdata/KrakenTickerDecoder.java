@@ -0,0 +1,262 @@
+package com.example.traidingsim.marketdata;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Streaming decoder for Kraken v2 ticker frames.
+ * Pulls only {@code symbol}, {@code last} and the optional exchange {@code timestamp} out of each element of the
+ * {@code data} array, resolves the symbol through the {@link SymbolRegistry} straight from the parser buffer and
+ * parses the price and timestamp without creating strings.
+ * Apart from the Jackson parser instance created per frame, decoding leaves no garbage behind.
+ */
+public class KrakenTickerDecoder {
+
+    private static final String TICKER_CHANNEL = "ticker";
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final JsonFactory jsonFactory;
+    private final SymbolRegistry symbolRegistry;
+
+    public KrakenTickerDecoder(JsonFactory jsonFactory, SymbolRegistry symbolRegistry) {
+        this.jsonFactory = jsonFactory;
+        this.symbolRegistry = symbolRegistry;
+    }
+
+    /**
+     * Decode a frame into the given batch, which is cleared first.
+     * Frames for channels other than {@code ticker} and elements missing a symbol or price are skipped.
+     * @return {@code true} if at least one tick was decoded.
+     */
+    public boolean decode(String frame, TickBatch batch) throws IOException {
+        batch.clear();
+        boolean otherChannel = false;
+
+        try (JsonParser parser = jsonFactory.createParser(frame)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if ("channel".equals(field) && value == JsonToken.VALUE_STRING) {
+                    otherChannel = !textEquals(parser, TICKER_CHANNEL);
+                } else if ("data".equals(field) && value == JsonToken.START_ARRAY && !otherChannel) {
+                    readData(parser, batch);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        if (otherChannel) {
+            batch.clear();
+        }
+        return !batch.isEmpty();
+    }
+
+    private void readData(JsonParser parser, TickBatch batch) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            int symbolId = -1;
+            double last = Double.NaN;
+            long timestamp = 0;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if ("symbol".equals(field) && value == JsonToken.VALUE_STRING && parser.getTextLength() > 0) {
+                    symbolId = symbolRegistry.intern(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                } else if ("last".equals(field) && (value.isNumeric() || value == JsonToken.VALUE_STRING)) {
+                    last = parsePrice(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                } else if ("timestamp".equals(field) && value == JsonToken.VALUE_STRING) {
+                    timestamp = parseTimestamp(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (symbolId >= 0 && !Double.isNaN(last)) {
+                batch.add(symbolId, last);
+                batch.exchangeTimestamp(timestamp);
+            }
+        }
+    }
+
+    static boolean textEquals(JsonParser parser, String expected) throws IOException {
+        int length = parser.getTextLength();
+        if (length != expected.length()) {
+            return false;
+        }
+        char[] buffer = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        for (int i = 0; i < length; i++) {
+            if (buffer[offset + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse a decimal number without allocating, using the exact fast path for up to 15 significant digits
+     * and falling back to {@link Double#parseDouble} for anything else.
+     */
+    static double parsePrice(char[] buffer, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean seenDigit = false;
+        boolean seenDot = false;
+
+        for (; i < end; i++) {
+            char c = buffer[i];
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (mantissa != 0 || c != '0') {
+                    if (++significantDigits > 15) {
+                        return parseSlow(buffer, offset, length);
+                    }
+                    mantissa = mantissa * 10 + (c - '0');
+                }
+                if (seenDot) {
+                    exponent--;
+                }
+            } else if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else if (c == 'e' || c == 'E') {
+                break;
+            } else {
+                return parseSlow(buffer, offset, length);
+            }
+        }
+
+        if (!seenDigit) {
+            return Double.NaN;
+        }
+
+        if (i < end) {
+            int explicitExponent = 0;
+            boolean negativeExponent = false;
+            i++;
+            if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+                negativeExponent = buffer[i] == '-';
+                i++;
+            }
+            if (i == end) {
+                return parseSlow(buffer, offset, length);
+            }
+            for (; i < end; i++) {
+                char c = buffer[i];
+                if (c < '0' || c > '9' || explicitExponent > 1000) {
+                    return parseSlow(buffer, offset, length);
+                }
+                explicitExponent = explicitExponent * 10 + (c - '0');
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (mantissa > MAX_EXACT_MANTISSA || exponent < -22 || exponent > 22) {
+            return parseSlow(buffer, offset, length);
+        }
+
+        double value = exponent < 0
+                ? mantissa / POWERS_OF_TEN[-exponent]
+                : mantissa * POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parse a UTC RFC 3339 timestamp such as {@code 2024-05-21T10:12:13.123456Z} to epoch milliseconds without
+     * allocating. Fractions beyond milliseconds are truncated.
+     * @return The timestamp, or 0 if it is not in that form.
+     */
+    static long parseTimestamp(char[] buffer, int offset, int length) {
+        if (length < 20 || buffer[offset + 4] != '-' || buffer[offset + 7] != '-' || buffer[offset + 10] != 'T'
+                || buffer[offset + 13] != ':' || buffer[offset + 16] != ':' || buffer[offset + length - 1] != 'Z') {
+            return 0;
+        }
+        int year = digits(buffer, offset, 4);
+        int month = digits(buffer, offset + 5, 2);
+        int day = digits(buffer, offset + 8, 2);
+        int hour = digits(buffer, offset + 11, 2);
+        int minute = digits(buffer, offset + 14, 2);
+        int second = digits(buffer, offset + 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 60) {
+            return 0;
+        }
+
+        int millis = 0;
+        int end = offset + length - 1;
+        int i = offset + 19;
+        if (i < end) {
+            if (buffer[i] != '.') {
+                return 0;
+            }
+            int scale = 100;
+            for (i++; i < end; i++) {
+                char c = buffer[i];
+                if (c < '0' || c > '9') {
+                    return 0;
+                }
+                millis += (c - '0') * scale;
+                scale /= 10;
+            }
+        }
+
+        // Days since the epoch of the proleptic Gregorian date, counting years from March
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        long days = era * 146097L + dayOfEra - 719468;
+
+        return ((days * 24 + hour) * 60 + minute) * 60_000L + second * 1_000L + millis;
+    }
+
+    private static int digits(char[] buffer, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = buffer[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static double parseSlow(char[] buffer, int offset, int length) {
+        try {
+            return Double.parseDouble(new String(buffer, offset, length));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
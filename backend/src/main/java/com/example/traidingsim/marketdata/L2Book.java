@@ -0,0 +1,196 @@
+package com.example.traidingsim.marketdata;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Level 2 order book of one symbol: up to {@code depth} price levels per side, in primitive arrays, bids
+ * best (highest) first and asks best (lowest) first. Incremental updates find their level by binary search and
+ * shift the levels behind it, so maintaining the book allocates nothing.
+ * There is a single writer, the market data feed, which brackets each update with {@link #beginUpdate()} and
+ * {@link #endUpdate()}. Readers are guarded by a seqlock and retry if the book changed under them, so a fill
+ * never sees a half-applied update and never blocks the feed.
+ */
+public class L2Book {
+
+    private static final VarHandle VERSION;
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(L2Book.class, "version", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int depth;
+    private final double[] bidPrices;
+    private final double[] bidQuantities;
+    private final double[] askPrices;
+    private final double[] askQuantities;
+    private int bidCount;
+    private int askCount;
+
+    @SuppressWarnings("unused")
+    private volatile long version;
+
+    public L2Book(int depth) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Depth must be greater than 0");
+        }
+        this.depth = depth;
+        this.bidPrices = new double[depth];
+        this.bidQuantities = new double[depth];
+        this.askPrices = new double[depth];
+        this.askQuantities = new double[depth];
+    }
+
+    public void beginUpdate() {
+        VERSION.setOpaque(this, version + 1);
+        VarHandle.storeStoreFence();
+    }
+
+    public void endUpdate() {
+        VERSION.setRelease(this, version + 1);
+    }
+
+    /**
+     * Remove every level of both sides, ahead of a snapshot.
+     */
+    public void clear() {
+        bidCount = 0;
+        askCount = 0;
+    }
+
+    /**
+     * Set the quantity of a bid level, removing the level if the quantity is zero. Levels pushed beyond the depth
+     * are dropped.
+     */
+    public void updateBid(double price, double quantity) {
+        bidCount = update(bidPrices, bidQuantities, bidCount, true, price, quantity);
+    }
+
+    /**
+     * Set the quantity of an ask level, removing the level if the quantity is zero. Levels pushed beyond the depth
+     * are dropped.
+     */
+    public void updateAsk(double price, double quantity) {
+        askCount = update(askPrices, askQuantities, askCount, false, price, quantity);
+    }
+
+    /**
+     * Volume-weighted average price of buying {@code amount} from the asks, or selling it into the bids, level by
+     * level from the best price. Any amount beyond the visible depth fills at the worst visible price.
+     * @return The average price, or {@link Double#NaN} if that side of the book is empty.
+     */
+    public double fillPrice(boolean buy, double amount) {
+        while (true) {
+            long before = (long) VERSION.getAcquire(this);
+            double price = buy
+                    ? walk(askPrices, askQuantities, Math.min(askCount, depth), amount)
+                    : walk(bidPrices, bidQuantities, Math.min(bidCount, depth), amount);
+            VarHandle.loadLoadFence();
+            if ((before & 1) == 0 && (long) VERSION.getOpaque(this) == before) {
+                return price;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Consistent copy of the book, for fills that must all see it as it stood at one moment.
+     */
+    public L2Book copy() {
+        L2Book copy = new L2Book(depth);
+        while (true) {
+            long before = (long) VERSION.getAcquire(this);
+            System.arraycopy(bidPrices, 0, copy.bidPrices, 0, depth);
+            System.arraycopy(bidQuantities, 0, copy.bidQuantities, 0, depth);
+            System.arraycopy(askPrices, 0, copy.askPrices, 0, depth);
+            System.arraycopy(askQuantities, 0, copy.askQuantities, 0, depth);
+            copy.bidCount = bidCount;
+            copy.askCount = askCount;
+            VarHandle.loadLoadFence();
+            if ((before & 1) == 0 && (long) VERSION.getOpaque(this) == before) {
+                return copy;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Best bid, or {@link Double#NaN} if there is none.
+     */
+    public double bestBid() {
+        return fillPrice(false, 0);
+    }
+
+    /**
+     * Best ask, or {@link Double#NaN} if there is none.
+     */
+    public double bestAsk() {
+        return fillPrice(true, 0);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    private static double walk(double[] prices, double[] quantities, int count, double amount) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (amount <= 0) {
+            return prices[0];
+        }
+        double remaining = amount;
+        double cost = 0;
+        for (int i = 0; i < count && remaining > 0; i++) {
+            double filled = Math.min(remaining, quantities[i]);
+            cost += filled * prices[i];
+            remaining -= filled;
+        }
+        if (remaining > 0) {
+            cost += remaining * prices[count - 1];
+        }
+        return cost / amount;
+    }
+
+    /**
+     * Apply one level update to a side, kept best price first: descending for bids, ascending for asks.
+     * @return The new number of levels.
+     */
+    private int update(double[] prices, double[] quantities, int count, boolean descending, double price,
+                       double quantity) {
+        double key = descending ? -price : price;
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            double midKey = descending ? -prices[mid] : prices[mid];
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                if (quantity > 0) {
+                    quantities[mid] = quantity;
+                    return count;
+                }
+                System.arraycopy(prices, mid + 1, prices, mid, count - mid - 1);
+                System.arraycopy(quantities, mid + 1, quantities, mid, count - mid - 1);
+                return count - 1;
+            }
+        }
+
+        if (quantity <= 0 || low >= depth) {
+            return count;
+        }
+        int moved = Math.min(count, depth - 1) - low;
+        System.arraycopy(prices, low, prices, low + 1, moved);
+        System.arraycopy(quantities, low, quantities, low + 1, moved);
+        prices[low] = price;
+        quantities[low] = quantity;
+        return Math.min(count + 1, depth);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.traidingsim.marketdata;
+
+import java.util.function.Consumer;
+
+/**
+ * A source of raw Kraken v2 WebSocket frames.
+ * Implementations push every frame they receive (or generate) to the handler passed to {@link #start}.
+ */
+public interface MarketDataSource {
+
+    /**
+     * Start delivering frames to the given handler.
+     */
+    void start(Consumer<String> frameHandler);
+
+    /**
+     * Stop delivering frames and release any resources held by the source.
+     */
+    void stop();
+}
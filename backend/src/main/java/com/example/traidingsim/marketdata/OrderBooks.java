@@ -0,0 +1,59 @@
+package com.example.traidingsim.marketdata;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The {@link L2Book} of every symbol with book data, indexed by {@link SymbolRegistry} ID and kept to
+ * {@code market-data.book.depth} levels per side.
+ */
+@Component
+public class OrderBooks {
+
+    private final int depth;
+    private final AtomicReferenceArray<L2Book> books = new AtomicReferenceArray<>(SymbolRegistry.CAPACITY);
+
+    public OrderBooks(@Value("${market-data.book.depth:10}") int depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * Depth subscribed to and kept per side; zero when book data is disabled.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * The book of a symbol, created on first use. Called by the single market data thread, and only when book
+     * data is enabled.
+     */
+    public L2Book book(int symbolId) {
+        L2Book book = books.get(symbolId);
+        if (book == null) {
+            book = new L2Book(depth);
+            books.set(symbolId, book);
+        }
+        return book;
+    }
+
+    /**
+     * Volume-weighted average price of filling {@code amount} of a symbol against its book.
+     * @return The price, or {@link Double#NaN} if there is no book data for the symbol or that side is empty.
+     * @see L2Book#fillPrice
+     */
+    public double fillPrice(int symbolId, boolean buy, double amount) {
+        L2Book book = symbolId >= 0 ? books.get(symbolId) : null;
+        return book != null ? book.fillPrice(buy, amount) : Double.NaN;
+    }
+
+    /**
+     * Consistent copy of the book of a symbol, or {@code null} if there is no book data for it.
+     */
+    public L2Book copyOf(int symbolId) {
+        L2Book book = symbolId >= 0 ? books.get(symbolId) : null;
+        return book != null ? book.copy() : null;
+    }
+}
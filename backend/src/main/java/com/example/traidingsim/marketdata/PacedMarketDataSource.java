@@ -0,0 +1,98 @@
+package com.example.traidingsim.marketdata;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Base class for local sources that emit frames from a dedicated thread at a fixed rate.
+ * A rate of zero or less emits frames as fast as the handler can consume them.
+ */
+@Slf4j
+public abstract class PacedMarketDataSource implements MarketDataSource {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final String name;
+    private final long framesPerSecond;
+
+    private volatile boolean running;
+    private volatile long framesEmitted;
+    private Thread worker;
+
+    protected PacedMarketDataSource(String name, long framesPerSecond) {
+        this.name = name;
+        this.framesPerSecond = framesPerSecond;
+    }
+
+    /**
+     * Produce the next frame, or {@code null} when the source is exhausted.
+     */
+    protected abstract String nextFrame();
+
+    @Override
+    public synchronized void start(Consumer<String> frameHandler) {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(() -> run(frameHandler), name);
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Started {} market data source at {} frames/s", name, framesPerSecond > 0 ? framesPerSecond : "unlimited");
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+    }
+
+    public long getFramesEmitted() {
+        return framesEmitted;
+    }
+
+    private void run(Consumer<String> frameHandler) {
+        long startNanos = System.nanoTime();
+        long emitted = 0;
+
+        while (running) {
+            long due = framesPerSecond > 0
+                    ? (System.nanoTime() - startNanos) * framesPerSecond / TimeUnit.SECONDS.toNanos(1)
+                    : emitted + 1;
+
+            if (emitted >= due) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+
+            while (emitted < due && running) {
+                String frame = nextFrame();
+                if (frame == null) {
+                    running = false;
+                    break;
+                }
+                try {
+                    frameHandler.accept(frame);
+                } catch (Exception e) {
+                    log.error("Error handling frame from {} market data source", name, e);
+                }
+                framesEmitted = ++emitted;
+            }
+        }
+
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        log.info("Stopped {} market data source after {} frames ({} frames/s)",
+                name, emitted, seconds > 0 ? Math.round(emitted / seconds) : emitted);
+    }
+}
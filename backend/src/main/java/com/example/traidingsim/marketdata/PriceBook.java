@@ -0,0 +1,164 @@
+package com.example.traidingsim.marketdata;
+
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Latest price per symbol, stored in dense primitive arrays indexed by {@link SymbolRegistry} ID.
+ * Each symbol carries its price, receive timestamp and update sequence, guarded by a per-symbol seqlock so
+ * readers get a consistent view without locking or allocating. A book-wide version additionally lets
+ * {@link #snapshot()} observe whole batches atomically.
+ * There is a single writer, the market data feed; any number of threads may read.
+ */
+@Component
+public class PriceBook {
+
+    private static final VarHandle VERSIONS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle BOOK_VERSION;
+
+    static {
+        try {
+            BOOK_VERSION = MethodHandles.lookup().findVarHandle(PriceBook.class, "bookVersion", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final SymbolRegistry symbolRegistry;
+    private final long[] versions = new long[SymbolRegistry.CAPACITY];
+    private final double[] prices = new double[SymbolRegistry.CAPACITY];
+    private final long[] timestamps = new long[SymbolRegistry.CAPACITY];
+    private final long[] sequences = new long[SymbolRegistry.CAPACITY];
+
+    @SuppressWarnings("unused")
+    private volatile long bookVersion;
+
+    public PriceBook(SymbolRegistry symbolRegistry) {
+        this.symbolRegistry = symbolRegistry;
+    }
+
+    /**
+     * Apply every tick of a batch as one update of the book.
+     */
+    public synchronized void apply(TickBatch batch, long timestamp) {
+        long book = bookVersion;
+        BOOK_VERSION.setOpaque(this, book + 1);
+        VarHandle.storeStoreFence();
+
+        for (int i = 0; i < batch.size(); i++) {
+            int id = batch.symbolId(i);
+            long version = versions[id];
+            VERSIONS.setOpaque(versions, id, version + 1);
+            VarHandle.storeStoreFence();
+
+            prices[id] = batch.price(i);
+            timestamps[id] = timestamp;
+            sequences[id]++;
+
+            VERSIONS.setRelease(versions, id, version + 2);
+        }
+
+        BOOK_VERSION.setRelease(this, book + 2);
+    }
+
+    /**
+     * Latest price of a symbol, or {@link Double#NaN} if none has been received yet.
+     */
+    public double price(int symbolId) {
+        while (true) {
+            long version = (long) VERSIONS.getAcquire(versions, symbolId);
+            double price = prices[symbolId];
+            long sequence = sequences[symbolId];
+            VarHandle.loadLoadFence();
+            if ((version & 1) == 0 && (long) VERSIONS.getOpaque(versions, symbolId) == version) {
+                return sequence == 0 ? Double.NaN : price;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Epoch millis at which the latest price of a symbol was received, or 0 if none has been received yet.
+     */
+    public long timestamp(int symbolId) {
+        while (true) {
+            long version = (long) VERSIONS.getAcquire(versions, symbolId);
+            long timestamp = timestamps[symbolId];
+            long sequence = sequences[symbolId];
+            VarHandle.loadLoadFence();
+            if ((version & 1) == 0 && (long) VERSIONS.getOpaque(versions, symbolId) == version) {
+                return sequence == 0 ? 0 : timestamp;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Read price, timestamp and sequence of a symbol consistently into the given holder.
+     * @return {@code false} if no price has been received for the symbol yet.
+     */
+    public boolean read(int symbolId, PriceQuote quote) {
+        while (true) {
+            long version = (long) VERSIONS.getAcquire(versions, symbolId);
+            quote.price = prices[symbolId];
+            quote.timestamp = timestamps[symbolId];
+            quote.sequence = sequences[symbolId];
+            VarHandle.loadLoadFence();
+            if ((version & 1) == 0 && (long) VERSIONS.getOpaque(versions, symbolId) == version) {
+                return quote.sequence > 0;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Read several symbols into the given holders, all as of the same moment: never part of a batch.
+     * A quote whose symbol has not received a price yet has a sequence of zero.
+     */
+    public void read(int[] symbolIds, PriceQuote[] quotes) {
+        while (true) {
+            long book = (long) BOOK_VERSION.getAcquire(this);
+            if ((book & 1) == 0) {
+                for (int i = 0; i < symbolIds.length; i++) {
+                    int id = symbolIds[i];
+                    quotes[i].price = prices[id];
+                    quotes[i].timestamp = timestamps[id];
+                    quotes[i].sequence = sequences[id];
+                }
+                VarHandle.loadLoadFence();
+                if ((long) BOOK_VERSION.getOpaque(this) == book) {
+                    return;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Consistent copy of every known price keyed by symbol. Never contains part of a batch.
+     */
+    public Map<String, Double> snapshot() {
+        while (true) {
+            long book = (long) BOOK_VERSION.getAcquire(this);
+            if ((book & 1) == 0) {
+                Map<String, Double> snapshot = new HashMap<>();
+                int size = symbolRegistry.size();
+                for (int id = 0; id < size; id++) {
+                    if (sequences[id] > 0) {
+                        snapshot.put(symbolRegistry.symbolOf(id), prices[id]);
+                    }
+                }
+                VarHandle.loadLoadFence();
+                if ((long) BOOK_VERSION.getOpaque(this) == book) {
+                    return Collections.unmodifiableMap(snapshot);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
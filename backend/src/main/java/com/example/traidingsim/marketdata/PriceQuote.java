@@ -0,0 +1,30 @@
+package com.example.traidingsim.marketdata;
+
+/**
+ * Mutable holder for a consistent read of one symbol from the {@link PriceBook}.
+ * Callers reuse an instance so that reading a quote does not allocate.
+ */
+public class PriceQuote {
+
+    double price;
+    long timestamp;
+    long sequence;
+
+    public double getPrice() {
+        return price;
+    }
+
+    /**
+     * Epoch millis at which the price was received.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Number of updates received for the symbol so far; zero means no price has been received yet.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.traidingsim.marketdata;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Replays recorded Kraken v2 frames from a file containing one JSON frame per line.
+ * Files in this format are produced by setting {@code market-data.record.file} on the live Kraken source.
+ */
+@Component
+@ConditionalOnProperty(name = "market-data.source", havingValue = "replay")
+@Slf4j
+public class ReplayMarketDataSource extends PacedMarketDataSource {
+
+    private final Path file;
+    private final boolean loop;
+
+    private BufferedReader reader;
+    private long framesInPass;
+
+    public ReplayMarketDataSource(@Value("${market-data.replay.file}") Path file,
+                                  @Value("${market-data.replay.rate:0}") long framesPerSecond,
+                                  @Value("${market-data.replay.loop:true}") boolean loop) {
+        super("replay", framesPerSecond);
+        this.file = file;
+        this.loop = loop;
+    }
+
+    @Override
+    protected String nextFrame() {
+        try {
+            String line = readFrame();
+            if (line == null && loop && framesInPass > 0) {
+                framesInPass = 0;
+                line = readFrame();
+            }
+            if (line == null) {
+                log.info("Finished replaying {}", file);
+            }
+            return line;
+        } catch (IOException e) {
+            log.error("Error reading replay file {}", file, e);
+            return null;
+        }
+    }
+
+    private String readFrame() throws IOException {
+        if (reader == null) {
+            reader = Files.newBufferedReader(file);
+        }
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isBlank()) {
+                framesInPass++;
+                return line;
+            }
+        }
+
+        reader.close();
+        reader = null;
+        return null;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.traidingsim.marketdata;
+
+import com.example.traidingsim.model.dto.SubscribeMessage;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns market symbols to small, dense integer IDs.
+ * The default subscription symbols are registered up front so they always get IDs {@code 0..19};
+ * symbols first seen on the feed are appended until {@link #CAPACITY} is reached. Symbols longer than
+ * {@link #MAX_SYMBOL_LENGTH} are never registered, so every tradable symbol fits in a journal record.
+ * Lookups by character range do not allocate, so the feed can resolve symbols straight from the parser buffer.
+ */
+@Component
+public class SymbolRegistry {
+
+    public static final int CAPACITY = 256;
+    public static final int MAX_SYMBOL_LENGTH = 15;
+
+    private static final int TABLE_SIZE = CAPACITY * 2;
+    private static final String USD_SUFFIX = "/USD";
+
+    private final String[] symbols = new String[CAPACITY];
+    private final char[][] symbolChars = new char[CAPACITY][];
+    private final int[] table = new int[TABLE_SIZE];
+    private final Map<String, Integer> usdAliases = new ConcurrentHashMap<>();
+
+    private volatile int size;
+
+    public SymbolRegistry() {
+        Arrays.fill(table, -1);
+        for (String symbol : SubscribeMessage.DEFAULT_SYMBOLS) {
+            register(symbol);
+        }
+    }
+
+    /**
+     * Resolve a symbol held in a character range, registering it if it has not been seen before.
+     * @return The symbol ID, or -1 if the registry is full or the symbol is too long.
+     */
+    public int intern(char[] buffer, int offset, int length) {
+        if (length > MAX_SYMBOL_LENGTH) {
+            return -1;
+        }
+        int id = find(buffer, offset, length);
+        if (id >= 0) {
+            return id;
+        }
+        return register(new String(buffer, offset, length));
+    }
+
+    /**
+     * Resolve a symbol without registering it.
+     * @return The symbol ID, or -1 if the symbol is unknown.
+     */
+    public int idOf(String symbol) {
+        if (symbol == null) {
+            return -1;
+        }
+        int mask = TABLE_SIZE - 1;
+        for (int slot = hash(symbol) & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id < 0 || id >= size) {
+                return -1;
+            }
+            if (symbols[id].equals(symbol)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Resolve a symbol as entered by a user: either the full pair ({@code BTC/USD}) or the base asset
+     * of a USD pair ({@code BTC}).
+     * @return The symbol ID, or -1 if the symbol is unknown.
+     */
+    public int resolve(String crypto) {
+        int id = idOf(crypto);
+        if (id >= 0 || crypto == null) {
+            return id;
+        }
+        Integer aliased = usdAliases.get(crypto);
+        return aliased != null ? aliased : -1;
+    }
+
+    /**
+     * The registered symbol a crypto resolves to, e.g. {@code BTC/USD} for {@code BTC}, so every spelling of a
+     * symbol is held and stored as one. Unknown cryptos are kept as they are.
+     */
+    public String canonical(String crypto) {
+        int id = resolve(crypto);
+        return id >= 0 ? symbols[id] : crypto;
+    }
+
+    public String symbolOf(int id) {
+        return symbols[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int find(char[] buffer, int offset, int length) {
+        int mask = TABLE_SIZE - 1;
+        for (int slot = hash(buffer, offset, length) & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id < 0 || id >= size) {
+                return -1;
+            }
+            if (Arrays.equals(symbolChars[id], 0, symbolChars[id].length, buffer, offset, offset + length)) {
+                return id;
+            }
+        }
+    }
+
+    private synchronized int register(String symbol) {
+        int existing = idOf(symbol);
+        if (existing >= 0) {
+            return existing;
+        }
+        int id = size;
+        if (id == CAPACITY || symbol.length() > MAX_SYMBOL_LENGTH) {
+            return -1;
+        }
+
+        symbols[id] = symbol;
+        symbolChars[id] = symbol.toCharArray();
+
+        int mask = TABLE_SIZE - 1;
+        int slot = hash(symbol) & mask;
+        while (table[slot] >= 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = id;
+
+        if (symbol.endsWith(USD_SUFFIX)) {
+            usdAliases.put(symbol.substring(0, symbol.length() - USD_SUFFIX.length()), id);
+        }
+
+        size = id + 1;
+        return id;
+    }
+
+    private static int hash(String symbol) {
+        int h = 0;
+        for (int i = 0; i < symbol.length(); i++) {
+            h = 31 * h + symbol.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(char[] buffer, int offset, int length) {
+        int h = 0;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + buffer[i];
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.traidingsim.marketdata;
+
+import com.example.traidingsim.model.dto.SubscribeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Generates Kraken v2 ticker frames for the default subscription symbols using a random walk.
+ * Useful as a repeatable, network-free load source. Each frame carries {@code market-data.synthetic.batch-size}
+ * symbols, the same way Kraken batches several symbols into snapshot frames, each stamped with the time the frame
+ * was generated. With {@code market-data.synthetic.book-depth} set, every ticker frame is followed by a book
+ * snapshot frame of that depth around the new prices of the same symbols.
+ */
+@Component
+@ConditionalOnProperty(name = "market-data.source", havingValue = "synthetic")
+public class SyntheticMarketDataSource extends PacedMarketDataSource {
+
+    private static final Map<String, Double> INITIAL_PRICES = Map.ofEntries(
+            Map.entry("BTC/USD", 60000.0), Map.entry("ETH/USD", 3000.0), Map.entry("BNB/USD", 550.0),
+            Map.entry("XRP/USD", 0.55), Map.entry("ADA/USD", 0.45), Map.entry("DOGE/USD", 0.12),
+            Map.entry("SOL/USD", 150.0), Map.entry("DOT/USD", 6.5), Map.entry("MATIC/USD", 0.6),
+            Map.entry("LTC/USD", 80.0), Map.entry("SHIB/USD", 0.00002), Map.entry("AVAX/USD", 30.0),
+            Map.entry("UNI/USD", 8.0), Map.entry("XLM/USD", 0.1), Map.entry("BCH/USD", 400.0),
+            Map.entry("ALGO/USD", 0.18), Map.entry("VET/USD", 0.03), Map.entry("ICP/USD", 10.0),
+            Map.entry("MANA/USD", 0.4), Map.entry("AXS/USD", 6.0)
+    );
+
+    private final List<String> symbols = SubscribeMessage.DEFAULT_SYMBOLS;
+    private final double[] prices = new double[symbols.size()];
+    private final double volatility;
+    private final int batchSize;
+    private final int bookDepth;
+    private final SplittableRandom random;
+    private final StringBuilder frame = new StringBuilder(256);
+
+    private int nextSymbol;
+    private int bookSymbol = -1;
+    private long timestampMillis = -1;
+    private String timestamp;
+
+    public SyntheticMarketDataSource(@Value("${market-data.synthetic.rate:100000}") long ticksPerSecond,
+                                     @Value("${market-data.synthetic.volatility:0.0005}") double volatility,
+                                     @Value("${market-data.synthetic.seed:42}") long seed,
+                                     @Value("${market-data.synthetic.batch-size:1}") int batchSize,
+                                     @Value("${market-data.synthetic.book-depth:0}") int bookDepth) {
+        super("synthetic", Math.max(1, ticksPerSecond / Math.max(1, batchSize)));
+        this.volatility = volatility;
+        this.batchSize = Math.max(1, Math.min(batchSize, symbols.size()));
+        this.bookDepth = Math.max(0, bookDepth);
+        this.random = new SplittableRandom(seed);
+        for (int i = 0; i < symbols.size(); i++) {
+            prices[i] = INITIAL_PRICES.getOrDefault(symbols.get(i), 1.0);
+        }
+    }
+
+    @Override
+    protected String nextFrame() {
+        if (bookSymbol >= 0) {
+            return nextBookFrame();
+        }
+        if (bookDepth > 0) {
+            bookSymbol = nextSymbol;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now != timestampMillis) {
+            timestampMillis = now;
+            timestamp = Instant.ofEpochMilli(now).toString();
+        }
+
+        frame.setLength(0);
+        frame.append("{\"channel\":\"ticker\",\"type\":\"update\",\"data\":[");
+
+        for (int n = 0; n < batchSize; n++) {
+            int i = nextSymbol;
+            nextSymbol = (i + 1) % symbols.size();
+
+            double last = prices[i] * Math.exp(volatility * random.nextGaussian());
+            prices[i] = last;
+            double spread = last * 0.0001;
+
+            if (n > 0) {
+                frame.append(',');
+            }
+            frame.append("{\"symbol\":\"").append(symbols.get(i))
+                    .append("\",\"bid\":").append(last - spread)
+                    .append(",\"ask\":").append(last + spread)
+                    .append(",\"last\":").append(last)
+                    .append(",\"timestamp\":\"").append(timestamp)
+                    .append("\"}");
+        }
+
+        frame.append("]}");
+        return frame.toString();
+    }
+
+    /**
+     * Book snapshot of the symbols of the previous ticker frame: levels one spread apart on either side of the
+     * last price, with random quantities.
+     */
+    private String nextBookFrame() {
+        frame.setLength(0);
+        frame.append("{\"channel\":\"book\",\"type\":\"snapshot\",\"data\":[");
+
+        for (int n = 0; n < batchSize; n++) {
+            int i = (bookSymbol + n) % symbols.size();
+            double last = prices[i];
+            double spread = last * 0.0001;
+
+            if (n > 0) {
+                frame.append(',');
+            }
+            frame.append("{\"symbol\":\"").append(symbols.get(i)).append("\",\"bids\":[");
+            appendLevels(last, -spread);
+            frame.append("],\"asks\":[");
+            appendLevels(last, spread);
+            frame.append("]}");
+        }
+
+        bookSymbol = -1;
+        frame.append("]}");
+        return frame.toString();
+    }
+
+    private void appendLevels(double last, double step) {
+        for (int level = 1; level <= bookDepth; level++) {
+            if (level > 1) {
+                frame.append(',');
+            }
+            frame.append("{\"price\":").append(last + step * level)
+                    .append(",\"qty\":").append(random.nextDouble(0.1, 10.0))
+                    .append('}');
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.traidingsim.marketdata;
+
+import java.util.Arrays;
+
+/**
+ * Reusable, primitive-backed buffer of the ticks decoded from a single frame.
+ * Owned by one thread; cleared and refilled for every frame so decoding produces no per-tick garbage.
+ */
+public class TickBatch {
+
+    private int[] symbolIds;
+    private double[] prices;
+    private int size;
+    private long exchangeTimestamp;
+
+    public TickBatch() {
+        this(32);
+    }
+
+    public TickBatch(int initialCapacity) {
+        this.symbolIds = new int[initialCapacity];
+        this.prices = new double[initialCapacity];
+    }
+
+    public void clear() {
+        size = 0;
+        exchangeTimestamp = 0;
+    }
+
+    public void add(int symbolId, double price) {
+        if (size == symbolIds.length) {
+            symbolIds = Arrays.copyOf(symbolIds, size * 2);
+            prices = Arrays.copyOf(prices, size * 2);
+        }
+        symbolIds[size] = symbolId;
+        prices[size] = price;
+        size++;
+    }
+
+    /**
+     * Keep the latest exchange timestamp of the batch's ticks, in epoch milliseconds.
+     */
+    public void exchangeTimestamp(long timestamp) {
+        exchangeTimestamp = Math.max(exchangeTimestamp, timestamp);
+    }
+
+    /**
+     * Latest exchange timestamp of the batch's ticks in epoch milliseconds, or 0 if the frame carried none.
+     */
+    public long exchangeTimestamp() {
+        return exchangeTimestamp;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int symbolId(int index) {
+        return symbolIds[index];
+    }
+
+    public double price(int index) {
+        return prices[index];
+    }
+}
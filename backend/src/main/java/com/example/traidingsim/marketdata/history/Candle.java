@@ -0,0 +1,7 @@
+package com.example.traidingsim.marketdata.history;
+
+/**
+ * One OHLCV candle. The ticker feed carries no trade sizes, so the volume is the number of ticks in the candle.
+ */
+public record Candle(long openTime, double open, double high, double low, double close, long volume) {
+}
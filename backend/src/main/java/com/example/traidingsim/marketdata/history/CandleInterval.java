@@ -0,0 +1,54 @@
+package com.example.traidingsim.marketdata.history;
+
+/**
+ * Candle intervals kept by the {@link TickHistory}, with the number of most recent candles held in memory for each.
+ */
+public enum CandleInterval {
+
+    SECOND("1s", 1_000L, 3_600),
+    MINUTE("1m", 60_000L, 1_440),
+    FIVE_MINUTES("5m", 300_000L, 2_016),
+    HOUR("1h", 3_600_000L, 720);
+
+    private final String label;
+    private final long millis;
+    private final int capacity;
+
+    CandleInterval(String label, long millis, int capacity) {
+        this.label = label;
+        this.millis = millis;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return The interval with the given label ({@code 1s}, {@code 1m}, {@code 5m} or {@code 1h}), or
+     * {@code null} if there is none.
+     */
+    public static CandleInterval fromLabel(String label) {
+        for (CandleInterval interval : values()) {
+            if (interval.label.equals(label)) {
+                return interval;
+            }
+        }
+        return null;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Open time of the candle containing the given timestamp.
+     */
+    long openTime(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, millis);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.traidingsim.marketdata.history;
+
+import java.util.List;
+
+/**
+ * Ring of the most recent candles of one symbol and interval, in primitive arrays, updated tick by tick.
+ * Not thread-safe; guarded by the owning {@link TickSeries}.
+ */
+class CandleSeries {
+
+    private final CandleInterval interval;
+    private final int capacity;
+    private final long[] openTimes;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private final long[] volumes;
+
+    private long firstOpenTime = Long.MIN_VALUE;
+    private long count;
+
+    CandleSeries(CandleInterval interval) {
+        this.interval = interval;
+        this.capacity = interval.getCapacity();
+        this.openTimes = new long[capacity];
+        this.opens = new double[capacity];
+        this.highs = new double[capacity];
+        this.lows = new double[capacity];
+        this.closes = new double[capacity];
+        this.volumes = new long[capacity];
+    }
+
+    void add(long timestamp, double price) {
+        long openTime = interval.openTime(timestamp);
+        if (count > 0) {
+            int last = (int) ((count - 1) % capacity);
+            if (openTimes[last] == openTime) {
+                highs[last] = Math.max(highs[last], price);
+                lows[last] = Math.min(lows[last], price);
+                closes[last] = price;
+                volumes[last]++;
+                return;
+            }
+            if (openTime < openTimes[last]) {
+                return;
+            }
+        } else {
+            firstOpenTime = openTime;
+        }
+        int slot = (int) (count++ % capacity);
+        openTimes[slot] = openTime;
+        opens[slot] = price;
+        highs[slot] = price;
+        lows[slot] = price;
+        closes[slot] = price;
+        volumes[slot] = 1;
+    }
+
+    /**
+     * Open time from which the candles held here are complete: the oldest candle once the ring has wrapped,
+     * otherwise the candle after the first one, which may have started before this series did.
+     * {@link Long#MAX_VALUE} while the series is empty.
+     */
+    long completeFrom() {
+        if (count == 0) {
+            return Long.MAX_VALUE;
+        }
+        if (count > capacity) {
+            return openTimes[(int) (count % capacity)];
+        }
+        return firstOpenTime + interval.getMillis();
+    }
+
+    /**
+     * Append the candles with an open time in {@code [from, to)}, oldest first.
+     */
+    void collect(long from, long to, List<Candle> candles) {
+        for (long i = Math.max(0, count - capacity); i < count; i++) {
+            int slot = (int) (i % capacity);
+            long openTime = openTimes[slot];
+            if (openTime >= from && openTime < to) {
+                candles.add(new Candle(openTime, opens[slot], highs[slot], lows[slot], closes[slot], volumes[slot]));
+            }
+        }
+    }
+}
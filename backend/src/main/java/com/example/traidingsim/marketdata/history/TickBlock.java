@@ -0,0 +1,8 @@
+package com.example.traidingsim.marketdata.history;
+
+/**
+ * Copy of a run of consecutive ticks of one symbol, handed from the feed thread to the spill thread.
+ * @param endSequence Sequence number just after the last tick of the block.
+ */
+record TickBlock(TickSeries series, long[] timestamps, double[] prices, int size, long endSequence) {
+}
@@ -0,0 +1,13 @@
+package com.example.traidingsim.marketdata.history;
+
+/**
+ * Receives ticks one at a time, in the order they arrived.
+ */
+@FunctionalInterface
+interface TickConsumer {
+
+    /**
+     * @return Whether to go on passing ticks.
+     */
+    boolean accept(long timestamp, double price);
+}
@@ -0,0 +1,326 @@
+package com.example.traidingsim.marketdata.history;
+
+import com.example.traidingsim.exception.InvalidRequestException;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process tick history. Every tick from the feed goes into its symbol's {@link TickSeries}, which keeps the
+ * most recent ticks and candles in memory, and full blocks of ticks are spilled to compressed segment files in
+ * {@code market-data.history.directory} by a background thread. Memory use is fixed per symbol, and the
+ * registry holds at most {@link SymbolRegistry#CAPACITY} symbols. Segments older than
+ * {@code market-data.history.retention-hours} are deleted.
+ * At most {@code market-data.history.spill-queue-blocks} blocks wait to be spilled; when the disk falls further behind,
+ * the oldest waiting block is dropped, and counted in {@link #getDroppedBlocks()}, so memory stays bounded.
+ * Candles older than those held in memory are rolled up from the ticks on disk when they are asked for, from at
+ * most {@code market-data.history.max-roll-up-ticks} ticks. Segments are decoded without holding up the spill thread.
+ */
+@Component
+@Slf4j
+public class TickHistory {
+
+    private static final long RETENTION_CHECK_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private final SymbolRegistry symbolRegistry;
+    private final int blockSize;
+    private final long retentionMillis;
+    private final TickSegmentStore segmentStore;
+    private final ReadWriteLock spillLock = new ReentrantReadWriteLock();
+    private final AtomicReferenceArray<TickSeries> series = new AtomicReferenceArray<>(SymbolRegistry.CAPACITY);
+    private final ThreadPoolExecutor spillExecutor;
+    private final AtomicLong droppedBlocks = new AtomicLong();
+    private final long maxRollUpTicks;
+
+    private long lastRetentionCheck;
+
+    public TickHistory(SymbolRegistry symbolRegistry,
+                       @Value("${market-data.history.block-size:8192}") int blockSize,
+                       @Value("${market-data.history.directory:market-history}") String directory,
+                       @Value("${market-data.history.retention-hours:24}") long retentionHours,
+                       @Value("${market-data.history.spill-queue-blocks:64}") int spillQueueBlocks,
+                       @Value("${market-data.history.max-roll-up-ticks:10000000}") long maxRollUpTicks) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be greater than 0");
+        }
+        this.symbolRegistry = symbolRegistry;
+        this.blockSize = blockSize;
+        this.retentionMillis = TimeUnit.HOURS.toMillis(retentionHours);
+        this.maxRollUpTicks = maxRollUpTicks;
+        this.segmentStore = directory.isBlank() ? null : new TickSegmentStore(Path.of(directory));
+        this.spillExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(spillQueueBlocks), runnable -> {
+                    Thread thread = new Thread(runnable, "tick-spill");
+                    thread.setDaemon(true);
+                    return thread;
+                }, this::dropOldestSpill);
+    }
+
+    /**
+     * Record every tick of a batch. Called by the single market data thread.
+     */
+    public void record(TickBatch batch, long timestamp) {
+        for (int i = 0; i < batch.size(); i++) {
+            int symbolId = batch.symbolId(i);
+            TickSeries symbolSeries = series.get(symbolId);
+            if (symbolSeries == null) {
+                symbolSeries = new TickSeries(symbolRegistry.symbolOf(symbolId), blockSize, segmentStore != null);
+                series.set(symbolId, symbolSeries);
+            }
+            TickBlock block = symbolSeries.add(timestamp, batch.price(i));
+            if (block != null) {
+                spillExecutor.execute(() -> spill(block));
+            }
+        }
+    }
+
+    /**
+     * Candles of a symbol with an open time in {@code [from, to)} and in the {@code limit} most recent intervals of
+     * that range, oldest first.
+     * @throws InvalidRequestException If more than {@code market-data.history.max-roll-up-ticks} ticks on disk would
+     * have to be rolled up.
+     */
+    public List<Candle> candles(int symbolId, CandleInterval interval, long from, long to, int limit) {
+        TickSeries symbolSeries = symbolId >= 0 ? series.get(symbolId) : null;
+        if (symbolSeries == null || from >= to || limit <= 0) {
+            return List.of();
+        }
+        // Neither memory nor disk is read further back than the candles that can be returned
+        long start = Math.max(from, interval.openTime(to - 1) - (limit - 1L) * interval.getMillis());
+
+        List<Candle> candles = new ArrayList<>();
+        long inMemoryFrom = symbolSeries.candlesCompleteFrom(interval);
+        if (start < inMemoryFrom) {
+            rollUp(symbolSeries, interval, start, Math.min(to, inMemoryFrom), candles);
+        }
+        if (to > inMemoryFrom) {
+            symbolSeries.collectCandles(interval, Math.max(start, inMemoryFrom), to, candles);
+        }
+        return candles;
+    }
+
+    /**
+     * Every recorded tick of the given symbols with a timestamp in {@code [from, to)}, on disk or still in memory,
+     * merged into one time-ordered tape.
+     * @throws InvalidRequestException If there are more than {@code maxTicks} ticks. Reading stops as soon as the
+     * limit is passed, so a range too large is rejected without being loaded.
+     */
+    public TickTape tape(int[] symbolIds, long from, long to, long maxTicks) {
+        long[][] timestamps = new long[symbolIds.length][];
+        double[][] prices = new double[symbolIds.length][];
+        int[] sizes = new int[symbolIds.length];
+        long total = 0;
+        for (int s = 0; s < symbolIds.length; s++) {
+            TickSeries symbolSeries = symbolIds[s] >= 0 ? series.get(symbolIds[s]) : null;
+            TickColumns columns = new TickColumns();
+            if (symbolSeries != null && from < to && !forEachTick(symbolSeries, from, to, maxTicks - total, columns)) {
+                throw new InvalidRequestException("The range holds more than " + maxTicks
+                        + " recorded ticks; narrow it");
+            }
+            timestamps[s] = columns.timestamps;
+            prices[s] = columns.prices;
+            sizes[s] = columns.size;
+            total += columns.size;
+        }
+        return TickTape.merge(symbolIds, timestamps, prices, sizes);
+    }
+
+    /**
+     * Blocks of ticks dropped without being spilled because the spill queue was full.
+     */
+    public long getDroppedBlocks() {
+        return droppedBlocks.get();
+    }
+
+    /**
+     * Wait for every pending spill to finish, then spill the ticks still held only in memory.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        spillExecutor.shutdown();
+        spillExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        for (int id = 0; id < series.length(); id++) {
+            TickSeries symbolSeries = series.get(id);
+            TickBlock block = symbolSeries != null ? symbolSeries.drain() : null;
+            if (block != null) {
+                spill(block);
+            }
+        }
+    }
+
+    private void rollUp(TickSeries symbolSeries, CandleInterval interval, long from, long to, List<Candle> candles) {
+        CandleRollUp rollUp = new CandleRollUp(interval, candles);
+        if (!forEachTick(symbolSeries, from, to, maxRollUpTicks, rollUp)) {
+            throw new InvalidRequestException("The range holds more than " + maxRollUpTicks
+                    + " recorded ticks to roll up; narrow it or use a longer interval");
+        }
+        rollUp.finish();
+    }
+
+    /**
+     * Pass the ticks of a symbol with a timestamp in {@code [from, to)}, from disk and then from memory, to the
+     * consumer, until it asks to stop or more than {@code maxTicks} ticks are found.
+     * @return Whether every tick was passed.
+     */
+    private boolean forEachTick(TickSeries symbolSeries, long from, long to, long maxTicks, TickConsumer consumer) {
+        // No block may move from memory to disk between listing the segments and copying the unspilled ticks. The
+        // segments are decoded after the lock is released, so a long read never holds up the spill thread.
+        List<TickSegmentStore.Segment> segments = List.of();
+        TickColumns unspilled = new TickColumns();
+        spillLock.readLock().lock();
+        try {
+            if (segmentStore != null) {
+                try {
+                    segments = segmentStore.segments(symbolSeries.getSymbol(), from, to);
+                } catch (IOException e) {
+                    log.error("Failed to list tick segments of {}", symbolSeries.getSymbol(), e);
+                }
+            }
+            symbolSeries.forEachUnspilled(from, to, unspilled);
+        } finally {
+            spillLock.readLock().unlock();
+        }
+
+        long[] passed = {0};
+        TickConsumer counted = (timestamp, price) -> ++passed[0] <= maxTicks && consumer.accept(timestamp, price);
+        if (!segments.isEmpty()) {
+            try {
+                if (!segmentStore.read(segments, from, to, counted)) {
+                    return false;
+                }
+            } catch (IOException e) {
+                log.error("Failed to read tick segments of {}", symbolSeries.getSymbol(), e);
+            }
+        }
+        return unspilled.forEach(counted);
+    }
+
+    /**
+     * Make room for a new spill by dropping the oldest one waiting. Only the market data thread submits spills,
+     * so the retry finds a free slot.
+     */
+    private void dropOldestSpill(Runnable spill, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        executor.getQueue().poll();
+        long dropped = droppedBlocks.incrementAndGet();
+        log.warn("Tick spill queue full, dropped the oldest block of ticks ({} dropped so far)", dropped);
+        executor.execute(spill);
+    }
+
+    private void spill(TickBlock block) {
+        spillLock.writeLock().lock();
+        try {
+            segmentStore.write(block.series().getSymbol(), block.timestamps(), block.prices(), block.size());
+            block.series().spilled(block.endSequence());
+        } catch (IOException e) {
+            log.error("Failed to spill {} ticks of {}", block.size(), block.series().getSymbol(), e);
+        } finally {
+            spillLock.writeLock().unlock();
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastRetentionCheck >= RETENTION_CHECK_INTERVAL_MS) {
+            lastRetentionCheck = now;
+            try {
+                segmentStore.deleteOlderThan(now - retentionMillis);
+            } catch (IOException e) {
+                log.error("Failed to delete expired tick segments", e);
+            }
+        }
+    }
+
+    /**
+     * Collects ticks into growable primitive columns.
+     */
+    private static class TickColumns implements TickConsumer {
+
+        private long[] timestamps = new long[1024];
+        private double[] prices = new double[1024];
+        private int size;
+
+        @Override
+        public boolean accept(long timestamp, double price) {
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+            }
+            timestamps[size] = timestamp;
+            prices[size] = price;
+            size++;
+            return true;
+        }
+
+        boolean forEach(TickConsumer consumer) {
+            for (int i = 0; i < size; i++) {
+                if (!consumer.accept(timestamps[i], prices[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Rolls ticks, passed in time order, up into candles.
+     */
+    private static class CandleRollUp implements TickConsumer {
+
+        private final CandleInterval interval;
+        private final List<Candle> candles;
+
+        private long openTime = Long.MIN_VALUE;
+        private double open;
+        private double high;
+        private double low;
+        private double close;
+        private long volume;
+
+        CandleRollUp(CandleInterval interval, List<Candle> candles) {
+            this.interval = interval;
+            this.candles = candles;
+        }
+
+        @Override
+        public boolean accept(long timestamp, double price) {
+            long tickOpenTime = interval.openTime(timestamp);
+            if (tickOpenTime != openTime) {
+                finish();
+                openTime = tickOpenTime;
+                open = price;
+                high = price;
+                low = price;
+                volume = 0;
+            }
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            close = price;
+            volume++;
+            return true;
+        }
+
+        void finish() {
+            if (volume > 0) {
+                candles.add(new Candle(openTime, open, high, low, close, volume));
+                volume = 0;
+            }
+        }
+    }
+}
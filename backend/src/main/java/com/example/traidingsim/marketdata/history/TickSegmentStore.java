@@ -0,0 +1,175 @@
+package com.example.traidingsim.marketdata.history;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Tick segments on disk, one directory per symbol and one file per spilled {@link TickBlock}, named
+ * {@code <first timestamp>-<last timestamp>-<id>.ticks} so that a time range can be read without opening
+ * files outside it.
+ * A segment is columnar and deflate-compressed: the tick count and first timestamp, then every timestamp as the
+ * zigzag varint delta from the previous one, then every price as its IEEE bits XORed with the previous price's,
+ * which leaves the sign, exponent and leading mantissa bits of nearby prices zero for deflate to squeeze out.
+ */
+class TickSegmentStore {
+
+    private static final String SUFFIX = ".ticks";
+    private static final int VERSION = 1;
+
+    private final Path directory;
+    private final AtomicLong ids = new AtomicLong(System.currentTimeMillis());
+
+    TickSegmentStore(Path directory) {
+        this.directory = directory;
+    }
+
+    void write(String symbol, long[] timestamps, double[] prices, int size) throws IOException {
+        if (size == 0) {
+            return;
+        }
+        Path symbolDirectory = Files.createDirectories(directory.resolve(directoryName(symbol)));
+        String name = timestamps[0] + "-" + timestamps[size - 1] + "-" + ids.incrementAndGet();
+        Path temporary = symbolDirectory.resolve(name + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new DeflaterOutputStream(Files.newOutputStream(temporary))))) {
+            out.writeByte(VERSION);
+            out.writeInt(size);
+            out.writeLong(timestamps[0]);
+            for (int i = 1; i < size; i++) {
+                long delta = timestamps[i] - timestamps[i - 1];
+                writeVarLong(out, (delta << 1) ^ (delta >> 63));
+            }
+            long previous = 0;
+            for (int i = 0; i < size; i++) {
+                long bits = Double.doubleToRawLongBits(prices[i]);
+                out.writeLong(bits ^ previous);
+                previous = bits;
+            }
+        }
+        Files.move(temporary, symbolDirectory.resolve(name + SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * The segments of a symbol that may hold ticks with a timestamp in {@code [from, to)}, oldest first. Only the
+     * directory is listed, so this is cheap next to {@link #read}.
+     */
+    List<Segment> segments(String symbol, long from, long to) throws IOException {
+        return segments(directory.resolve(directoryName(symbol))).stream()
+                .filter(segment -> segment.last() >= from && segment.first() < to)
+                .toList();
+    }
+
+    /**
+     * Pass the ticks of the segments with a timestamp in {@code [from, to)} to the consumer, oldest first, until
+     * it asks to stop. Segments deleted since they were listed are skipped: their ticks are past the retention.
+     * @return Whether every tick was passed.
+     */
+    boolean read(List<Segment> segments, long from, long to, TickConsumer consumer) throws IOException {
+        for (Segment segment : segments) {
+            InputStream file;
+            try {
+                file = Files.newInputStream(segment.path());
+            } catch (NoSuchFileException e) {
+                continue;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(file)))) {
+                int version = in.readUnsignedByte();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported tick segment version " + version + " in " + segment.path());
+                }
+                int size = in.readInt();
+                long[] timestamps = new long[size];
+                timestamps[0] = in.readLong();
+                for (int i = 1; i < size; i++) {
+                    long zigzag = readVarLong(in);
+                    timestamps[i] = timestamps[i - 1] + ((zigzag >>> 1) ^ -(zigzag & 1));
+                }
+                long previous = 0;
+                for (int i = 0; i < size; i++) {
+                    long bits = in.readLong() ^ previous;
+                    previous = bits;
+                    if (timestamps[i] >= from && timestamps[i] < to
+                            && !consumer.accept(timestamps[i], Double.longBitsToDouble(bits))) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Delete every segment whose ticks are all older than the cutoff.
+     */
+    void deleteOlderThan(long cutoff) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> symbolDirectories;
+        try (Stream<Path> files = Files.list(directory)) {
+            symbolDirectories = files.filter(Files::isDirectory).toList();
+        }
+        for (Path symbolDirectory : symbolDirectories) {
+            for (Segment segment : segments(symbolDirectory)) {
+                if (segment.last() < cutoff) {
+                    Files.deleteIfExists(segment.path());
+                }
+            }
+        }
+    }
+
+    record Segment(Path path, long first, long last, long id) {
+    }
+
+    private static List<Segment> segments(Path symbolDirectory) throws IOException {
+        if (!Files.isDirectory(symbolDirectory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(symbolDirectory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .map(TickSegmentStore::parse)
+                    .sorted(Comparator.comparingLong(Segment::first).thenComparingLong(Segment::last)
+                            .thenComparingLong(Segment::id))
+                    .toList();
+        }
+    }
+
+    private static Segment parse(Path path) {
+        String name = path.getFileName().toString();
+        String[] parts = name.substring(0, name.length() - SUFFIX.length()).split("-");
+        return new Segment(path, Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+    }
+
+    private static String directoryName(String symbol) {
+        return symbol.replaceAll("[^A-Za-z0-9.]", "_");
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
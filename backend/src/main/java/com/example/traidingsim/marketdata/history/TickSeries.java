@@ -0,0 +1,112 @@
+package com.example.traidingsim.marketdata.history;
+
+import java.util.List;
+
+/**
+ * Tick history of one symbol: a ring of the most recent ticks in primitive arrays plus the candles of every
+ * {@link CandleInterval}, rolled up as each tick arrives.
+ * Ticks are numbered by a per-series sequence. Once {@code blockSize} ticks have arrived since the last block,
+ * they are copied out as a {@link TickBlock} to be spilled to disk; ticks only count as on disk once the block
+ * has been written. The ring holds two blocks, so it can fall one block behind the spill thread before ticks
+ * are overwritten unspilled.
+ * There is a single writer, the market data feed; readers synchronize on the series.
+ */
+class TickSeries {
+
+    private final String symbol;
+    private final int blockSize;
+    private final int capacity;
+    private final boolean spilling;
+    private final long[] timestamps;
+    private final double[] prices;
+    private final CandleSeries[] candles = new CandleSeries[CandleInterval.values().length];
+
+    private long head;
+    private long copied;
+    private long spilled;
+
+    TickSeries(String symbol, int blockSize, boolean spilling) {
+        this.symbol = symbol;
+        this.blockSize = blockSize;
+        this.capacity = blockSize * 2;
+        this.spilling = spilling;
+        this.timestamps = new long[capacity];
+        this.prices = new double[capacity];
+        for (CandleInterval interval : CandleInterval.values()) {
+            candles[interval.ordinal()] = new CandleSeries(interval);
+        }
+    }
+
+    String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Record one tick.
+     * @return A full block to spill, or {@code null}.
+     */
+    synchronized TickBlock add(long timestamp, double price) {
+        int slot = (int) (head++ % capacity);
+        timestamps[slot] = timestamp;
+        prices[slot] = price;
+        for (CandleSeries series : candles) {
+            series.add(timestamp, price);
+        }
+
+        if (!spilling || head - copied < blockSize) {
+            return null;
+        }
+        return copy(blockSize);
+    }
+
+    /**
+     * Copy every tick not yet handed out for spilling, so that nothing is lost on shutdown.
+     * @return The block, or {@code null} if there is nothing to spill.
+     */
+    synchronized TickBlock drain() {
+        return spilling && head > copied ? copy((int) Math.min(head - copied, capacity)) : null;
+    }
+
+    synchronized void spilled(long endSequence) {
+        spilled = Math.max(spilled, endSequence);
+    }
+
+    /**
+     * @see CandleSeries#completeFrom()
+     */
+    synchronized long candlesCompleteFrom(CandleInterval interval) {
+        return candles[interval.ordinal()].completeFrom();
+    }
+
+    synchronized void collectCandles(CandleInterval interval, long from, long to, List<Candle> out) {
+        candles[interval.ordinal()].collect(from, to, out);
+    }
+
+    /**
+     * Pass the ticks held in memory and not yet on disk with a timestamp in {@code [from, to)} to the consumer,
+     * until it asks to stop.
+     */
+    synchronized void forEachUnspilled(long from, long to, TickConsumer consumer) {
+        for (long sequence = Math.max(spilled, head - capacity); sequence < head; sequence++) {
+            int slot = (int) (sequence % capacity);
+            long timestamp = timestamps[slot];
+            if (timestamp >= from && timestamp < to && !consumer.accept(timestamp, prices[slot])) {
+                return;
+            }
+        }
+    }
+
+    private TickBlock copy(int size) {
+        long start = Math.max(copied, head - capacity);
+        size = (int) Math.min(size, head - start);
+        long[] blockTimestamps = new long[size];
+        double[] blockPrices = new double[size];
+        for (int i = 0; i < size; i++) {
+            int slot = (int) ((start + i) % capacity);
+            blockTimestamps[i] = timestamps[slot];
+            blockPrices[i] = prices[slot];
+        }
+        copied = start + size;
+        return new TickBlock(this, blockTimestamps, blockPrices, size, copied);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.traidingsim.marketdata.history;
+
+import java.util.Arrays;
+
+/**
+ * Recorded ticks of any number of symbols in one time-ordered sequence, held in primitive columns so a backtest
+ * can replay them without allocating or touching the disk. Symbols are identified by {@link
+ * com.example.traidingsim.marketdata.SymbolRegistry} ID and ticks sharing a timestamp form one batch, like the
+ * ticks of one frame on the live feed.
+ * Appended to by one thread; once built, any number of threads may replay it.
+ */
+public class TickTape {
+
+    private long[] timestamps;
+    private int[] symbolIds;
+    private double[] prices;
+    private int size;
+
+    public TickTape() {
+        this(1024);
+    }
+
+    public TickTape(int initialCapacity) {
+        this.timestamps = new long[initialCapacity];
+        this.symbolIds = new int[initialCapacity];
+        this.prices = new double[initialCapacity];
+    }
+
+    /**
+     * Append a tick. A tick older than the last one, as after a wall clock adjustment on the recording host, is
+     * moved forward to the last tick's time so that the tape never runs backwards.
+     */
+    public void add(long timestamp, int symbolId, double price) {
+        if (size > 0) {
+            timestamp = Math.max(timestamp, timestamps[size - 1]);
+        }
+        if (size == timestamps.length) {
+            int capacity = Math.max(16, size * 2);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            symbolIds = Arrays.copyOf(symbolIds, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+        }
+        timestamps[size] = timestamp;
+        symbolIds[size] = symbolId;
+        prices[size] = price;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long timestamp(int index) {
+        return timestamps[index];
+    }
+
+    public int symbolId(int index) {
+        return symbolIds[index];
+    }
+
+    public double price(int index) {
+        return prices[index];
+    }
+
+    /**
+     * Merge per-symbol tick columns, each in time order, into one tape. Ticks with equal timestamps keep the
+     * order of their symbols in the arguments.
+     */
+    static TickTape merge(int[] symbolIds, long[][] timestamps, double[][] prices, int[] sizes) {
+        int total = 0;
+        for (int size : sizes) {
+            total += size;
+        }
+        TickTape tape = new TickTape(Math.max(total, 1));
+        int[] positions = new int[symbolIds.length];
+        for (int n = 0; n < total; n++) {
+            int next = -1;
+            for (int s = 0; s < symbolIds.length; s++) {
+                if (positions[s] < sizes[s]
+                        && (next < 0 || timestamps[s][positions[s]] < timestamps[next][positions[next]])) {
+                    next = s;
+                }
+            }
+            int position = positions[next]++;
+            tape.add(timestamps[next][position], symbolIds[next], prices[next][position]);
+        }
+        return tape;
+    }
+}
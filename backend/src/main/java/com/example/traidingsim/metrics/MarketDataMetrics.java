@@ -0,0 +1,120 @@
+package com.example.traidingsim.metrics;
+
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the market data path, exposed on {@code /actuator/prometheus}:
+ * <ul>
+ *     <li>{@code market.data.ticks}: ticks received per symbol; {@code rate()} gives ticks per second</li>
+ *     <li>{@code market.data.parse}: time to decode a frame</li>
+ *     <li>{@code market.data.exchange.lag}: exchange timestamp of a ticker frame to its receipt, for frames that
+ *     carry one; includes any clock skew between the exchange and this host</li>
+ *     <li>{@code market.data.broadcast.latency}: receipt of a tick to its broadcast to frontend clients, conflation
+ *     delay included</li>
+ *     <li>{@code market.data.stream.subscribers}: Server-Sent Event streams following the prices, and
+ *     {@code market.data.stream.overflows}, buffered streams ended because their client fell too far behind</li>
+ * </ul>
+ * Latencies are timers with percentile histograms, so they can be aggregated across instances.
+ * Recording allocates nothing; per-symbol counters are created on a symbol's first tick.
+ */
+@Component
+public class MarketDataMetrics {
+
+    private final MeterRegistry registry;
+    private final SymbolRegistry symbolRegistry;
+    private final Counter[] ticks = new Counter[SymbolRegistry.CAPACITY];
+    private final Timer parseTimer;
+    private final Timer exchangeLagTimer;
+    private final Timer broadcastTimer;
+    private final Counter streamOverflows;
+
+    public MarketDataMetrics(MeterRegistry registry, SymbolRegistry symbolRegistry) {
+        this.registry = registry;
+        this.symbolRegistry = symbolRegistry;
+        this.parseTimer = latencyTimer("market.data.parse", "Time to decode a market data frame",
+                Duration.ofNanos(100), Duration.ofMillis(10));
+        this.exchangeLagTimer = latencyTimer("market.data.exchange.lag",
+                "Exchange timestamp of a ticker frame to its receipt", Duration.ofMillis(1), Duration.ofSeconds(30));
+        this.broadcastTimer = latencyTimer("market.data.broadcast.latency",
+                "Receipt of a tick to its broadcast to frontend clients", Duration.ofNanos(10_000),
+                Duration.ofSeconds(10));
+        this.streamOverflows = Counter.builder("market.data.stream.overflows")
+                .description("Buffered price streams ended because their client fell too far behind")
+                .register(registry);
+    }
+
+    /**
+     * Record a decoded frame. Called by the single market data thread.
+     * @param receivedNanos {@link System#nanoTime()} when the frame was received.
+     * @param receivedMillis Wall clock time when the frame was received.
+     */
+    public void onFrame(TickBatch batch, long receivedNanos, long receivedMillis) {
+        parseTimer.record(System.nanoTime() - receivedNanos, TimeUnit.NANOSECONDS);
+        for (int i = 0; i < batch.size(); i++) {
+            tickCounter(batch.symbolId(i)).increment();
+        }
+        long exchangeTimestamp = batch.exchangeTimestamp();
+        if (exchangeTimestamp > 0) {
+            exchangeLagTimer.record(Math.max(0, receivedMillis - exchangeTimestamp), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Record the time to decode a frame without ticks, such as a book frame.
+     */
+    public void onParsed(long receivedNanos) {
+        parseTimer.record(System.nanoTime() - receivedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record that a tick received at {@code receivedNanos} has been broadcast.
+     */
+    public void onBroadcast(long receivedNanos, long broadcastNanos) {
+        broadcastTimer.record(broadcastNanos - receivedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Expose the number of subscribers of the price stream.
+     */
+    public void registerStreamSubscribers(Sinks.Many<?> sink) {
+        Gauge.builder("market.data.stream.subscribers", sink, Sinks.Many::currentSubscriberCount)
+                .description("Server-Sent Event streams following the prices")
+                .register(registry);
+    }
+
+    public void onStreamOverflow() {
+        streamOverflows.increment();
+    }
+
+    private Counter tickCounter(int symbolId) {
+        Counter counter = ticks[symbolId];
+        if (counter == null) {
+            counter = Counter.builder("market.data.ticks")
+                    .description("Ticks received")
+                    .tag("symbol", symbolRegistry.symbolOf(symbolId))
+                    .register(registry);
+            ticks[symbolId] = counter;
+        }
+        return counter;
+    }
+
+    private Timer latencyTimer(String name, String description, Duration min, Duration max) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .minimumExpectedValue(min)
+                .maximumExpectedValue(max)
+                .register(registry);
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.traidingsim.metrics;
+
+import com.example.traidingsim.engine.TradeTimer;
+import com.example.traidingsim.model.enumeration.Type;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of trade execution, exposed on {@code /actuator/prometheus}:
+ * <ul>
+ *     <li>{@code trading.trade}: a trade request end to end on the request thread, including the wait for its
+ *     account's lock, by side and outcome ({@code executed} or the rejecting exception)</li>
+ *     <li>{@code trading.trade.phase}: each phase of an executed trade by side: {@code validate}, {@code price} and
+ *     {@code apply} in the engine, see {@link TradeTimer}, and {@code persist}, the wait until the trade is
+ *     durable according to the configured durability</li>
+ *     <li>{@code trading.order.batch}: an order batch end to end on the request thread, including the wait for its
+ *     account's lock and until its trades are durable, and {@code trading.order.batch.orders}, its orders by outcome ({@code executed} or
+ *     {@code rejected})</li>
+ *     <li>{@code trading.persistence.batch}: writing one batch of trade engine changes to the database</li>
+ *     <li>{@code trading.persistence.round.trips}: database round trips per persisted trade, one value per batch,
+ *     and the totals {@code trading.persistence.statements} and {@code trading.persistence.trades}</li>
+ *     <li>{@code trading.persistence.queue}: changes waiting to be written</li>
+ * </ul>
+ */
+@Component
+public class TradingMetrics implements TradeTimer {
+
+    public static final String OUTCOME_EXECUTED = "executed";
+
+    private static final String[] PHASES = {"validate", "price", "apply", "persist"};
+    private static final int PERSIST = 3;
+
+    private final MeterRegistry registry;
+    private final Timer[][] phaseTimers = new Timer[Type.values().length][PHASES.length];
+    private final Timer[] executedTimers = new Timer[Type.values().length];
+    private final Timer batchTimer;
+    private final Timer orderBatchTimer;
+    private final Counter batchOrdersExecuted;
+    private final Counter batchOrdersRejected;
+    private final DistributionSummary roundTripsPerTrade;
+    private final Counter statements;
+    private final Counter trades;
+    private final Counter batchFailures;
+    private final Counter droppedWrites;
+
+    public TradingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Type type : Type.values()) {
+            for (int phase = 0; phase < PHASES.length; phase++) {
+                phaseTimers[type.ordinal()][phase] = latencyTimer("trading.trade.phase")
+                        .description("Phase of an executed trade")
+                        .tag("side", side(type))
+                        .tag("phase", PHASES[phase])
+                        .register(registry);
+            }
+            executedTimers[type.ordinal()] = tradeTimer(type, OUTCOME_EXECUTED);
+        }
+        this.batchTimer = latencyTimer("trading.persistence.batch")
+                .description("Writing a batch of trade engine changes to the database")
+                .register(registry);
+        this.orderBatchTimer = latencyTimer("trading.order.batch")
+                .description("Order batch request end to end")
+                .register(registry);
+        this.batchOrdersExecuted = batchOrders(OUTCOME_EXECUTED);
+        this.batchOrdersRejected = batchOrders("rejected");
+        this.roundTripsPerTrade = DistributionSummary.builder("trading.persistence.round.trips")
+                .description("Database round trips per persisted trade")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.statements = Counter.builder("trading.persistence.statements")
+                .description("Database round trips of the trade persister")
+                .register(registry);
+        this.trades = Counter.builder("trading.persistence.trades")
+                .description("Trades persisted")
+                .register(registry);
+        this.batchFailures = Counter.builder("trading.persistence.failures")
+                .description("Batches of the trade persister that failed to commit")
+                .register(registry);
+        this.droppedWrites = Counter.builder("trading.persistence.dropped")
+                .description("Trade engine changes the trade persister could not write and set aside")
+                .register(registry);
+    }
+
+    @Override
+    public void record(Type type, long validateNanos, long priceNanos, long applyNanos) {
+        Timer[] timers = phaseTimers[type.ordinal()];
+        timers[0].record(validateNanos, TimeUnit.NANOSECONDS);
+        timers[1].record(priceNanos, TimeUnit.NANOSECONDS);
+        timers[2].record(applyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the wait until an executed trade was durable.
+     */
+    public void recordPersist(Type type, long nanos) {
+        phaseTimers[type.ordinal()][PERSIST].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a trade request end to end.
+     * @param outcome {@link #OUTCOME_EXECUTED}, or the simple name of the exception that rejected the trade.
+     */
+    public void recordTrade(Type type, String outcome, long nanos) {
+        Timer timer = OUTCOME_EXECUTED.equals(outcome) ? executedTimers[type.ordinal()] : tradeTimer(type, outcome);
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record an order batch request end to end.
+     */
+    public void recordOrderBatch(int executed, int rejected, long nanos) {
+        orderBatchTimer.record(nanos, TimeUnit.NANOSECONDS);
+        batchOrdersExecuted.increment(executed);
+        batchOrdersRejected.increment(rejected);
+    }
+
+    /**
+     * Record a batch written by the trade persister.
+     * @param roundTrips Statements sent to the database for the batch, commit included.
+     * @param tradeCount Trades in the batch; batches without trades only count towards the totals.
+     */
+    public void recordBatch(long nanos, long roundTrips, int tradeCount) {
+        batchTimer.record(nanos, TimeUnit.NANOSECONDS);
+        statements.increment(roundTrips);
+        trades.increment(tradeCount);
+        if (tradeCount > 0) {
+            roundTripsPerTrade.record((double) roundTrips / tradeCount);
+        }
+    }
+
+    /**
+     * Record a batch of the trade persister that failed to commit.
+     */
+    public void recordBatchFailure() {
+        batchFailures.increment();
+    }
+
+    /**
+     * Record a trade engine change the trade persister gave up on.
+     */
+    public void recordDroppedWrite() {
+        droppedWrites.increment();
+    }
+
+    /**
+     * Expose the size of the trade persister's queue.
+     */
+    public void registerPersistenceQueue(Collection<?> queue) {
+        Gauge.builder("trading.persistence.queue", queue, Collection::size)
+                .description("Trade engine changes waiting to be written")
+                .register(registry);
+    }
+
+    private Timer tradeTimer(Type type, String outcome) {
+        return latencyTimer("trading.trade")
+                .description("Trade request end to end")
+                .tag("side", side(type))
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private Counter batchOrders(String outcome) {
+        return Counter.builder("trading.order.batch.orders")
+                .description("Orders of order batches")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Timer.Builder latencyTimer(String name) {
+        return Timer.builder(name)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .minimumExpectedValue(Duration.ofNanos(100))
+                .maximumExpectedValue(Duration.ofSeconds(10));
+    }
+
+    private static String side(Type type) {
+        return type.name().toLowerCase();
+    }
+}
@@ -3,16 +3,28 @@ package com.example.traidingsim.model;
 import com.example.traidingsim.model.enumeration.Type;
 import jakarta.persistence.*;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_account_crypto_time", columnList = "account_id, crypto, executed_at, id"),
+        @Index(name = "idx_transactions_account_time", columnList = "account_id, executed_at, id")
+})
 public class Transaction {
 
+    public static final int ID_ALLOCATION_SIZE = 500;
+
+    /**
+     * Pooled sequence IDs: Hibernate reserves {@code allocationSize} IDs per sequence call and, unlike
+     * {@code IDENTITY}, can batch the inserts.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private long Id;
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = ID_ALLOCATION_SIZE)
+    private long id;
 
     private String crypto;
     private double amount;
@@ -20,6 +32,9 @@ public class Transaction {
     private double total;
     private String dateTime;
 
+    @Column(name = "executed_at")
+    private Instant executedAt;
+
     @Enumerated(EnumType.STRING)
     private Type type;
 
@@ -32,17 +47,22 @@ public class Transaction {
     public Transaction() {}
 
     public Transaction(String crypto, double amount, double price, double total, Type type) {
+        this(crypto, amount, price, total, type, Instant.now());
+    }
+
+    public Transaction(String crypto, double amount, double price, double total, Type type, Instant executedAt) {
         this.crypto = crypto;
         this.amount = amount;
         this.price = price;
         this.total = total;
-        this.dateTime = LocalDateTime.now().format( FORMATTER);
+        this.dateTime = LocalDateTime.ofInstant(executedAt, ZoneId.systemDefault()).format(FORMATTER);
+        this.executedAt = executedAt;
         this.type = type;
     }
 
-    public long getId() { return Id; }
+    public long getId() { return id; }
 
-    public void setId(long Id) { this.Id = Id; }
+    public void setId(long id) { this.id = id; }
 
     public String getCrypto() {
         return crypto;
@@ -84,6 +104,23 @@ public class Transaction {
         this.dateTime = dateTime;
     }
 
+    public Instant getExecutedAt() {
+        return executedAt;
+    }
+
+    public void setExecutedAt(Instant executedAt) {
+        this.executedAt = executedAt;
+    }
+
+    /**
+     * Fill {@link #executedAt} from the formatted date of rows written before it existed.
+     */
+    public void backfillExecutedAt() {
+        if (executedAt == null && dateTime != null) {
+            executedAt = LocalDateTime.parse(dateTime, FORMATTER).atZone(ZoneId.systemDefault()).toInstant();
+        }
+    }
+
     public Type getType() {
         return type;
     }
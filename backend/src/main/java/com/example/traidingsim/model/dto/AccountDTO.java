@@ -0,0 +1,14 @@
+package com.example.traidingsim.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@Builder
+public class AccountDTO {
+    private long id;
+    private double balance;
+    private Map<String, Double> cryptoHoldings;
+}
@@ -0,0 +1,19 @@
+package com.example.traidingsim.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BacktestResultDTO {
+    private String name;
+    private int fastWindow;
+    private int slowWindow;
+    private int ticks;
+    private int trades;
+    private double elapsedMillis;
+    private double ticksPerSecond;
+    private double finalBalance;
+    private double profitLoss;
+    private double equity;
+}
@@ -0,0 +1,15 @@
+package com.example.traidingsim.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BroadcastStatsDTO {
+    private long ticksReceived;
+    private long ticksConflated;
+    private long messagesSent;
+    private long pricesUnwatched;
+    private long bytesSent;
+    private long flushIntervalMs;
+}
@@ -0,0 +1,17 @@
+package com.example.traidingsim.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class CandleDTO {
+    private Instant openTime;
+    private double open;
+    private double high;
+    private double low;
+    private double close;
+    private long volume;
+}
@@ -0,0 +1,19 @@
+package com.example.traidingsim.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class CryptoPriceBatchDTO {
+
+    public static final String SNAPSHOT = "snapshot";
+    public static final String DELTA = "delta";
+
+    private String type;
+    private long sequence;
+    private long timestamp;
+    private List<CryptoPriceDTO> prices;
+}
@@ -0,0 +1,33 @@
+package com.example.traidingsim.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+public class FeedStatusDTO {
+    private boolean live;
+    private boolean connected;
+    private Instant lastFrameAt;
+    private long lagMillis;
+    private long connects;
+    private long reconnects;
+    private long disconnects;
+    private long heartbeatTimeouts;
+    private long gaps;
+    private long maxGapMillis;
+    private List<SymbolStatus> symbols;
+
+    @Data
+    @Builder
+    public static class SymbolStatus {
+        private String symbol;
+        private Instant lastUpdateAt;
+        private long ageMillis;
+        private long updates;
+        private boolean stale;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.traidingsim.model.dto;
+
+import com.example.traidingsim.model.enumeration.Type;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarketOrderDTO {
+    private String crypto;
+    private Type side;
+    private double amount;
+}
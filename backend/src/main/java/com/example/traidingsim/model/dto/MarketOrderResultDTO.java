@@ -0,0 +1,17 @@
+package com.example.traidingsim.model.dto;
+
+import com.example.traidingsim.model.enumeration.Type;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class MarketOrderResultDTO {
+    private boolean success;
+    private String crypto;
+    private Type side;
+    private double amount;
+    private Double price;
+    private Double total;
+    private String message;
+}
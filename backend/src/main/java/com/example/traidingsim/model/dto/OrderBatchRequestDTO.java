@@ -0,0 +1,10 @@
+package com.example.traidingsim.model.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class OrderBatchRequestDTO {
+    private List<MarketOrderDTO> orders;
+}
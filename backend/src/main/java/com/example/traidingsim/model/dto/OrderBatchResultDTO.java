@@ -0,0 +1,15 @@
+package com.example.traidingsim.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class OrderBatchResultDTO {
+    private long accountId;
+    private int executed;
+    private int rejected;
+    private List<MarketOrderResultDTO> results;
+}
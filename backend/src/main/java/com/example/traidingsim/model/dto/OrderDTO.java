@@ -0,0 +1,24 @@
+package com.example.traidingsim.model.dto;
+
+import com.example.traidingsim.model.enumeration.OrderStatus;
+import com.example.traidingsim.model.enumeration.OrderType;
+import com.example.traidingsim.model.enumeration.Type;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class OrderDTO {
+    private long id;
+    private long accountId;
+    private String crypto;
+    private OrderType type;
+    private Type side;
+    private double amount;
+    private double price;
+    private Instant createdAt;
+    private OrderStatus status;
+    private String reason;
+}
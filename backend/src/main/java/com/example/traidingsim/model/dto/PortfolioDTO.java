@@ -0,0 +1,17 @@
+package com.example.traidingsim.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class PortfolioDTO {
+    private long accountId;
+    private double balance;
+    private Map<String, Double> cryptoHoldings;
+    private List<PositionDTO> positions;
+    private double profitLoss;
+}
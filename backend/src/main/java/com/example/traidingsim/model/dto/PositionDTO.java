@@ -0,0 +1,20 @@
+package com.example.traidingsim.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class PositionDTO {
+    private String crypto;
+    private double quantity;
+    private double averageCost;
+    private double totalBought;
+    private double totalSold;
+    private double amountBought;
+    private double amountSold;
+    private Double currentPrice;
+    private double realizedProfitLoss;
+    private double unrealizedProfitLoss;
+    private double profitLoss;
+}
@@ -0,0 +1,14 @@
+package com.example.traidingsim.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class PriceSubscriptionDTO {
+    private Map<String, String> destinations;
+    private List<CryptoPriceDTO> prices;
+}
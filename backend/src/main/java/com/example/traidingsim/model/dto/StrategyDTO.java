@@ -0,0 +1,22 @@
+package com.example.traidingsim.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class StrategyDTO {
+    private String name;
+    private long accountId;
+    private String description;
+    private String state;
+    private long processed;
+    private long errors;
+    private String lastError;
+    private long queueDepth;
+    private long maxQueueDepth;
+    private int queueCapacity;
+    private long dropped;
+    private double meanLatencyMicros;
+    private double maxLatencyMicros;
+}
@@ -13,6 +13,13 @@ import java.util.Map;
 @AllArgsConstructor
 public class SubscribeMessage {
 
+    public static final List<String> DEFAULT_SYMBOLS = List.of(
+            "BTC/USD", "ETH/USD", "BNB/USD", "XRP/USD", "ADA/USD",
+            "DOGE/USD", "SOL/USD", "DOT/USD", "MATIC/USD", "LTC/USD",
+            "SHIB/USD", "AVAX/USD", "UNI/USD", "XLM/USD", "BCH/USD",
+            "ALGO/USD", "VET/USD", "ICP/USD", "MANA/USD", "AXS/USD"
+    );
+
     private String method = "subscribe";
 
     @JsonProperty("params")
@@ -23,12 +30,21 @@ public class SubscribeMessage {
                 "subscribe",
                 Map.of(
                         "channel", "ticker",
-                        "symbol", List.of(
-                                "BTC/USD", "ETH/USD", "BNB/USD", "XRP/USD", "ADA/USD",
-                                "DOGE/USD", "SOL/USD", "DOT/USD", "MATIC/USD", "LTC/USD",
-                                "SHIB/USD", "AVAX/USD", "UNI/USD", "XLM/USD", "BCH/USD",
-                                "ALGO/USD", "VET/USD", "ICP/USD", "MANA/USD", "AXS/USD"
-                        )
+                        "symbol", DEFAULT_SYMBOLS
+                )
+        );
+    }
+
+    /**
+     * Subscription to the level 2 book of the default symbols, {@code depth} levels per side.
+     */
+    public static SubscribeMessage createBookSubscription(int depth) {
+        return new SubscribeMessage(
+                "subscribe",
+                Map.of(
+                        "channel", "book",
+                        "symbol", DEFAULT_SYMBOLS,
+                        "depth", depth
                 )
         );
     }
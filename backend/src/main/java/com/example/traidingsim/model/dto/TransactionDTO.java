@@ -0,0 +1,21 @@
+package com.example.traidingsim.model.dto;
+
+import com.example.traidingsim.model.enumeration.Type;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class TransactionDTO {
+    private long id;
+    private long accountId;
+    private String crypto;
+    private double amount;
+    private double price;
+    private double total;
+    private Type type;
+    private String dateTime;
+    private Instant executedAt;
+}
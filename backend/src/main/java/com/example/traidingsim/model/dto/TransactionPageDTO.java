@@ -0,0 +1,16 @@
+package com.example.traidingsim.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class TransactionPageDTO {
+    private List<TransactionDTO> transactions;
+    /**
+     * Cursor of the next (older) page, or {@code null} if this is the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,5 @@
+package com.example.traidingsim.model.enumeration;
+
+public enum OrderStatus {
+    OPEN, FILLED, REJECTED, CANCELLED
+}
@@ -0,0 +1,5 @@
+package com.example.traidingsim.model.enumeration;
+
+public enum OrderType {
+    LIMIT, STOP_LOSS, TAKE_PROFIT
+}
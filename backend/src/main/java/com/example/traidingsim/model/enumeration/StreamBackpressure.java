@@ -0,0 +1,5 @@
+package com.example.traidingsim.model.enumeration;
+
+public enum StreamBackpressure {
+    LATEST, BUFFER
+}
@@ -0,0 +1,10 @@
+package com.example.traidingsim.repository;
+
+import com.example.traidingsim.model.enumeration.Type;
+
+/**
+ * The columns of a stored transaction needed to rebuild an account's aggregates, read without an entity around them
+ * so that they are never held in the persistence context.
+ */
+public record TradeRow(String crypto, double amount, double total, Type type) {
+}
@@ -1,10 +1,44 @@
 package com.example.traidingsim.repository;
 
 import com.example.traidingsim.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
 
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction> {
+
+    /**
+     * The trades of an account in the order they were executed, fetched from the database 1000 rows at a time.
+     * The stream must be consumed, and closed, within a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.traidingsim.repository.TradeRow(t.crypto, t.amount, t.total, t.type)"
+            + " from Transaction t where t.account.id = :accountId order by t.id")
+    Stream<TradeRow> streamTradesByAccountId(@Param("accountId") Long accountId);
+
+    List<Transaction> findByExecutedAtIsNull();
+
+    @Modifying
+    @Query("delete from Transaction t where t.account.id = :accountId")
+    void deleteByAccountId(@Param("accountId") Long accountId);
+
+    @Query("select distinct t.crypto from Transaction t")
+    List<String> findDistinctCryptos();
+
+    @Transactional
+    @Modifying
+    @Query("update Transaction t set t.crypto = :symbol where t.crypto = :crypto")
+    int renameCrypto(@Param("crypto") String crypto, @Param("symbol") String symbol);
 }
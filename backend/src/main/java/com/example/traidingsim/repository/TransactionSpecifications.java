@@ -0,0 +1,56 @@
+package com.example.traidingsim.repository;
+
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.model.Transaction;
+import com.example.traidingsim.model.enumeration.Type;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query predicates for transaction history. Every query is scoped to one account and the filters map onto
+ * the (account, crypto, executed_at, id) and (account, executed_at, id) indexes of the transactions table.
+ */
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    /**
+     * Transactions of an account, optionally restricted to one symbol, one type and a time range
+     * ({@code from} inclusive, {@code to} exclusive). {@code null} filters are ignored.
+     * Transactions are stored with the canonical symbol, see {@link SymbolRegistry#canonical(String)}, so
+     * {@code crypto} is expected in that spelling.
+     */
+    public static Specification<Transaction> matching(long accountId, String crypto, Type type, Instant from, Instant to) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("account").get("id"), accountId));
+            if (crypto != null) {
+                predicates.add(cb.equal(root.get("crypto"), crypto));
+            }
+            if (type != null) {
+                predicates.add(cb.equal(root.get("type"), type));
+            }
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("executedAt"), from));
+            }
+            if (to != null) {
+                predicates.add(cb.lessThan(root.get("executedAt"), to));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Keyset predicate for newest-first pages: transactions strictly older than the given position.
+     */
+    public static Specification<Transaction> before(Instant executedAt, long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("executedAt"), executedAt),
+                cb.and(cb.equal(root.get("executedAt"), executedAt), cb.lessThan(root.get("id"), id)));
+    }
+}
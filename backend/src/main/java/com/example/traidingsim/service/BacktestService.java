@@ -0,0 +1,124 @@
+package com.example.traidingsim.service;
+
+import com.example.traidingsim.backtest.BacktestResult;
+import com.example.traidingsim.backtest.BacktestRun;
+import com.example.traidingsim.backtest.Backtester;
+import com.example.traidingsim.exception.CryptoNotFoundException;
+import com.example.traidingsim.exception.InvalidAmountException;
+import com.example.traidingsim.exception.InvalidRequestException;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.history.TickHistory;
+import com.example.traidingsim.marketdata.history.TickTape;
+import com.example.traidingsim.model.dto.BacktestResultDTO;
+import com.example.traidingsim.strategy.MovingAverageCrossStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@Slf4j
+public class BacktestService {
+
+    private static final int MAX_RUNS = 1000;
+
+    private final Backtester backtester;
+    private final TickHistory tickHistory;
+    private final SymbolRegistry symbolRegistry;
+    private final int parallelism;
+    private final long maxRangeMillis;
+    private final int maxTicks;
+
+    public BacktestService(Backtester backtester, TickHistory tickHistory, SymbolRegistry symbolRegistry,
+                           @Value("${backtest.parallelism:0}") int parallelism,
+                           @Value("${backtest.max-range-hours:168}") long maxRangeHours,
+                           @Value("${backtest.max-ticks:10000000}") int maxTicks) {
+        this.backtester = backtester;
+        this.tickHistory = tickHistory;
+        this.symbolRegistry = symbolRegistry;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.maxRangeMillis = TimeUnit.HOURS.toMillis(maxRangeHours);
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * Sweep a moving average cross strategy over the recorded ticks of a symbol in {@code [from, to)}, with one
+     * run for every pair of a fast and a longer slow window. Without {@code to} the range ends now; without
+     * {@code from} it starts a day before {@code to}. The sweep runs on the calling thread, so the range is capped
+     * at {@code backtest.max-range-hours} and its ticks at {@code backtest.max-ticks}.
+     * Trades fill at the last price, see {@link Backtester}.
+     */
+    public List<BacktestResultDTO> sweepMovingAverageCross(String crypto, Instant from, Instant to,
+                                                           List<Integer> fastWindows, List<Integer> slowWindows,
+                                                           double amount, double balance) {
+        int symbolId = symbolRegistry.resolve(crypto);
+        if (symbolId < 0) {
+            throw new CryptoNotFoundException("Unknown cryptocurrency: " + crypto);
+        }
+        if (!(amount > 0) || Double.isInfinite(amount)) {
+            throw new InvalidAmountException("Amount must be greater than 0");
+        }
+        if (!(balance >= 0) || Double.isInfinite(balance)) {
+            throw new InvalidAmountException("Balance must not be negative");
+        }
+
+        List<BacktestRun> runs = new ArrayList<>();
+        List<int[]> windows = new ArrayList<>();
+        for (int fast : fastWindows) {
+            for (int slow : slowWindows) {
+                if (fast > 0 && slow > fast) {
+                    runs.add(new BacktestRun("sma " + fast + "/" + slow,
+                            () -> new MovingAverageCrossStrategy(crypto, fast, slow, amount)));
+                    windows.add(new int[]{fast, slow});
+                }
+            }
+        }
+        if (runs.isEmpty()) {
+            throw new InvalidRequestException("At least one fast window must be greater than 0 and shorter than a slow window");
+        }
+        if (runs.size() > MAX_RUNS) {
+            throw new InvalidRequestException("A sweep may have at most " + MAX_RUNS + " runs");
+        }
+
+        long toMillis = to != null ? to.toEpochMilli() : System.currentTimeMillis() + 1;
+        long fromMillis = from != null ? from.toEpochMilli() : toMillis - TimeUnit.DAYS.toMillis(1);
+        if (fromMillis >= toMillis) {
+            throw new InvalidRequestException("The range must start before it ends");
+        }
+        if (toMillis - fromMillis > maxRangeMillis) {
+            throw new InvalidRequestException("A backtest may cover at most "
+                    + TimeUnit.MILLISECONDS.toHours(maxRangeMillis) + " hours");
+        }
+        TickTape tape = tickHistory.tape(new int[]{symbolId}, fromMillis, toMillis, maxTicks);
+
+        long start = System.nanoTime();
+        List<BacktestResult> results = backtester.sweep(tape, runs, balance, parallelism);
+        log.info("Backtested {} runs over {} ticks of {} in {} ms", runs.size(), tape.size(), crypto,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        List<BacktestResultDTO> dtos = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            dtos.add(toBacktestResultDTO(results.get(i), windows.get(i)));
+        }
+        return dtos;
+    }
+
+    private static BacktestResultDTO toBacktestResultDTO(BacktestResult result, int[] windows) {
+        return BacktestResultDTO.builder()
+                .name(result.name())
+                .fastWindow(windows[0])
+                .slowWindow(windows[1])
+                .ticks(result.ticks())
+                .trades(result.trades())
+                .elapsedMillis(result.elapsedNanos() / 1e6)
+                .ticksPerSecond(result.ticksPerSecond())
+                .finalBalance(result.finalBalance())
+                .profitLoss(result.profitLoss())
+                .equity(result.equity())
+                .build();
+    }
+}
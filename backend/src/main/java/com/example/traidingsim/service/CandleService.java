@@ -0,0 +1,63 @@
+package com.example.traidingsim.service;
+
+import com.example.traidingsim.exception.CryptoNotFoundException;
+import com.example.traidingsim.exception.InvalidRequestException;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.history.Candle;
+import com.example.traidingsim.marketdata.history.CandleInterval;
+import com.example.traidingsim.marketdata.history.TickHistory;
+import com.example.traidingsim.model.dto.CandleDTO;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+@Service
+public class CandleService {
+
+    private static final int MAX_CANDLES = 5000;
+
+    private final TickHistory tickHistory;
+    private final SymbolRegistry symbolRegistry;
+
+    public CandleService(TickHistory tickHistory, SymbolRegistry symbolRegistry) {
+        this.tickHistory = tickHistory;
+        this.symbolRegistry = symbolRegistry;
+    }
+
+    /**
+     * OHLCV candles of a symbol with an open time in {@code [from, to)}, oldest first.
+     * Without {@code to} the range ends now; without {@code from} it covers the {@code limit} intervals before
+     * {@code to}. Only the candles of the {@code limit} most recent intervals of the range are returned.
+     */
+    public List<CandleDTO> getCandles(String crypto, String interval, Instant from, Instant to, int limit) {
+        int symbolId = symbolRegistry.resolve(crypto);
+        if (symbolId < 0) {
+            throw new CryptoNotFoundException("Unknown cryptocurrency: " + crypto);
+        }
+        CandleInterval candleInterval = CandleInterval.fromLabel(interval);
+        if (candleInterval == null) {
+            throw new InvalidRequestException("Interval must be one of 1s, 1m, 5m or 1h");
+        }
+        if (limit <= 0 || limit > MAX_CANDLES) {
+            throw new InvalidRequestException("Limit must be between 1 and " + MAX_CANDLES);
+        }
+
+        long toMillis = to != null ? to.toEpochMilli() : System.currentTimeMillis() + 1;
+        long fromMillis = from != null ? from.toEpochMilli() : toMillis - limit * candleInterval.getMillis();
+        return tickHistory.candles(symbolId, candleInterval, fromMillis, toMillis, limit).stream()
+                .map(CandleService::toCandleDTO)
+                .toList();
+    }
+
+    private static CandleDTO toCandleDTO(Candle candle) {
+        return CandleDTO.builder()
+                .openTime(Instant.ofEpochMilli(candle.openTime()))
+                .open(candle.open())
+                .high(candle.high())
+                .low(candle.low())
+                .close(candle.close())
+                .volume(candle.volume())
+                .build();
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.traidingsim.service;
+
+import com.example.traidingsim.engine.OrderTriggerIndex;
+import com.example.traidingsim.engine.RestingOrder;
+import com.example.traidingsim.engine.TradeEngine;
+import com.example.traidingsim.engine.TradeResult;
+import com.example.traidingsim.engine.TradeShards;
+import com.example.traidingsim.exception.AccountNotFoundException;
+import com.example.traidingsim.exception.CryptoNotFoundException;
+import com.example.traidingsim.exception.InsufficientFundsException;
+import com.example.traidingsim.exception.InsufficientHoldingsException;
+import com.example.traidingsim.exception.InvalidAmountException;
+import com.example.traidingsim.exception.InvalidRequestException;
+import com.example.traidingsim.exception.LimitPriceException;
+import com.example.traidingsim.exception.OrderNotFoundException;
+import com.example.traidingsim.exception.StalePriceException;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import com.example.traidingsim.model.dto.OrderDTO;
+import com.example.traidingsim.model.enumeration.OrderStatus;
+import com.example.traidingsim.model.enumeration.OrderType;
+import com.example.traidingsim.model.enumeration.Type;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limit, stop-loss and take-profit orders. Orders rest in the {@link OrderTriggerIndex} until a tick crosses their
+ * price, starting with the tick after they are placed, and are then executed at the live price on their account's
+ * trade shard, so the orders of one account execute in trigger order; trades requested through the API execute on
+ * the request thread instead. A limit order never fills beyond its price: when walking the book for its amount
+ * would cross the limit, or the price has moved back out of range by then, it goes back to resting, and so does an
+ * order that triggered on a stale price, but only after {@code trading.orders.retry-delay-ms}, so an order the book
+ * cannot fill does not run again on every tick.
+ * Funds and holdings are not reserved: an order the account can no longer cover when it triggers is rejected. Orders
+ * are held in memory only, the closed ones until {@value #MAX_CLOSED_ORDERS} newer orders have closed.
+ */
+@Service
+@Slf4j
+public class OrderService {
+
+    static final int MAX_CLOSED_ORDERS = 10_000;
+
+    private final TradeEngine tradeEngine;
+    private final TradeShards tradeShards;
+    private final SymbolRegistry symbolRegistry;
+    private final OrderTriggerIndex orderTriggerIndex;
+    private final long retryDelayMillis;
+    private final AtomicLong orderIds = new AtomicLong();
+    private final List<RestingOrder> triggered = new ArrayList<>();
+    /**
+     * Open orders, whether resting, waiting on their shard or waiting to be retried.
+     */
+    private final Map<Long, RestingOrder> openOrders = new ConcurrentHashMap<>();
+    private final PriorityBlockingQueue<Retry> retries = new PriorityBlockingQueue<>(16,
+            Comparator.comparingLong(Retry::at));
+    private final Map<Long, RestingOrder> closedOrders = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, RestingOrder> eldest) {
+            return size() > MAX_CLOSED_ORDERS;
+        }
+    };
+
+    public OrderService(TradeEngine tradeEngine, TradeShards tradeShards, SymbolRegistry symbolRegistry,
+                        OrderTriggerIndex orderTriggerIndex,
+                        @Value("${trading.orders.retry-delay-ms:1000}") long retryDelayMillis) {
+        this.tradeEngine = tradeEngine;
+        this.tradeShards = tradeShards;
+        this.symbolRegistry = symbolRegistry;
+        this.orderTriggerIndex = orderTriggerIndex;
+        this.retryDelayMillis = retryDelayMillis;
+    }
+
+    /**
+     * Place a resting order.
+     */
+    public OrderDTO placeOrder(long accountId, String crypto, OrderType type, Type side, double amount, double price) {
+        if (!tradeEngine.hasAccount(accountId)) {
+            throw new AccountNotFoundException("Account not found");
+        }
+        if (type == null || side == null) {
+            throw new InvalidRequestException("Order type and side are required");
+        }
+        if (!(amount > 0) || Double.isInfinite(amount)) {
+            throw new InvalidAmountException("Amount must be greater than 0");
+        }
+        if (!(price > 0) || Double.isInfinite(price)) {
+            throw new InvalidAmountException("Price must be greater than 0");
+        }
+        int symbolId = symbolRegistry.resolve(crypto);
+        if (symbolId < 0) {
+            throw new CryptoNotFoundException("Unknown cryptocurrency: " + crypto);
+        }
+
+        RestingOrder order = new RestingOrder(orderIds.incrementAndGet(), accountId, crypto, symbolId, type, side,
+                amount, price, System.currentTimeMillis());
+        openOrders.put(order.getId(), order);
+        orderTriggerIndex.add(order);
+
+        log.info("Placed {} {} order {} for {} {} at ${} on account {}", type, side, order.getId(), amount, crypto,
+                price, accountId);
+        return toOrderDTO(order);
+    }
+
+    /**
+     * List an account's open orders, oldest first.
+     */
+    public List<OrderDTO> getOpenOrders(long accountId) {
+        if (!tradeEngine.hasAccount(accountId)) {
+            throw new AccountNotFoundException("Account not found");
+        }
+        return openOrders.values().stream()
+                .filter(order -> order.getAccountId() == accountId)
+                .sorted(Comparator.comparingLong(RestingOrder::getId))
+                .map(OrderService::toOrderDTO)
+                .toList();
+    }
+
+    /**
+     * An order of an account, open or recently closed, with its status.
+     */
+    public OrderDTO getOrder(long accountId, long orderId) {
+        RestingOrder order = openOrders.get(orderId);
+        if (order == null) {
+            synchronized (closedOrders) {
+                order = closedOrders.get(orderId);
+            }
+        }
+        if (order == null || order.getAccountId() != accountId) {
+            throw new OrderNotFoundException("Order not found");
+        }
+        return toOrderDTO(order);
+    }
+
+    /**
+     * Cancel an open order of an account. An order being executed is waited for, and cancelled only if it did not fill.
+     */
+    public OrderDTO cancelOrder(long accountId, long orderId) {
+        RestingOrder order = openOrders.get(orderId);
+        if (order == null || order.getAccountId() != accountId || !cancel(order)) {
+            throw new OrderNotFoundException("Order not found or no longer open");
+        }
+
+        log.info("Cancelled order {} on account {}", orderId, accountId);
+        return toOrderDTO(order);
+    }
+
+    /**
+     * Cancel every open order of an account. Once this returns, none of them executes any more.
+     */
+    public void cancelOrders(long accountId) {
+        for (RestingOrder order : openOrders.values()) {
+            if (order.getAccountId() == accountId) {
+                cancel(order);
+            }
+        }
+    }
+
+    /**
+     * Trigger the orders crossed by the ticks of a batch and hand them to their shards for execution, after putting
+     * the orders due to be retried back to rest.
+     * Called by the single market data thread.
+     */
+    public void onPrices(TickBatch batch) {
+        long now = System.currentTimeMillis();
+        Retry retry;
+        while ((retry = retries.peek()) != null && retry.at() <= now) {
+            retries.poll();
+            RestingOrder order = retry.order();
+            synchronized (order) {
+                if (order.getStatus() == OrderStatus.OPEN) {
+                    orderTriggerIndex.add(order);
+                }
+            }
+        }
+
+        orderTriggerIndex.trigger(batch, triggered);
+        for (int i = 0; i < triggered.size(); i++) {
+            RestingOrder order = triggered.get(i);
+            tradeShards.submit(order.getAccountId(), () -> execute(order));
+        }
+        triggered.clear();
+    }
+
+    private void execute(RestingOrder order) {
+        // Held while trading, so the order is either filled or cancelled, never both
+        synchronized (order) {
+            if (order.getStatus() != OrderStatus.OPEN) {
+                return;
+            }
+            try {
+                boolean limit = order.getType() == OrderType.LIMIT;
+                TradeResult result = order.getSide() == Type.BUY
+                        ? tradeEngine.buy(order.getAccountId(), order.getCrypto(), order.getAmount(),
+                                limit ? order.getPrice() : Double.POSITIVE_INFINITY)
+                        : tradeEngine.sell(order.getAccountId(), order.getCrypto(), order.getAmount(),
+                                limit ? order.getPrice() : 0);
+                close(order, OrderStatus.FILLED, null);
+                log.info("Filled {} {} order {}: {} {} at ${} on account {}", order.getType(), order.getSide(),
+                        order.getId(), order.getAmount(), order.getCrypto(), result.price(), order.getAccountId());
+            } catch (LimitPriceException | StalePriceException e) {
+                retries.add(new Retry(System.currentTimeMillis() + retryDelayMillis, order));
+            } catch (InsufficientFundsException | InsufficientHoldingsException | AccountNotFoundException
+                     | CryptoNotFoundException e) {
+                close(order, OrderStatus.REJECTED, e.getMessage());
+                log.warn("Rejected {} {} order {} on account {}: {}", order.getType(), order.getSide(),
+                        order.getId(), order.getAccountId(), e.getMessage());
+            } catch (RuntimeException e) {
+                close(order, OrderStatus.REJECTED, "Failed to execute the order");
+                log.error("Failed to execute order {} on account {}", order.getId(), order.getAccountId(), e);
+            }
+        }
+    }
+
+    private boolean cancel(RestingOrder order) {
+        if (!close(order, OrderStatus.CANCELLED, null)) {
+            return false;
+        }
+        orderTriggerIndex.remove(order.getId());
+        return true;
+    }
+
+    private boolean close(RestingOrder order, OrderStatus status, String reason) {
+        if (!order.close(status, reason)) {
+            return false;
+        }
+        openOrders.remove(order.getId());
+        synchronized (closedOrders) {
+            closedOrders.put(order.getId(), order);
+        }
+        return true;
+    }
+
+    private static OrderDTO toOrderDTO(RestingOrder order) {
+        return OrderDTO.builder()
+                .id(order.getId())
+                .accountId(order.getAccountId())
+                .crypto(order.getCrypto())
+                .type(order.getType())
+                .side(order.getSide())
+                .amount(order.getAmount())
+                .price(order.getPrice())
+                .createdAt(Instant.ofEpochMilli(order.getCreatedAt()))
+                .status(order.getStatus())
+                .reason(order.getReason())
+                .build();
+    }
+
+    /**
+     * An order to put back to rest once {@code at} has passed.
+     */
+    private record Retry(long at, RestingOrder order) {
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.traidingsim.service;
+
+import com.example.traidingsim.engine.TradeResult;
+import com.example.traidingsim.exception.CryptoNotFoundException;
+import com.example.traidingsim.exception.InvalidAmountException;
+import com.example.traidingsim.exception.InvalidRequestException;
+import com.example.traidingsim.exception.StrategyNotFoundException;
+import com.example.traidingsim.marketdata.PriceBook;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import com.example.traidingsim.model.dto.StrategyDTO;
+import com.example.traidingsim.strategy.MovingAverageCrossStrategy;
+import com.example.traidingsim.strategy.Strategy;
+import com.example.traidingsim.strategy.StrategyContext;
+import com.example.traidingsim.strategy.StrategyRunner;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Live strategies running inside the backend. Every price update from the feed is handed to each deployed
+ * strategy's {@link StrategyRunner}, which delivers it on the strategy's own virtual thread; strategies trade
+ * through {@link TradingService} exactly like API clients, without the HTTP round trip.
+ * Strategies are held in memory only and do not survive a restart.
+ */
+@Service
+@Slf4j
+public class StrategyService {
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_.-]{1,64}");
+    private static final long STOP_TIMEOUT_SECONDS = 5;
+
+    private final TradingService tradingService;
+    private final PriceBook priceBook;
+    private final SymbolRegistry symbolRegistry;
+    private final int queueCapacity;
+    private final Map<String, StrategyRunner> runners = new ConcurrentHashMap<>();
+
+    // Read by the feed thread on every batch, replaced on deploy and undeploy
+    private volatile StrategyRunner[] active = new StrategyRunner[0];
+
+    /**
+     * @param tradingService Lazy, since the trading service depends on the feed, which feeds this service.
+     */
+    public StrategyService(@Lazy TradingService tradingService, PriceBook priceBook, SymbolRegistry symbolRegistry,
+                           @Value("${strategy.queue-capacity:4096}") int queueCapacity) {
+        this.tradingService = tradingService;
+        this.priceBook = priceBook;
+        this.symbolRegistry = symbolRegistry;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Start running a strategy on an account under a unique name.
+     */
+    public StrategyDTO deploy(String name, long accountId, Strategy strategy) {
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new InvalidRequestException("Strategy name must be 1 to 64 letters, digits, '.', '_' or '-'");
+        }
+        // Fails for an unknown account
+        tradingService.getAccountBalance(accountId);
+
+        StrategyRunner runner = new StrategyRunner(name, strategy, new LiveContext(accountId), queueCapacity);
+        synchronized (this) {
+            if (runners.putIfAbsent(name, runner) != null) {
+                throw new InvalidRequestException("A strategy named " + name + " is already deployed");
+            }
+            runner.start();
+            active = runners.values().toArray(new StrategyRunner[0]);
+        }
+
+        log.info("Deployed strategy {} ({}) on account {}", name, strategy, accountId);
+        return toStrategyDTO(runner);
+    }
+
+    /**
+     * Deploy a {@link MovingAverageCrossStrategy}.
+     */
+    public StrategyDTO deployMovingAverageCross(String name, long accountId, String crypto, int fastWindow,
+                                                int slowWindow, double amount) {
+        if (symbolRegistry.resolve(crypto) < 0) {
+            throw new CryptoNotFoundException("Unknown cryptocurrency: " + crypto);
+        }
+        if (!(amount > 0) || Double.isInfinite(amount)) {
+            throw new InvalidAmountException("Amount must be greater than 0");
+        }
+        if (fastWindow <= 0 || slowWindow <= fastWindow) {
+            throw new InvalidRequestException("Windows must satisfy 0 < fast < slow");
+        }
+        return deploy(name, accountId, new MovingAverageCrossStrategy(crypto, fastWindow, slowWindow, amount));
+    }
+
+    /**
+     * Deployed strategies with their queue and latency metrics, by name.
+     */
+    public List<StrategyDTO> getStrategies() {
+        return runners.values().stream()
+                .sorted(Comparator.comparing(StrategyRunner::getName))
+                .map(StrategyService::toStrategyDTO)
+                .toList();
+    }
+
+    /**
+     * Stop a strategy and remove it.
+     * @return The strategy's final metrics.
+     */
+    public StrategyDTO undeploy(String name) {
+        StrategyRunner runner;
+        synchronized (this) {
+            runner = runners.remove(name);
+            if (runner == null) {
+                throw new StrategyNotFoundException("Strategy not found: " + name);
+            }
+            active = runners.values().toArray(new StrategyRunner[0]);
+        }
+        stop(runner);
+
+        log.info("Undeployed strategy {} after {} price updates", name, runner.getProcessed());
+        return toStrategyDTO(runner);
+    }
+
+    /**
+     * Queue every tick of a batch for every strategy. Called by the single market data thread; never blocks.
+     */
+    public void onPrices(TickBatch batch) {
+        StrategyRunner[] strategies = active;
+        if (strategies.length == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (StrategyRunner runner : strategies) {
+            for (int i = 0; i < batch.size(); i++) {
+                runner.offer(batch.symbolId(i), batch.price(i), now);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        StrategyRunner[] strategies;
+        synchronized (this) {
+            strategies = active;
+            active = new StrategyRunner[0];
+            runners.clear();
+        }
+        Arrays.stream(strategies).forEach(StrategyService::stop);
+    }
+
+    private static void stop(StrategyRunner runner) {
+        try {
+            runner.stop(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static StrategyDTO toStrategyDTO(StrategyRunner runner) {
+        return StrategyDTO.builder()
+                .name(runner.getName())
+                .accountId(runner.getContext().accountId())
+                .description(runner.getStrategy().toString())
+                .state(runner.getState().name())
+                .processed(runner.getProcessed())
+                .errors(runner.getErrors())
+                .lastError(runner.getLastError())
+                .queueDepth(runner.getQueueDepth())
+                .maxQueueDepth(runner.getMaxQueueDepth())
+                .queueCapacity(runner.getQueueCapacity())
+                .dropped(runner.getDropped())
+                .meanLatencyMicros(runner.getMeanLatencyNanos() / 1e3)
+                .maxLatencyMicros(runner.getMaxLatencyNanos() / 1e3)
+                .build();
+    }
+
+    /**
+     * Trades a strategy's account through the trading service, against the live prices.
+     */
+    private class LiveContext implements StrategyContext {
+
+        private final long accountId;
+
+        LiveContext(long accountId) {
+            this.accountId = accountId;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public int resolve(String crypto) {
+            return symbolRegistry.resolve(crypto);
+        }
+
+        @Override
+        public String symbolOf(int symbolId) {
+            return symbolRegistry.symbolOf(symbolId);
+        }
+
+        @Override
+        public double price(int symbolId) {
+            return priceBook.price(symbolId);
+        }
+
+        @Override
+        public long accountId() {
+            return accountId;
+        }
+
+        @Override
+        public double balance() {
+            return tradingService.getAccountBalance(accountId);
+        }
+
+        @Override
+        public double holding(String crypto) {
+            return tradingService.getCryptoHolding(accountId, crypto);
+        }
+
+        @Override
+        public TradeResult buy(String crypto, double amount) {
+            return tradingService.buy(accountId, crypto, amount);
+        }
+
+        @Override
+        public TradeResult sell(String crypto, double amount) {
+            return tradingService.sell(accountId, crypto, amount);
+        }
+    }
+}
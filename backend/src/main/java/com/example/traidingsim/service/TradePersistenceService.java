@@ -0,0 +1,335 @@
+package com.example.traidingsim.service;
+
+import com.example.traidingsim.engine.AccountSnapshot;
+import com.example.traidingsim.engine.TradePersister;
+import com.example.traidingsim.engine.TradeRecord;
+import com.example.traidingsim.exception.AccountNotFoundException;
+import com.example.traidingsim.metrics.StatementCounter;
+import com.example.traidingsim.metrics.TradingMetrics;
+import com.example.traidingsim.model.Account;
+import com.example.traidingsim.model.Transaction;
+import com.example.traidingsim.repository.AccountRepository;
+import com.example.traidingsim.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind {@link TradePersister}. Changes from the trade engine are queued and a single writer thread
+ * stores them in batches of up to {@code trading.persistence.batch-size}, one database transaction per batch,
+ * writing each touched account once with its latest state. Transaction inserts are sent as JDBC batches, see
+ * the {@code spring.jpa.properties.hibernate.jdbc.*} settings. The trades of an order batch are queued as one change,
+ * so they are always written in the same database transaction.
+ * With {@code trading.persistence.durability=async} trades are acknowledged before they are written;
+ * with {@code sync} the returned futures complete after the batch containing them has been committed.
+ * A batch that fails on a transient error, a lost connection or a lock timeout, is retried with a growing delay, up
+ * to {@code trading.persistence.max-retries} times. A batch that fails on anything else, a constraint violation or
+ * an unknown account, is written again one change at a time, so that only the changes that cannot be written are
+ * set aside: they are logged with their trades and account state, and their futures fail. The queue holds at most
+ * {@code trading.persistence.queue-capacity} changes; when it is full, trades wait for room, pushing back on trading
+ * instead of growing the heap while the database is slow or down.
+ * The time and database round trips of every batch are recorded in the {@link TradingMetrics}.
+ */
+@Service
+@Slf4j
+public class TradePersistenceService implements TradePersister {
+
+    public static final String DURABILITY_SYNC = "sync";
+
+    private static final long FIRST_RETRY_DELAY_MS = 100;
+    private static final long MAX_RETRY_DELAY_MS = 5_000;
+    private static final long STOP_TIMEOUT_MS = 30_000;
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TradingMetrics tradingMetrics;
+    private final StatementCounter statementCounter;
+    private final BlockingQueue<PendingWrite> queue;
+
+    @Value("${trading.persistence.batch-size:500}")
+    private int batchSize;
+
+    @Value("${trading.persistence.durability:async}")
+    private String durability;
+
+    @Value("${trading.persistence.max-retries:10}")
+    private int maxRetries;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public TradePersistenceService(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                                   TransactionTemplate transactionTemplate, JdbcTemplate jdbcTemplate,
+                                   TradingMetrics tradingMetrics, StatementCounter statementCounter,
+                                   @Value("${trading.persistence.queue-capacity:100000}") int queueCapacity) {
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tradingMetrics = tradingMetrics;
+        this.statementCounter = statementCounter;
+        tradingMetrics.registerPersistenceQueue(queue);
+    }
+
+    @PostConstruct
+    public void start() {
+        alignSequences();
+        running = true;
+        writer = new Thread(this::run, "trade-persister");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop the writer once everything queued so far has been written, or give up after {@link #STOP_TIMEOUT_MS}
+     * if the database stays unavailable.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(STOP_TIMEOUT_MS);
+        if (writer.isAlive()) {
+            writer.interrupt();
+            writer.join();
+            log.error("Stopped with {} trade engine changes not written to the database", queue.size());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> tradeExecuted(TradeRecord trade, AccountSnapshot account) {
+        return enqueue(new PendingWrite(List.of(trade), account));
+    }
+
+    @Override
+    public CompletableFuture<Void> tradesExecuted(List<TradeRecord> trades, AccountSnapshot account) {
+        return enqueue(new PendingWrite(trades, account));
+    }
+
+    @Override
+    public CompletableFuture<Void> accountReset(AccountSnapshot account) {
+        return enqueue(new PendingWrite(null, account));
+    }
+
+    /**
+     * Wait until every change queued before this call has been written.
+     */
+    public void flush() {
+        enqueue(new PendingWrite(null, null)).join();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Queue a change, waiting for room while the queue is full.
+     */
+    private CompletableFuture<Void> enqueue(PendingWrite write) {
+        try {
+            while (!queue.offer(write, 1, TimeUnit.SECONDS)) {
+                if (writer != null && !writer.isAlive()) {
+                    throw new IllegalStateException("The trade persister is stopped");
+                }
+                log.warn("Trade persistence queue is full, waiting for the database to catch up");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to queue a trade engine change", e);
+        }
+        boolean barrier = write.account() == null;
+        return barrier || DURABILITY_SYNC.equals(durability) ? write.persisted() : CompletableFuture.completedFuture(null);
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeUntilCommitted(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeUntilCommitted(List<PendingWrite> batch) throws InterruptedException {
+        long delay = FIRST_RETRY_DELAY_MS;
+        for (int retries = 0; ; retries++) {
+            try {
+                write(batch);
+                batch.forEach(write -> write.persisted().complete(null));
+                return;
+            } catch (RuntimeException e) {
+                tradingMetrics.recordBatchFailure();
+                if (!isTransient(e)) {
+                    setAside(batch, e);
+                    return;
+                }
+                if (retries == maxRetries) {
+                    log.error("Failed to persist {} trade engine changes after {} retries", batch.size(), retries, e);
+                    batch.forEach(write -> dropped(write, e));
+                    return;
+                }
+                log.warn("Failed to persist {} trade engine changes, retrying in {} ms", batch.size(), delay, e);
+                Thread.sleep(delay);
+                delay = Math.min(delay * 2, MAX_RETRY_DELAY_MS);
+            }
+        }
+    }
+
+    /**
+     * Errors that may not happen again: the database or a lock was unavailable.
+     */
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof CannotCreateTransactionException;
+    }
+
+    /**
+     * Write the changes of a batch that failed for good one at a time, in order, so that only those that cannot be
+     * written are dropped.
+     */
+    private void setAside(List<PendingWrite> batch, RuntimeException e) throws InterruptedException {
+        if (batch.size() == 1) {
+            dropped(batch.get(0), e);
+            return;
+        }
+        log.error("Failed to persist {} trade engine changes, writing them one at a time", batch.size(), e);
+        for (PendingWrite write : batch) {
+            writeUntilCommitted(List.of(write));
+        }
+    }
+
+    private void dropped(PendingWrite write, RuntimeException e) {
+        tradingMetrics.recordDroppedWrite();
+        if (write.account() != null) {
+            log.error("Dropped trade engine change that cannot be written: account {}, trades {}, account state {}",
+                    write.account().accountId(), write.trades(), write.account(), e);
+        }
+        write.persisted().completeExceptionally(e);
+    }
+
+    private void write(List<PendingWrite> batch) {
+        if (batch.stream().allMatch(write -> write.account() == null)) {
+            // Only flush barriers, nothing to write
+            return;
+        }
+        long start = System.nanoTime();
+        long statements = statementCounter.count();
+        int trades = 0;
+        for (PendingWrite write : batch) {
+            if (write.trades() != null) {
+                trades += write.trades().size();
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Transaction> transactions = new ArrayList<>();
+            Map<Long, AccountSnapshot> latest = new LinkedHashMap<>();
+
+            for (PendingWrite write : batch) {
+                if (write.account() == null) {
+                    continue;
+                }
+                if (write.trades() == null) {
+                    transactionRepository.saveAll(transactions);
+                    transactions.clear();
+                    transactionRepository.deleteByAccountId(write.account().accountId());
+                } else {
+                    for (TradeRecord trade : write.trades()) {
+                        transactions.add(toTransaction(trade));
+                    }
+                }
+                latest.put(write.account().accountId(), write.account());
+            }
+
+            transactionRepository.saveAll(transactions);
+            saveAccounts(latest);
+        });
+        // Statements sent plus the commit
+        tradingMetrics.recordBatch(System.nanoTime() - start, statementCounter.count() - statements + 1, trades);
+    }
+
+    private Transaction toTransaction(TradeRecord trade) {
+        Transaction transaction = new Transaction(trade.crypto(), trade.amount(), trade.price(), trade.total(),
+                trade.type(), Instant.ofEpochMilli(trade.timestamp()));
+        transaction.setAccount(accountRepository.getReferenceById(trade.accountId()));
+        return transaction;
+    }
+
+    /**
+     * Apply the latest state of every touched account, loading them with one query. Holdings are updated in place
+     * so only the changed rows of the holdings table are written.
+     */
+    private void saveAccounts(Map<Long, AccountSnapshot> snapshots) {
+        List<Account> accounts = accountRepository.findAllById(snapshots.keySet());
+        if (accounts.size() != snapshots.size()) {
+            throw new AccountNotFoundException("Account not found");
+        }
+        for (Account account : accounts) {
+            AccountSnapshot snapshot = snapshots.get(account.getId());
+            account.setBalance(snapshot.balance());
+            account.getCryptoHoldings().keySet().retainAll(snapshot.holdings().keySet());
+            account.getCryptoHoldings().putAll(snapshot.holdings());
+        }
+    }
+
+    /**
+     * Move the ID sequences past the IDs already in use. Databases created before the entities used sequences have
+     * rows with {@code IDENTITY} IDs, while their new sequences start at 1.
+     */
+    private void alignSequences() {
+        alignSequence("transactions", "transactions_seq", Transaction.ID_ALLOCATION_SIZE);
+        alignSequence("account", "account_seq", 1);
+    }
+
+    /**
+     * A pooled sequence call returning {@code n} hands out the IDs {@code n - allocationSize + 1} to {@code n}, so
+     * every ID handed out so far is at most the next value minus the allocation size. The sequence is only moved
+     * when rows lie beyond that: moving it otherwise would overlap the block a running session factory still holds.
+     */
+    private void alignSequence(String table, String sequence, int allocationSize) {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        Long nextValue = jdbcTemplate.queryForObject(
+                "select base_value from information_schema.sequences where sequence_name = upper(?)", Long.class,
+                sequence);
+        if (maxId != null && nextValue - allocationSize < maxId) {
+            jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (maxId + allocationSize + 1));
+        }
+    }
+
+    /**
+     * A change to write: trades with the account state after them, a reset ({@code trades} is {@code null}), or a
+     * flush barrier ({@code account} is also {@code null}).
+     */
+    private record PendingWrite(List<TradeRecord> trades, AccountSnapshot account, CompletableFuture<Void> persisted) {
+        PendingWrite(List<TradeRecord> trades, AccountSnapshot account) {
+            this(trades, account, new CompletableFuture<>());
+        }
+    }
+}
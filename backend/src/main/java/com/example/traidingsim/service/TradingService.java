@@ -1,47 +1,117 @@
 package com.example.traidingsim.service;
 
-import com.example.traidingsim.exception.*;
-import com.example.traidingsim.model.enumeration.Type;
+import com.example.traidingsim.engine.AccountSnapshot;
+import com.example.traidingsim.engine.BatchResult;
+import com.example.traidingsim.engine.MarketOrder;
+import com.example.traidingsim.engine.PositionSnapshot;
+import com.example.traidingsim.engine.TradeEngine;
+import com.example.traidingsim.engine.TradePersister;
+import com.example.traidingsim.engine.TradeResult;
+import com.example.traidingsim.exception.AccountNotFoundException;
+import com.example.traidingsim.exception.InvalidAmountException;
+import com.example.traidingsim.logging.RateLimitedLogger;
+import com.example.traidingsim.mapper.OrderBatchMapper;
+import com.example.traidingsim.metrics.TradingMetrics;
 import com.example.traidingsim.repository.AccountRepository;
+import com.example.traidingsim.repository.TradeRow;
 import com.example.traidingsim.repository.TransactionRepository;
 import com.example.traidingsim.model.Account;
-import com.example.traidingsim.model.Transaction;
+import com.example.traidingsim.model.dto.AccountDTO;
+import com.example.traidingsim.model.dto.OrderBatchResultDTO;
+import com.example.traidingsim.model.dto.PortfolioDTO;
+import com.example.traidingsim.model.dto.PositionDTO;
+import com.example.traidingsim.model.enumeration.Type;
 import com.example.traidingsim.websocket.KrakenWebSocketService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
-import static com.example.traidingsim.model.enumeration.Type.BUY;
-import static com.example.traidingsim.model.enumeration.Type.SELL;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class TradingService {
 
-    @Autowired
-    private TransactionRepository transactionRepository;
+    private static final double INITIAL_BALANCE = 10000.0;
 
-    @Autowired
-    private AccountRepository accountRepository;
+    public static final long DEFAULT_ACCOUNT_ID = 1L;
 
-    private static final double INITIAL_BALANCE = 10000.0;
+    // Executed trades are logged at most this many times a second, so the log file keeps up under load
+    private static final int TRADE_LOG_LIMIT = 10;
+    private static final RateLimitedLogger tradeLog = new RateLimitedLogger(log, TRADE_LOG_LIMIT, 1000);
 
     private final KrakenWebSocketService krakenWebSocketService;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TradeEngine tradeEngine;
+    private final OrderService orderService;
+    private final TradingMetrics tradingMetrics;
 
     @Autowired
-    public TradingService(KrakenWebSocketService krakenWebSocketService, AccountRepository accountRepository) {
+    public TradingService(KrakenWebSocketService krakenWebSocketService, AccountRepository accountRepository,
+                          TransactionRepository transactionRepository, TradeEngine tradeEngine,
+                          TradePersister tradePersister, OrderService orderService,
+                          TradingMetrics tradingMetrics, PlatformTransactionManager transactionManager) {
         this.krakenWebSocketService = krakenWebSocketService;
         this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.tradeEngine = tradeEngine;
+        this.orderService = orderService;
+        this.tradingMetrics = tradingMetrics;
+
+        if (!accountRepository.existsById(DEFAULT_ACCOUNT_ID)) {
+            accountRepository.save(new Account(INITIAL_BALANCE));
+        }
+        // A persister that recovers its own state replaces whatever would be loaded here, so the history is not read
+        if (!tradePersister.recoversState()) {
+            // Trades are streamed as plain rows, so memory use does not grow with the history
+            TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+            readOnlyTransaction.setReadOnly(true);
+            readOnlyTransaction.executeWithoutResult(status -> {
+                for (Account account : accountRepository.findAll()) {
+                    tradeEngine.loadAccount(account.getId(), account.getBalance(), account.getCryptoHoldings());
+                    try (Stream<TradeRow> trades = transactionRepository.streamTradesByAccountId(account.getId())) {
+                        trades.forEach(trade -> tradeEngine.restoreTrade(account.getId(), trade.crypto(),
+                                trade.amount(), trade.total(), trade.type()));
+                    }
+                }
+            });
+        }
+        tradePersister.recover(tradeEngine);
+    }
+
+    /**
+     * Open a new account with the given starting balance, or the initial balance if none is given.
+     */
+    public AccountDTO createAccount(Double balance) {
+        double startingBalance = balance != null ? balance : INITIAL_BALANCE;
+        if (!(startingBalance >= 0) || Double.isInfinite(startingBalance)) {
+            throw new InvalidAmountException("Balance must not be negative");
+        }
+
+        Account account = accountRepository.save(new Account(startingBalance));
+        tradeEngine.openAccount(account.getId(), startingBalance).join();
 
-        accountRepository.findById(1L).orElseGet(() -> {
-            Account newAccount = new Account(INITIAL_BALANCE);
-            accountRepository.save(newAccount);
-            return newAccount;
-        });
+        log.info("Opened account {} with a balance of ${}", account.getId(), startingBalance);
+        return toAccountDTO(tradeEngine.snapshot(account.getId()));
+    }
+
+    /**
+     * List all accounts.
+     */
+    public List<AccountDTO> getAccounts() {
+        return tradeEngine.getAccountIds().stream()
+                .sorted()
+                .map(accountId -> toAccountDTO(tradeEngine.snapshot(accountId)))
+                .toList();
     }
 
     /**
@@ -52,129 +122,126 @@ public class TradingService {
     }
 
     /**
-     * Retrieve the transaction history.
+     * Retrieve the account balance.
      */
-    public List<Transaction> getTransactionHistory() {
-        return transactionRepository.findAll();
+    public double getAccountBalance(long accountId) {
+        return tradeEngine.snapshot(accountId).balance();
     }
 
     /**
-     * Retrieve the account balance.
+     * Retrieve the crypto holdings.
      */
-    public double getAccountBalance() {
-        Account account = accountRepository.findById(1L).orElseThrow(() ->
-                new AccountNotFoundException("Account not found")
-        );
-        return account.getBalance();
+    public Map<String, Double> getCryptoHoldings(long accountId) {
+        return tradeEngine.snapshot(accountId).holdings();
     }
 
     /**
-     * Retrieve the crypto holdings.
+     * Retrieve the holding of one crypto.
      */
-    public Map<String, Double> getCryptoHoldings() {
-        Account account = accountRepository.findById(1L).orElseThrow(() ->
-                new AccountNotFoundException("Account not found")
-        );
-        return account.getCryptoHoldings();
+    public double getCryptoHolding(long accountId, String crypto) {
+        return tradeEngine.holding(accountId, crypto);
     }
 
     /**
      * Buy cryptocurrency.
      */
-    public String buyCrypto(String crypto, double amount) {
-        validateAmount(amount);
-
-        Map<String, Double> prices = getCryptoPrices();
-        String key = getCryptoKey(crypto, prices);
-
-        double price = prices.get(key);
-        double totalCost = calculateTotalCost(amount, price);
-
-        Account account = getAccount();
-
-        validateFunds(account, totalCost);
+    public String buyCrypto(long accountId, String crypto, double amount) {
+        TradeResult result = buy(accountId, crypto, amount);
 
-        updateAccountBalance(account, totalCost);
-        updateCryptoHoldingsOnBuy(account, crypto, amount);
-
-        saveTransaction(crypto, amount, price, totalCost, BUY);
-
-        log.info("Successfully bought {} {} for ${}", amount, crypto, totalCost);
-        return "Successfully bought " + amount + " " + crypto + " for $" + totalCost;
+        tradeLog.info("Successfully bought {} {} for ${}", amount, crypto, result.total());
+        return "Successfully bought " + amount + " " + crypto + " for $" + result.total();
     }
 
     /**
      * Sell cryptocurrency.
      */
-    public String sellCrypto(String crypto, double amount) {
-        validateAmount(amount);
-
-        Account account = getAccount();
-
-        validateHoldings(account, crypto, amount);
-
-        Map<String, Double> prices = getCryptoPrices();
-        String key = getCryptoKey(crypto, prices);
+    public String sellCrypto(long accountId, String crypto, double amount) {
+        TradeResult result = sell(accountId, crypto, amount);
 
-        double price = prices.get(key);
-        double totalRevenue = calculateTotalRevenue(amount, price);
+        tradeLog.info("Successfully sold {} {} for ${}", amount, crypto, result.total());
+        return "Successfully sold " + amount + " " + crypto + " for $" + result.total();
+    }
 
-        updateAccountBalance(account, -totalRevenue);
-        updateCryptoHoldingsOnSell(account, crypto, amount);
+    /**
+     * Buy cryptocurrency on the calling thread, under the account's lock.
+     * @return The executed trade, once it is durable according to the configured durability mode.
+     */
+    public TradeResult buy(long accountId, String crypto, double amount) {
+        return trade(Type.BUY, () -> tradeEngine.buy(accountId, crypto, amount));
+    }
 
-        saveTransaction(crypto, amount, price, totalRevenue, SELL);
+    /**
+     * Sell cryptocurrency on the calling thread, under the account's lock.
+     * @return The executed trade, once it is durable according to the configured durability mode.
+     */
+    public TradeResult sell(long accountId, String crypto, double amount) {
+        return trade(Type.SELL, () -> tradeEngine.sell(accountId, crypto, amount));
+    }
 
-        log.info("Successfully sold {} {} for ${}", amount, crypto, totalRevenue);
-        return "Successfully sold " + amount + " " + crypto + " for $" + totalRevenue;
+    /**
+     * Execute a batch of market orders on the account, in order, all priced from one snapshot of the
+     * market. Orders that cannot execute are rejected without affecting the others.
+     * @return The outcome of every order, once the executed trades are durable according to the configured
+     * durability mode.
+     */
+    public OrderBatchResultDTO executeBatch(long accountId, List<MarketOrder> orders) {
+        long start = System.nanoTime();
+        BatchResult result = tradeEngine.executeBatch(accountId, orders);
+        result.persisted().join();
+
+        int executed = result.executedCount();
+        tradingMetrics.recordOrderBatch(executed, orders.size() - executed, System.nanoTime() - start);
+        tradeLog.info("Executed {} of {} batched orders on account {}", executed, orders.size(), accountId);
+        return OrderBatchMapper.toDTO(accountId, result);
     }
 
     /**
-     * Calculate profit/loss.
+     * Calculate profit/loss: realized plus unrealized against the live price, per symbol the account has bought.
      */
-    public Map<String, Double> calculateProfitLoss() {
+    public Map<String, Double> calculateProfitLoss(long accountId) {
         Map<String, Double> profitLossMap = new HashMap<>();
-        List<Transaction> transactions = transactionRepository.findAll();
-
-        for (String crypto : getCryptoPrices().keySet()) {
-            double totalBought = 0.0;
-            double totalSold = 0.0;
-            double totalAmountBought = 0.0;
-            double totalAmountSold = 0.0;
-
-            for (Transaction transaction : transactions) {
-                if (transaction.getCrypto().equals(crypto)) {
-                    if (transaction.getType() == Type.BUY) {
-                        totalBought += transaction.getTotal();
-                        totalAmountBought += transaction.getAmount();
-                    } else if (transaction.getType() == Type.SELL) {
-                        totalSold += transaction.getTotal();
-                        totalAmountSold += transaction.getAmount();
-                    }
-                }
-            }
+        for (PositionDTO position : getPositions(accountId)) {
+            profitLossMap.put(position.getCrypto(), position.getProfitLoss());
+        }
+        return profitLossMap;
+    }
 
-            if (totalAmountBought > 0) {
-                double totalRevenue = totalSold;
-                double profitLoss = totalRevenue - totalBought;
-                profitLossMap.put(crypto, profitLoss);
+    /**
+     * Retrieve the running per-symbol position aggregates, valued at the live price.
+     */
+    public List<PositionDTO> getPositions(long accountId) {
+        List<PositionDTO> positions = new ArrayList<>();
+        for (PositionSnapshot position : tradeEngine.positions(accountId).values()) {
+            if (position.amountBought() > 0) {
+                positions.add(toPositionDTO(position, tradeEngine.livePrice(position.crypto())));
             }
         }
+        positions.sort(Comparator.comparing(PositionDTO::getCrypto));
+        return positions;
+    }
 
-        return profitLossMap;
+    /**
+     * Retrieve the balance, holdings and positions of an account, valued at the live price.
+     */
+    public PortfolioDTO getPortfolio(long accountId) {
+        AccountSnapshot snapshot = tradeEngine.snapshot(accountId);
+        List<PositionDTO> positions = getPositions(accountId);
+        return PortfolioDTO.builder()
+                .accountId(accountId)
+                .balance(snapshot.balance())
+                .cryptoHoldings(snapshot.holdings())
+                .positions(positions)
+                .profitLoss(positions.stream().mapToDouble(PositionDTO::getProfitLoss).sum())
+                .build();
     }
 
     /**
      * Reset the account balance and clear transaction history.
      */
-    public String resetAccount() {
-        Account account = accountRepository.findById(1L).orElseGet(() -> new Account(INITIAL_BALANCE));
-
-        account.setBalance(INITIAL_BALANCE);
-
-        account.setCryptoHoldings(new HashMap<>());
-
-        accountRepository.save(account);
-        transactionRepository.deleteAll();
+    public String resetAccount(long accountId) {
+        requireAccount(accountId);
+        orderService.cancelOrders(accountId);
+        tradeEngine.reset(accountId, INITIAL_BALANCE).join();
 
         log.info("Account has been reset to the initial balance of ${}", INITIAL_BALANCE);
         return "Account has been reset to the initial balance of $" + INITIAL_BALANCE;
@@ -183,75 +250,52 @@ public class TradingService {
     /**
      * Helper methods.
      */
-    private void validateAmount(double amount) {
-        if (amount <= 0) {
-            throw new InvalidAmountException("Amount must be greater than 0");
+    private TradeResult trade(Type type, Supplier<TradeResult> execution) {
+        long start = System.nanoTime();
+        try {
+            TradeResult result = execution.get();
+            long executed = System.nanoTime();
+            result.persisted().join();
+            long persisted = System.nanoTime();
+
+            tradingMetrics.recordPersist(type, persisted - executed);
+            tradingMetrics.recordTrade(type, TradingMetrics.OUTCOME_EXECUTED, persisted - start);
+            return result;
+        } catch (RuntimeException e) {
+            tradingMetrics.recordTrade(type, e.getClass().getSimpleName(), System.nanoTime() - start);
+            throw e;
         }
     }
 
-    private String getCryptoKey(String crypto, Map<String, Double> prices) {
-        String keyUSD = crypto + "/USD";
-        return prices.containsKey(crypto) ? crypto : keyUSD;
-    }
-
-    private double calculateTotalCost(double amount, double price) {
-        return price * amount;
-    }
-
-    private Account getAccount() {
-        return accountRepository.findById(1L).orElseThrow(() ->
-                new AccountNotFoundException("Account not found")
-        );
-    }
-
-    private void validateFunds(Account account, double totalCost) {
-        if (totalCost > account.getBalance()) {
-            throw new InsufficientFundsException("Insufficient funds. Your balance is $" + account.getBalance());
-        }
-    }
-
-    private void updateAccountBalance(Account account, double amount) {
-        account.setBalance(account.getBalance() - amount);
-        accountRepository.save(account);
-    }
-
-    private void updateCryptoHoldingsOnBuy(Account account, String crypto, double amount) {
-        Map<String, Double> updatedHoldings = new HashMap<>(account.getCryptoHoldings());
-        updatedHoldings.put(crypto, updatedHoldings.getOrDefault(crypto, 0.0) + amount);
-        account.setCryptoHoldings(updatedHoldings);
-        accountRepository.save(account);
-    }
-
-    private void updateCryptoHoldingsOnSell(Account account, String crypto, double amount) {
-        Map<String, Double> updatedHoldings = new HashMap<>(account.getCryptoHoldings());
-
-        double currentAmount = updatedHoldings.getOrDefault(crypto, 0.0);
-        double newAmount = currentAmount - amount;
-
-        if (newAmount <= 0) {
-            updatedHoldings.remove(crypto);
-        } else {
-            updatedHoldings.put(crypto, newAmount);
-        }
-
-        account.setCryptoHoldings(updatedHoldings);
-        accountRepository.save(account);
-    }
-
-    private void validateHoldings(Account account, String crypto, double amount) {
-        if (!account.getCryptoHoldings().containsKey(crypto) ||
-                account.getCryptoHoldings().getOrDefault(crypto, 0.0) < amount) {
-            throw new InsufficientHoldingsException("Insufficient holdings of " + crypto);
+    private void requireAccount(long accountId) {
+        if (!tradeEngine.hasAccount(accountId)) {
+            throw new AccountNotFoundException("Account not found");
         }
     }
 
-    private double calculateTotalRevenue(double amount, double price) {
-        return price * amount;
+    private static PositionDTO toPositionDTO(PositionSnapshot position, double price) {
+        boolean priced = !Double.isNaN(price);
+        double unrealized = priced ? position.unrealizedProfitLoss(price) : 0.0;
+        return PositionDTO.builder()
+                .crypto(position.crypto())
+                .quantity(position.quantity())
+                .averageCost(position.averageCost())
+                .totalBought(position.totalBought())
+                .totalSold(position.totalSold())
+                .amountBought(position.amountBought())
+                .amountSold(position.amountSold())
+                .currentPrice(priced ? price : null)
+                .realizedProfitLoss(position.realizedProfitLoss())
+                .unrealizedProfitLoss(unrealized)
+                .profitLoss(position.realizedProfitLoss() + unrealized)
+                .build();
     }
 
-    private void saveTransaction(String crypto, double amount, double price, double totalCost, Type type) {
-        Transaction transaction = new Transaction(crypto, amount, price, totalCost, type);
-        transaction.setAccount(getAccount());
-        transactionRepository.save(transaction);
+    private static AccountDTO toAccountDTO(AccountSnapshot snapshot) {
+        return AccountDTO.builder()
+                .id(snapshot.accountId())
+                .balance(snapshot.balance())
+                .cryptoHoldings(snapshot.holdings())
+                .build();
     }
 }
@@ -0,0 +1,201 @@
+package com.example.traidingsim.service;
+
+import com.example.traidingsim.engine.TradeEngine;
+import com.example.traidingsim.exception.AccountNotFoundException;
+import com.example.traidingsim.exception.InvalidRequestException;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.model.Transaction;
+import com.example.traidingsim.model.dto.TransactionDTO;
+import com.example.traidingsim.model.dto.TransactionPageDTO;
+import com.example.traidingsim.model.enumeration.Type;
+import com.example.traidingsim.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.example.traidingsim.repository.TransactionSpecifications.before;
+import static com.example.traidingsim.repository.TransactionSpecifications.matching;
+
+/**
+ * Transaction history queries: newest-first keyset pages and a streamed NDJSON export, both filterable by
+ * symbol, type and time range.
+ */
+@Service
+@Slf4j
+public class TransactionHistoryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("executedAt"), Sort.Order.desc("id"));
+    private static final Sort OLDEST_FIRST = Sort.by(Sort.Order.asc("executedAt"), Sort.Order.asc("id"));
+    private static final char CURSOR_SEPARATOR = '_';
+
+    private final TransactionRepository transactionRepository;
+    private final TradeEngine tradeEngine;
+    private final SymbolRegistry symbolRegistry;
+    private final TransactionTemplate readOnlyTransaction;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public TransactionHistoryService(TransactionRepository transactionRepository, TradeEngine tradeEngine,
+                                     SymbolRegistry symbolRegistry, PlatformTransactionManager transactionManager,
+                                     EntityManager entityManager, ObjectMapper objectMapper) {
+        this.transactionRepository = transactionRepository;
+        this.tradeEngine = tradeEngine;
+        this.symbolRegistry = symbolRegistry;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Give rows stored before the indexed {@code executed_at} column existed a value, so they sort and filter
+     * like the others.
+     */
+    @PostConstruct
+    public void backfillExecutedAt() {
+        List<Transaction> transactions = transactionRepository.findByExecutedAtIsNull();
+        if (!transactions.isEmpty()) {
+            transactions.forEach(Transaction::backfillExecutedAt);
+            transactionRepository.saveAll(transactions);
+            log.info("Backfilled the execution time of {} transactions", transactions.size());
+        }
+    }
+
+    /**
+     * Store rows written before transactions kept the canonical symbol, e.g. {@code BTC} for {@code BTC/USD}, under
+     * that symbol, so a symbol filter finds every spelling.
+     */
+    @PostConstruct
+    public void canonicalizeCryptos() {
+        for (String crypto : transactionRepository.findDistinctCryptos()) {
+            String symbol = symbolRegistry.canonical(crypto);
+            if (!symbol.equals(crypto)) {
+                int renamed = transactionRepository.renameCrypto(crypto, symbol);
+                log.info("Renamed {} to {} in {} transactions", crypto, symbol, renamed);
+            }
+        }
+    }
+
+    /**
+     * One page of an account's transactions, newest first.
+     * @param cursor The {@code nextCursor} of the previous page, or {@code null} for the first page.
+     */
+    public TransactionPageDTO getPage(long accountId, String crypto, Type type, Instant from, Instant to,
+                                      String cursor, int limit) {
+        requireAccount(accountId);
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Specification<Transaction> specification = matching(accountId, canonical(crypto), type, from, to);
+        if (cursor != null) {
+            specification = specification.and(parseCursor(cursor));
+        }
+        List<Transaction> rows = transactionRepository.findBy(specification,
+                query -> query.sortBy(NEWEST_FIRST).limit(limit + 1).all());
+
+        boolean hasMore = rows.size() > limit;
+        List<Transaction> page = hasMore ? rows.subList(0, limit) : rows;
+        return TransactionPageDTO.builder()
+                .transactions(page.stream().map(TransactionHistoryService::toDTO).toList())
+                .nextCursor(hasMore ? toCursor(page.get(page.size() - 1)) : null)
+                .build();
+    }
+
+    /**
+     * Export an account's transactions, oldest first, as newline-delimited JSON. The account is checked right away;
+     * rows are written as they are read from the database and detached right after, so memory use does not grow
+     * with the history.
+     */
+    public StreamingResponseBody export(long accountId, String crypto, Type type, Instant from, Instant to) {
+        requireAccount(accountId);
+        return out -> write(accountId, crypto, type, from, to, out);
+    }
+
+    private void write(long accountId, String crypto, Type type, Instant from, Instant to, OutputStream out) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Transaction> rows = transactionRepository.findBy(
+                    matching(accountId, canonical(crypto), type, from, to),
+                    query -> query.sortBy(OLDEST_FIRST).stream());
+                 SequenceWriter writer = objectMapper.writerFor(TransactionDTO.class)
+                         .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                         .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                         .withRootValueSeparator("\n")
+                         .writeValues(out)) {
+                boolean written = false;
+                Iterator<Transaction> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    Transaction transaction = iterator.next();
+                    writer.write(toDTO(transaction));
+                    entityManager.detach(transaction);
+                    written = true;
+                }
+                if (written) {
+                    writer.flush();
+                    out.write('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void requireAccount(long accountId) {
+        if (!tradeEngine.hasAccount(accountId)) {
+            throw new AccountNotFoundException("Account not found");
+        }
+    }
+
+    private String canonical(String crypto) {
+        return crypto != null ? symbolRegistry.canonical(crypto) : null;
+    }
+
+    private static Specification<Transaction> parseCursor(String cursor) {
+        int separator = cursor.lastIndexOf(CURSOR_SEPARATOR);
+        try {
+            return before(Instant.parse(cursor.substring(0, separator)), Long.parseLong(cursor.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException | IndexOutOfBoundsException e) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String toCursor(Transaction transaction) {
+        return transaction.getExecutedAt().toString() + CURSOR_SEPARATOR + transaction.getId();
+    }
+
+    private static TransactionDTO toDTO(Transaction transaction) {
+        return TransactionDTO.builder()
+                .id(transaction.getId())
+                .accountId(transaction.getAccount().getId())
+                .crypto(transaction.getCrypto())
+                .amount(transaction.getAmount())
+                .price(transaction.getPrice())
+                .total(transaction.getTotal())
+                .type(transaction.getType())
+                .dateTime(transaction.getDateTime())
+                .executedAt(transaction.getExecutedAt())
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.traidingsim.strategy;
+
+/**
+ * Trend follower on one symbol: buys a fixed amount when the simple moving average of the last {@code fastWindow}
+ * prices crosses above that of the last {@code slowWindow} prices, and sells the whole holding when it crosses
+ * back below. Averages are kept as running sums over a ring of the latest prices, so an update costs O(1).
+ */
+public class MovingAverageCrossStrategy implements Strategy {
+
+    private final String crypto;
+    private final int fastWindow;
+    private final int slowWindow;
+    private final double amount;
+    private final double[] window;
+
+    private int symbolId = -1;
+    private long count;
+    private double fastSum;
+    private double slowSum;
+    private int trend;
+
+    public MovingAverageCrossStrategy(String crypto, int fastWindow, int slowWindow, double amount) {
+        if (fastWindow <= 0 || slowWindow <= fastWindow) {
+            throw new IllegalArgumentException("Windows must satisfy 0 < fast < slow");
+        }
+        this.crypto = crypto;
+        this.fastWindow = fastWindow;
+        this.slowWindow = slowWindow;
+        this.amount = amount;
+        this.window = new double[slowWindow];
+    }
+
+    @Override
+    public void start(StrategyContext context) {
+        symbolId = context.resolve(crypto);
+    }
+
+    @Override
+    public void onPrice(StrategyContext context, int symbolId, double price) {
+        if (symbolId != this.symbolId) {
+            return;
+        }
+
+        fastSum += price;
+        slowSum += price;
+        if (count >= fastWindow) {
+            fastSum -= window[(int) ((count - fastWindow) % slowWindow)];
+        }
+        if (count >= slowWindow) {
+            slowSum -= window[(int) (count % slowWindow)];
+        }
+        window[(int) (count % slowWindow)] = price;
+        count++;
+        if (count < slowWindow) {
+            return;
+        }
+
+        int signal = Double.compare(fastSum / fastWindow, slowSum / slowWindow);
+        if (signal == 0 || signal == trend) {
+            return;
+        }
+        int previous = trend;
+        trend = signal;
+        if (previous == 0) {
+            // The first full window only establishes the trend, a cross needs a change of it
+            return;
+        }
+
+        double holding = context.holding(crypto);
+        if (trend > 0 && holding == 0 && context.balance() >= price * amount) {
+            context.buy(crypto, amount);
+        } else if (trend < 0 && holding > 0) {
+            context.sell(crypto, holding);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Moving average cross on " + crypto + ": " + fastWindow + "/" + slowWindow + " ticks, buys " + amount;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.traidingsim.strategy;
+
+/**
+ * Trading strategy driven by price updates. The same strategy runs in a backtest over recorded ticks and against
+ * the live feed; it only sees the market and its account through the {@link StrategyContext} it is given.
+ * Calls are made from one thread at a time, so a strategy may keep plain mutable state.
+ */
+public interface Strategy {
+
+    /**
+     * Called once before the first price update.
+     */
+    default void start(StrategyContext context) {
+    }
+
+    /**
+     * Called for every price update, after the price has been applied, so {@code context} already quotes it.
+     */
+    void onPrice(StrategyContext context, int symbolId, double price);
+
+    /**
+     * Called once after the last price update.
+     */
+    default void stop(StrategyContext context) {
+    }
+}
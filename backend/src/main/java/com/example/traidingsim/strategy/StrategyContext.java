@@ -0,0 +1,38 @@
+package com.example.traidingsim.strategy;
+
+import com.example.traidingsim.engine.TradeResult;
+
+/**
+ * A strategy's view of the market and of the account it trades. Trades are executed like those placed through
+ * the API and are rejected with the same exceptions.
+ */
+public interface StrategyContext {
+
+    /**
+     * Current time in epoch milliseconds: the wall clock when live, the time of the current tick in a backtest.
+     */
+    long currentTimeMillis();
+
+    /**
+     * Resolve a symbol, either the full pair ({@code BTC/USD}) or the base asset of a USD pair ({@code BTC}).
+     * @return The symbol ID, or -1 if the symbol is unknown.
+     */
+    int resolve(String crypto);
+
+    String symbolOf(int symbolId);
+
+    /**
+     * Latest price of a symbol, or {@code NaN} if none has been received.
+     */
+    double price(int symbolId);
+
+    long accountId();
+
+    double balance();
+
+    double holding(String crypto);
+
+    TradeResult buy(String crypto, double amount);
+
+    TradeResult sell(String crypto, double amount);
+}
@@ -0,0 +1,212 @@
+package com.example.traidingsim.strategy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs one live {@link Strategy} on its own virtual thread, fed from a bounded single-producer, single-consumer
+ * ring of price updates held in primitive arrays. The market data thread only ever writes to the ring: when it
+ * is full the update is dropped and counted instead of waiting, so a slow strategy falls behind on its own and
+ * never stalls the feed or the other strategies.
+ * An exception thrown by the strategy, such as a rejected trade, is counted and the next update is delivered.
+ */
+@Slf4j
+public class StrategyRunner {
+
+    public enum State {
+        RUNNING, STOPPED, FAILED
+    }
+
+    private final String name;
+    private final Strategy strategy;
+    private final StrategyContext context;
+    private final int capacity;
+    private final int mask;
+    private final int[] symbolIds;
+    private final double[] prices;
+    private final long[] enqueuedAt;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private volatile boolean parked;
+    private volatile State state = State.RUNNING;
+
+    // Written by the feed thread only
+    private volatile long dropped;
+    private volatile long maxQueueDepth;
+
+    // Written by the strategy thread only
+    private volatile long processed;
+    private volatile long errors;
+    private volatile long totalLatencyNanos;
+    private volatile long maxLatencyNanos;
+    private volatile String lastError;
+
+    /**
+     * @param queueCapacity Price updates held for the strategy, rounded up to a power of two.
+     */
+    public StrategyRunner(String name, Strategy strategy, StrategyContext context, int queueCapacity) {
+        if (queueCapacity <= 0 || queueCapacity > 1 << 24) {
+            throw new IllegalArgumentException("Queue capacity must be between 1 and " + (1 << 24));
+        }
+        this.name = name;
+        this.strategy = strategy;
+        this.context = context;
+        this.capacity = queueCapacity == 1 ? 1 : Integer.highestOneBit(queueCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.symbolIds = new int[capacity];
+        this.prices = new double[capacity];
+        this.enqueuedAt = new long[capacity];
+        this.thread = Thread.ofVirtual().name("strategy-" + name).unstarted(this::run);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Queue a price update for the strategy. Called by the single market data thread.
+     * @return {@code false} if the queue was full and the update was dropped.
+     */
+    public boolean offer(int symbolId, double price, long enqueuedAtNanos) {
+        long position = tail.get();
+        long depth = position - head.get();
+        if (depth >= capacity || !running) {
+            dropped = dropped + 1;
+            return false;
+        }
+        int slot = (int) (position & mask);
+        symbolIds[slot] = symbolId;
+        prices[slot] = price;
+        enqueuedAt[slot] = enqueuedAtNanos;
+        tail.set(position + 1);
+        if (depth + 1 > maxQueueDepth) {
+            maxQueueDepth = depth + 1;
+        }
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    /**
+     * Stop delivering updates, let the strategy finish the one in progress and call its {@code stop}.
+     */
+    public void stop(long timeout, TimeUnit unit) throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        if (!thread.join(Duration.ofNanos(unit.toNanos(timeout)))) {
+            log.warn("Strategy {} did not stop within {} {}", name, timeout, unit);
+        }
+    }
+
+    private void run() {
+        try {
+            strategy.start(context);
+        } catch (RuntimeException e) {
+            log.error("Strategy {} failed to start", name, e);
+            lastError = String.valueOf(e.getMessage());
+            state = State.FAILED;
+            running = false;
+            return;
+        }
+
+        while (running) {
+            long position = head.get();
+            if (position == tail.get()) {
+                parked = true;
+                if (running && position == tail.get()) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+                continue;
+            }
+
+            int slot = (int) (position & mask);
+            try {
+                strategy.onPrice(context, symbolIds[slot], prices[slot]);
+            } catch (RuntimeException e) {
+                errors = errors + 1;
+                lastError = String.valueOf(e.getMessage());
+                log.debug("Strategy {} failed to handle a price update", name, e);
+            }
+            long latency = System.nanoTime() - enqueuedAt[slot];
+            head.set(position + 1);
+
+            processed = processed + 1;
+            totalLatencyNanos = totalLatencyNanos + latency;
+            if (latency > maxLatencyNanos) {
+                maxLatencyNanos = latency;
+            }
+        }
+
+        try {
+            strategy.stop(context);
+        } catch (RuntimeException e) {
+            log.error("Strategy {} failed to stop", name, e);
+        }
+        state = State.STOPPED;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public StrategyContext getContext() {
+        return context;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getQueueCapacity() {
+        return capacity;
+    }
+
+    public long getQueueDepth() {
+        return Math.max(0, tail.get() - head.get());
+    }
+
+    public long getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Mean time from an update being queued to the strategy having handled it.
+     */
+    public long getMeanLatencyNanos() {
+        long count = processed;
+        return count > 0 ? totalLatencyNanos / count : 0;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+}
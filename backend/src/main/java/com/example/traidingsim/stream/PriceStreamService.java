@@ -0,0 +1,168 @@
+package com.example.traidingsim.stream;
+
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import com.example.traidingsim.metrics.MarketDataMetrics;
+import com.example.traidingsim.model.dto.CryptoPriceBatchDTO;
+import com.example.traidingsim.model.dto.CryptoPriceDTO;
+import com.example.traidingsim.model.enumeration.StreamBackpressure;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Hot source of the prices broadcast to frontend clients, for Server-Sent Event streams.
+ * {@link com.example.traidingsim.websocket.FrontendWebSocketService} publishes every conflated flush; each event is
+ * a full snapshot of the latest prices, serialized once however many streams receive it.
+ * Streams hold no thread while they wait, and every subscriber chooses how it is treated when it falls behind:
+ * <ul>
+ *     <li>{@link StreamBackpressure#LATEST}: intermediate snapshots are skipped and the subscriber gets the latest
+ *     one when it is ready</li>
+ *     <li>{@link StreamBackpressure#BUFFER}: up to a bounded number of snapshots wait for the subscriber; when the
+ *     buffer overflows the stream ends, and the client reconnects to start again from the latest snapshot</li>
+ * </ul>
+ * Streams also carry a comment every {@code frontend.stream.heartbeat-interval-ms}, so idle connections are kept
+ * open by proxies and closed connections are noticed.
+ */
+@Service
+@Slf4j
+public class PriceStreamService {
+
+    public static final String PRICES_EVENT = "prices";
+
+    private final ObjectMapper objectMapper;
+    private final SymbolRegistry symbolRegistry;
+    private final MarketDataMetrics metrics;
+    private final Duration heartbeatInterval;
+    private final Sinks.Many<ServerSentEvent<String>> sink = Sinks.many().multicast().directBestEffort();
+    private final double[] prices = new double[SymbolRegistry.CAPACITY];
+
+    private long sequence;
+    private long timestamp;
+
+    public PriceStreamService(ObjectMapper objectMapper, SymbolRegistry symbolRegistry, MarketDataMetrics metrics,
+                              @Value("${frontend.stream.heartbeat-interval-ms:15000}") long heartbeatIntervalMs) {
+        this.objectMapper = objectMapper;
+        this.symbolRegistry = symbolRegistry;
+        this.metrics = metrics;
+        this.heartbeatInterval = Duration.ofMillis(heartbeatIntervalMs);
+        Arrays.fill(prices, Double.NaN);
+        metrics.registerStreamSubscribers(sink);
+    }
+
+    /**
+     * Publish the prices of a flush to every stream. Called by the single flushing thread; the snapshot is only
+     * serialized while there are subscribers.
+     */
+    public synchronized void publish(long flushSequence, long flushTimestamp, TickBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            prices[batch.symbolId(i)] = batch.price(i);
+        }
+        sequence = flushSequence;
+        timestamp = flushTimestamp;
+
+        if (sink.currentSubscriberCount() > 0) {
+            ServerSentEvent<String> event = snapshotEvent();
+            if (event != null) {
+                sink.tryEmitNext(event);
+            }
+        }
+    }
+
+    /**
+     * Stream of price snapshots, starting with the latest one.
+     * @param bufferSize Snapshots kept for a subscriber that falls behind, with {@link StreamBackpressure#BUFFER}.
+     */
+    public Flux<ServerSentEvent<String>> prices(StreamBackpressure backpressure, int bufferSize) {
+        Flux<ServerSentEvent<String>> snapshots = Flux.concat(Mono.fromSupplier(this::currentEvent), sink.asFlux());
+        Flux<ServerSentEvent<String>> limited = switch (backpressure) {
+            case LATEST -> snapshots.onBackpressureLatest();
+            case BUFFER -> snapshots.onBackpressureBuffer(bufferSize)
+                    .onErrorResume(Exceptions::isOverflow, e -> {
+                        metrics.onStreamOverflow();
+                        return Flux.empty();
+                    });
+        };
+        return withHeartbeats(limited);
+    }
+
+    /**
+     * Stream of a view that changes with prices, such as an account's portfolio: it is evaluated again on every
+     * price update, but only once the subscriber is ready for it, and sent only when it changed.
+     * The first value is evaluated right away, so a view that cannot be evaluated fails the request.
+     */
+    public Flux<ServerSentEvent<String>> follow(String eventName, Supplier<?> view) {
+        String first = toJson(view.get());
+        Flux<ServerSentEvent<String>> updates = sink.asFlux()
+                .onBackpressureLatest()
+                // Evaluated off the flushing thread, which would otherwise evaluate the views of all streams in turn
+                .publishOn(Schedulers.parallel(), 1)
+                .map(priceEvent -> toJson(view.get()))
+                .startWith(first)
+                .distinctUntilChanged()
+                .map(json -> ServerSentEvent.builder(json).event(eventName).build());
+        return withHeartbeats(updates);
+    }
+
+    private Flux<ServerSentEvent<String>> withHeartbeats(Flux<ServerSentEvent<String>> events) {
+        return Flux.defer(() -> {
+            Sinks.Empty<Void> ended = Sinks.empty();
+            Flux<ServerSentEvent<String>> heartbeats = Flux.interval(heartbeatInterval)
+                    .onBackpressureDrop()
+                    .map(tick -> ServerSentEvent.<String>builder().comment("heartbeat").build())
+                    .takeUntilOther(ended.asMono());
+            // Prefetch one event at a time, so waiting events stay in the backpressure strategy's hands
+            return Flux.merge(1, events.doFinally(signal -> ended.tryEmitEmpty()), heartbeats);
+        });
+    }
+
+    private synchronized ServerSentEvent<String> currentEvent() {
+        return sequence > 0 ? snapshotEvent() : null;
+    }
+
+    private ServerSentEvent<String> snapshotEvent() {
+        List<CryptoPriceDTO> snapshot = new ArrayList<>(symbolRegistry.size());
+        for (int id = 0; id < symbolRegistry.size(); id++) {
+            if (!Double.isNaN(prices[id])) {
+                snapshot.add(CryptoPriceDTO.builder().symbol(symbolRegistry.symbolOf(id)).price(prices[id]).build());
+            }
+        }
+        CryptoPriceBatchDTO batch = CryptoPriceBatchDTO.builder()
+                .type(CryptoPriceBatchDTO.SNAPSHOT)
+                .sequence(sequence)
+                .timestamp(timestamp)
+                .prices(snapshot)
+                .build();
+        try {
+            return ServerSentEvent.builder(objectMapper.writeValueAsString(batch))
+                    .id(Long.toString(sequence))
+                    .event(PRICES_EVENT)
+                    .build();
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing the price stream snapshot", e);
+            return null;
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+}
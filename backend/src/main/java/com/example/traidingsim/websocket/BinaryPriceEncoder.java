@@ -0,0 +1,45 @@
+package com.example.traidingsim.websocket;
+
+import com.example.traidingsim.marketdata.TickBatch;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary encoding of a price batch for clients subscribed to {@code /topic/prices-binary}.
+ * All values are big-endian:
+ * <pre>
+ * u8  version (1)
+ * u8  type (0 = snapshot, 1 = delta)
+ * i64 sequence
+ * i64 timestamp (epoch millis)
+ * u16 count
+ * count x (u16 symbol id, f64 price)
+ * </pre>
+ * Symbol IDs map to the list returned by {@code GET /api/market-data/symbols}.
+ */
+public final class BinaryPriceEncoder {
+
+    public static final byte VERSION = 1;
+    public static final byte SNAPSHOT = 0;
+    public static final byte DELTA = 1;
+
+    static final int HEADER_BYTES = 1 + 1 + 8 + 8 + 2;
+    static final int ENTRY_BYTES = 2 + 8;
+
+    private BinaryPriceEncoder() {
+    }
+
+    public static byte[] encode(boolean snapshot, long sequence, long timestamp, TickBatch batch) {
+        byte[] frame = new byte[HEADER_BYTES + batch.size() * ENTRY_BYTES];
+        ByteBuffer buffer = ByteBuffer.wrap(frame)
+                .put(VERSION)
+                .put(snapshot ? SNAPSHOT : DELTA)
+                .putLong(sequence)
+                .putLong(timestamp)
+                .putShort((short) batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            buffer.putShort((short) batch.symbolId(i)).putDouble(batch.price(i));
+        }
+        return frame;
+    }
+}
@@ -1,30 +1,185 @@
 package com.example.traidingsim.websocket;
 
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import com.example.traidingsim.metrics.MarketDataMetrics;
+import com.example.traidingsim.model.dto.BroadcastStatsDTO;
+import com.example.traidingsim.model.dto.CryptoPriceBatchDTO;
 import com.example.traidingsim.model.dto.CryptoPriceDTO;
+import com.example.traidingsim.stream.PriceStreamService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Broadcasts prices to frontend clients on {@code /topic/prices} and the per-symbol {@code /topic/prices/{symbol}}
+ * destinations.
+ * Incoming ticks are conflated to the latest price per symbol and flushed once per interval:
+ * a delta with the symbols that changed, or a full snapshot every {@code frontend.prices.snapshot-interval-ms}.
+ * Symbols without any subscriber are neither serialized nor sent.
+ * Clients connected to the plain WebSocket endpoint can subscribe to {@code /topic/prices-binary}
+ * for the compact {@link BinaryPriceEncoder} format instead of JSON.
+ * Every flush is also published to the {@link PriceStreamService} for Server-Sent Event streams.
+ * The time from the receipt of a tick to its broadcast is recorded in the {@link MarketDataMetrics} for every tick
+ * sent to at least one destination.
+ */
 @Service
 @Slf4j
 public class FrontendWebSocketService {
 
     private final SimpMessagingTemplate messagingTemplate;
     private final ObjectMapper objectMapper;
+    private final SymbolRegistry symbolRegistry;
+    private final PriceSubscriptionRegistry subscriptionRegistry;
+    private final MarketDataMetrics metrics;
+    private final PriceStreamService priceStream;
+    private final PriceConflator conflator = new PriceConflator();
+    private final TickBatch flushBatch = new TickBatch();
+
+    @Value("${frontend.prices.flush-interval-ms:100}")
+    private long flushIntervalMs;
+
+    @Value("${frontend.prices.snapshot-interval-ms:5000}")
+    private long snapshotIntervalMs;
+
+    private long sequence;
+    private long lastSnapshotMs;
+    private volatile long messagesSent;
+    private volatile long pricesUnwatched;
+    private volatile long bytesSent;
 
-    public FrontendWebSocketService(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper) {
+    public FrontendWebSocketService(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper,
+                                    SymbolRegistry symbolRegistry, PriceSubscriptionRegistry subscriptionRegistry,
+                                    MarketDataMetrics metrics, PriceStreamService priceStream) {
         this.messagingTemplate = messagingTemplate;
         this.objectMapper = objectMapper;
+        this.symbolRegistry = symbolRegistry;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.metrics = metrics;
+        this.priceStream = priceStream;
+    }
+
+    /**
+     * Queue the latest prices for the next flush.
+     * @param receivedNanos {@link System#nanoTime()} when the ticks were received.
+     */
+    public void publishPrices(TickBatch batch, long receivedNanos) {
+        conflator.offer(batch, receivedNanos);
+    }
+
+    @Scheduled(fixedRateString = "${frontend.prices.flush-interval-ms:100}")
+    public synchronized void flush() {
+        long now = System.currentTimeMillis();
+        boolean snapshot = now - lastSnapshotMs >= snapshotIntervalMs;
+
+        conflator.drain(flushBatch, snapshot);
+        if (flushBatch.isEmpty()) {
+            return;
+        }
+        if (snapshot) {
+            lastSnapshotMs = now;
+        }
+
+        String type = snapshot ? CryptoPriceBatchDTO.SNAPSHOT : CryptoPriceBatchDTO.DELTA;
+        long flushSequence = ++sequence;
+        priceStream.publish(flushSequence, now, flushBatch);
+        boolean sendAll = subscriptionRegistry.hasAllPricesSubscribers();
+        List<CryptoPriceDTO> allPrices = sendAll ? new ArrayList<>(flushBatch.size()) : null;
+
+        for (int i = 0; i < flushBatch.size(); i++) {
+            int symbolId = flushBatch.symbolId(i);
+            if (!subscriptionRegistry.isWatched(symbolId)) {
+                pricesUnwatched++;
+                continue;
+            }
+
+            CryptoPriceDTO price = CryptoPriceDTO.builder()
+                    .symbol(symbolRegistry.symbolOf(symbolId))
+                    .price(flushBatch.price(i))
+                    .build();
+            if (sendAll) {
+                allPrices.add(price);
+            }
+            if (subscriptionRegistry.hasSymbolSubscribers(symbolId)) {
+                broadcastCryptoPrices(subscriptionRegistry.destinationOf(symbolId),
+                        batchOf(type, flushSequence, now, List.of(price)));
+            }
+        }
+
+        if (sendAll && !allPrices.isEmpty()) {
+            broadcastCryptoPrices(PriceSubscriptionRegistry.ALL_PRICES_DESTINATION,
+                    batchOf(type, flushSequence, now, allPrices));
+        }
+
+        boolean sendBinary = subscriptionRegistry.hasBinarySubscribers();
+        if (sendBinary) {
+            send(PriceSubscriptionRegistry.BINARY_PRICES_DESTINATION,
+                    BinaryPriceEncoder.encode(snapshot, flushSequence, now, flushBatch),
+                    MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        }
+        recordLatency(sendAll, sendBinary);
+    }
+
+    private void recordLatency(boolean sentAll, boolean sentBinary) {
+        long broadcastNanos = System.nanoTime();
+        for (int i = 0; i < flushBatch.size(); i++) {
+            long receivedNanos = conflator.receivedNanos(i);
+            boolean sent = sentAll || sentBinary || subscriptionRegistry.hasSymbolSubscribers(flushBatch.symbolId(i));
+            if (receivedNanos != 0 && sent) {
+                metrics.onBroadcast(receivedNanos, broadcastNanos);
+            }
+        }
+    }
+
+    public BroadcastStatsDTO getBroadcastStats() {
+        return BroadcastStatsDTO.builder()
+                .ticksReceived(conflator.getTicksReceived())
+                .ticksConflated(conflator.getTicksConflated())
+                .messagesSent(messagesSent)
+                .pricesUnwatched(pricesUnwatched)
+                .bytesSent(bytesSent)
+                .flushIntervalMs(flushIntervalMs)
+                .build();
     }
 
-    public void broadcastCryptoPrice(CryptoPriceDTO priceDTO) {
+    private static CryptoPriceBatchDTO batchOf(String type, long sequence, long timestamp, List<CryptoPriceDTO> prices) {
+        return CryptoPriceBatchDTO.builder()
+                .type(type)
+                .sequence(sequence)
+                .timestamp(timestamp)
+                .prices(prices)
+                .build();
+    }
+
+    private void broadcastCryptoPrices(String destination, CryptoPriceBatchDTO batchDTO) {
         try {
-            String message = objectMapper.writeValueAsString(priceDTO);
-            messagingTemplate.convertAndSend("/topic/prices", message);
-//            log.info("Broadcasted message to /topic/prices: {}", message);
+            send(destination, objectMapper.writeValueAsBytes(batchDTO), MimeTypeUtils.APPLICATION_JSON);
         } catch (Exception e) {
             log.error("Error broadcasting message to WebSocket clients", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Send an already encoded payload. The broker hands the same byte array to every subscriber, so the
+     * update is serialized to JSON or binary once; each session still encodes its own STOMP frame around it.
+     */
+    private void send(String destination, byte[] payload, MimeType contentType) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(contentType);
+        accessor.setLeaveMutable(true);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+        messagesSent++;
+        bytesSent += payload.length;
+    }
+}
@@ -1,100 +1,117 @@
 package com.example.traidingsim.websocket;
 
-import com.example.traidingsim.model.dto.CryptoPriceDTO;
-import com.example.traidingsim.mapper.CryptoPriceMapper;
-import com.example.traidingsim.model.dto.CryptoPricePayloadDTO;
-import com.example.traidingsim.model.dto.SubscribeMessage;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.traidingsim.marketdata.FeedMonitor;
+import com.example.traidingsim.marketdata.KrakenBookDecoder;
+import com.example.traidingsim.marketdata.KrakenTickerDecoder;
+import com.example.traidingsim.marketdata.MarketDataSource;
+import com.example.traidingsim.marketdata.OrderBooks;
+import com.example.traidingsim.marketdata.PriceBook;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import com.example.traidingsim.marketdata.history.TickHistory;
+import com.example.traidingsim.logging.RateLimitedLogger;
+import com.example.traidingsim.metrics.MarketDataMetrics;
+import com.example.traidingsim.service.OrderService;
+import com.example.traidingsim.service.StrategyService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
-import jakarta.websocket.*;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.net.URI;
-import java.util.Collections;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
-@ClientEndpoint
 @Service
 @Slf4j
 public class KrakenWebSocketService {
 
-    @Value("${kraken.websocket.uri}")
-    private String krakenWebSocketUri;
+    private static final int ERROR_LOG_LIMIT = 10;
+    private static final RateLimitedLogger errorLog =
+            new RateLimitedLogger(log, ERROR_LOG_LIMIT, TimeUnit.MINUTES.toMillis(1));
 
-    private final ObjectMapper objectMapper;
     private final FrontendWebSocketService frontendWebSocketService;
-    private final Map<String, Double> cryptoPrices = new ConcurrentHashMap<>();
-
-    public KrakenWebSocketService(ObjectMapper objectMapper, FrontendWebSocketService frontendWebSocketService) {
-        this.objectMapper = objectMapper;
+    private final MarketDataSource marketDataSource;
+    private final KrakenTickerDecoder tickerDecoder;
+    private final KrakenBookDecoder bookDecoder;
+    private final TickBatch tickBatch = new TickBatch();
+    private final PriceBook priceBook;
+    private final TickHistory tickHistory;
+    private final OrderService orderService;
+    private final StrategyService strategyService;
+    private final FeedMonitor feedMonitor;
+    private final MarketDataMetrics metrics;
+
+    public KrakenWebSocketService(ObjectMapper objectMapper, FrontendWebSocketService frontendWebSocketService,
+                                  MarketDataSource marketDataSource, SymbolRegistry symbolRegistry, PriceBook priceBook,
+                                  TickHistory tickHistory, OrderService orderService, OrderBooks orderBooks,
+                                  StrategyService strategyService, FeedMonitor feedMonitor,
+                                  MarketDataMetrics metrics) {
         this.frontendWebSocketService = frontendWebSocketService;
+        this.marketDataSource = marketDataSource;
+        this.priceBook = priceBook;
+        this.tickHistory = tickHistory;
+        this.orderService = orderService;
+        this.strategyService = strategyService;
+        this.feedMonitor = feedMonitor;
+        this.metrics = metrics;
+        this.tickerDecoder = new KrakenTickerDecoder(objectMapper.getFactory(), symbolRegistry);
+        this.bookDecoder = new KrakenBookDecoder(objectMapper.getFactory(), symbolRegistry, orderBooks);
     }
 
     @PostConstruct
     public void init() {
-        connectToKrakenWebSocket();
-    }
-
-    private void connectToKrakenWebSocket() {
-        try {
-            WebSocketContainer container = ContainerProvider.getWebSocketContainer();
-            container.connectToServer(this, new URI(krakenWebSocketUri));
-            log.info("Connected to Kraken WebSocket");
-        } catch (Exception e) {
-            log.error("Error connecting to Kraken WebSocket: {}", e.getMessage());
-        }
+        marketDataSource.start(this::onMessage);
     }
 
-    @OnOpen
-    public void onOpen(Session session) {
-        try {
-            SubscribeMessage subscribeMessage = SubscribeMessage.createDefaultSubscription();
-            String jsonMessage = objectMapper.writeValueAsString(subscribeMessage);
-            session.getAsyncRemote().sendText(jsonMessage);
-            log.info("Subscribed to Kraken ticker channel: {}", jsonMessage);
-        } catch (Exception e) {
-            log.error("Error sending subscription message", e);
-        }
+    @PreDestroy
+    public void shutdown() {
+        marketDataSource.stop();
     }
 
-    @OnMessage
+    /**
+     * Handle a single Kraken v2 frame delivered by the configured {@link MarketDataSource}.
+     * Frames are delivered by one source thread at a time, so the decode buffer is reused across calls.
+     * Every frame, heartbeats included, is reported to the {@link FeedMonitor}.
+     * Book frames are applied to the symbols' {@link OrderBooks} books. For ticker frames, every element of the
+     * data array is applied to the price book as one atomic update and recorded in the tick history; the batch
+     * then triggers the resting orders it crosses, is queued for the live strategies and is handed to the frontend
+     * broadcast stage.
+     * Decoding time, ticks per symbol and the exchange lag are recorded in the {@link MarketDataMetrics}.
+     * Nothing is logged per frame; undecodable frames are logged at most {@code ERROR_LOG_LIMIT} times a minute.
+     */
     public void onMessage(String message) {
+        long receivedNanos = System.nanoTime();
         try {
-            log.debug("Received message: {}", message);
-
-            JsonNode jsonNode = objectMapper.readTree(message);
-            JsonNode dataNode = jsonNode.path("data");
-
-            if (dataNode.isArray() && dataNode.size() > 0) {
-                JsonNode firstData = dataNode.get(0);
-
-                String symbol = firstData.path("symbol").asText(null);
-                double lastPrice = firstData.path("last").asDouble(Double.NaN);
-
-                if (symbol != null && !symbol.isEmpty() && !Double.isNaN(lastPrice)) {
-                    CryptoPricePayloadDTO payload = new CryptoPricePayloadDTO();
-                    payload.setSymbol(symbol);
-                    payload.setLastPrice(lastPrice);
-
-                    CryptoPriceDTO dto = CryptoPriceMapper.toDTO(payload);
-
-                    frontendWebSocketService.broadcastCryptoPrice(dto);
-
-                    cryptoPrices.put(symbol, lastPrice);
-                    log.info("Updated price for {}: {}", symbol, lastPrice);
-                }
+            long now = System.currentTimeMillis();
+            feedMonitor.onFrame(now);
+
+            if (KrakenBookDecoder.isBookFrame(message)) {
+                bookDecoder.decode(message);
+                metrics.onParsed(receivedNanos);
+            } else if (tickerDecoder.decode(message, tickBatch)) {
+                metrics.onFrame(tickBatch, receivedNanos, now);
+                applyPrices(tickBatch, now);
+                orderService.onPrices(tickBatch);
+                strategyService.onPrices(tickBatch);
+                frontendWebSocketService.publishPrices(tickBatch, receivedNanos);
+            } else {
+                metrics.onParsed(receivedNanos);
             }
         } catch (Exception e) {
-            log.error("Error processing WebSocket message", e);
+            errorLog.error("Error processing WebSocket message", e);
         }
     }
 
-
+    /**
+     * Return a consistent snapshot of the latest prices. A snapshot never contains part of a frame.
+     */
     public Map<String, Double> getCryptoPrices() {
-        return Collections.unmodifiableMap(cryptoPrices);
+        return priceBook.snapshot();
+    }
+
+    private void applyPrices(TickBatch batch, long timestamp) {
+        priceBook.apply(batch, timestamp);
+        tickHistory.record(batch, timestamp);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,91 @@
+package com.example.traidingsim.websocket;
+
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+
+/**
+ * Keeps only the latest price per symbol between two flushes.
+ * The feed thread offers ticks and a flusher periodically drains the symbols that changed since the last drain,
+ * so downstream work depends on the flush rate rather than the tick rate.
+ * For every changed symbol it also keeps when the oldest tick not drained yet was received, so the flusher can
+ * measure how long ticks wait before they reach clients.
+ */
+public class PriceConflator {
+
+    private final double[] latest = new double[SymbolRegistry.CAPACITY];
+    private final boolean[] known = new boolean[SymbolRegistry.CAPACITY];
+    private final boolean[] dirty = new boolean[SymbolRegistry.CAPACITY];
+    private final int[] dirtyIds = new int[SymbolRegistry.CAPACITY];
+    private final long[] pendingSince = new long[SymbolRegistry.CAPACITY];
+    private final long[] drainedSince = new long[SymbolRegistry.CAPACITY];
+    private int dirtyCount;
+
+    private long ticksReceived;
+    private long ticksConflated;
+
+    public void offer(TickBatch batch) {
+        offer(batch, System.nanoTime());
+    }
+
+    /**
+     * Record every tick of a batch, overwriting any price for the same symbol that has not been drained yet.
+     * @param receivedNanos {@link System#nanoTime()} when the ticks were received.
+     */
+    public synchronized void offer(TickBatch batch, long receivedNanos) {
+        for (int i = 0; i < batch.size(); i++) {
+            int id = batch.symbolId(i);
+            if (dirty[id]) {
+                ticksConflated++;
+            } else {
+                dirty[id] = true;
+                dirtyIds[dirtyCount++] = id;
+                pendingSince[id] = receivedNanos;
+            }
+            latest[id] = batch.price(i);
+            known[id] = true;
+        }
+        ticksReceived += batch.size();
+    }
+
+    /**
+     * Move the symbols that changed since the last drain into the given batch.
+     * @param snapshot When {@code true}, drain every symbol with a known price instead of only the changed ones.
+     */
+    public synchronized void drain(TickBatch target, boolean snapshot) {
+        target.clear();
+        if (snapshot) {
+            for (int id = 0; id < known.length; id++) {
+                if (known[id]) {
+                    drainedSince[target.size()] = dirty[id] ? pendingSince[id] : 0;
+                    target.add(id, latest[id]);
+                }
+            }
+        } else {
+            for (int i = 0; i < dirtyCount; i++) {
+                drainedSince[target.size()] = pendingSince[dirtyIds[i]];
+                target.add(dirtyIds[i], latest[dirtyIds[i]]);
+            }
+        }
+
+        for (int i = 0; i < dirtyCount; i++) {
+            dirty[dirtyIds[i]] = false;
+        }
+        dirtyCount = 0;
+    }
+
+    /**
+     * When the oldest tick conflated into an entry of the last drained batch was received, or 0 for an entry that
+     * did not change since the previous drain.
+     */
+    public synchronized long receivedNanos(int index) {
+        return drainedSince[index];
+    }
+
+    public synchronized long getTicksReceived() {
+        return ticksReceived;
+    }
+
+    public synchronized long getTicksConflated() {
+        return ticksConflated;
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.traidingsim.websocket;
+
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Tracks which price destinations have at least one STOMP subscriber.
+ * Clients subscribe to {@code /topic/prices} (or {@code /topic/prices-binary}) for every symbol
+ * or to {@code /topic/prices/BTC-USD} for a single one;
+ * the broadcast stage only serializes and sends symbols somebody is watching.
+ * A subscription to a symbol the feed has not delivered yet is kept pending, without registering the symbol, and
+ * counts for the symbol from the first time the broadcast stage asks about it.
+ */
+@Component
+@Slf4j
+public class PriceSubscriptionRegistry {
+
+    public static final String ALL_PRICES_DESTINATION = "/topic/prices";
+    public static final String SYMBOL_DESTINATION_PREFIX = ALL_PRICES_DESTINATION + "/";
+    public static final String BINARY_PRICES_DESTINATION = "/topic/prices-binary";
+
+    private static final int ALL_SYMBOLS = -1;
+    private static final int ALL_SYMBOLS_BINARY = -2;
+    private static final int SYMBOL = -3;
+
+    private final SymbolRegistry symbolRegistry;
+    private final String[] destinations = new String[SymbolRegistry.CAPACITY];
+    private final AtomicIntegerArray symbolSubscribers = new AtomicIntegerArray(SymbolRegistry.CAPACITY);
+    private final AtomicInteger allSubscribers = new AtomicInteger();
+    private final AtomicInteger binarySubscribers = new AtomicInteger();
+    private final Map<String, Map<String, Target>> sessionSubscriptions = new HashMap<>();
+    private final Map<String, Integer> pendingSubscribers = new HashMap<>();
+
+    private volatile boolean hasPending;
+
+    public PriceSubscriptionRegistry(SymbolRegistry symbolRegistry) {
+        this.symbolRegistry = symbolRegistry;
+    }
+
+    /**
+     * Destination for a single symbol, e.g. {@code /topic/prices/BTC-USD} for {@code BTC/USD}.
+     */
+    public String destinationOf(int symbolId) {
+        String destination = destinations[symbolId];
+        if (destination == null) {
+            destination = SYMBOL_DESTINATION_PREFIX + symbolRegistry.symbolOf(symbolId).replace('/', '-');
+            destinations[symbolId] = destination;
+        }
+        return destination;
+    }
+
+    /**
+     * Destination for a single symbol, whether or not the feed has delivered it yet, without registering it: a
+     * subscription to it stays pending until the feed does.
+     * @return The destination, or {@code null} if the symbol cannot have one.
+     */
+    public String destinationOf(String symbol) {
+        int symbolId = symbolRegistry.idOf(symbol);
+        if (symbolId >= 0) {
+            return destinationOf(symbolId);
+        }
+        if (symbol == null || symbol.isEmpty() || symbol.length() > SymbolRegistry.MAX_SYMBOL_LENGTH
+                || symbol.indexOf('-') >= 0) {
+            return null;
+        }
+        return SYMBOL_DESTINATION_PREFIX + symbol.replace('/', '-');
+    }
+
+    public boolean hasAllPricesSubscribers() {
+        return allSubscribers.get() > 0;
+    }
+
+    public boolean hasBinarySubscribers() {
+        return binarySubscribers.get() > 0;
+    }
+
+    public boolean hasSymbolSubscribers(int symbolId) {
+        if (hasPending && symbolSubscribers.get(symbolId) == 0) {
+            promotePending(symbolId);
+        }
+        return symbolSubscribers.get(symbolId) > 0;
+    }
+
+    /**
+     * Whether the symbol is sent anywhere, either on its own destination or on one of the all-symbols destinations.
+     */
+    public boolean isWatched(int symbolId) {
+        return hasAllPricesSubscribers() || hasBinarySubscribers() || hasSymbolSubscribers(symbolId);
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Target target = resolve(accessor.getDestination());
+        if (target == null || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+
+        synchronized (sessionSubscriptions) {
+            if (target.id() == SYMBOL && symbolRegistry.idOf(target.symbol()) < 0
+                    && !pendingSubscribers.containsKey(target.symbol())
+                    && pendingSubscribers.size() == SymbolRegistry.CAPACITY) {
+                log.debug("Too many pending symbols, ignoring the subscription to {}", accessor.getDestination());
+                return;
+            }
+            Target previous = sessionSubscriptions
+                    .computeIfAbsent(accessor.getSessionId(), id -> new HashMap<>())
+                    .put(accessor.getSubscriptionId(), target);
+            if (previous != null) {
+                decrement(previous);
+            }
+            increment(target);
+        }
+        log.debug("Session {} subscribed to {}", accessor.getSessionId(), accessor.getDestination());
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        synchronized (sessionSubscriptions) {
+            Map<String, Target> subscriptions = sessionSubscriptions.get(accessor.getSessionId());
+            if (subscriptions == null) {
+                return;
+            }
+            Target target = subscriptions.remove(accessor.getSubscriptionId());
+            if (target != null) {
+                decrement(target);
+            }
+            if (subscriptions.isEmpty()) {
+                sessionSubscriptions.remove(accessor.getSessionId());
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        synchronized (sessionSubscriptions) {
+            Map<String, Target> subscriptions = sessionSubscriptions.remove(event.getSessionId());
+            if (subscriptions != null) {
+                subscriptions.values().forEach(this::decrement);
+            }
+        }
+    }
+
+    /**
+     * Map a destination to its target, or {@code null} if it is not a price topic.
+     * Unknown symbols are not registered, so clients cannot fill up the symbol registry; subscriptions to them are
+     * pending until the feed registers the symbol.
+     */
+    private Target resolve(String destination) {
+        if (ALL_PRICES_DESTINATION.equals(destination)) {
+            return new Target(ALL_SYMBOLS, null);
+        }
+        if (BINARY_PRICES_DESTINATION.equals(destination)) {
+            return new Target(ALL_SYMBOLS_BINARY, null);
+        }
+        if (destination == null || !destination.startsWith(SYMBOL_DESTINATION_PREFIX)) {
+            return null;
+        }
+        String symbol = destination.substring(SYMBOL_DESTINATION_PREFIX.length()).replace('-', '/');
+        if (symbol.isEmpty() || symbol.length() > SymbolRegistry.MAX_SYMBOL_LENGTH) {
+            return null;
+        }
+        return new Target(SYMBOL, symbol);
+    }
+
+    /**
+     * Move the pending subscribers of a symbol, now that it is registered, to its counter.
+     */
+    private void promotePending(int symbolId) {
+        synchronized (sessionSubscriptions) {
+            Integer subscribers = pendingSubscribers.remove(symbolRegistry.symbolOf(symbolId));
+            if (subscribers != null) {
+                symbolSubscribers.addAndGet(symbolId, subscribers);
+            }
+            hasPending = !pendingSubscribers.isEmpty();
+        }
+    }
+
+    private void increment(Target target) {
+        if (target.id() == ALL_SYMBOLS) {
+            allSubscribers.incrementAndGet();
+        } else if (target.id() == ALL_SYMBOLS_BINARY) {
+            binarySubscribers.incrementAndGet();
+        } else {
+            int symbolId = symbolRegistry.idOf(target.symbol());
+            if (symbolId >= 0) {
+                promotePending(symbolId);
+                symbolSubscribers.incrementAndGet(symbolId);
+            } else {
+                pendingSubscribers.merge(target.symbol(), 1, Integer::sum);
+                hasPending = true;
+            }
+        }
+    }
+
+    private void decrement(Target target) {
+        if (target.id() == ALL_SYMBOLS) {
+            allSubscribers.decrementAndGet();
+        } else if (target.id() == ALL_SYMBOLS_BINARY) {
+            binarySubscribers.decrementAndGet();
+        } else if (pendingSubscribers.containsKey(target.symbol())) {
+            pendingSubscribers.computeIfPresent(target.symbol(),
+                    (symbol, subscribers) -> subscribers > 1 ? subscribers - 1 : null);
+            hasPending = !pendingSubscribers.isEmpty();
+        } else {
+            symbolSubscribers.decrementAndGet(symbolRegistry.idOf(target.symbol()));
+        }
+    }
+
+    /**
+     * What a subscription counts towards: {@link #ALL_SYMBOLS}, {@link #ALL_SYMBOLS_BINARY}, or with {@link #SYMBOL}
+     * a single symbol, registered or not yet.
+     */
+    private record Target(int id, String symbol) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.traidingsim.backtest;
+
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.history.TickTape;
+import com.example.traidingsim.strategy.MovingAverageCrossStrategy;
+import com.example.traidingsim.strategy.Strategy;
+import com.example.traidingsim.strategy.StrategyContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BacktesterTests {
+
+	private static final long START = 1_700_000_000_000L;
+	private static final double BALANCE = 10_000.0;
+
+	private final SymbolRegistry symbolRegistry = new SymbolRegistry();
+	private final int btc = symbolRegistry.idOf("BTC/USD");
+	private final int eth = symbolRegistry.idOf("ETH/USD");
+	private final Backtester backtester = new Backtester(symbolRegistry);
+
+	@Test
+	void tradesAtTapePricesOnTheVirtualClock() {
+		TickTape tape = new TickTape();
+		tape.add(START, btc, 100.0);
+		tape.add(START, eth, 10.0);
+		tape.add(START + 1_000, btc, 120.0);
+		tape.add(START + 2_000, eth, 12.0);
+		tape.add(START + 3_000, btc, 90.0);
+
+		List<Long> clock = new ArrayList<>();
+		Strategy strategy = new Strategy() {
+			@Override
+			public void onPrice(StrategyContext context, int symbolId, double price) {
+				clock.add(context.currentTimeMillis());
+				// Every tick of a batch is applied before the strategy sees the first of them
+				assertFalse(Double.isNaN(context.price(eth)));
+				if (context.currentTimeMillis() == START && symbolId == btc) {
+					context.buy("BTC", 10);
+				} else if (context.currentTimeMillis() == START + 1_000) {
+					context.sell("BTC", 5);
+				}
+			}
+		};
+
+		BacktestResult result = backtester.run(tape, "scripted", strategy, BALANCE);
+
+		assertEquals(List.of(START, START, START + 1_000, START + 2_000, START + 3_000), clock);
+		assertEquals(5, result.ticks());
+		assertEquals(2, result.trades());
+		assertEquals(BALANCE - 1_000 + 600, result.finalBalance(), 1e-9);
+		// Realized 5 x (120 - 100), unrealized 5 x (90 - 100)
+		assertEquals(50.0, result.profitLoss(), 1e-9);
+		assertEquals(BALANCE - 1_000 + 600 + 5 * 90, result.equity(), 1e-9);
+	}
+
+	@Test
+	void parallelSweepRunsAreIsolated() {
+		SplittableRandom random = new SplittableRandom(5);
+		TickTape tape = new TickTape();
+		double btcPrice = 60_000;
+		double ethPrice = 3_000;
+		for (int i = 0; i < 200_000; i++) {
+			btcPrice *= Math.exp(0.001 * random.nextGaussian());
+			ethPrice *= Math.exp(0.001 * random.nextGaussian());
+			tape.add(START + i * 100L, btc, btcPrice);
+			tape.add(START + i * 100L, eth, ethPrice);
+		}
+
+		List<BacktestRun> runs = new ArrayList<>();
+		for (int fast = 5; fast <= 40; fast += 5) {
+			for (int slow = 50; slow <= 200; slow += 50) {
+				int fastWindow = fast;
+				int slowWindow = slow;
+				runs.add(new BacktestRun(fast + "/" + slow,
+						() -> new MovingAverageCrossStrategy("BTC", fastWindow, slowWindow, 0.1)));
+			}
+		}
+
+		List<BacktestResult> parallel = backtester.sweep(tape, runs, BALANCE, 4);
+
+		assertEquals(runs.size(), parallel.size());
+		for (int i = 0; i < runs.size(); i++) {
+			BacktestRun run = runs.get(i);
+			BacktestResult sequential = backtester.run(tape, run.name(), run.strategy().get(), BALANCE);
+			BacktestResult result = parallel.get(i);
+			assertEquals(run.name(), result.name());
+			assertTrue(result.trades() > 0, run.name());
+			assertEquals(sequential.trades(), result.trades(), run.name());
+			assertEquals(sequential.finalBalance(), result.finalBalance(), run.name());
+			assertEquals(sequential.profitLoss(), result.profitLoss(), run.name());
+			assertEquals(BALANCE + result.profitLoss(), result.equity(), 1e-6, run.name());
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.traidingsim.benchmark;
+
+import com.example.traidingsim.backtest.BacktestResult;
+import com.example.traidingsim.backtest.Backtester;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.history.TickTape;
+import com.example.traidingsim.strategy.MovingAverageCrossStrategy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ticks per microsecond a single-threaded backtest replays, over a tape of one million ticks on 4 symbols in
+ * batches of 2, with a moving average cross strategy trading one of them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BacktestBenchmark {
+
+    private static final int TICKS = 1_000_000;
+    private static final String[] SYMBOLS = {"BTC/USD", "ETH/USD", "SOL/USD", "XRP/USD"};
+
+    private Backtester backtester;
+    private TickTape tape;
+
+    @Setup
+    public void setup() {
+        SymbolRegistry symbolRegistry = new SymbolRegistry();
+        backtester = new Backtester(symbolRegistry);
+        SplittableRandom random = new SplittableRandom(17);
+        double[] prices = {60_000, 3_000, 150, 0.6};
+        tape = new TickTape(TICKS);
+        for (int i = 0; i < TICKS; i++) {
+            int symbol = i % SYMBOLS.length;
+            prices[symbol] *= Math.exp(0.0005 * random.nextGaussian());
+            tape.add(1_700_000_000_000L + i / 2 * 100L, symbolRegistry.idOf(SYMBOLS[symbol]), prices[symbol]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public BacktestResult movingAverageCross() {
+        return backtester.run(tape, "sma", new MovingAverageCrossStrategy("BTC", 20, 100, 0.01), 10_000);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BacktestBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
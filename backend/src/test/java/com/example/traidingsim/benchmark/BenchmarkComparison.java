@@ -0,0 +1,142 @@
+package com.example.traidingsim.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Compares a JMH JSON result file with a baseline result file, benchmark by benchmark and parameter set by
+ * parameter set, and exits with status 1 if any benchmark regressed.
+ * A benchmark regressed when its score got worse by more than the threshold percentage and by more than the
+ * error margins of both runs combined. Lower is better for time modes, higher for throughput.
+ * A baseline benchmark that the include pattern selects but the run has no result for also fails the comparison,
+ * so that a benchmark that stopped running, or was renamed, is not taken for one without regressions. Those the
+ * pattern leaves out were narrowed out of the run on purpose and are only listed.
+ * <p>
+ * Usage: {@code BenchmarkComparison <result.json> <threshold percent> <include regex> [baseline.json]}; without a
+ * baseline the result is only summarized.
+ */
+public class BenchmarkComparison {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: BenchmarkComparison <result.json> <threshold percent> <include regex>"
+                    + " [baseline.json]");
+            System.exit(2);
+        }
+        Map<String, Score> current = read(Path.of(args[0]));
+        double threshold = Double.parseDouble(args[1]);
+        Pattern include = Pattern.compile(args[2]);
+
+        if (args.length < 4 || args[3].isBlank()) {
+            System.out.printf("%d benchmark results in %s, no baseline to compare with%n", current.size(), args[0]);
+            current.forEach((key, score) -> System.out.printf("  %-90s %14.3f %s%n", key, score.value(), score.unit()));
+            return;
+        }
+
+        Map<String, Score> baseline = read(Path.of(args[3]));
+        List<String> regressions = compare(baseline, current, threshold);
+        List<String> missing = missing(baseline, current, include);
+        if (!regressions.isEmpty()) {
+            System.out.printf("%d of %d benchmarks regressed by more than %.1f%%:%n", regressions.size(),
+                    current.size(), threshold);
+            regressions.forEach(key -> System.out.println("  " + key));
+        }
+        if (!missing.isEmpty()) {
+            System.out.printf("%d benchmarks of the baseline selected by '%s' have no result:%n", missing.size(),
+                    include);
+            missing.forEach(key -> System.out.println("  " + key));
+        }
+        if (!regressions.isEmpty() || !missing.isEmpty()) {
+            System.exit(1);
+        }
+        System.out.printf("No regression over %.1f%% against %s%n", threshold, args[3]);
+    }
+
+    /**
+     * Print every benchmark present in both runs with its change.
+     * @return The keys of the benchmarks that regressed.
+     */
+    static List<String> compare(Map<String, Score> baseline, Map<String, Score> current, double thresholdPercent) {
+        List<String> regressions = new ArrayList<>();
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null || !before.unit().equals(now.unit())) {
+                System.out.printf("%-90s %14s %14.3f %9s %s%n", entry.getKey(), "-", now.value(), "new", now.unit());
+                continue;
+            }
+
+            double change = (now.value() - before.value()) / before.value() * 100;
+            double worse = now.higherIsBetter() ? -change : change;
+            boolean significant = Math.abs(now.value() - before.value()) > before.error() + now.error();
+            boolean regressed = worse > thresholdPercent && significant;
+            if (regressed) {
+                regressions.add(entry.getKey());
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(), before.value(), now.value(),
+                    change, now.unit(), regressed ? "  REGRESSION" : "");
+        }
+        return regressions;
+    }
+
+    /**
+     * Print every benchmark of the baseline without a result in the current run.
+     * @return The keys of those selected by {@code include}, which should have run; JMH selects the benchmarks
+     * whose name contains a match of it.
+     */
+    static List<String> missing(Map<String, Score> baseline, Map<String, Score> current, Pattern include) {
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<String, Score> entry : baseline.entrySet()) {
+            if (current.containsKey(entry.getKey())) {
+                continue;
+            }
+            boolean selected = include.matcher(entry.getValue().benchmark()).find();
+            if (selected) {
+                missing.add(entry.getKey());
+            }
+            System.out.printf("%-90s %14.3f %14s %9s %s%s%n", entry.getKey(), entry.getValue().value(), "-",
+                    selected ? "missing" : "skipped", entry.getValue().unit(), selected ? "  MISSING" : "");
+        }
+        return missing;
+    }
+
+    /**
+     * Scores of a JMH JSON result file by benchmark name and parameters.
+     */
+    static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : objectMapper.readTree(Files.readString(file))) {
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = run.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> param = fields.next();
+                params.put(param.getKey(), param.getValue().asText());
+            }
+
+            String benchmark = run.path("benchmark").asText();
+            String key = benchmark + (params.isEmpty() ? "" : " " + params);
+            JsonNode metric = run.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(key, new Score(benchmark, metric.path("score").asDouble(), Double.isNaN(error) ? 0 : error,
+                    metric.path("scoreUnit").asText(), "thrpt".equals(run.path("mode").asText())));
+        }
+        return scores;
+    }
+
+    record Score(String benchmark, double value, double error, String unit, boolean higherIsBetter) {
+    }
+}
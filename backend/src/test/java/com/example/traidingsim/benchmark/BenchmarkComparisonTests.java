@@ -0,0 +1,54 @@
+package com.example.traidingsim.benchmark;
+
+import com.example.traidingsim.benchmark.BenchmarkComparison.Score;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BenchmarkComparisonTests {
+
+	private static final String BUY = "com.example.traidingsim.benchmark.TradingServiceBenchmark.buyCrypto";
+	private static final String FEED = "com.example.traidingsim.benchmark.FeedPipelineBenchmark.onMessage";
+
+	private final Map<String, Score> baseline = Map.of(
+			BUY, time(BUY, 100),
+			FEED + " {symbols=1}", time(FEED, 50),
+			FEED + " {symbols=20}", time(FEED, 400));
+
+	@Test
+	void reportsTheRegressionsOfBenchmarksInBothRuns() {
+		Map<String, Score> current = Map.of(
+				BUY, time(BUY, 120),
+				FEED + " {symbols=1}", time(FEED, 40),
+				FEED + " {symbols=20}", time(FEED, 405));
+
+		assertEquals(List.of(BUY), BenchmarkComparison.compare(baseline, current, 10));
+		assertEquals(List.of(), BenchmarkComparison.missing(baseline, current, Pattern.compile("Benchmark")));
+	}
+
+	@Test
+	void baselineBenchmarksMissingFromAFullRunFailTheComparison() {
+		Map<String, Score> current = Map.of(BUY, time(BUY, 100), FEED + " {symbols=1}", time(FEED, 50));
+
+		assertEquals(List.of(), BenchmarkComparison.compare(baseline, current, 10));
+		assertEquals(List.of(FEED + " {symbols=20}"),
+				BenchmarkComparison.missing(baseline, current, Pattern.compile("Benchmark")));
+	}
+
+	@Test
+	void benchmarksLeftOutByTheIncludePatternAreNotMissing() {
+		Map<String, Score> current = Map.of(BUY, time(BUY, 100));
+
+		assertEquals(List.of(), BenchmarkComparison.missing(baseline, current,
+				Pattern.compile("TradingServiceBenchmark")));
+		assertEquals(2, BenchmarkComparison.missing(baseline, current, Pattern.compile("Benchmark")).size());
+	}
+
+	private static Score time(String benchmark, double value) {
+		return new Score(benchmark, value, 1, "us/op", false);
+	}
+}
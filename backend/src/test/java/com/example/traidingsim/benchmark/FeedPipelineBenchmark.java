@@ -0,0 +1,127 @@
+package com.example.traidingsim.benchmark;
+
+import com.example.traidingsim.engine.OrderTriggerIndex;
+import com.example.traidingsim.engine.TradeEngine;
+import com.example.traidingsim.engine.TradePersister;
+import com.example.traidingsim.engine.TradeShards;
+import com.example.traidingsim.marketdata.FeedMonitor;
+import com.example.traidingsim.marketdata.MarketDataSource;
+import com.example.traidingsim.marketdata.OrderBooks;
+import com.example.traidingsim.marketdata.PriceBook;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.history.TickHistory;
+import com.example.traidingsim.metrics.MarketDataMetrics;
+import com.example.traidingsim.model.dto.SubscribeMessage;
+import com.example.traidingsim.service.OrderService;
+import com.example.traidingsim.service.StrategyService;
+import com.example.traidingsim.stream.PriceStreamService;
+import com.example.traidingsim.websocket.FrontendWebSocketService;
+import com.example.traidingsim.websocket.KrakenWebSocketService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Cost of {@link KrakenWebSocketService#onMessage} for a ticker frame of 1 or 20 symbols, through the whole feed
+ * thread path: decoding, metrics into a Prometheus registry, the price book, the tick history, the order trigger
+ * index, the strategies and the broadcast conflator. No orders rest and no strategy runs, so this is the fixed
+ * cost every frame pays; the broadcast itself happens on the flush thread, see {@link PriceBroadcastBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FeedPipelineBenchmark {
+
+    private static final int FRAMES = 1024;
+
+    @Param({"1", "20"})
+    private int symbolsPerFrame;
+
+    private final String[] frames = new String[FRAMES];
+    private KrakenWebSocketService service;
+    private TickHistory tickHistory;
+    private TradeShards tradeShards;
+    private int next;
+
+    @Setup
+    public void setup() {
+        SymbolRegistry symbolRegistry = new SymbolRegistry();
+        PriceBook priceBook = new PriceBook(symbolRegistry);
+        OrderBooks orderBooks = new OrderBooks(0);
+        tickHistory = new TickHistory(symbolRegistry, 8192, "", 24, 64, 10_000_000);
+        tradeShards = new TradeShards(1);
+        TradeEngine tradeEngine = new TradeEngine(priceBook, orderBooks, symbolRegistry, TradePersister.NONE);
+        MarketDataMetrics metrics = new MarketDataMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT),
+                symbolRegistry);
+
+        service = new KrakenWebSocketService(new ObjectMapper(),
+                new FrontendWebSocketService(null, new ObjectMapper(), symbolRegistry, null, metrics,
+                        new PriceStreamService(new ObjectMapper(), symbolRegistry, metrics, 15_000)),
+                new IdleSource(), symbolRegistry, priceBook, tickHistory,
+                new OrderService(tradeEngine, tradeShards, symbolRegistry, new OrderTriggerIndex(), 1_000), orderBooks,
+                new StrategyService(null, priceBook, symbolRegistry, 16),
+                new FeedMonitor(priceBook, symbolRegistry, 10_000, 3_000, 0), metrics);
+
+        List<String> symbols = SubscribeMessage.DEFAULT_SYMBOLS;
+        SplittableRandom random = new SplittableRandom(7);
+        String timestamp = Instant.now().toString();
+        for (int f = 0; f < FRAMES; f++) {
+            StringBuilder frame = new StringBuilder("{\"channel\":\"ticker\",\"type\":\"update\",\"data\":[");
+            for (int s = 0; s < symbolsPerFrame; s++) {
+                if (s > 0) {
+                    frame.append(',');
+                }
+                // Two decimals, as Kraken quotes these pairs
+                double last = Math.round(10_000 * Math.exp(0.01 * random.nextGaussian())) / 100.0;
+                frame.append("{\"symbol\":\"").append(symbols.get((f + s) % symbols.size()))
+                        .append("\",\"bid\":").append(last - 0.01)
+                        .append(",\"ask\":").append(last + 0.01)
+                        .append(",\"last\":").append(last)
+                        .append(",\"timestamp\":\"").append(timestamp).append("\"}");
+            }
+            frames[f] = frame.append("]}").toString();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        tickHistory.shutdown();
+        tradeShards.close();
+    }
+
+    @Benchmark
+    public void onMessage() {
+        service.onMessage(frames[next]);
+        next = (next + 1) & (FRAMES - 1);
+    }
+
+    private static class IdleSource implements MarketDataSource {
+
+        @Override
+        public void start(Consumer<String> frameHandler) {
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FeedPipelineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.traidingsim.benchmark;
+
+import com.example.traidingsim.mapper.CryptoPriceMapper;
+import com.example.traidingsim.marketdata.KrakenTickerDecoder;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import com.example.traidingsim.model.dto.CryptoPriceDTO;
+import com.example.traidingsim.model.dto.CryptoPricePayloadDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the tree-based ticker parsing path with the streaming {@link KrakenTickerDecoder}.
+ * Run with {@code -prof gc} to compare allocation rates per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class KrakenTickerDecoderBenchmark {
+
+    private static final String FRAME = "{\"channel\":\"ticker\",\"type\":\"update\",\"data\":[{\"symbol\":\"BTC/USD\","
+            + "\"bid\":64321.1,\"bid_qty\":0.52,\"ask\":64321.2,\"ask_qty\":1.07,\"last\":64321.2,"
+            + "\"volume\":1834.51,\"vwap\":64012.7,\"low\":63110.0,\"high\":64890.4,\"change\":512.3,\"change_pct\":0.8}]}";
+
+    private ObjectMapper objectMapper;
+    private KrakenTickerDecoder decoder;
+    private TickBatch batch;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper();
+        decoder = new KrakenTickerDecoder(objectMapper.getFactory(), new SymbolRegistry());
+        batch = new TickBatch();
+    }
+
+    @Benchmark
+    public CryptoPriceDTO treeParser() throws IOException {
+        JsonNode firstData = objectMapper.readTree(FRAME).path("data").get(0);
+
+        CryptoPricePayloadDTO payload = new CryptoPricePayloadDTO();
+        payload.setSymbol(firstData.path("symbol").asText(null));
+        payload.setLastPrice(firstData.path("last").asDouble(Double.NaN));
+        return CryptoPriceMapper.toDTO(payload);
+    }
+
+    @Benchmark
+    public void streamingDecoder(Blackhole blackhole) throws IOException {
+        decoder.decode(FRAME, batch);
+        blackhole.consume(batch.symbolId(0));
+        blackhole.consume(batch.price(0));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(KrakenTickerDecoderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
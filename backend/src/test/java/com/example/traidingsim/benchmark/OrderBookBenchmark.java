@@ -0,0 +1,83 @@
+package com.example.traidingsim.benchmark;
+
+import com.example.traidingsim.marketdata.L2Book;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of maintaining {@link L2Book}s for 20 symbols with incremental level updates, and of filling a market
+ * order against one. Run with {@code -prof gc} to confirm that neither allocates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderBookBenchmark {
+
+    private static final int SYMBOLS = 20;
+    private static final int UPDATES = 1024;
+
+    @Param({"10", "100"})
+    private int depth;
+
+    private final L2Book[] books = new L2Book[SYMBOLS];
+    private final double[] prices = new double[UPDATES];
+    private final double[] quantities = new double[UPDATES];
+    private final boolean[] bids = new boolean[UPDATES];
+    private int next;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(13);
+        for (int i = 0; i < SYMBOLS; i++) {
+            books[i] = new L2Book(depth);
+            books[i].beginUpdate();
+            for (int level = 1; level <= depth; level++) {
+                books[i].updateBid(100 - level * 0.01, random.nextDouble(0.1, 10));
+                books[i].updateAsk(100 + level * 0.01, random.nextDouble(0.1, 10));
+            }
+            books[i].endUpdate();
+        }
+        // Updates near the top of the book, a quarter of them removing a level
+        for (int i = 0; i < UPDATES; i++) {
+            bids[i] = random.nextBoolean();
+            double offset = Math.round(random.nextDouble(0.5, depth * 1.2)) * 0.01;
+            prices[i] = bids[i] ? 100 - offset : 100 + offset;
+            quantities[i] = random.nextInt(4) == 0 ? 0 : random.nextDouble(0.1, 10);
+        }
+    }
+
+    @Benchmark
+    public void applyUpdate() {
+        int i = next;
+        next = (i + 1) & (UPDATES - 1);
+        L2Book book = books[i % SYMBOLS];
+        book.beginUpdate();
+        if (bids[i]) {
+            book.updateBid(prices[i], quantities[i]);
+        } else {
+            book.updateAsk(prices[i], quantities[i]);
+        }
+        book.endUpdate();
+    }
+
+    @Benchmark
+    public double fill() {
+        int i = next;
+        next = (i + 1) & (UPDATES - 1);
+        return books[i % SYMBOLS].fillPrice(bids[i], quantities[i] * 5);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderBookBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.traidingsim.benchmark;
+
+import com.example.traidingsim.engine.OrderTriggerIndex;
+import com.example.traidingsim.engine.RestingOrder;
+import com.example.traidingsim.model.enumeration.OrderType;
+import com.example.traidingsim.model.enumeration.Type;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ticks per second the {@link OrderTriggerIndex} sustains with a steady population of resting orders on
+ * 20 symbols, against scanning every open order on each tick. Orders rest within 2% of the price, which moves
+ * in a random walk, and every triggered order is replaced by a new one.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderTriggerBenchmark {
+
+    private static final int SYMBOLS = 20;
+    private static final OrderType[] TYPES = OrderType.values();
+
+    @Param({"10000", "50000"})
+    private int orders;
+
+    private final double[] prices = new double[SYMBOLS];
+    private final List<RestingOrder> triggered = new ArrayList<>();
+    private SplittableRandom random;
+    private OrderTriggerIndex index;
+    private List<RestingOrder> scanned;
+    private long nextId;
+    private int nextSymbol;
+
+    @Setup
+    public void setup() {
+        random = new SplittableRandom(11);
+        index = new OrderTriggerIndex();
+        scanned = new ArrayList<>(orders);
+        for (int i = 0; i < SYMBOLS; i++) {
+            prices[i] = 100.0;
+        }
+        for (int i = 0; i < orders; i++) {
+            RestingOrder order = newOrder(i % SYMBOLS);
+            index.add(order);
+            scanned.add(order);
+        }
+    }
+
+    @Benchmark
+    public int triggerIndex() {
+        int symbol = tick();
+        index.trigger(symbol, prices[symbol], triggered);
+        int count = triggered.size();
+        for (int i = 0; i < count; i++) {
+            index.add(newOrder(symbol));
+        }
+        triggered.clear();
+        return count;
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int symbol = tick();
+        double price = prices[symbol];
+        int count = 0;
+        for (Iterator<RestingOrder> iterator = scanned.iterator(); iterator.hasNext(); ) {
+            RestingOrder order = iterator.next();
+            if (order.getSymbolId() == symbol && order.isTriggeredBy(price)) {
+                iterator.remove();
+                count++;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            scanned.add(newOrder(symbol));
+        }
+        return count;
+    }
+
+    private int tick() {
+        int symbol = nextSymbol;
+        nextSymbol = (symbol + 1) % SYMBOLS;
+        prices[symbol] *= Math.exp(0.0005 * random.nextGaussian());
+        return symbol;
+    }
+
+    private RestingOrder newOrder(int symbol) {
+        Type side = random.nextBoolean() ? Type.BUY : Type.SELL;
+        OrderType type = TYPES[random.nextInt(TYPES.length)];
+        RestingOrder probe = new RestingOrder(0, 0, "", symbol, type, side, 1, 0, 0);
+        double offset = random.nextDouble(0.0001, 0.02);
+        double price = prices[symbol] * (probe.triggersAbove() ? 1 + offset : 1 - offset);
+        return new RestingOrder(++nextId, nextId % 1000, "S" + symbol, symbol, type, side, 1, price, 0);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderTriggerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
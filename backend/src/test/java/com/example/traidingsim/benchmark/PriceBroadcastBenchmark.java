@@ -0,0 +1,133 @@
+package com.example.traidingsim.benchmark;
+
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import com.example.traidingsim.model.dto.CryptoPriceBatchDTO;
+import com.example.traidingsim.model.dto.CryptoPriceDTO;
+import com.example.traidingsim.websocket.BinaryPriceEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.sockjs.frame.Jackson2SockJsMessageCodec;
+import org.springframework.web.socket.sockjs.frame.SockJsMessageCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of delivering one 20-symbol price update to every session, including the per-session
+ * STOMP frame encoding done by the broker and, for SockJS, the JSON escaping of the frame.
+ * <ul>
+ *     <li>{@code JSON_STRING_SOCKJS}: the previous path, a JSON string per update sent over SockJS</li>
+ *     <li>{@code JSON_BYTES_NATIVE}: JSON serialized once to a shared byte array, plain WebSocket</li>
+ *     <li>{@code BINARY_NATIVE}: the compact {@link BinaryPriceEncoder} format, plain WebSocket</li>
+ * </ul>
+ * Bytes on the wire per update for all sessions are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PriceBroadcastBenchmark {
+
+    public enum Encoding { JSON_STRING_SOCKJS, JSON_BYTES_NATIVE, BINARY_NATIVE }
+
+    @Param({"1000"})
+    public int sessions;
+
+    @Param({"JSON_STRING_SOCKJS", "JSON_BYTES_NATIVE", "BINARY_NATIVE"})
+    public Encoding encoding;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StompEncoder stompEncoder = new StompEncoder();
+    private final SockJsMessageCodec sockJsCodec = new Jackson2SockJsMessageCodec();
+    private final SymbolRegistry symbolRegistry = new SymbolRegistry();
+    private final TickBatch batch = new TickBatch();
+
+    private long sequence;
+
+    @Setup
+    public void setup() {
+        for (int id = 0; id < symbolRegistry.size(); id++) {
+            batch.add(id, 1000.0 + id * 17.125);
+        }
+        System.out.printf("%n%s: %d bytes on the wire per update for %d sessions%n",
+                encoding, deliver(), sessions);
+    }
+
+    @Benchmark
+    public long deliverToAllSessions() {
+        return deliver();
+    }
+
+    private long deliver() {
+        long seq = ++sequence;
+        long now = System.currentTimeMillis();
+        byte[] payload;
+        boolean sockJs = false;
+
+        try {
+            switch (encoding) {
+                case JSON_STRING_SOCKJS -> {
+                    payload = objectMapper.writeValueAsString(toDTO(seq, now)).getBytes(StandardCharsets.UTF_8);
+                    sockJs = true;
+                }
+                case JSON_BYTES_NATIVE -> payload = objectMapper.writeValueAsBytes(toDTO(seq, now));
+                default -> payload = BinaryPriceEncoder.encode(false, seq, now, batch);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+
+        long wireBytes = 0;
+        for (int session = 0; session < sessions; session++) {
+            StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+            accessor.setDestination("/topic/prices");
+            accessor.setSubscriptionId("sub-0");
+            accessor.setMessageId(session + "-" + seq);
+            accessor.setContentType(encoding == Encoding.BINARY_NATIVE
+                    ? MimeTypeUtils.APPLICATION_OCTET_STREAM : MimeTypeUtils.APPLICATION_JSON);
+
+            byte[] frame = stompEncoder.encode(accessor.getMessageHeaders(), payload);
+            if (sockJs) {
+                wireBytes += sockJsCodec.encode(new String(frame, StandardCharsets.UTF_8))
+                        .getBytes(StandardCharsets.UTF_8).length;
+            } else {
+                wireBytes += frame.length;
+            }
+        }
+        return wireBytes;
+    }
+
+    private CryptoPriceBatchDTO toDTO(long seq, long now) {
+        List<CryptoPriceDTO> prices = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            prices.add(CryptoPriceDTO.builder()
+                    .symbol(symbolRegistry.symbolOf(batch.symbolId(i)))
+                    .price(batch.price(i))
+                    .build());
+        }
+        return CryptoPriceBatchDTO.builder()
+                .type(CryptoPriceBatchDTO.DELTA)
+                .sequence(seq)
+                .timestamp(now)
+                .prices(prices)
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PriceBroadcastBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
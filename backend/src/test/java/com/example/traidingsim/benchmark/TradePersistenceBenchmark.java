@@ -0,0 +1,104 @@
+package com.example.traidingsim.benchmark;
+
+import com.example.traidingsim.TraidingsimApplication;
+import com.example.traidingsim.engine.AccountSnapshot;
+import com.example.traidingsim.engine.TradeRecord;
+import com.example.traidingsim.model.enumeration.Type;
+import com.example.traidingsim.service.TradePersistenceService;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many trades per second the write-behind persister stores in a file-based H2 database like the one
+ * configured in {@code application.properties}. Every operation is one trade: one transaction row insert plus
+ * the account update it implies.
+ * <ul>
+ *     <li>{@code batchSize=1}: one database transaction and one statement round trip per trade</li>
+ *     <li>{@code batchSize=500}: group commit of up to 500 trades, JDBC batched inserts</li>
+ * </ul>
+ * {@code connection=embedded} opens the database in process, {@code tcp} goes through a local H2 server like the
+ * second process to open an {@code AUTO_SERVER} database does, so every statement is a network round trip.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 8, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TradePersistenceBenchmark {
+
+    private static final int TRADES_PER_OPERATION = 1_000;
+    private static final Path DATABASE_DIRECTORY = Path.of("target", "benchmark-db");
+
+    @Param({"1", "500"})
+    public int batchSize;
+
+    @Param({"embedded", "tcp"})
+    public String connection;
+
+    private Server server;
+    private ConfigurableApplicationContext context;
+    private TradePersistenceService persister;
+    private double balance = 1_000_000_000.0;
+    private double holding;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, SQLException {
+        FileSystemUtils.deleteRecursively(DATABASE_DIRECTORY);
+        String url = "jdbc:h2:./" + DATABASE_DIRECTORY + "/trades";
+        if (connection.equals("tcp")) {
+            server = Server.createTcpServer("-tcpPort", "0", "-baseDir", ".", "-ifNotExists").start();
+            url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/./" + DATABASE_DIRECTORY + "/trades";
+        }
+        context = new SpringApplicationBuilder(TraidingsimApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "--trading.persistence.batch-size=" + batchSize,
+                "--market-data.source=synthetic",
+                "--market-data.synthetic.rate=1",
+                "--logging.level.root=WARN");
+        persister = context.getBean(TradePersistenceService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRADES_PER_OPERATION)
+    public void persistTrades() {
+        for (int i = 0; i < TRADES_PER_OPERATION; i++) {
+            double amount = 0.001;
+            double total = 60.0;
+            balance -= total;
+            holding += amount;
+            persister.tradeExecuted(
+                    new TradeRecord(1L, "BTC/USD", amount, 60_000.0, total, Type.BUY, System.currentTimeMillis()),
+                    new AccountSnapshot(1L, balance, Map.of("BTC/USD", holding)));
+        }
+        persister.flush();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TradePersistenceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.traidingsim.benchmark;
+
+import com.example.traidingsim.engine.MarketOrder;
+import com.example.traidingsim.engine.TradeEngine;
+import com.example.traidingsim.engine.TradePersister;
+import com.example.traidingsim.marketdata.OrderBooks;
+import com.example.traidingsim.marketdata.PriceBook;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import com.example.traidingsim.metrics.TradingMetrics;
+import com.example.traidingsim.model.dto.OrderBatchResultDTO;
+import com.example.traidingsim.model.enumeration.Type;
+import com.example.traidingsim.repository.AccountRepository;
+import com.example.traidingsim.repository.TransactionRepository;
+import com.example.traidingsim.service.OrderService;
+import com.example.traidingsim.service.TradingService;
+import com.example.traidingsim.websocket.KrakenWebSocketService;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * {@link TradingService} calls as the REST controller makes them, on an engine that keeps its state in memory only
+ * ({@link TradePersister#NONE}); the repositories are only read at startup and are empty mocks here.
+ * <ul>
+ *     <li>{@code buyCrypto} and {@code sellCrypto}: one market order, including the engine phases and the trade
+ *     metrics</li>
+ *     <li>{@code executeBatch}: a batch of 100 market orders alternating buys and sells over 20 symbols, reported
+ *     per order, to compare with the cost of sending them one by one</li>
+ *     <li>{@code calculateProfitLoss}: profit and loss of an account with 10k, 100k or 1M past transactions over
+ *     20 symbols. It reads running per-symbol aggregates, so its cost should not depend on the history length.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TradingServiceBenchmark {
+
+    private static final long ACCOUNT_ID = TradingService.DEFAULT_ACCOUNT_ID;
+    private static final int BATCH_SIZE = 100;
+    private static final String[] CRYPTOS = {"BTC", "ETH", "BNB", "XRP", "ADA", "DOGE", "SOL", "DOT", "MATIC", "LTC",
+            "SHIB", "AVAX", "UNI", "XLM", "BCH", "ALGO", "VET", "ICP", "MANA", "AXS"};
+
+    @State(Scope.Thread)
+    public static class Trading {
+
+        TradeEngine tradeEngine;
+        TradingService tradingService;
+        List<MarketOrder> batch;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            SymbolRegistry symbolRegistry = new SymbolRegistry();
+            PriceBook priceBook = new PriceBook(symbolRegistry);
+            TickBatch prices = new TickBatch();
+            for (String crypto : CRYPTOS) {
+                prices.add(symbolRegistry.idOf(crypto + "/USD"), 100.0);
+            }
+            priceBook.apply(prices, System.currentTimeMillis());
+
+            tradeEngine = new TradeEngine(priceBook, new OrderBooks(0), symbolRegistry, TradePersister.NONE);
+            TradingMetrics metrics = new TradingMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+            tradingService = new TradingService(mock(KrakenWebSocketService.class), mock(AccountRepository.class),
+                    mock(TransactionRepository.class), tradeEngine, TradePersister.NONE,
+                    mock(OrderService.class), metrics, mock(PlatformTransactionManager.class));
+
+            Map<String, Double> holdings = new HashMap<>();
+            for (String crypto : CRYPTOS) {
+                holdings.put(crypto, 1e12);
+            }
+            tradeEngine.loadAccount(ACCOUNT_ID, 1e15, holdings);
+
+            batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batch.add(new MarketOrder(CRYPTOS[i % CRYPTOS.length], i % 2 == 0 ? Type.BUY : Type.SELL, 0.001));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class History {
+
+        @Param({"10000", "100000", "1000000"})
+        int transactions;
+
+        final Trading trading = new Trading();
+
+        @Setup(Level.Trial)
+        public void setup() {
+            trading.setup();
+            SplittableRandom random = new SplittableRandom(11);
+            for (int i = 0; i < transactions; i++) {
+                // Two buys for every sell, so every position stays open
+                Type type = i % 3 == 2 ? Type.SELL : Type.BUY;
+                double amount = 0.1 + random.nextDouble();
+                trading.tradeEngine.restoreTrade(ACCOUNT_ID, CRYPTOS[i % CRYPTOS.length], amount,
+                        amount * (90 + 20 * random.nextDouble()), type);
+            }
+        }
+    }
+
+    @Benchmark
+    public String buyCrypto(Trading state) {
+        return state.tradingService.buyCrypto(ACCOUNT_ID, "BTC", 0.001);
+    }
+
+    @Benchmark
+    public String sellCrypto(Trading state) {
+        return state.tradingService.sellCrypto(ACCOUNT_ID, "BTC", 0.001);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public OrderBatchResultDTO executeBatch(Trading state) {
+        return state.tradingService.executeBatch(ACCOUNT_ID, state.batch);
+    }
+
+    @Benchmark
+    public Map<String, Double> calculateProfitLoss(History state) {
+        return state.trading.tradingService.calculateProfitLoss(ACCOUNT_ID);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TradingServiceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.traidingsim.engine;
+
+import com.example.traidingsim.model.enumeration.OrderType;
+import com.example.traidingsim.model.enumeration.Type;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderTriggerIndexTests {
+
+	private static final int SYMBOLS = 3;
+
+	@Test
+	void triggersExactlyTheCrossedOrdersInPriceThenArrivalOrder() {
+		OrderTriggerIndex index = new OrderTriggerIndex();
+		List<RestingOrder> open = new ArrayList<>();
+		List<RestingOrder> triggered = new ArrayList<>();
+		SplittableRandom random = new SplittableRandom(5);
+		double[] prices = {100, 100, 100};
+		long nextId = 0;
+
+		for (int step = 0; step < 50_000; step++) {
+			int action = random.nextInt(10);
+			int symbol = random.nextInt(SYMBOLS);
+			if (action < 5) {
+				OrderType type = OrderType.values()[random.nextInt(OrderType.values().length)];
+				Type side = random.nextBoolean() ? Type.BUY : Type.SELL;
+				// Coarse prices, so that many orders share a price
+				double price = Math.round(prices[symbol] * random.nextDouble(0.9, 1.1));
+				RestingOrder order = new RestingOrder(++nextId, 1, "S" + symbol, symbol, type, side, 1, price, 0);
+				index.add(order);
+				open.add(order);
+			} else if (action < 7 && !open.isEmpty()) {
+				RestingOrder order = open.remove(random.nextInt(open.size()));
+				assertSame(order, index.remove(order.getId()));
+				assertNull(index.remove(order.getId()));
+			} else {
+				prices[symbol] *= Math.exp(0.02 * random.nextGaussian());
+				double price = prices[symbol];
+				index.trigger(symbol, price, triggered);
+
+				List<RestingOrder> expected = open.stream()
+						.filter(order -> order.getSymbolId() == symbol && order.isTriggeredBy(price))
+						.toList();
+				open.removeAll(expected);
+				assertEquals(Set.copyOf(expected), Set.copyOf(triggered));
+				assertEquals(expected.size(), triggered.size());
+				assertInTriggerOrder(triggered);
+				triggered.clear();
+			}
+			assertEquals(open.size(), index.size());
+		}
+	}
+
+	/**
+	 * Within each direction, orders come out nearest to the previous price first and, at equal prices,
+	 * oldest first.
+	 */
+	private static void assertInTriggerOrder(List<RestingOrder> triggered) {
+		RestingOrder previous = null;
+		for (RestingOrder order : triggered) {
+			if (previous != null && previous.triggersAbove() == order.triggersAbove()) {
+				double key = order.triggersAbove() ? order.getPrice() : -order.getPrice();
+				double previousKey = previous.triggersAbove() ? previous.getPrice() : -previous.getPrice();
+				assertTrue(previousKey < key || (previousKey == key && previous.getId() < order.getId()));
+			}
+			previous = order;
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package com.example.traidingsim.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PositionTests {
+
+	@Test
+	void tracksAverageCostAndRealizedProfitLoss() {
+		Position position = new Position();
+		position.onBuy(1.0, 100.0);
+		position.onBuy(1.0, 200.0);
+
+		PositionSnapshot bought = position.snapshot("BTC/USD");
+		assertEquals(2.0, bought.quantity());
+		assertEquals(150.0, bought.averageCost());
+		assertEquals(100.0, bought.unrealizedProfitLoss(200.0));
+
+		position.onSell(0.5, 125.0);
+
+		PositionSnapshot partlySold = position.snapshot("BTC/USD");
+		assertEquals(1.5, partlySold.quantity());
+		assertEquals(150.0, partlySold.averageCost());
+		assertEquals(50.0, partlySold.realizedProfitLoss());
+		assertEquals(300.0, partlySold.totalBought());
+		assertEquals(125.0, partlySold.totalSold());
+
+		position.onSell(1.5, 150.0);
+
+		PositionSnapshot closed = position.snapshot("BTC/USD");
+		assertEquals(0.0, closed.quantity());
+		assertEquals(0.0, closed.costBasis());
+		assertEquals(-25.0, closed.realizedProfitLoss());
+		assertEquals(0.0, closed.unrealizedProfitLoss(1_000.0));
+	}
+}
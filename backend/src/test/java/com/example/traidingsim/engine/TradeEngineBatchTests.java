@@ -0,0 +1,178 @@
+package com.example.traidingsim.engine;
+
+import com.example.traidingsim.exception.CryptoNotFoundException;
+import com.example.traidingsim.exception.InsufficientFundsException;
+import com.example.traidingsim.exception.InsufficientHoldingsException;
+import com.example.traidingsim.exception.InvalidAmountException;
+import com.example.traidingsim.exception.StalePriceException;
+import com.example.traidingsim.marketdata.OrderBooks;
+import com.example.traidingsim.marketdata.PriceBook;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static com.example.traidingsim.model.enumeration.Type.BUY;
+import static com.example.traidingsim.model.enumeration.Type.SELL;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeEngineBatchTests {
+
+	private static final long ACCOUNT_ID = 1;
+
+	private final SymbolRegistry symbolRegistry = new SymbolRegistry();
+	private final PriceBook priceBook = new PriceBook(symbolRegistry);
+	private final RecordingPersister persister = new RecordingPersister();
+
+	@Test
+	void executesOrdersInOrderAndRejectsOnlyThoseThatCannotExecute() {
+		setPrice("BTC/USD", 100.0);
+		TradeEngine engine = new TradeEngine(priceBook, symbolRegistry, persister);
+		engine.loadAccount(ACCOUNT_ID, 1000.0, Map.of());
+
+		BatchResult result = engine.executeBatch(ACCOUNT_ID, List.of(
+				new MarketOrder("BTC", BUY, 5),
+				new MarketOrder("BTC", BUY, 6),
+				new MarketOrder("BTC", SELL, 2),
+				new MarketOrder("BTC", SELL, 4),
+				new MarketOrder("BTC", BUY, 0),
+				new MarketOrder("DOGE", BUY, 1),
+				new MarketOrder("BTC", BUY, 1)));
+
+		List<MarketOrderResult> results = result.results();
+		assertEquals(7, results.size());
+		assertEquals(500.0, results.get(0).total());
+		assertInstanceOf(InsufficientFundsException.class, results.get(1).rejection());
+		assertEquals(200.0, results.get(2).total());
+		assertInstanceOf(InsufficientHoldingsException.class, results.get(3).rejection());
+		assertInstanceOf(InvalidAmountException.class, results.get(4).rejection());
+		assertInstanceOf(CryptoNotFoundException.class, results.get(5).rejection());
+		assertTrue(results.get(6).isExecuted());
+		assertEquals(3, result.executedCount());
+
+		assertEquals(600.0, engine.balance(ACCOUNT_ID));
+		assertEquals(4.0, engine.holding(ACCOUNT_ID, "BTC"));
+
+		// Handed to the persister once, with the account as it stands after the batch
+		assertEquals(1, persister.batches.size());
+		assertEquals(List.of(BUY, SELL, BUY), persister.batches.get(0).stream().map(TradeRecord::type).toList());
+		assertEquals(600.0, persister.accounts.get(0).balance());
+		assertTrue(result.persisted().isDone());
+	}
+
+	@Test
+	void rejectsAmountsThatAreNotPositiveAndFinite() {
+		setPrice("BTC/USD", 100.0);
+		TradeEngine engine = new TradeEngine(priceBook, symbolRegistry, persister);
+		engine.loadAccount(ACCOUNT_ID, 1000.0, Map.of("BTC/USD", 1.0));
+
+		BatchResult result = engine.executeBatch(ACCOUNT_ID, List.of(
+				new MarketOrder("BTC", SELL, Double.NaN),
+				new MarketOrder("BTC", BUY, Double.NaN),
+				new MarketOrder("BTC", BUY, Double.POSITIVE_INFINITY),
+				new MarketOrder("BTC", SELL, -1)));
+
+		assertTrue(result.results().stream().allMatch(order -> order.rejection() instanceof InvalidAmountException));
+		assertThrows(InvalidAmountException.class, () -> engine.sell(ACCOUNT_ID, "BTC", Double.NaN));
+		assertThrows(InvalidAmountException.class, () -> engine.buy(ACCOUNT_ID, "BTC", Double.POSITIVE_INFINITY));
+		assertEquals(1000.0, engine.balance(ACCOUNT_ID));
+		assertEquals(1.0, engine.holding(ACCOUNT_ID, "BTC"));
+		assertTrue(persister.batches.isEmpty());
+	}
+
+	@Test
+	void fillsEveryOrderFromOneSnapshotOfThePrices() {
+		setPrice("BTC/USD", 100.0);
+		setPrice("ETH/USD", 10.0);
+		// Ticks that arrive while the batch executes, and a stale ETH price
+		PriceGuard guard = (crypto, priceTimestamp) -> {
+			setPrice("BTC/USD", 200.0);
+			if (crypto.equals("ETH")) {
+				throw new StalePriceException("The last price of ETH is stale");
+			}
+		};
+		TradeEngine engine = new TradeEngine(priceBook, new OrderBooks(0), symbolRegistry, persister,
+				System::currentTimeMillis, guard);
+		engine.loadAccount(ACCOUNT_ID, 1000.0, Map.of());
+
+		BatchResult result = engine.executeBatch(ACCOUNT_ID, List.of(
+				new MarketOrder("BTC", BUY, 1),
+				new MarketOrder("ETH", BUY, 1),
+				new MarketOrder("BTC", BUY, 1)));
+
+		assertEquals(100.0, result.results().get(0).price());
+		assertInstanceOf(StalePriceException.class, result.results().get(1).rejection());
+		assertEquals(100.0, result.results().get(2).price());
+		assertEquals(1, persister.batches.size());
+		assertEquals(persister.batches.get(0).get(0).timestamp(), persister.batches.get(0).get(1).timestamp());
+	}
+
+	@Test
+	void batchWithoutExecutedTradesPersistsNothing() {
+		TradeEngine engine = new TradeEngine(priceBook, symbolRegistry, persister);
+		engine.loadAccount(ACCOUNT_ID, 1000.0, Map.of());
+
+		BatchResult result = engine.executeBatch(ACCOUNT_ID, List.of(new MarketOrder("BTC", SELL, 1)));
+
+		assertEquals(0, result.executedCount());
+		assertTrue(persister.batches.isEmpty());
+		assertTrue(result.persisted().isDone());
+	}
+
+	@Test
+	void aliasAndFullPairShareOneHoldingAndPosition() {
+		setPrice("BTC/USD", 100.0);
+		TradeEngine engine = new TradeEngine(priceBook, symbolRegistry, persister);
+		engine.loadAccount(ACCOUNT_ID, 1000.0, Map.of("BTC", 1.0, "BTC/USD", 2.0));
+		assertEquals(3.0, engine.holding(ACCOUNT_ID, "BTC"), "loaded holdings are merged");
+
+		engine.executeBatch(ACCOUNT_ID, List.of(
+				new MarketOrder("BTC", BUY, 1),
+				new MarketOrder("BTC/USD", BUY, 1),
+				new MarketOrder("BTC", SELL, 4)));
+
+		assertEquals(1.0, engine.holding(ACCOUNT_ID, "BTC/USD"));
+		assertEquals(1.0, engine.holding(ACCOUNT_ID, "BTC"));
+		assertEquals(Map.of("BTC/USD", 1.0), engine.snapshot(ACCOUNT_ID).holdings());
+		Map<String, PositionSnapshot> positions = engine.positions(ACCOUNT_ID);
+		assertEquals(Set.of("BTC/USD"), positions.keySet());
+		assertEquals(2.0, positions.get("BTC/USD").amountBought());
+		assertEquals(4.0, positions.get("BTC/USD").amountSold());
+		assertTrue(persister.batches.get(0).stream().allMatch(trade -> trade.crypto().equals("BTC/USD")),
+				"trades are recorded under the registered symbol");
+	}
+
+	private void setPrice(String symbol, double price) {
+		TickBatch batch = new TickBatch();
+		batch.add(symbolRegistry.idOf(symbol), price);
+		priceBook.apply(batch, System.currentTimeMillis());
+	}
+
+	private static class RecordingPersister implements TradePersister {
+
+		final List<List<TradeRecord>> batches = new ArrayList<>();
+		final List<AccountSnapshot> accounts = new ArrayList<>();
+
+		@Override
+		public CompletableFuture<Void> tradeExecuted(TradeRecord trade, AccountSnapshot account) {
+			throw new AssertionError("Batched trades must be persisted together");
+		}
+
+		@Override
+		public CompletableFuture<Void> tradesExecuted(List<TradeRecord> trades, AccountSnapshot account) {
+			batches.add(List.copyOf(trades));
+			accounts.add(account);
+			return CompletableFuture.completedFuture(null);
+		}
+
+		@Override
+		public CompletableFuture<Void> accountReset(AccountSnapshot account) {
+			return CompletableFuture.completedFuture(null);
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package com.example.traidingsim.engine;
+
+import com.example.traidingsim.exception.InsufficientFundsException;
+import com.example.traidingsim.exception.InsufficientHoldingsException;
+import com.example.traidingsim.marketdata.PriceBook;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import com.example.traidingsim.model.dto.SubscribeMessage;
+import com.example.traidingsim.model.enumeration.Type;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeEngineStressTests {
+
+	private static final int THREADS = 8;
+	private static final int TRADES_PER_THREAD = 250_000;
+	private static final int ACCOUNTS = 16;
+	private static final double INITIAL_BALANCE = 10_000.0;
+	private static final double EPSILON = 1e-6;
+
+	@Test
+	void concurrentRandomTradesKeepEveryAccountConsistent() throws Exception {
+		SymbolRegistry symbolRegistry = new SymbolRegistry();
+		PriceBook priceBook = new PriceBook(symbolRegistry);
+		List<String> symbols = SubscribeMessage.DEFAULT_SYMBOLS;
+		applyPrices(priceBook, symbolRegistry, new SplittableRandom(1));
+
+		Ledger[] ledgers = new Ledger[ACCOUNTS];
+		for (int i = 0; i < ACCOUNTS; i++) {
+			ledgers[i] = new Ledger();
+		}
+		TradeEngine engine = new TradeEngine(priceBook, symbolRegistry, new LedgerPersister(ledgers));
+		for (int i = 0; i < ACCOUNTS; i++) {
+			engine.loadAccount(i, INITIAL_BALANCE, Map.of());
+		}
+
+		AtomicLong executed = new AtomicLong();
+		AtomicBoolean tradersDone = new AtomicBoolean();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+		try {
+			Future<?> ticker = executor.submit(() -> {
+				SplittableRandom random = new SplittableRandom(2);
+				while (!tradersDone.get()) {
+					applyPrices(priceBook, symbolRegistry, random);
+				}
+			});
+
+			Future<?>[] traders = new Future<?>[THREADS];
+			for (int t = 0; t < THREADS; t++) {
+				SplittableRandom random = new SplittableRandom(100 + t);
+				traders[t] = executor.submit(() -> {
+					for (int i = 0; i < TRADES_PER_THREAD; i++) {
+						long accountId = random.nextInt(ACCOUNTS);
+						String crypto = symbols.get(random.nextInt(symbols.size()));
+						double amount = random.nextDouble(0.001, 2.0);
+						try {
+							if (random.nextBoolean()) {
+								engine.buy(accountId, crypto, amount);
+							} else {
+								engine.sell(accountId, crypto, amount);
+							}
+							executed.incrementAndGet();
+						} catch (InsufficientFundsException | InsufficientHoldingsException ignored) {
+							// Rejected trades must leave the account untouched, which the ledger check covers
+						}
+					}
+				});
+			}
+			for (Future<?> trader : traders) {
+				trader.get();
+			}
+			tradersDone.set(true);
+			ticker.get();
+		} finally {
+			executor.shutdownNow();
+		}
+
+		long recorded = 0;
+		for (int i = 0; i < ACCOUNTS; i++) {
+			Ledger ledger = ledgers[i];
+			AccountSnapshot account = engine.snapshot(i);
+			recorded += ledger.trades;
+
+			assertFalse(ledger.negativeStateSeen, "account " + i + " went negative");
+			assertEquals(INITIAL_BALANCE + ledger.cash, account.balance(), EPSILON * Math.max(1.0, Math.abs(ledger.cash)),
+					"balance of account " + i);
+			for (String symbol : symbols) {
+				assertEquals(ledger.holdings.getOrDefault(symbol, 0.0), account.holdings().getOrDefault(symbol, 0.0), EPSILON,
+						"holding of " + symbol + " in account " + i);
+			}
+		}
+		assertEquals(executed.get(), recorded);
+		assertTrue(executed.get() > 0);
+	}
+
+	private static void applyPrices(PriceBook priceBook, SymbolRegistry symbolRegistry, SplittableRandom random) {
+		TickBatch batch = new TickBatch();
+		for (String symbol : SubscribeMessage.DEFAULT_SYMBOLS) {
+			batch.add(symbolRegistry.idOf(symbol), random.nextDouble(1.0, 500.0));
+		}
+		priceBook.apply(batch, System.currentTimeMillis());
+	}
+
+	/**
+	 * Independent replay of the trades the engine reported for one account.
+	 * Only touched under that account's lock, which the engine holds while calling the persister.
+	 */
+	private static class Ledger {
+		long trades;
+		double cash;
+		boolean negativeStateSeen;
+		final Map<String, Double> holdings = new HashMap<>();
+	}
+
+	private record LedgerPersister(Ledger[] ledgers) implements TradePersister {
+
+		@Override
+		public CompletableFuture<Void> tradeExecuted(TradeRecord trade, AccountSnapshot account) {
+			Ledger ledger = ledgers[(int) trade.accountId()];
+			double sign = trade.type() == Type.BUY ? 1 : -1;
+			ledger.trades++;
+			ledger.cash -= sign * trade.total();
+			ledger.holdings.merge(trade.crypto(), sign * trade.amount(), Double::sum);
+			if (account.balance() < 0 || account.holdings().values().stream().anyMatch(amount -> amount < 0)) {
+				ledger.negativeStateSeen = true;
+			}
+			return CompletableFuture.completedFuture(null);
+		}
+
+		@Override
+		public CompletableFuture<Void> accountReset(AccountSnapshot account) {
+			return CompletableFuture.completedFuture(null);
+		}
+	}
+}
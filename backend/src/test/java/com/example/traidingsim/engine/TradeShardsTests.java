@@ -0,0 +1,71 @@
+package com.example.traidingsim.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeShardsTests {
+
+	private static final int TASKS = 10_000;
+
+	private final TradeShards tradeShards = new TradeShards(4);
+
+	@AfterEach
+	void close() {
+		tradeShards.close();
+	}
+
+	@Test
+	void runsTheTasksOfAnAccountInSubmissionOrder() {
+		List<List<Integer>> executed = new ArrayList<>();
+		List<CompletableFuture<Void>> done = new ArrayList<>();
+		for (long accountId = 0; accountId < 8; accountId++) {
+			List<Integer> order = new ArrayList<>();
+			executed.add(order);
+			for (int i = 0; i < TASKS; i++) {
+				int task = i;
+				done.add(tradeShards.submit(accountId, () -> order.add(task)));
+			}
+		}
+		CompletableFuture.allOf(done.toArray(CompletableFuture[]::new)).join();
+
+		for (List<Integer> order : executed) {
+			assertEquals(TASKS, order.size());
+			for (int i = 0; i < TASKS; i++) {
+				assertEquals(i, order.get(i));
+			}
+		}
+	}
+
+	@Test
+	void aStalledAccountOnlyHoldsUpItsOwnShard() throws Exception {
+		long stalled = 0;
+		long other = 1;
+		while (tradeShards.shardOf(other) == tradeShards.shardOf(stalled)) {
+			other++;
+		}
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Void> slow = tradeShards.submit(stalled, () -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		CompletableFuture<Void> queued = tradeShards.submit(stalled, () -> {});
+
+		tradeShards.submit(other, () -> {}).get(5, TimeUnit.SECONDS);
+		assertFalse(slow.isDone());
+		assertFalse(queued.isDone(), "tasks of the same account wait behind the stalled one");
+
+		release.countDown();
+		queued.get(5, TimeUnit.SECONDS);
+	}
+}
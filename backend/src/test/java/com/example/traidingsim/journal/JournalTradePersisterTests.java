@@ -0,0 +1,261 @@
+package com.example.traidingsim.journal;
+
+import com.example.traidingsim.engine.AccountSnapshot;
+import com.example.traidingsim.engine.PositionSnapshot;
+import com.example.traidingsim.engine.TradeEngine;
+import com.example.traidingsim.engine.TradePersister;
+import com.example.traidingsim.exception.CryptoNotFoundException;
+import com.example.traidingsim.exception.InsufficientFundsException;
+import com.example.traidingsim.exception.InsufficientHoldingsException;
+import com.example.traidingsim.marketdata.PriceBook;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import com.example.traidingsim.metrics.TradingMetrics;
+import com.example.traidingsim.model.dto.SubscribeMessage;
+import com.example.traidingsim.repository.AccountRepository;
+import com.example.traidingsim.repository.TransactionRepository;
+import com.example.traidingsim.service.OrderService;
+import com.example.traidingsim.service.TradingService;
+import com.example.traidingsim.websocket.KrakenWebSocketService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JournalTradePersisterTests {
+
+	private static final int SEGMENT_RECORDS = 64;
+	private static final int ACCOUNTS = 4;
+	private static final int TRADES = 4_000;
+	private static final double INITIAL_BALANCE = 10_000.0;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void recoveryRestoresEveryAccountFromSnapshotAndJournal() throws Exception {
+		SymbolRegistry symbolRegistry = new SymbolRegistry();
+		PriceBook priceBook = new PriceBook(symbolRegistry);
+		List<String> symbols = SubscribeMessage.DEFAULT_SYMBOLS;
+		SplittableRandom random = new SplittableRandom(7);
+
+		JournalTradePersister persister = new JournalTradePersister(directory, SEGMENT_RECORDS, false, TradePersister.NONE);
+		TradeEngine engine = new TradeEngine(priceBook, symbolRegistry, persister);
+		engine.loadAccount(0, INITIAL_BALANCE, Map.of());
+		persister.recover(engine);
+		for (int i = 1; i < ACCOUNTS; i++) {
+			engine.openAccount(i, INITIAL_BALANCE * i).join();
+		}
+
+		for (int i = 0; i < TRADES; i++) {
+			if (i % 100 == 0) {
+				applyPrices(priceBook, symbolRegistry, random);
+			}
+			long accountId = random.nextInt(ACCOUNTS);
+			String crypto = symbols.get(random.nextInt(symbols.size()));
+			try {
+				if (i == TRADES / 2) {
+					engine.reset(accountId, INITIAL_BALANCE).join();
+				} else if (random.nextBoolean()) {
+					engine.buy(accountId, crypto, random.nextDouble(0.01, 5.0));
+				} else {
+					engine.sell(accountId, crypto, random.nextDouble(0.01, 5.0));
+				}
+			} catch (InsufficientFundsException | InsufficientHoldingsException ignored) {
+				// Rejected trades are not journaled
+			}
+		}
+		persister.close();
+
+		try (Stream<Path> files = Files.list(directory)) {
+			assertTrue(files.count() <= 4, "old segments and snapshots are deleted");
+		}
+
+		TradeEngine recovered = recover(priceBook, symbolRegistry);
+		assertSameState(engine, recovered);
+
+		// Records written after the snapshot taken on recovery, without rolling the segment, are replayed
+		int pending = (int) (SEGMENT_RECORDS - 1 - recoveredPersister.nextSequence() % SEGMENT_RECORDS);
+		assertTrue(pending > 1);
+		recovered.reset(0, INITIAL_BALANCE).join();
+		for (int i = 1; i < pending; i++) {
+			recovered.buy(0, symbols.get(i % symbols.size()), 0.001);
+		}
+		recoveredPersister.close();
+		assertSameState(recovered, recover(priceBook, symbolRegistry));
+		recoveredPersister.close();
+	}
+
+	@Test
+	void startupFromASnapshotDoesNotReadTheDatabase() throws Exception {
+		SymbolRegistry symbolRegistry = new SymbolRegistry();
+		PriceBook priceBook = new PriceBook(symbolRegistry);
+		applyPrices(priceBook, symbolRegistry, new SplittableRandom(3));
+
+		JournalTradePersister first = new JournalTradePersister(directory, SEGMENT_RECORDS, false, TradePersister.NONE);
+		assertFalse(first.recoversState(), "the first start in journal mode loads the database");
+		TradeEngine engine = new TradeEngine(priceBook, symbolRegistry, first);
+		engine.loadAccount(TradingService.DEFAULT_ACCOUNT_ID, INITIAL_BALANCE, Map.of());
+		first.recover(engine);
+		engine.buy(TradingService.DEFAULT_ACCOUNT_ID, "BTC", 1);
+		first.close();
+
+		JournalTradePersister persister = new JournalTradePersister(directory, SEGMENT_RECORDS, false, TradePersister.NONE);
+		assertTrue(persister.recoversState());
+		AccountRepository accountRepository = mock(AccountRepository.class);
+		when(accountRepository.existsById(TradingService.DEFAULT_ACCOUNT_ID)).thenReturn(true);
+		TransactionRepository transactionRepository = mock(TransactionRepository.class);
+		TradeEngine recovered = new TradeEngine(priceBook, symbolRegistry, persister);
+		new TradingService(mock(KrakenWebSocketService.class), accountRepository, transactionRepository, recovered,
+				persister, mock(OrderService.class), new TradingMetrics(new SimpleMeterRegistry()),
+				mock(PlatformTransactionManager.class));
+		persister.close();
+
+		verify(accountRepository, never()).findAll();
+		verifyNoInteractions(transactionRepository);
+		assertSameState(engine, recovered);
+	}
+
+	@Test
+	void segmentRollSnapshotsTheEngineAndDeletesOlderSegments() throws Exception {
+		SymbolRegistry symbolRegistry = new SymbolRegistry();
+		PriceBook priceBook = new PriceBook(symbolRegistry);
+		applyPrices(priceBook, symbolRegistry, new SplittableRandom(11));
+		TradeEngine engine = recover(priceBook, symbolRegistry);
+		engine.loadAccount(0, INITIAL_BALANCE, Map.of());
+		JournalTradePersister persister = recoveredPersister;
+
+		for (int i = 0; i < SEGMENT_RECORDS * 3 + 5; i++) {
+			engine.buy(0, "BTC", 0.001);
+		}
+		persister.close();
+
+		List<Long> snapshots = sequences("snapshot-");
+		List<Long> segments = sequences("journal-");
+		assertEquals(1, snapshots.size(), "older snapshots are deleted");
+		assertTrue(snapshots.get(0) > SEGMENT_RECORDS, "a snapshot is taken when the segment rolls");
+		assertTrue(segments.stream().allMatch(start -> start + SEGMENT_RECORDS > snapshots.get(0)),
+				"segments before the snapshot are deleted");
+		assertSameState(engine, recover(priceBook, symbolRegistry));
+		recoveredPersister.close();
+	}
+
+	@Test
+	void recoveryReplaysTheJournalTailAfterTheSnapshot() throws Exception {
+		SymbolRegistry symbolRegistry = new SymbolRegistry();
+		PriceBook priceBook = new PriceBook(symbolRegistry);
+		applyPrices(priceBook, symbolRegistry, new SplittableRandom(13));
+		JournalTradePersister persister = new JournalTradePersister(directory, SEGMENT_RECORDS, false, TradePersister.NONE);
+		TradeEngine engine = new TradeEngine(priceBook, symbolRegistry, persister);
+		engine.loadAccount(0, INITIAL_BALANCE, Map.of());
+		persister.recover(engine);
+		long snapshot = persister.nextSequence();
+
+		engine.openAccount(1, INITIAL_BALANCE).join();
+		engine.buy(0, "BTC", 1);
+		engine.buy(1, "ETH", 2);
+		engine.sell(0, "BTC", 0.5);
+		persister.close();
+
+		assertEquals(List.of(snapshot), sequences("snapshot-"), "no segment rolled");
+		TradeEngine recovered = recover(priceBook, symbolRegistry);
+		assertEquals(snapshot + 4, recoveredPersister.nextSequence());
+		assertSameState(engine, recovered);
+		recoveredPersister.close();
+	}
+
+	@Test
+	void recoveryReplaysAReset() throws Exception {
+		SymbolRegistry symbolRegistry = new SymbolRegistry();
+		PriceBook priceBook = new PriceBook(symbolRegistry);
+		applyPrices(priceBook, symbolRegistry, new SplittableRandom(17));
+		TradeEngine engine = recover(priceBook, symbolRegistry);
+		engine.openAccount(0, INITIAL_BALANCE).join();
+		engine.buy(0, "BTC", 1);
+		engine.buy(0, "ETH", 1);
+		engine.reset(0, INITIAL_BALANCE).join();
+		recoveredPersister.close();
+
+		TradeEngine recovered = recover(priceBook, symbolRegistry);
+		assertEquals(INITIAL_BALANCE, recovered.balance(0));
+		assertTrue(recovered.snapshot(0).holdings().isEmpty());
+		assertTrue(recovered.positions(0).isEmpty());
+		assertSameState(engine, recovered);
+		recoveredPersister.close();
+	}
+
+	@Test
+	void symbolTooLongToJournalIsRejectedBeforeTheTradeIsApplied() throws Exception {
+		SymbolRegistry symbolRegistry = new SymbolRegistry();
+		PriceBook priceBook = new PriceBook(symbolRegistry);
+		applyPrices(priceBook, symbolRegistry, new SplittableRandom(19));
+		String symbol = "X".repeat(SymbolRegistry.MAX_SYMBOL_LENGTH + 1);
+		assertEquals(-1, symbolRegistry.intern(symbol.toCharArray(), 0, symbol.length()), "never registered");
+		TradeEngine engine = recover(priceBook, symbolRegistry);
+		engine.openAccount(0, INITIAL_BALANCE).join();
+		long sequence = recoveredPersister.nextSequence();
+
+		assertThrows(CryptoNotFoundException.class, () -> engine.buy(0, symbol, 1));
+		assertEquals(INITIAL_BALANCE, engine.balance(0));
+		assertEquals(sequence, recoveredPersister.nextSequence(), "nothing is journaled");
+		recoveredPersister.close();
+	}
+
+	private JournalTradePersister recoveredPersister;
+
+	private TradeEngine recover(PriceBook priceBook, SymbolRegistry symbolRegistry) {
+		recoveredPersister = new JournalTradePersister(directory, SEGMENT_RECORDS, false, TradePersister.NONE);
+		TradeEngine engine = new TradeEngine(priceBook, symbolRegistry, recoveredPersister);
+		recoveredPersister.recover(engine);
+		return engine;
+	}
+
+	private static void assertSameState(TradeEngine expectedEngine, TradeEngine actualEngine) {
+		assertEquals(expectedEngine.getAccountIds(), actualEngine.getAccountIds());
+		for (long accountId : expectedEngine.getAccountIds()) {
+			AccountSnapshot expected = expectedEngine.snapshot(accountId);
+			AccountSnapshot actual = actualEngine.snapshot(accountId);
+			assertEquals(expected.balance(), actual.balance(), 1e-9, "balance of account " + accountId);
+			assertEquals(expected.holdings().keySet(), actual.holdings().keySet());
+			expected.holdings().forEach((crypto, amount) ->
+					assertEquals(amount, actual.holdings().get(crypto), 1e-9, crypto + " in account " + accountId));
+
+			Map<String, PositionSnapshot> expectedPositions = expectedEngine.positions(accountId);
+			Map<String, PositionSnapshot> actualPositions = actualEngine.positions(accountId);
+			assertEquals(expectedPositions.keySet(), actualPositions.keySet());
+			expectedPositions.forEach((crypto, position) -> {
+				assertEquals(position.quantity(), actualPositions.get(crypto).quantity(), 1e-9);
+				assertEquals(position.realizedProfitLoss(), actualPositions.get(crypto).realizedProfitLoss(), 1e-6);
+			});
+		}
+	}
+
+	private List<Long> sequences(String prefix) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.map(file -> file.getFileName().toString())
+					.filter(name -> name.startsWith(prefix))
+					.map(name -> Long.parseLong(name.substring(prefix.length(), name.length() - ".dat".length())))
+					.sorted()
+					.toList();
+		}
+	}
+
+	private static void applyPrices(PriceBook priceBook, SymbolRegistry symbolRegistry, SplittableRandom random) {
+		TickBatch batch = new TickBatch();
+		for (String symbol : SubscribeMessage.DEFAULT_SYMBOLS) {
+			batch.add(symbolRegistry.idOf(symbol), random.nextDouble(1.0, 500.0));
+		}
+		priceBook.apply(batch, System.currentTimeMillis());
+	}
+}
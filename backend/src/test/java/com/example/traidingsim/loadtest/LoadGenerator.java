@@ -0,0 +1,220 @@
+package com.example.traidingsim.loadtest;
+
+import com.example.traidingsim.TraidingsimApplication;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of one application instance: thousands of price-watching browsers on STOMP/SockJS and a mix of trades
+ * and account queries on the REST API at fixed rates, see {@link LoadTestOptions#USAGE}.
+ * Without a {@code --url} the application is started in this JVM with the synthetic feed instead of Kraken and an
+ * in-memory database, so nothing outside the machine is needed; the clients then share its CPUs.
+ * <p>
+ * Reports the throughput and p50/p99/p999 latency of every endpoint, and the delay from the broadcast of a price
+ * batch to its delivery to the sessions.
+ */
+public class LoadGenerator {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final double ACCOUNT_BALANCE = 1e12;
+    /** Holdings bought up front, in trade amounts, so sells are not rejected for insufficient holdings. */
+    private static final int SEED_TRADES = 10_000;
+    private static final String SOCKJS_CLIENT_LOGGER = "org.springframework.web.socket.sockjs.client";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        quietLogging();
+
+        ConfigurableApplicationContext application = options.startServer() ? startApplication(options) : null;
+        String baseUrl = application != null
+                ? "http://localhost:" + ((WebServerApplicationContext) application).getWebServer().getPort()
+                : options.url().replaceAll("/+$", "");
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        try (PriceWatchers watchers = new PriceWatchers()) {
+            awaitPrices(client, baseUrl);
+            List<Long> accountIds = openAccounts(client, baseUrl, options);
+            System.out.printf("Opened %d accounts on %s%n", accountIds.size(), baseUrl);
+
+            long connectStart = System.nanoTime();
+            watchers.connect(baseUrl, options.sessions(), options.connectRate());
+            System.out.printf("Connected %d of %d sessions in %.1f s%n", watchers.connected(), options.sessions(),
+                    (System.nanoTime() - connectStart) / 1e9);
+
+            List<RestTraffic> traffic = List.of(
+                    new RestTraffic("POST /api/buy", client, options.buyRate(),
+                            RestTraffic.trades(baseUrl, "/api/buy", accountIds, options.cryptos(), options.amount())),
+                    new RestTraffic("POST /api/sell", client, options.sellRate(),
+                            RestTraffic.trades(baseUrl, "/api/sell", accountIds, options.cryptos(), options.amount())),
+                    new RestTraffic("GET /api/holdings", client, options.holdingsRate(),
+                            RestTraffic.queries(baseUrl, "/api/holdings", accountIds)),
+                    new RestTraffic("GET /api/profit-loss", client, options.profitLossRate(),
+                            RestTraffic.queries(baseUrl, "/api/profit-loss", accountIds)));
+            List<Thread> threads = new ArrayList<>();
+            for (RestTraffic endpoint : traffic) {
+                threads.add(Thread.ofPlatform().name("load " + endpoint.name()).daemon().start(endpoint));
+            }
+
+            System.out.printf("Warming up for %d s%n", options.warmup().toSeconds());
+            Thread.sleep(options.warmup());
+            traffic.forEach(RestTraffic::reset);
+            watchers.reset();
+
+            System.out.printf("Measuring for %d s%n", options.duration().toSeconds());
+            long measureStart = System.nanoTime();
+            Thread.sleep(options.duration());
+            double seconds = (System.nanoTime() - measureStart) / 1e9;
+            traffic.forEach(RestTraffic::stop);
+
+            report(baseUrl, options, watchers, traffic, seconds);
+            for (Thread thread : threads) {
+                thread.join(TimeUnit.SECONDS.toMillis(1));
+            }
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Log warnings only, and nothing about messages still arriving at sessions being closed at the end of the run.
+     * Starting the application applies its own logging configuration on top of this.
+     */
+    private static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        ((Logger) LoggerFactory.getLogger(SOCKJS_CLIENT_LOGGER)).setLevel(Level.OFF);
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestOptions options) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+        properties.put("spring.h2.console.enabled", false);
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level." + SOCKJS_CLIENT_LOGGER, "OFF");
+        properties.put("logging.file.name", "target/loadtest/application.log");
+        properties.put("market-data.source", "synthetic");
+        properties.put("market-data.synthetic.rate", options.feedRate());
+        properties.put("market-data.history.directory", "");
+        properties.put("trading.journal.directory", "target/loadtest/journal");
+        properties.putAll(options.serverProperties());
+
+        // A devtools restart would run the load generator's main method again in a new class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        System.out.printf("Starting the application with the synthetic feed at %d ticks/s%n", options.feedRate());
+        // As command line arguments, since default properties would not override application.properties
+        return new SpringApplicationBuilder(TraidingsimApplication.class)
+                .run(properties.entrySet().stream()
+                        .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                        .toArray(String[]::new));
+    }
+
+    private static void awaitPrices(HttpClient client, String baseUrl) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/prices")).GET().build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (objectMapper.readTree(client.send(request, HttpResponse.BodyHandlers.ofString()).body()).isEmpty()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("No prices from " + baseUrl + " after 60 s");
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    /**
+     * Open the accounts to trade on and buy every cryptocurrency traded up front.
+     */
+    private static List<Long> openAccounts(HttpClient client, String baseUrl, LoadTestOptions options) {
+        List<CompletableFuture<Long>> accounts = new ArrayList<>();
+        for (int i = 0; i < options.accounts(); i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/accounts?balance=" + ACCOUNT_BALANCE))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            accounts.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .thenApply(response -> accountId(response.body())));
+        }
+        List<Long> accountIds = accounts.stream().map(CompletableFuture::join).toList();
+
+        List<CompletableFuture<?>> seeds = new ArrayList<>();
+        for (long accountId : accountIds) {
+            for (String crypto : options.cryptos()) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/buy?accountId=" + accountId
+                                + "&crypto=" + crypto + "&amount=" + options.amount() * SEED_TRADES))
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build();
+                seeds.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+            }
+        }
+        CompletableFuture.allOf(seeds.toArray(CompletableFuture[]::new)).join();
+        return accountIds;
+    }
+
+    private static long accountId(String body) {
+        try {
+            return objectMapper.readTree(body).path("id").asLong();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open an account: " + body, e);
+        }
+    }
+
+    private static void report(String baseUrl, LoadTestOptions options, PriceWatchers watchers,
+                               List<RestTraffic> traffic, double seconds) {
+        System.out.printf("%nLoad test of %s: %.0f s measured after %d s of warmup%n", baseUrl, seconds,
+                options.warmup().toSeconds());
+        System.out.printf("%-22s %10s %8s %10s %10s %10s %10s %10s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (RestTraffic endpoint : traffic) {
+            Histogram latencies = endpoint.latencies();
+            System.out.printf("%-22s %10d %8d %10.1f %10.3f %10.3f %10.3f %10.3f%n", endpoint.name(),
+                    endpoint.completed(), endpoint.errors(), endpoint.completed() / seconds,
+                    millis(latencies, 50), millis(latencies, 99), millis(latencies, 99.9),
+                    latencies.getMaxValue() / 1e6);
+        }
+
+        Histogram delays = watchers.delays();
+        System.out.printf("%nPrice sessions: %d connected, %d failed to connect, %d lost%n", watchers.connected(),
+                watchers.failed(), watchers.closed());
+        System.out.printf("Price batches delivered: %d (%.1f/s), %d missed, %d errors%n", watchers.messages(),
+                watchers.messages() / seconds, watchers.gaps(), watchers.errors());
+        System.out.printf("Delivery delay after broadcast: p50 %d ms, p99 %d ms, p999 %d ms, max %d ms%n",
+                delays.getValueAtPercentile(50), delays.getValueAtPercentile(99),
+                delays.getValueAtPercentile(99.9), delays.getMaxValue());
+    }
+
+    private static double millis(Histogram nanos, double percentile) {
+        return nanos.getValueAtPercentile(percentile) / 1e6;
+    }
+}
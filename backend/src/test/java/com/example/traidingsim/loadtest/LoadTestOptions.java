@@ -0,0 +1,87 @@
+package com.example.traidingsim.loadtest;
+
+import com.example.traidingsim.model.dto.SubscribeMessage;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options of a {@link LoadGenerator} run, parsed from {@code --name=value} arguments.
+ * Unknown options are passed as properties to the application when it is started in process,
+ * e.g. {@code --trading.shards=4}.
+ */
+record LoadTestOptions(String url, int sessions, int connectRate, Duration warmup, Duration duration, int accounts,
+                       double buyRate, double sellRate, double holdingsRate, double profitLossRate, double amount,
+                       List<String> cryptos, long feedRate, Map<String, String> serverProperties) {
+
+    static final String USAGE = """
+            Usage: LoadGenerator [--option=value ...]
+              --url=             Application to load, e.g. http://localhost:8080; empty to start one in process
+                                 with the synthetic feed and an in-memory database
+              --sessions=1000    STOMP/SockJS sessions subscribed to /topic/prices
+              --connect-rate=200 Sessions opened per second
+              --warmup=10        Seconds of load before measuring
+              --duration=60      Seconds of load measured
+              --accounts=100     Accounts the trades are spread over
+              --buy-rate=200     POST /api/buy per second
+              --sell-rate=200    POST /api/sell per second
+              --holdings-rate=100     GET /api/holdings per second
+              --profit-loss-rate=100  GET /api/profit-loss per second
+              --amount=0.01      Amount of every buy and sell
+              --cryptos=         Comma separated cryptocurrencies to trade, all default symbols if empty
+              --feed-rate=1000   Synthetic ticks per second of the in-process application
+            Any other --name=value is set as a property of the in-process application.""";
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg + "\n" + USAGE);
+            }
+            values.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        String cryptos = values.remove("cryptos");
+        List<String> cryptoList = cryptos == null || cryptos.isBlank()
+                ? SubscribeMessage.DEFAULT_SYMBOLS.stream().map(symbol -> symbol.substring(0, symbol.indexOf('/'))).toList()
+                : List.of(cryptos.split(","));
+
+        return new LoadTestOptions(
+                stringOption(values, "url", ""),
+                (int) longOption(values, "sessions", 1000),
+                (int) Math.max(1, longOption(values, "connect-rate", 200)),
+                Duration.ofSeconds(longOption(values, "warmup", 10)),
+                Duration.ofSeconds(longOption(values, "duration", 60)),
+                (int) Math.max(1, longOption(values, "accounts", 100)),
+                doubleOption(values, "buy-rate", 200),
+                doubleOption(values, "sell-rate", 200),
+                doubleOption(values, "holdings-rate", 100),
+                doubleOption(values, "profit-loss-rate", 100),
+                doubleOption(values, "amount", 0.01),
+                cryptoList,
+                longOption(values, "feed-rate", 1000),
+                values);
+    }
+
+    boolean startServer() {
+        return url.isBlank();
+    }
+
+    private static String stringOption(Map<String, String> values, String name, String defaultValue) {
+        String value = values.remove(name);
+        return value != null ? value : defaultValue;
+    }
+
+    private static long longOption(Map<String, String> values, String name, long defaultValue) {
+        String value = values.remove(name);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+
+    private static double doubleOption(Map<String, String> values, String name, double defaultValue) {
+        String value = values.remove(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.traidingsim.loadtest;
+
+import com.example.traidingsim.websocket.PriceSubscriptionRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Browser-like STOMP over SockJS sessions on {@code /ws}, each subscribed to {@link
+ * PriceSubscriptionRegistry#ALL_PRICES_DESTINATION}. Every price batch received is timed against the flush time
+ * stamped on it by the server, so the delay includes the broker and the network but not the conflation interval.
+ * Client and server must share a clock, which they do when both run on the same machine.
+ */
+class PriceWatchers implements AutoCloseable {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final WebSocketStompClient stompClient =
+            new WebSocketStompClient(new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+    private final Queue<StompSession> sessions = new ConcurrentLinkedQueue<>();
+    private final Recorder delays = new Recorder(3);
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder gaps = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong closed = new AtomicLong();
+
+    PriceWatchers() {
+        stompClient.setInboundMessageSizeLimit(1024 * 1024);
+    }
+
+    /**
+     * Open {@code count} sessions at {@code perSecond} sessions per second and wait until all of them are
+     * subscribed or failed.
+     */
+    void connect(String baseUrl, int count, int perSecond) throws InterruptedException {
+        CompletableFuture<?>[] connects = new CompletableFuture<?>[count];
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            long due = start + i * TimeUnit.SECONDS.toNanos(1) / perSecond;
+            sleepUntil(due);
+            connects[i] = stompClient.connectAsync(baseUrl + "/ws", new Watcher())
+                    .thenAccept(sessions::add)
+                    .exceptionally(e -> {
+                        failed.incrementAndGet();
+                        return null;
+                    });
+        }
+        CompletableFuture.allOf(connects).handle((ignored, e) -> null).join();
+    }
+
+    /**
+     * Discard the delays and counts recorded so far.
+     */
+    void reset() {
+        delays.getIntervalHistogram();
+        messages.reset();
+        gaps.reset();
+        errors.reset();
+    }
+
+    /**
+     * Delays, in milliseconds, recorded since the last reset.
+     */
+    Histogram delays() {
+        return delays.getIntervalHistogram();
+    }
+
+    long messages() {
+        return messages.sum();
+    }
+
+    /**
+     * Price batches a session missed, judging by the sequence numbers it received.
+     */
+    long gaps() {
+        return gaps.sum();
+    }
+
+    /**
+     * STOMP errors and unreadable messages.
+     */
+    long errors() {
+        return errors.sum();
+    }
+
+    int connected() {
+        return sessions.size();
+    }
+
+    /**
+     * Sessions that could not be opened.
+     */
+    long failed() {
+        return failed.get();
+    }
+
+    /**
+     * Sessions lost after they were opened.
+     */
+    long closed() {
+        return closed.get();
+    }
+
+    @Override
+    public void close() {
+        StompSession session;
+        while ((session = sessions.poll()) != null) {
+            try {
+                session.disconnect();
+            } catch (RuntimeException ignored) {
+                // The transport is already gone
+            }
+        }
+        stompClient.stop();
+    }
+
+    static void sleepUntil(long dueNanos) throws InterruptedException {
+        long wait = dueNanos - System.nanoTime();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private class Watcher extends StompSessionHandlerAdapter {
+
+        private volatile boolean connected;
+        private long lastSequence;
+
+        @Override
+        public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+            connected = true;
+            session.subscribe(PriceSubscriptionRegistry.ALL_PRICES_DESTINATION, this);
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            long receivedMillis = System.currentTimeMillis();
+            try {
+                JsonNode batch = objectMapper.readTree((byte[]) payload);
+                long delayMillis = receivedMillis - batch.path("timestamp").asLong(receivedMillis);
+                delays.recordValue(Math.max(0, delayMillis));
+
+                long sequence = batch.path("sequence").asLong();
+                synchronized (this) {
+                    if (lastSequence > 0 && sequence > lastSequence + 1) {
+                        gaps.add(sequence - lastSequence - 1);
+                    }
+                    lastSequence = Math.max(lastSequence, sequence);
+                }
+                messages.increment();
+            } catch (Exception e) {
+                errors.increment();
+            }
+        }
+
+        @Override
+        public void handleException(StompSession session, StompCommand command, StompHeaders headers, byte[] payload,
+                                    Throwable exception) {
+            errors.increment();
+        }
+
+        @Override
+        public void handleTransportError(StompSession session, Throwable exception) {
+            // Failures to connect are counted when the connect completes
+            if (connected && !session.isConnected()) {
+                connected = false;
+                closed.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.traidingsim.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Open-loop load on one REST endpoint: requests are started at a fixed rate whether or not earlier ones completed,
+ * the way independent traders would send them. Latency is measured from the time a request was due rather than
+ * from when it was actually sent, so a stalled server or client is not hidden by requests that were never sent
+ * (coordinated omission).
+ */
+class RestTraffic implements Runnable {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String name;
+    private final HttpClient client;
+    private final double perSecond;
+    private final Supplier<HttpRequest.Builder> requests;
+    private final Recorder latencies = new Recorder(3);
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private volatile boolean running = true;
+
+    RestTraffic(String name, HttpClient client, double perSecond, Supplier<HttpRequest.Builder> requests) {
+        this.name = name;
+        this.client = client;
+        this.perSecond = perSecond;
+        this.requests = requests;
+    }
+
+    /**
+     * Requests with a random account and cryptocurrency, e.g. {@code POST /api/buy?accountId=..&crypto=..&amount=..}.
+     */
+    static Supplier<HttpRequest.Builder> trades(String baseUrl, String path, List<Long> accountIds,
+                                                List<String> cryptos, double amount) {
+        return () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            URI uri = URI.create(baseUrl + path + "?accountId=" + accountIds.get(random.nextInt(accountIds.size()))
+                    + "&crypto=" + cryptos.get(random.nextInt(cryptos.size())) + "&amount=" + amount);
+            return HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody());
+        };
+    }
+
+    /**
+     * Queries of a random account, e.g. {@code GET /api/holdings?accountId=..}.
+     */
+    static Supplier<HttpRequest.Builder> queries(String baseUrl, String path, List<Long> accountIds) {
+        return () -> {
+            long accountId = accountIds.get(ThreadLocalRandom.current().nextInt(accountIds.size()));
+            return HttpRequest.newBuilder(URI.create(baseUrl + path + "?accountId=" + accountId)).GET();
+        };
+    }
+
+    @Override
+    public void run() {
+        if (perSecond <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / perSecond;
+        try {
+            for (long n = 0; running; n++) {
+                long due = start + (long) (n * intervalNanos);
+                PriceWatchers.sleepUntil(due);
+                client.sendAsync(requests.get().timeout(TIMEOUT).build(), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, e) -> {
+                            latencies.recordValue(System.nanoTime() - due);
+                            completed.increment();
+                            if (e != null || response.statusCode() >= 400) {
+                                errors.increment();
+                            }
+                        });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    /**
+     * Discard the latencies and counts recorded so far.
+     */
+    void reset() {
+        latencies.getIntervalHistogram();
+        completed.reset();
+        errors.reset();
+    }
+
+    String name() {
+        return name;
+    }
+
+    /**
+     * Latencies, in nanoseconds, of the requests completed since the last reset.
+     */
+    Histogram latencies() {
+        return latencies.getIntervalHistogram();
+    }
+
+    long completed() {
+        return completed.sum();
+    }
+
+    /**
+     * Requests that failed or were answered with an error status.
+     */
+    long errors() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.traidingsim.mapper;
+
+import com.example.traidingsim.engine.MarketOrder;
+import com.example.traidingsim.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.traidingsim.model.enumeration.Type.BUY;
+import static com.example.traidingsim.model.enumeration.Type.SELL;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBatchMapperTests {
+
+	@Test
+	void decodesWhatItEncodes() {
+		List<MarketOrder> orders = List.of(
+				new MarketOrder("BTC", BUY, 0.5),
+				new MarketOrder("ETH/USD", SELL, 12.25),
+				new MarketOrder("ABCDEFGHIJKLMNOP", BUY, 1e-8));
+
+		byte[] body = OrderBatchMapper.encode(orders);
+
+		assertEquals(3 * OrderBatchMapper.ORDER_SIZE, body.length);
+		assertEquals(orders, OrderBatchMapper.decode(body));
+	}
+
+	@Test
+	void encodesTheDocumentedLayout() {
+		byte[] body = OrderBatchMapper.encode(List.of(new MarketOrder("BTC", SELL, 2.5)));
+
+		ByteBuffer buffer = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+		assertEquals(2, buffer.get(0));
+		assertEquals(3, buffer.get(1));
+		assertEquals(2.5, buffer.getDouble(8));
+		assertEquals('B', buffer.get(16));
+		assertEquals('T', buffer.get(17));
+		assertEquals('C', buffer.get(18));
+		assertEquals(0, buffer.get(19));
+	}
+
+	@Test
+	void decodesAnEmptyBody() {
+		assertEquals(List.of(), OrderBatchMapper.decode(new byte[0]));
+	}
+
+	@Test
+	void rejectsMalformedOrders() {
+		byte[] valid = OrderBatchMapper.encode(List.of(new MarketOrder("BTC", BUY, 1)));
+
+		assertRejected(new byte[OrderBatchMapper.ORDER_SIZE + 1], "a partial order");
+		assertRejected(with(valid, 0, (byte) 0), "no side");
+		assertRejected(with(valid, 0, (byte) 3), "an unknown side");
+		assertRejected(with(valid, 1, (byte) 0), "an empty crypto");
+		assertRejected(with(valid, 1, (byte) (OrderBatchMapper.MAX_CRYPTO_LENGTH + 1)), "a crypto too long");
+		assertRejected(with(valid, 1, (byte) 0x83), "a crypto length that is negative as a byte");
+		// 'B' | 0x80 would read as 'B' if the high bit were masked off
+		assertRejected(with(valid, 16, (byte) ('B' | 0x80)), "a crypto that is not ASCII");
+	}
+
+	@Test
+	void rejectsTheWholeBatchWhenOneOrderIsMalformed() {
+		byte[] body = OrderBatchMapper.encode(List.of(new MarketOrder("BTC", BUY, 1), new MarketOrder("ETH", BUY, 1)));
+		body[OrderBatchMapper.ORDER_SIZE + 16] = (byte) 0xC3;
+
+		InvalidRequestException rejected = assertThrows(InvalidRequestException.class,
+				() -> OrderBatchMapper.decode(body));
+		assertTrue(rejected.getMessage().startsWith("Order 1 "), rejected.getMessage());
+	}
+
+	@Test
+	void refusesToEncodeSymbolsTheFormatCannotCarry() {
+		assertThrows(IllegalArgumentException.class,
+				() -> OrderBatchMapper.encode(List.of(new MarketOrder("ABCDEFGHIJKLMNOPQ", BUY, 1))));
+		assertThrows(IllegalArgumentException.class,
+				() -> OrderBatchMapper.encode(List.of(new MarketOrder("BTC€", BUY, 1))));
+	}
+
+	@Test
+	void readsBodiesUpToTheCapAndStopsReadingPastIt() throws IOException {
+		byte[] body = new byte[100];
+		assertArrayEquals(body, OrderBatchMapper.read(new ByteArrayInputStream(body), 100, "too large"));
+
+		AtomicLong served = new AtomicLong();
+		InputStream endless = new InputStream() {
+			@Override
+			public int read() {
+				served.incrementAndGet();
+				return ' ';
+			}
+		};
+		InvalidRequestException rejected = assertThrows(InvalidRequestException.class,
+				() -> OrderBatchMapper.read(endless, 100, "too large"));
+		assertEquals("too large", rejected.getMessage());
+		assertEquals(101, served.get(), "one byte past the cap is enough to reject the body");
+	}
+
+	private static byte[] with(byte[] body, int index, byte value) {
+		byte[] changed = body.clone();
+		changed[index] = value;
+		return changed;
+	}
+
+	private static void assertRejected(byte[] body, String what) {
+		assertThrows(InvalidRequestException.class, () -> OrderBatchMapper.decode(body), what);
+	}
+}
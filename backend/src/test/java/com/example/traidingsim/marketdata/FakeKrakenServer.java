@@ -0,0 +1,182 @@
+package com.example.traidingsim.marketdata;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal RFC 6455 WebSocket server standing in for Kraken: it completes the handshake, collects the text frames
+ * clients send and pushes text frames to every connected client. Connections can be dropped abruptly to
+ * simulate a network failure.
+ */
+class FakeKrakenServer implements Closeable {
+
+	private static final String GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+	private final ServerSocket serverSocket;
+	private final List<Socket> clients = new CopyOnWriteArrayList<>();
+	private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+	private final AtomicInteger connections = new AtomicInteger();
+
+	FakeKrakenServer(int port) throws IOException {
+		serverSocket = new ServerSocket();
+		serverSocket.setReuseAddress(true);
+		serverSocket.bind(new java.net.InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		Thread acceptor = new Thread(this::accept, "fake-kraken-accept");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			return socket.getLocalPort();
+		}
+	}
+
+	URI uri() {
+		return URI.create("ws://127.0.0.1:" + serverSocket.getLocalPort() + "/v2");
+	}
+
+	int connections() {
+		return connections.get();
+	}
+
+	/**
+	 * Next text frame sent by a client, or {@code null} if none arrives in time.
+	 */
+	String awaitMessage(long timeout, TimeUnit unit) throws InterruptedException {
+		return received.poll(timeout, unit);
+	}
+
+	void send(String text) throws IOException {
+		byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+		ByteArrayOutputStream frame = new ByteArrayOutputStream();
+		frame.write(0x81);
+		if (payload.length < 126) {
+			frame.write(payload.length);
+		} else {
+			frame.write(126);
+			frame.write(payload.length >>> 8);
+			frame.write(payload.length & 0xFF);
+		}
+		frame.write(payload);
+		for (Socket client : clients) {
+			try {
+				OutputStream out = client.getOutputStream();
+				synchronized (client) {
+					out.write(frame.toByteArray());
+					out.flush();
+				}
+			} catch (IOException e) {
+				clients.remove(client);
+			}
+		}
+	}
+
+	/**
+	 * Close every client connection without a close handshake.
+	 */
+	void dropConnections() throws IOException {
+		for (Socket client : clients) {
+			client.close();
+		}
+		clients.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+		dropConnections();
+	}
+
+	private void accept() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket client = serverSocket.accept();
+				Thread reader = new Thread(() -> serve(client), "fake-kraken-client");
+				reader.setDaemon(true);
+				reader.start();
+			} catch (IOException e) {
+				return;
+			}
+		}
+	}
+
+	private void serve(Socket client) {
+		try (client) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+			String key = null;
+			String line;
+			while ((line = readLine(in)) != null && !line.isEmpty()) {
+				if (line.toLowerCase().startsWith("sec-websocket-key:")) {
+					key = line.substring(line.indexOf(':') + 1).trim();
+				}
+			}
+			String accept = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1")
+					.digest((key + GUID).getBytes(StandardCharsets.ISO_8859_1)));
+			OutputStream out = client.getOutputStream();
+			out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+					+ "Sec-WebSocket-Accept: " + accept + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+			out.flush();
+			clients.add(client);
+			connections.incrementAndGet();
+
+			while (true) {
+				int opcode = in.readUnsignedByte() & 0x0F;
+				int second = in.readUnsignedByte();
+				long length = second & 0x7F;
+				if (length == 126) {
+					length = in.readUnsignedShort();
+				} else if (length == 127) {
+					length = in.readLong();
+				}
+				byte[] mask = new byte[4];
+				if ((second & 0x80) != 0) {
+					in.readFully(mask);
+				}
+				byte[] payload = new byte[(int) length];
+				in.readFully(payload);
+				for (int i = 0; i < payload.length; i++) {
+					payload[i] ^= mask[i % 4];
+				}
+				if (opcode == 0x1) {
+					received.add(new String(payload, StandardCharsets.UTF_8));
+				} else if (opcode == 0x8) {
+					synchronized (client) {
+						out.write(new byte[]{(byte) 0x88, 0});
+						out.flush();
+					}
+					return;
+				}
+			}
+		} catch (Exception e) {
+			// Connection dropped
+		} finally {
+			clients.remove(client);
+		}
+	}
+
+	private static String readLine(DataInputStream in) throws IOException {
+		StringBuilder line = new StringBuilder();
+		int c;
+		while ((c = in.read()) != -1) {
+			if (c == '\n') {
+				int length = line.length();
+				return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line.toString();
+			}
+			line.append((char) c);
+		}
+		return line.isEmpty() ? null : line.toString();
+	}
+}
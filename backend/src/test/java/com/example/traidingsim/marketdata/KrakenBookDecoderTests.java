@@ -0,0 +1,67 @@
+package com.example.traidingsim.marketdata;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KrakenBookDecoderTests {
+
+	private final SymbolRegistry symbolRegistry = new SymbolRegistry();
+	private final OrderBooks orderBooks = new OrderBooks(3);
+	private final KrakenBookDecoder decoder = new KrakenBookDecoder(new ObjectMapper().getFactory(), symbolRegistry, orderBooks);
+	private final int btc = symbolRegistry.idOf("BTC/USD");
+
+	@Test
+	void appliesSnapshotsAndUpdatesWithinDepth() throws Exception {
+		String snapshot = "{\"channel\":\"book\",\"type\":\"snapshot\",\"data\":[{\"symbol\":\"BTC/USD\","
+				+ "\"bids\":[{\"price\":99.0,\"qty\":1.0},{\"price\":98.0,\"qty\":2.0},{\"price\":97.0,\"qty\":3.0}],"
+				+ "\"asks\":[{\"price\":101.0,\"qty\":1.0},{\"price\":102.0,\"qty\":2.0},{\"price\":103.0,\"qty\":3.0}],"
+				+ "\"checksum\":123}]}";
+		assertTrue(KrakenBookDecoder.isBookFrame(snapshot));
+		assertTrue(decoder.decode(snapshot));
+
+		L2Book book = orderBooks.book(btc);
+		assertEquals(99.0, book.bestBid());
+		assertEquals(101.0, book.bestAsk());
+		// 1 @ 101 + 2 @ 102 + 1 @ 103
+		assertEquals((101.0 + 204.0 + 103.0) / 4, book.fillPrice(true, 4));
+		// Beyond the visible depth, the remainder fills at the worst level
+		assertEquals((99.0 + 196.0 + 291.0 + 97.0) / 7, book.fillPrice(false, 7));
+
+		String update = "{\"channel\":\"book\",\"type\":\"update\",\"data\":[{\"symbol\":\"BTC/USD\","
+				+ "\"bids\":[{\"price\":99.5,\"qty\":0.5},{\"price\":98.0,\"qty\":0}],"
+				+ "\"asks\":[{\"price\":101.0,\"qty\":0},{\"price\":102.0,\"qty\":5.0},{\"price\":100.5,\"qty\":1.5}]}]}";
+		assertTrue(decoder.decode(update));
+		assertEquals(99.5, book.bestBid());
+		assertEquals(100.5, book.bestAsk());
+		// Bids: 99.5, 99; 97 was pushed beyond the depth by 99.5 before 98 was removed
+		assertEquals((49.75 + 99.0 + 99.0 * 1.5) / 3, book.fillPrice(false, 3), 1e-9);
+		// Asks: 100.5, 102 (5), 103
+		assertEquals((150.75 + 2 * 102.0) / 3.5, book.fillPrice(true, 3.5), 1e-9);
+
+		String replaced = "{\"channel\":\"book\",\"type\":\"snapshot\",\"data\":[{\"symbol\":\"BTC/USD\","
+				+ "\"bids\":[{\"price\":50.0,\"qty\":1.0}],\"asks\":[]}]}";
+		assertTrue(decoder.decode(replaced));
+		assertEquals(50.0, book.bestBid());
+		assertTrue(Double.isNaN(book.bestAsk()));
+	}
+
+	@Test
+	void ignoresOtherChannels() throws Exception {
+		assertFalse(KrakenBookDecoder.isBookFrame("{\"channel\":\"ticker\",\"data\":[]}"));
+		assertFalse(decoder.decode("{\"channel\":\"ticker\",\"data\":[{\"symbol\":\"BTC/USD\",\"bids\":[{\"price\":1,\"qty\":1}]}]}"));
+		assertTrue(Double.isNaN(orderBooks.fillPrice(btc, true, 1)));
+	}
+
+	@Test
+	void ignoresBookFramesWhenBookDataIsDisabled() throws Exception {
+		OrderBooks disabled = new OrderBooks(0);
+		KrakenBookDecoder disabledDecoder = new KrakenBookDecoder(new ObjectMapper().getFactory(), symbolRegistry,
+				disabled);
+
+		assertFalse(disabledDecoder.decode("{\"channel\":\"book\",\"type\":\"snapshot\",\"data\":[{\"symbol\":"
+				+ "\"BTC/USD\",\"bids\":[{\"price\":99.0,\"qty\":1.0}],\"asks\":[]}]}"));
+		assertNull(disabled.copyOf(btc));
+	}
+}
@@ -0,0 +1,127 @@
+package com.example.traidingsim.marketdata;
+
+import com.example.traidingsim.exception.StalePriceException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KrakenMarketDataSourceTests {
+
+	private static final long HEARTBEAT_TIMEOUT_MS = 500;
+	private static final String TICKER = "{\"channel\":\"ticker\",\"type\":\"update\",\"data\":[{\"symbol\":\"BTC/USD\",\"last\":64000.5}]}";
+	private static final String HEARTBEAT = "{\"channel\":\"heartbeat\"}";
+
+	private final SymbolRegistry symbolRegistry = new SymbolRegistry();
+	private final FeedMonitor feedMonitor = new FeedMonitor(new PriceBook(symbolRegistry), symbolRegistry,
+			HEARTBEAT_TIMEOUT_MS, 200, 0);
+	private final BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+	private KrakenMarketDataSource source;
+	private FakeKrakenServer server;
+
+	@AfterEach
+	void tearDown() throws Exception {
+		if (source != null) {
+			source.stop();
+		}
+		if (server != null) {
+			server.close();
+		}
+	}
+
+	@Test
+	void reconnectsAndResubscribesAfterTheConnectionDrops() throws Exception {
+		server = new FakeKrakenServer(0);
+		start(server.uri());
+
+		assertSubscribed();
+		server.send(TICKER);
+		assertEquals(TICKER, frames.poll(5, TimeUnit.SECONDS));
+		assertTrue(feedMonitor.isLive(System.currentTimeMillis()));
+
+		server.dropConnections();
+
+		assertSubscribed();
+		await(() -> server.connections() == 2);
+		server.send(TICKER);
+		assertEquals(TICKER, frames.poll(5, TimeUnit.SECONDS));
+		assertEquals(1, feedMonitor.getStatus().getReconnects());
+		assertEquals(1, feedMonitor.getStatus().getDisconnects());
+		assertTrue(feedMonitor.isLive(System.currentTimeMillis()));
+	}
+
+	@Test
+	void reconnectsWhenHeartbeatsStopAndSuspendsTrading() throws Exception {
+		server = new FakeKrakenServer(0);
+		start(server.uri());
+		assertSubscribed();
+
+		// Heartbeats well within the timeout keep the connection
+		for (int i = 0; i < 10; i++) {
+			server.send(HEARTBEAT);
+			Thread.sleep(HEARTBEAT_TIMEOUT_MS / 5);
+		}
+		assertEquals(1, server.connections());
+		assertEquals(0, feedMonitor.getStatus().getHeartbeatTimeouts());
+		feedMonitor.check("BTC", System.currentTimeMillis());
+
+		// A silent connection is abandoned and reopened
+		await(() -> !feedMonitor.isLive(System.currentTimeMillis()));
+		assertThrows(StalePriceException.class, () -> feedMonitor.check("BTC", System.currentTimeMillis()));
+		assertSubscribed();
+		await(() -> feedMonitor.getStatus().getHeartbeatTimeouts() == 1 && server.connections() == 2);
+
+		server.send(HEARTBEAT);
+		await(() -> feedMonitor.isLive(System.currentTimeMillis()));
+		feedMonitor.check("BTC", System.currentTimeMillis());
+		assertEquals(1, feedMonitor.getStatus().getGaps());
+	}
+
+	@Test
+	void backsOffExponentiallyUntilTheServerIsUp() throws Exception {
+		int port = FakeKrakenServer.freePort();
+		start(URI.create("ws://127.0.0.1:" + port + "/v2"));
+
+		// Backoffs of 20, 40, 80, 160, 320 ms and more: only a handful of attempts fit in a second
+		Thread.sleep(1_000);
+		int attempts = source.getFailedAttempts();
+		assertTrue(attempts >= 3 && attempts <= 7, "attempts " + attempts);
+		assertEquals(0, feedMonitor.getStatus().getConnects());
+
+		server = new FakeKrakenServer(port);
+		assertSubscribed();
+		server.send(TICKER);
+		assertEquals(TICKER, frames.poll(5, TimeUnit.SECONDS));
+		assertEquals(0, source.getFailedAttempts());
+		assertEquals(1, feedMonitor.getStatus().getConnects());
+	}
+
+	private void start(URI uri) {
+		source = new KrakenMarketDataSource(new ObjectMapper(), new OrderBooks(0), feedMonitor, uri, "", 20, 1_000);
+		source.start(frame -> {
+			feedMonitor.onFrame(System.currentTimeMillis());
+			frames.add(frame);
+		});
+	}
+
+	private void assertSubscribed() throws InterruptedException {
+		String message = server.awaitMessage(5, TimeUnit.SECONDS);
+		assertNotNull(message, "subscription received");
+		assertTrue(message.contains("\"subscribe\"") && message.contains("\"ticker\""), message);
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "condition not met in time");
+			Thread.sleep(10);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package com.example.traidingsim.marketdata;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KrakenTickerDecoderTests {
+
+	private final SymbolRegistry symbolRegistry = new SymbolRegistry();
+	private final KrakenTickerDecoder decoder = new KrakenTickerDecoder(new ObjectMapper().getFactory(), symbolRegistry);
+	private final TickBatch batch = new TickBatch();
+
+	@Test
+	void decodesSymbolAndLastPrice() throws Exception {
+		String frame = "{\"channel\":\"ticker\",\"type\":\"update\",\"data\":[{\"symbol\":\"ETH/USD\",\"bid\":3001.1,"
+				+ "\"last\":3001.25,\"nested\":{\"last\":1},\"volume\":12.5}]}";
+
+		assertTrue(decoder.decode(frame, batch));
+		assertEquals(1, batch.size());
+		assertEquals(symbolRegistry.idOf("ETH/USD"), batch.symbolId(0));
+		assertEquals(3001.25, batch.price(0));
+	}
+
+	@Test
+	void registersUnknownSymbols() throws Exception {
+		String frame = "{\"channel\":\"ticker\",\"data\":[{\"symbol\":\"PEPE/USD\",\"last\":1.2e-5}]}";
+
+		assertTrue(decoder.decode(frame, batch));
+		assertEquals("PEPE/USD", symbolRegistry.symbolOf(batch.symbolId(0)));
+		assertEquals(1.2e-5, batch.price(0));
+	}
+
+	@Test
+	void ignoresOtherChannels() throws Exception {
+		assertFalse(decoder.decode("{\"channel\":\"heartbeat\"}", batch));
+		assertFalse(decoder.decode("{\"channel\":\"status\",\"data\":[{\"symbol\":\"BTC/USD\",\"last\":1}]}", batch));
+		assertFalse(decoder.decode("{\"method\":\"subscribe\",\"result\":{\"channel\":\"ticker\"},\"success\":true}", batch));
+	}
+
+	@Test
+	void parsesPricesExactly() {
+		for (String value : new String[]{"0", "64321.2", "0.00002134", "-12.5", "1e3", "123456789012345678", "0.1234567890123456789"}) {
+			char[] chars = value.toCharArray();
+			assertEquals(Double.parseDouble(value), KrakenTickerDecoder.parsePrice(chars, 0, chars.length), value);
+		}
+	}
+
+	@Test
+	void parsesExchangeTimestamps() throws Exception {
+		for (String value : new String[]{"2024-05-21T10:12:13.123456Z", "1970-01-01T00:00:00Z", "2000-02-29T23:59:59.9Z",
+				"2100-12-31T00:00:00.000Z", "1969-12-31T23:59:59.5Z"}) {
+			char[] chars = value.toCharArray();
+			assertEquals(Instant.parse(value).toEpochMilli(), KrakenTickerDecoder.parseTimestamp(chars, 0, chars.length), value);
+		}
+		for (String value : new String[]{"", "2024-05-21", "2024-05-21T10:12:13+02:00", "2024-13-21T10:12:13Z", "2024-05-21T10:12:13.1xZ"}) {
+			char[] chars = value.toCharArray();
+			assertEquals(0, KrakenTickerDecoder.parseTimestamp(chars, 0, chars.length), value);
+		}
+
+		String frame = "{\"channel\":\"ticker\",\"data\":[{\"symbol\":\"BTC/USD\",\"last\":1,\"timestamp\":\"2024-05-21T10:12:13.5Z\"},"
+				+ "{\"symbol\":\"ETH/USD\",\"last\":2,\"timestamp\":\"2024-05-21T10:12:13.25Z\"}]}";
+		assertTrue(decoder.decode(frame, batch));
+		assertEquals(Instant.parse("2024-05-21T10:12:13.5Z").toEpochMilli(), batch.exchangeTimestamp());
+		assertTrue(decoder.decode("{\"channel\":\"ticker\",\"data\":[{\"symbol\":\"BTC/USD\",\"last\":1}]}", batch));
+		assertEquals(0, batch.exchangeTimestamp());
+	}
+}
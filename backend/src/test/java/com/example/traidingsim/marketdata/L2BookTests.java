@@ -0,0 +1,111 @@
+package com.example.traidingsim.marketdata;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class L2BookTests {
+
+	@Test
+	void keepsEachSideSortedBestFirst() {
+		L2Book book = new L2Book(5);
+		update(book, () -> {
+			book.updateBid(98.0, 1.0);
+			book.updateBid(100.0, 1.0);
+			book.updateBid(99.0, 1.0);
+			book.updateAsk(103.0, 1.0);
+			book.updateAsk(101.0, 1.0);
+			book.updateAsk(102.0, 1.0);
+		});
+
+		assertEquals(100.0, book.bestBid());
+		assertEquals(101.0, book.bestAsk());
+		// One unit per level, so the average of n units is the mean of the n best levels
+		assertEquals((100.0 + 99.0 + 98.0) / 3, book.fillPrice(false, 3));
+		assertEquals((101.0 + 102.0 + 103.0) / 3, book.fillPrice(true, 3));
+	}
+
+	@Test
+	void updatesAndDeletesLevels() {
+		L2Book book = new L2Book(5);
+		update(book, () -> {
+			book.updateAsk(101.0, 1.0);
+			book.updateAsk(102.0, 1.0);
+			book.updateAsk(103.0, 1.0);
+		});
+
+		update(book, () -> {
+			book.updateAsk(102.0, 4.0);
+			book.updateAsk(101.0, 0);
+			// Deleting a level that is not there changes nothing
+			book.updateAsk(104.0, 0);
+		});
+
+		assertEquals(102.0, book.bestAsk());
+		assertEquals(102.0, book.fillPrice(true, 4));
+		assertEquals((4 * 102.0 + 103.0) / 5, book.fillPrice(true, 5));
+
+		update(book, book::clear);
+		assertTrue(Double.isNaN(book.bestAsk()));
+		assertTrue(Double.isNaN(book.bestBid()));
+	}
+
+	@Test
+	void truncatesEachSideToItsDepth() {
+		L2Book book = new L2Book(2);
+		update(book, () -> {
+			book.updateBid(97.0, 1.0);
+			book.updateBid(98.0, 1.0);
+			// Pushes 97 out of the book
+			book.updateBid(99.0, 1.0);
+			// Worse than every level of a full side, dropped
+			book.updateBid(96.0, 1.0);
+		});
+
+		assertEquals(99.0, book.bestBid());
+		assertEquals((99.0 + 98.0) / 2, book.fillPrice(false, 2));
+		// Removing a level does not bring back the one pushed out
+		update(book, () -> book.updateBid(99.0, 0));
+		assertEquals(98.0, book.fillPrice(false, 2));
+		assertEquals(2, book.copy().getDepth());
+	}
+
+	@Test
+	void walksTheBookToAVolumeWeightedAveragePrice() {
+		L2Book book = new L2Book(3);
+		update(book, () -> {
+			book.updateAsk(100.0, 1.0);
+			book.updateAsk(101.0, 2.0);
+			book.updateAsk(102.0, 3.0);
+		});
+
+		assertEquals(100.0, book.fillPrice(true, 0.5), "a fill within the best level");
+		assertEquals((100.0 + 1.5 * 101.0) / 2.5, book.fillPrice(true, 2.5), "a fill ending part way into a level");
+		assertEquals((100.0 + 2 * 101.0 + 3 * 102.0) / 6, book.fillPrice(true, 6));
+		assertEquals((100.0 + 2 * 101.0 + 5 * 102.0) / 8, book.fillPrice(true, 8),
+				"the remainder beyond the visible depth fills at the worst level");
+	}
+
+	@Test
+	void walksAPartlyFilledBook() {
+		L2Book book = new L2Book(10);
+		update(book, () -> book.updateBid(50.0, 2.0));
+
+		assertEquals(50.0, book.fillPrice(false, 5));
+		assertTrue(Double.isNaN(book.fillPrice(true, 1)), "an empty side has no price");
+	}
+
+	@Test
+	void rejectsADepthOfZero() {
+		assertThrows(IllegalArgumentException.class, () -> new L2Book(0));
+	}
+
+	private static void update(L2Book book, Runnable update) {
+		book.beginUpdate();
+		try {
+			update.run();
+		} finally {
+			book.endUpdate();
+		}
+	}
+}
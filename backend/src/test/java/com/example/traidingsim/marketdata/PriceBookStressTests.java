@@ -0,0 +1,109 @@
+package com.example.traidingsim.marketdata;
+
+import com.example.traidingsim.model.dto.SubscribeMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceBookStressTests {
+
+	private static final int READERS = 6;
+	private static final int BATCHES = 200_000;
+
+	/**
+	 * Batch {@code n} sets every symbol to price {@code n} at timestamp {@code n}, its {@code n}th update, so any
+	 * mix of two batches, or of two updates of one symbol, shows up as unequal values.
+	 */
+	@Test
+	void readersNeverSeeATornBatch() throws Exception {
+		SymbolRegistry symbolRegistry = new SymbolRegistry();
+		PriceBook priceBook = new PriceBook(symbolRegistry);
+		List<String> symbols = SubscribeMessage.DEFAULT_SYMBOLS;
+		int[] symbolIds = symbols.stream().mapToInt(symbolRegistry::idOf).toArray();
+
+		AtomicBoolean writerDone = new AtomicBoolean();
+		AtomicLong reads = new AtomicLong();
+		ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+		try {
+			Future<?>[] readers = new Future<?>[READERS];
+			for (int r = 0; r < READERS; r++) {
+				int reader = r;
+				readers[r] = executor.submit(() -> {
+					PriceQuote[] quotes = new PriceQuote[symbolIds.length];
+					for (int i = 0; i < quotes.length; i++) {
+						quotes[i] = new PriceQuote();
+					}
+					PriceQuote quote = new PriceQuote();
+					double last = 0;
+					while (!writerDone.get()) {
+						switch (reader % 3) {
+							case 0 -> {
+								priceBook.read(symbolIds, quotes);
+								double price = quotes[0].getPrice();
+								for (PriceQuote read : quotes) {
+									assertBatch(price, read);
+								}
+								assertTrue(price >= last, "batches are seen in order");
+								last = price;
+							}
+							case 1 -> {
+								Map<String, Double> snapshot = priceBook.snapshot();
+								if (!snapshot.isEmpty()) {
+									assertEquals(symbols.size(), snapshot.size());
+									double price = snapshot.get(symbols.get(0));
+									snapshot.values().forEach(value -> assertEquals(price, value));
+									assertTrue(price >= last, "batches are seen in order");
+									last = price;
+								}
+							}
+							default -> {
+								for (int symbolId : symbolIds) {
+									if (priceBook.read(symbolId, quote)) {
+										assertBatch(quote.getPrice(), quote);
+									}
+								}
+							}
+						}
+						reads.incrementAndGet();
+					}
+				});
+			}
+
+			TickBatch batch = new TickBatch(symbolIds.length);
+			for (int n = 1; n <= BATCHES; n++) {
+				batch.clear();
+				for (int symbolId : symbolIds) {
+					batch.add(symbolId, n);
+				}
+				priceBook.apply(batch, n);
+			}
+			writerDone.set(true);
+
+			for (Future<?> reader : readers) {
+				reader.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertTrue(reads.get() > 0);
+		for (int symbolId : symbolIds) {
+			assertEquals(BATCHES, priceBook.price(symbolId));
+			assertEquals(BATCHES, priceBook.timestamp(symbolId));
+		}
+	}
+
+	private static void assertBatch(double price, PriceQuote quote) {
+		assertEquals(price, quote.getPrice(), "every symbol of a read is from the same batch");
+		assertEquals((long) price, quote.getTimestamp());
+		assertEquals((long) price, quote.getSequence());
+	}
+}
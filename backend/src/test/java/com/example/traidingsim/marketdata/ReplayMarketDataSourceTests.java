@@ -0,0 +1,121 @@
+package com.example.traidingsim.marketdata;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayMarketDataSourceTests {
+
+	private static final List<String> FRAMES = List.of(
+			"{\"channel\":\"ticker\",\"type\":\"snapshot\",\"data\":[{\"symbol\":\"BTC/USD\",\"last\":64000.5}]}",
+			"{\"channel\":\"heartbeat\"}",
+			"{\"channel\":\"book\",\"type\":\"update\",\"data\":[{\"symbol\":\"ETH/USD\","
+					+ "\"bids\":[{\"price\":3000.1,\"qty\":2.5}],\"asks\":[]}]}",
+			"{\"channel\":\"ticker\",\"type\":\"update\",\"data\":[{\"symbol\":\"ETH/USD\",\"last\":3000.25}]}");
+
+	@TempDir
+	Path directory;
+
+	private final List<MarketDataSource> sources = new ArrayList<>();
+
+	@AfterEach
+	void stop() {
+		sources.forEach(MarketDataSource::stop);
+	}
+
+	@Test
+	void replaysTheFramesRecordedFromTheLiveFeed() throws Exception {
+		Path recording = directory.resolve("kraken.jsonl");
+		SymbolRegistry symbolRegistry = new SymbolRegistry();
+		FeedMonitor feedMonitor = new FeedMonitor(new PriceBook(symbolRegistry), symbolRegistry, 10_000, 200, 0);
+		BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+		try (FakeKrakenServer server = new FakeKrakenServer(0)) {
+			KrakenMarketDataSource live = new KrakenMarketDataSource(new ObjectMapper(), new OrderBooks(0),
+					feedMonitor, server.uri(), recording.toString(), 20, 1_000);
+			sources.add(live);
+			live.start(received::add);
+			assertNotNull(server.awaitMessage(5, TimeUnit.SECONDS), "subscription received");
+
+			for (String frame : FRAMES) {
+				server.send(frame);
+			}
+			for (String frame : FRAMES) {
+				assertEquals(frame, received.poll(5, TimeUnit.SECONDS));
+			}
+			live.stop();
+		}
+
+		List<String> replayed = Collections.synchronizedList(new ArrayList<>());
+		ReplayMarketDataSource replay = replay(recording, 0, false);
+		replay.start(replayed::add);
+		await(() -> replayed.size() == FRAMES.size());
+
+		assertEquals(FRAMES, replayed);
+		Thread.sleep(50);
+		assertEquals(FRAMES.size(), replay.getFramesEmitted(), "an exhausted replay stops");
+	}
+
+	@Test
+	void loopsOverTheFileSkippingBlankLines() throws Exception {
+		Path recording = directory.resolve("loop.jsonl");
+		Files.write(recording, List.of(FRAMES.get(0), "", FRAMES.get(1), "  "));
+
+		BlockingQueue<String> replayed = new LinkedBlockingQueue<>();
+		replay(recording, 0, true).start(replayed::add);
+
+		for (int pass = 0; pass < 3; pass++) {
+			assertEquals(FRAMES.get(0), replayed.poll(5, TimeUnit.SECONDS));
+			assertEquals(FRAMES.get(1), replayed.poll(5, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	void pacesFramesToTheConfiguredRate() throws Exception {
+		int rate = 100;
+		int frames = 50;
+		Path recording = directory.resolve("paced.jsonl");
+		Files.write(recording, Collections.nCopies(frames, FRAMES.get(0)));
+
+		List<Long> arrivals = Collections.synchronizedList(new ArrayList<>());
+		ReplayMarketDataSource replay = replay(recording, rate, false);
+		long start = System.nanoTime();
+		replay.start(frame -> arrivals.add(System.nanoTime() - start));
+		await(() -> arrivals.size() == frames);
+
+		// Frame n is only due once n + 1 frames' worth of time has passed
+		for (int n = 0; n < frames; n++) {
+			long due = TimeUnit.SECONDS.toNanos(n + 1) / rate;
+			assertTrue(arrivals.get(n) >= due, "frame " + n + " at " + arrivals.get(n) + " ns, due at " + due);
+		}
+		long elapsed = arrivals.get(frames - 1);
+		assertTrue(elapsed < TimeUnit.SECONDS.toNanos(3), "the replay keeps up with its rate, took " + elapsed);
+	}
+
+	private ReplayMarketDataSource replay(Path file, long framesPerSecond, boolean loop) {
+		ReplayMarketDataSource replay = new ReplayMarketDataSource(file, framesPerSecond, loop);
+		sources.add(replay);
+		return replay;
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "condition not met in time");
+			Thread.sleep(10);
+		}
+	}
+}
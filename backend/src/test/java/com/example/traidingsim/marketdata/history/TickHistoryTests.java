@@ -0,0 +1,186 @@
+package com.example.traidingsim.marketdata.history;
+
+import com.example.traidingsim.exception.InvalidRequestException;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickHistoryTests {
+
+	private static final long START = 1_700_000_000_000L;
+	private static final long TICK_INTERVAL_MS = 250;
+	private static final int TICKS = 40_000;
+	private static final long MAX_ROLL_UP_TICKS = 10_000_000;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void candlesMatchTicksAcrossMemoryAndDisk() throws Exception {
+		SymbolRegistry symbolRegistry = new SymbolRegistry();
+		int btc = symbolRegistry.idOf("BTC/USD");
+		// Ticks arrive in a burst far faster than from a feed, so the spill queue holds every block
+		TickHistory history = history(symbolRegistry, 256, 1024, MAX_ROLL_UP_TICKS);
+
+		SplittableRandom random = new SplittableRandom(3);
+		long[] timestamps = new long[TICKS];
+		double[] prices = new double[TICKS];
+		TickBatch batch = new TickBatch();
+		double price = 60_000;
+		for (int i = 0; i < TICKS; i++) {
+			price *= Math.exp(0.001 * random.nextGaussian());
+			timestamps[i] = START + i * TICK_INTERVAL_MS + random.nextLong(TICK_INTERVAL_MS);
+			prices[i] = price;
+			batch.clear();
+			batch.add(btc, price);
+			history.record(batch, timestamps[i]);
+		}
+		history.shutdown();
+		try (Stream<Path> segments = Files.list(directory.resolve("BTC_USD"))) {
+			assertTrue(segments.count() > 1, "ticks were spilled to segments");
+		}
+
+		long end = timestamps[TICKS - 1] + 1;
+		for (CandleInterval interval : CandleInterval.values()) {
+			List<Candle> expected = rollUp(timestamps, prices, interval);
+			assertEquals(expected, history.candles(btc, interval, START, end, Integer.MAX_VALUE), interval.getLabel());
+		}
+
+		// Over 2.7 hours of ticks: only the latest hour of 1s candles is held in memory
+		List<Candle> latest = history.candles(btc, CandleInterval.SECOND, START, end, 10);
+		List<Candle> all = rollUp(timestamps, prices, CandleInterval.SECOND);
+		assertEquals(all.subList(all.size() - 10, all.size()), latest);
+		assertEquals(List.of(), history.candles(symbolRegistry.idOf("ETH/USD"), CandleInterval.MINUTE, START, end, 10));
+	}
+
+	@Test
+	void tapeMergesSymbolsInTimeOrder() throws Exception {
+		SymbolRegistry symbolRegistry = new SymbolRegistry();
+		int btc = symbolRegistry.idOf("BTC/USD");
+		int eth = symbolRegistry.idOf("ETH/USD");
+		TickHistory history = history(symbolRegistry, 64, 1024, MAX_ROLL_UP_TICKS);
+
+		TickBatch batch = new TickBatch();
+		for (int i = 0; i < 1_000; i++) {
+			batch.clear();
+			if (i % 3 != 0) {
+				batch.add(btc, 60_000 + i);
+			}
+			batch.add(eth, 3_000 + i);
+			history.record(batch, START + i);
+		}
+		history.shutdown();
+
+		TickTape tape = history.tape(new int[]{btc, eth}, START + 100, START + 900, Long.MAX_VALUE);
+		int expected = 0;
+		for (int i = 100; i < 900; i++) {
+			if (i % 3 != 0) {
+				assertEquals(START + i, tape.timestamp(expected));
+				assertEquals(btc, tape.symbolId(expected));
+				assertEquals(60_000 + i, tape.price(expected++));
+			}
+			assertEquals(START + i, tape.timestamp(expected));
+			assertEquals(eth, tape.symbolId(expected));
+			assertEquals(3_000 + i, tape.price(expected++));
+		}
+		assertEquals(expected, tape.size());
+
+		int ticks = expected;
+		assertEquals(ticks, history.tape(new int[]{btc, eth}, START + 100, START + 900, ticks).size());
+		InvalidRequestException tooMany = assertThrows(InvalidRequestException.class,
+				() -> history.tape(new int[]{btc, eth}, START + 100, START + 900, ticks - 1));
+		assertTrue(tooMany.getMessage().contains("more than " + (ticks - 1)), tooMany.getMessage());
+	}
+
+	@Test
+	void dropsTheOldestBlocksWhenSpillsFallBehind() throws Exception {
+		SymbolRegistry symbolRegistry = new SymbolRegistry();
+		int btc = symbolRegistry.idOf("BTC/USD");
+		// Every 4 ticks make a segment file, far more than the spill thread writes while they are recorded
+		TickHistory history = history(symbolRegistry, 4, 1, MAX_ROLL_UP_TICKS);
+
+		TickBatch batch = new TickBatch();
+		for (int i = 0; i < 20_000; i++) {
+			batch.clear();
+			batch.add(btc, 60_000 + i);
+			history.record(batch, START + i);
+		}
+		history.shutdown();
+
+		assertTrue(history.getDroppedBlocks() > 0);
+		TickTape tape = history.tape(new int[]{btc}, START, START + 20_000, Long.MAX_VALUE);
+		assertTrue(tape.size() < 20_000);
+		for (int i = 1; i < tape.size(); i++) {
+			assertTrue(tape.timestamp(i) > tape.timestamp(i - 1), "spilled blocks keep their order");
+		}
+		assertEquals(60_000 + 19_999, tape.price(tape.size() - 1), "the latest ticks are kept");
+	}
+
+	@Test
+	void rollUpsReadOnlyTheRequestedIntervalsAndStopAtTheTickLimit() throws Exception {
+		SymbolRegistry symbolRegistry = new SymbolRegistry();
+		int btc = symbolRegistry.idOf("BTC/USD");
+		TickHistory history = history(symbolRegistry, 256, 1024, 1_000);
+
+		// 4 ticks a second for 2 hours: the 1s candles of the first hour are only on disk
+		int ticks = 4 * 7_200;
+		long[] timestamps = new long[ticks];
+		double[] prices = new double[ticks];
+		TickBatch batch = new TickBatch();
+		for (int i = 0; i < ticks; i++) {
+			timestamps[i] = START + i * TICK_INTERVAL_MS;
+			prices[i] = 60_000 + i;
+			batch.clear();
+			batch.add(btc, prices[i]);
+			history.record(batch, timestamps[i]);
+		}
+		history.shutdown();
+
+		List<Candle> all = rollUp(timestamps, prices, CandleInterval.SECOND);
+		long to = START + 1_800_000;
+		int index = (int) ((to - START) / 1_000);
+		assertEquals(all.subList(index - 100, index), history.candles(btc, CandleInterval.SECOND, START, to, 100),
+				"400 ticks rolled up from disk");
+
+		InvalidRequestException tooMany = assertThrows(InvalidRequestException.class,
+				() -> history.candles(btc, CandleInterval.SECOND, START, to, 1_000));
+		assertTrue(tooMany.getMessage().contains("more than 1000"), tooMany.getMessage());
+	}
+
+	private TickHistory history(SymbolRegistry symbolRegistry, int blockSize, int spillQueueBlocks,
+								long maxRollUpTicks) {
+		return new TickHistory(symbolRegistry, blockSize, directory.toString(), 24 * 365 * 100, spillQueueBlocks,
+				maxRollUpTicks);
+	}
+
+	private static List<Candle> rollUp(long[] timestamps, double[] prices, CandleInterval interval) {
+		List<Candle> candles = new ArrayList<>();
+		int i = 0;
+		while (i < timestamps.length) {
+			long openTime = timestamps[i] - timestamps[i] % interval.getMillis();
+			double open = prices[i];
+			double high = open;
+			double low = open;
+			int count = 0;
+			int j = i;
+			for (; j < timestamps.length && timestamps[j] < openTime + interval.getMillis(); j++) {
+				high = Math.max(high, prices[j]);
+				low = Math.min(low, prices[j]);
+				count++;
+			}
+			candles.add(new Candle(openTime, open, high, low, prices[j - 1], count));
+			i = j;
+		}
+		return candles;
+	}
+}
@@ -0,0 +1,75 @@
+package com.example.traidingsim.service;
+
+import com.example.traidingsim.backtest.Backtester;
+import com.example.traidingsim.exception.InvalidRequestException;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import com.example.traidingsim.marketdata.history.TickHistory;
+import com.example.traidingsim.marketdata.history.TickTape;
+import com.example.traidingsim.model.dto.BacktestResultDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BacktestServiceTests {
+
+	private static final Instant START = Instant.ofEpochMilli(1_700_000_000_000L);
+	private static final int MAX_TICKS = 100;
+
+	private final SymbolRegistry symbolRegistry = new SymbolRegistry();
+	private final TickHistory tickHistory = mock(TickHistory.class);
+	private final BacktestService backtestService = new BacktestService(new Backtester(symbolRegistry), tickHistory,
+			symbolRegistry, 1, 24, MAX_TICKS);
+
+	@Test
+	void sweepsRangesWithinTheCaps() {
+		when(tickHistory.tape(any(), anyLong(), anyLong(), eq((long) MAX_TICKS))).thenReturn(tape(MAX_TICKS));
+
+		List<BacktestResultDTO> results = sweep(START, START.plus(Duration.ofHours(24)));
+
+		assertEquals(1, results.size());
+		assertEquals(MAX_TICKS, results.get(0).getTicks());
+	}
+
+	@Test
+	void rejectsRangesTooLongOrEmptyBeforeReadingTicks() {
+		assertThrows(InvalidRequestException.class, () -> sweep(START, START.plus(Duration.ofHours(25))));
+		assertThrows(InvalidRequestException.class, () -> sweep(START, START));
+		verifyNoInteractions(tickHistory);
+	}
+
+	@Test
+	void rejectsRangesWithTooManyTicks() throws Exception {
+		TickHistory history = new TickHistory(symbolRegistry, 1_024, "", 24, 1, 10_000_000);
+		TickBatch batch = new TickBatch();
+		for (int i = 0; i <= MAX_TICKS; i++) {
+			batch.clear();
+			batch.add(symbolRegistry.idOf("BTC/USD"), 100.0 + i % 7);
+			history.record(batch, START.toEpochMilli() + i);
+		}
+		BacktestService service = new BacktestService(new Backtester(symbolRegistry), history, symbolRegistry, 1, 24,
+				MAX_TICKS);
+
+		assertThrows(InvalidRequestException.class, () -> service.sweepMovingAverageCross("BTC", START,
+				START.plus(Duration.ofHours(1)), List.of(2), List.of(5), 0.01, 10_000.0));
+		history.shutdown();
+	}
+
+	private List<BacktestResultDTO> sweep(Instant from, Instant to) {
+		return backtestService.sweepMovingAverageCross("BTC", from, to, List.of(2), List.of(5), 0.01, 10_000.0);
+	}
+
+	private TickTape tape(int ticks) {
+		TickTape tape = new TickTape();
+		for (int i = 0; i < ticks; i++) {
+			tape.add(START.toEpochMilli() + i, symbolRegistry.idOf("BTC/USD"), 100.0 + i % 7);
+		}
+		return tape;
+	}
+}
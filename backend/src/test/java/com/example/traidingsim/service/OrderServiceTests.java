@@ -0,0 +1,157 @@
+package com.example.traidingsim.service;
+
+import com.example.traidingsim.engine.OrderTriggerIndex;
+import com.example.traidingsim.engine.TradeEngine;
+import com.example.traidingsim.engine.TradePersister;
+import com.example.traidingsim.engine.TradeShards;
+import com.example.traidingsim.exception.OrderNotFoundException;
+import com.example.traidingsim.marketdata.L2Book;
+import com.example.traidingsim.marketdata.OrderBooks;
+import com.example.traidingsim.marketdata.PriceBook;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import com.example.traidingsim.model.dto.OrderDTO;
+import com.example.traidingsim.model.enumeration.OrderStatus;
+import com.example.traidingsim.model.enumeration.OrderType;
+import com.example.traidingsim.model.enumeration.Type;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderServiceTests {
+
+	private static final long ACCOUNT_ID = 1;
+
+	private final SymbolRegistry symbolRegistry = new SymbolRegistry();
+	private final PriceBook priceBook = new PriceBook(symbolRegistry);
+	private final OrderBooks orderBooks = new OrderBooks(5);
+	private final TradeShards tradeShards = new TradeShards(2);
+	private final TradeEngine tradeEngine = new TradeEngine(priceBook, orderBooks, symbolRegistry, TradePersister.NONE);
+	private OrderService orderService = new OrderService(tradeEngine, tradeShards, symbolRegistry,
+			new OrderTriggerIndex(), 0);
+	private final int btc = symbolRegistry.idOf("BTC/USD");
+
+	@AfterEach
+	void tearDown() {
+		tradeShards.close();
+	}
+
+	@Test
+	void limitBuyRestsWhileWalkingTheBookWouldFillAboveTheLimit() {
+		tradeEngine.loadAccount(ACCOUNT_ID, 10_000.0, Map.of());
+		orderService.placeOrder(ACCOUNT_ID, "BTC", OrderType.LIMIT, Type.BUY, 2, 104);
+
+		// The last price triggers the order, but 2 BTC fill at 105 on average: 1 at 100 and 1 at 110
+		setAsks(new double[]{100, 110}, new double[]{1, 1});
+		tick(100);
+		assertEquals(10_000.0, tradeEngine.balance(ACCOUNT_ID));
+		assertEquals(1, orderService.getOpenOrders(ACCOUNT_ID).size());
+
+		setAsks(new double[]{100, 110}, new double[]{2, 1});
+		tick(100);
+		assertEquals(9_800.0, tradeEngine.balance(ACCOUNT_ID));
+		assertEquals(2.0, tradeEngine.holding(ACCOUNT_ID, "BTC"));
+		assertEquals(0, orderService.getOpenOrders(ACCOUNT_ID).size());
+	}
+
+	@Test
+	void limitSellRestsWhileWalkingTheBookWouldFillBelowTheLimit() {
+		tradeEngine.loadAccount(ACCOUNT_ID, 0.0, Map.of("BTC", 2.0));
+		orderService.placeOrder(ACCOUNT_ID, "BTC", OrderType.LIMIT, Type.SELL, 2, 96);
+
+		// 2 BTC fill at 95 on average: 1 at 100 and 1 at 90
+		setBids(new double[]{100, 90}, new double[]{1, 1});
+		tick(100);
+		assertEquals(2.0, tradeEngine.holding(ACCOUNT_ID, "BTC"));
+		assertEquals(1, orderService.getOpenOrders(ACCOUNT_ID).size());
+
+		setBids(new double[]{100, 98}, new double[]{1, 1});
+		tick(100);
+		assertEquals(198.0, tradeEngine.balance(ACCOUNT_ID));
+		assertEquals(0, orderService.getOpenOrders(ACCOUNT_ID).size());
+	}
+
+	@Test
+	void limitOrderTheBookCannotFillWaitsBeforeItIsRetried() {
+		orderService = new OrderService(tradeEngine, tradeShards, symbolRegistry, new OrderTriggerIndex(), 60_000);
+		tradeEngine.loadAccount(ACCOUNT_ID, 10_000.0, Map.of());
+		long orderId = orderService.placeOrder(ACCOUNT_ID, "BTC", OrderType.LIMIT, Type.BUY, 2, 104).getId();
+
+		setAsks(new double[]{100, 110}, new double[]{1, 1});
+		tick(100);
+		setAsks(new double[]{100, 110}, new double[]{2, 1});
+		tick(100);
+		assertEquals(10_000.0, tradeEngine.balance(ACCOUNT_ID), "not run again on the next tick");
+		assertEquals(OrderStatus.OPEN, orderService.getOrder(ACCOUNT_ID, orderId).getStatus());
+		assertEquals(1, orderService.getOpenOrders(ACCOUNT_ID).size(), "still open while it waits");
+
+		assertEquals(OrderStatus.CANCELLED, orderService.cancelOrder(ACCOUNT_ID, orderId).getStatus());
+		assertEquals(0, orderService.getOpenOrders(ACCOUNT_ID).size());
+	}
+
+	@Test
+	void cancelledOrdersAreNotPutBackToRest() {
+		tradeEngine.loadAccount(ACCOUNT_ID, 10_000.0, Map.of());
+		long orderId = orderService.placeOrder(ACCOUNT_ID, "BTC", OrderType.LIMIT, Type.BUY, 2, 104).getId();
+		setAsks(new double[]{100, 110}, new double[]{1, 1});
+		tick(100);
+
+		// As on an account reset, while the order waits to be retried
+		orderService.cancelOrders(ACCOUNT_ID);
+		setAsks(new double[]{100, 110}, new double[]{2, 1});
+		tick(100);
+
+		assertEquals(10_000.0, tradeEngine.balance(ACCOUNT_ID));
+		assertEquals(OrderStatus.CANCELLED, orderService.getOrder(ACCOUNT_ID, orderId).getStatus());
+		assertThrows(OrderNotFoundException.class, () -> orderService.cancelOrder(ACCOUNT_ID, orderId));
+	}
+
+	@Test
+	void rejectedOrdersReportWhy() {
+		tradeEngine.loadAccount(ACCOUNT_ID, 10.0, Map.of());
+		long orderId = orderService.placeOrder(ACCOUNT_ID, "BTC", OrderType.LIMIT, Type.BUY, 1, 104).getId();
+
+		setAsks(new double[]{100}, new double[]{1});
+		tick(100);
+
+		OrderDTO order = orderService.getOrder(ACCOUNT_ID, orderId);
+		assertEquals(OrderStatus.REJECTED, order.getStatus());
+		assertNotNull(order.getReason());
+		assertEquals(0, orderService.getOpenOrders(ACCOUNT_ID).size());
+		assertThrows(OrderNotFoundException.class, () -> orderService.getOrder(ACCOUNT_ID + 1, orderId));
+	}
+
+	private void setAsks(double[] prices, double[] quantities) {
+		L2Book book = orderBooks.book(btc);
+		book.beginUpdate();
+		book.clear();
+		for (int i = 0; i < prices.length; i++) {
+			book.updateAsk(prices[i], quantities[i]);
+		}
+		book.endUpdate();
+	}
+
+	private void setBids(double[] prices, double[] quantities) {
+		L2Book book = orderBooks.book(btc);
+		book.beginUpdate();
+		book.clear();
+		for (int i = 0; i < prices.length; i++) {
+			book.updateBid(prices[i], quantities[i]);
+		}
+		book.endUpdate();
+	}
+
+	/**
+	 * Apply a tick and wait until the orders it triggered have been executed on the account's shard.
+	 */
+	private void tick(double price) {
+		TickBatch batch = new TickBatch();
+		batch.add(btc, price);
+		priceBook.apply(batch, System.currentTimeMillis());
+		orderService.onPrices(batch);
+		tradeShards.submit(ACCOUNT_ID, () -> {}).join();
+	}
+}
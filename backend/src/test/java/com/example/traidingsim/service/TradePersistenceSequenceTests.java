@@ -0,0 +1,189 @@
+package com.example.traidingsim.service;
+
+import com.example.traidingsim.engine.AccountSnapshot;
+import com.example.traidingsim.engine.TradeRecord;
+import com.example.traidingsim.metrics.StatementCounter;
+import com.example.traidingsim.metrics.TradingMetrics;
+import com.example.traidingsim.model.Account;
+import com.example.traidingsim.model.Transaction;
+import com.example.traidingsim.repository.AccountRepository;
+import com.example.traidingsim.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.example.traidingsim.model.enumeration.Type.BUY;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the persister against the database, committing, so that every instance started here sees the rows written
+ * before it as a restarted application would.
+ */
+@DataJpaTest
+@Import(StatementCounter.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TradePersistenceSequenceTests {
+
+	private static final int TRADES = Transaction.ID_ALLOCATION_SIZE + 100;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	TransactionRepository transactionRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	StatementCounter statementCounter;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@BeforeEach
+	@AfterEach
+	void deleteRows() {
+		jdbcTemplate.update("delete from transactions");
+		jdbcTemplate.update("delete from crypto_holdings");
+		jdbcTemplate.update("delete from account");
+	}
+
+	@Test
+	void idsOfANewRunNeverCollideWithRowsOfAnOlderDatabase() throws Exception {
+		// Rows with IDENTITY IDs the sequences know nothing of
+		long legacyAccountId = nextValue("account_seq") + 40;
+		long legacyTransactionId = nextValue("transactions_seq") + 1_234;
+		jdbcTemplate.update("insert into account (id, balance) values (?, ?)", legacyAccountId, 1_000.0);
+		List<Long> legacyIds = List.of(legacyTransactionId - 1_000, legacyTransactionId - 1, legacyTransactionId);
+		for (long id : legacyIds) {
+			jdbcTemplate.update("insert into transactions (id, account_id, crypto, amount, price, total, type,"
+					+ " executed_at, date_time) values (?, ?, 'BTC', 1, 10, 10, 'BUY', current_timestamp, '')",
+					id, legacyAccountId);
+		}
+
+		TradePersistenceService persister = persister();
+		persister.start();
+		try {
+			Account account = accountRepository.save(new Account(1_000.0));
+			assertTrue(account.getId() > legacyAccountId);
+
+			persister.tradesExecuted(trades(legacyAccountId, TRADES), snapshot(legacyAccountId, TRADES + 1));
+			persister.flush();
+		} finally {
+			persister.stop();
+		}
+
+		List<Long> ids = ids();
+		assertEquals(TRADES + 3, ids.size());
+		assertEquals(ids.size(), new HashSet<>(ids).size());
+		assertTrue(ids.containsAll(legacyIds));
+		// IDs left in a block fetched by an earlier test are below the legacy rows, every block fetched now past them
+		assertTrue(ids.stream().filter(id -> id > legacyTransactionId).count()
+				>= TRADES - Transaction.ID_ALLOCATION_SIZE);
+		assertNoFailedBatches();
+	}
+
+	@Test
+	void restartsContinuePastThePooledIdsOfTheRunBefore() throws Exception {
+		long accountId = accountRepository.save(new Account(1_000.0)).getId();
+
+		Set<Long> seen = new HashSet<>();
+		for (int run = 1; run <= 3; run++) {
+			long before = ids().stream().mapToLong(Long::longValue).max().orElse(0);
+			TradePersistenceService persister = persister();
+			persister.start();
+			try {
+				persister.tradesExecuted(trades(accountId, TRADES), snapshot(accountId, run * TRADES));
+				persister.flush();
+			} finally {
+				persister.stop();
+			}
+
+			List<Long> written = ids().stream().filter(id -> !seen.contains(id)).toList();
+			assertEquals(TRADES, written.size(), "run " + run);
+			assertTrue(written.stream().allMatch(id -> id > before), "run " + run + " writes past every earlier ID");
+			seen.addAll(written);
+		}
+		assertEquals(3 * TRADES, transactionRepository.count());
+		assertNoFailedBatches();
+		assertEquals(Map.of("BTC", 3.0 * TRADES), accountRepository.findById(accountId).orElseThrow()
+				.getCryptoHoldings());
+	}
+
+	@Test
+	void insertsAreSentAsJdbcBatches() throws Exception {
+		long accountId = accountRepository.save(new Account(1_000.0)).getId();
+		TradePersistenceService persister = persister();
+		persister.start();
+		try {
+			persister.tradesExecuted(trades(accountId, TRADES), snapshot(accountId, TRADES));
+			persister.flush();
+		} finally {
+			persister.stop();
+		}
+
+		assertEquals(TRADES, transactionRepository.count());
+		double statements = meterRegistry.counter("trading.persistence.statements").count();
+		// Two sequence calls, two insert batches, the account with its holdings, and the commit
+		assertTrue(statements < 20, statements + " round trips for " + TRADES + " trades");
+		assertNoFailedBatches();
+	}
+
+	private TradePersistenceService persister() {
+		TradePersistenceService persister = new TradePersistenceService(accountRepository, transactionRepository,
+				new TransactionTemplate(transactionManager), jdbcTemplate, new TradingMetrics(meterRegistry),
+				statementCounter, 100_000);
+		ReflectionTestUtils.setField(persister, "batchSize", 500);
+		ReflectionTestUtils.setField(persister, "durability", TradePersistenceService.DURABILITY_SYNC);
+		ReflectionTestUtils.setField(persister, "maxRetries", 10);
+		return persister;
+	}
+
+	/**
+	 * A batch that failed, on a duplicate ID for one, would be retried until it commits, so check it never had to be.
+	 */
+	private void assertNoFailedBatches() {
+		assertEquals(0, meterRegistry.counter("trading.persistence.failures").count());
+	}
+
+	private long nextValue(String sequence) {
+		return jdbcTemplate.queryForObject(
+				"select base_value from information_schema.sequences where sequence_name = upper(?)", Long.class,
+				sequence);
+	}
+
+	private List<Long> ids() {
+		return jdbcTemplate.queryForList("select id from transactions", Long.class);
+	}
+
+	private static List<TradeRecord> trades(long accountId, int count) {
+		List<TradeRecord> trades = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			trades.add(new TradeRecord(accountId, "BTC", 1, 1.0, 1.0, BUY, System.currentTimeMillis()));
+		}
+		return trades;
+	}
+
+	private static AccountSnapshot snapshot(long accountId, double holding) {
+		return new AccountSnapshot(accountId, 1_000.0, Map.of("BTC", holding));
+	}
+}
@@ -0,0 +1,216 @@
+package com.example.traidingsim.service;
+
+import com.example.traidingsim.engine.AccountSnapshot;
+import com.example.traidingsim.engine.TradeRecord;
+import com.example.traidingsim.metrics.StatementCounter;
+import com.example.traidingsim.metrics.TradingMetrics;
+import com.example.traidingsim.model.Account;
+import com.example.traidingsim.model.Transaction;
+import com.example.traidingsim.repository.AccountRepository;
+import com.example.traidingsim.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static com.example.traidingsim.model.enumeration.Type.BUY;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TradePersistenceServiceTests {
+
+	private static final long ACCOUNT_ID = 1;
+	private static final int QUEUE_CAPACITY = 1_000;
+	private static final String UNWRITABLE = "BAD";
+
+	private final AccountRepository accountRepository = mock(AccountRepository.class);
+	private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final List<Integer> savedTransactions = new ArrayList<>();
+	private final AtomicInteger commits = new AtomicInteger();
+	private final AtomicInteger failuresLeft = new AtomicInteger();
+	private final Account account = new Account(1000.0);
+	private int maxRetries = 10;
+	private TradePersistenceService persister;
+
+	@AfterEach
+	void stop() throws InterruptedException {
+		persister.stop();
+	}
+
+	@Test
+	void writesQueuedTradesInOneBatchAndCompletesSyncFuturesOnCommit() {
+		persister = persister(TradePersistenceService.DURABILITY_SYNC);
+		List<CompletableFuture<Void>> persisted = new ArrayList<>();
+		for (int i = 1; i <= 3; i++) {
+			persisted.add(persister.tradeExecuted(trade(), snapshot(1000.0 - 10 * i)));
+		}
+		persisted.add(persister.tradesExecuted(List.of(trade(), trade()), snapshot(950.0)));
+		assertTrue(persisted.stream().noneMatch(CompletableFuture::isDone), "not acknowledged before the commit");
+
+		persister.start();
+		persisted.forEach(CompletableFuture::join);
+
+		assertEquals(1, commits.get(), "queued changes are written in one transaction");
+		assertEquals(List.of(5), savedTransactions);
+		assertEquals(950.0, account.getBalance());
+		assertEquals(Map.of("BTC", 5.0), account.getCryptoHoldings());
+	}
+
+	@Test
+	void asyncTradesAreAcknowledgedBeforeTheyAreWritten() {
+		persister = persister("async");
+
+		assertTrue(persister.tradeExecuted(trade(), snapshot(990.0)).isDone());
+
+		persister.start();
+		persister.flush();
+		assertEquals(1, commits.get());
+	}
+
+	@Test
+	void failedBatchIsRetriedUntilItCommitsAndNeverReportedAsFailed() {
+		persister = persister(TradePersistenceService.DURABILITY_SYNC);
+		failuresLeft.set(2);
+		CompletableFuture<Void> first = persister.tradeExecuted(trade(), snapshot(990.0));
+		CompletableFuture<Void> second = persister.tradeExecuted(trade(), snapshot(980.0));
+
+		persister.start();
+		first.join();
+		second.join();
+
+		assertFalse(first.isCompletedExceptionally() || second.isCompletedExceptionally());
+		assertEquals(1, commits.get());
+		assertEquals(List.of(2), savedTransactions);
+		assertEquals(980.0, account.getBalance());
+		assertEquals(2.0, meterRegistry.counter("trading.persistence.failures").count());
+	}
+
+	@Test
+	void permanentFailureSetsAsideOnlyTheChangesThatCannotBeWritten() {
+		persister = persister(TradePersistenceService.DURABILITY_SYNC);
+		CompletableFuture<Void> before = persister.tradeExecuted(trade(), snapshot(990.0));
+		CompletableFuture<Void> unwritable = persister.tradeExecuted(
+				new TradeRecord(ACCOUNT_ID, UNWRITABLE, 1, 10.0, 10.0, BUY, System.currentTimeMillis()), snapshot(980.0));
+		CompletableFuture<Void> after = persister.tradeExecuted(trade(), snapshot(970.0));
+
+		persister.start();
+		before.join();
+		after.join();
+
+		CompletionException failure = assertThrows(CompletionException.class, unwritable::join);
+		assertInstanceOf(DataIntegrityViolationException.class, failure.getCause());
+		assertEquals(List.of(1, 1), savedTransactions, "the other changes are written one at a time");
+		assertEquals(2, commits.get());
+		assertEquals(970.0, account.getBalance());
+		// The batch, then the change alone, neither retried
+		assertEquals(2.0, meterRegistry.counter("trading.persistence.failures").count());
+		assertEquals(1.0, meterRegistry.counter("trading.persistence.dropped").count());
+	}
+
+	@Test
+	void transientFailuresAreRetriedOnlyUpToTheLimit() {
+		maxRetries = 2;
+		persister = persister(TradePersistenceService.DURABILITY_SYNC);
+		failuresLeft.set(Integer.MAX_VALUE);
+		CompletableFuture<Void> persisted = persister.tradeExecuted(trade(), snapshot(990.0));
+
+		persister.start();
+
+		CompletionException failure = assertThrows(CompletionException.class, persisted::join);
+		assertInstanceOf(DataAccessResourceFailureException.class, failure.getCause());
+		assertEquals(3.0, meterRegistry.counter("trading.persistence.failures").count());
+		assertEquals(1.0, meterRegistry.counter("trading.persistence.dropped").count());
+
+		// Later changes are not held up
+		failuresLeft.set(0);
+		persister.tradeExecuted(trade(), snapshot(980.0)).join();
+		assertEquals(980.0, account.getBalance());
+	}
+
+	@Test
+	void fullQueuePushesBackOnTheTradePath() throws Exception {
+		persister = persister("async", 2);
+		persister.tradeExecuted(trade(), snapshot(990.0));
+		persister.tradeExecuted(trade(), snapshot(980.0));
+
+		CompletableFuture<Void> queued = CompletableFuture.runAsync(
+				() -> persister.tradeExecuted(trade(), snapshot(970.0)));
+		Thread.sleep(200);
+		assertFalse(queued.isDone(), "waits for room in the queue");
+
+		persister.start();
+		queued.get(5, TimeUnit.SECONDS);
+		persister.flush();
+		assertEquals(970.0, account.getBalance());
+	}
+
+	private TradePersistenceService persister(String durability) {
+		return persister(durability, QUEUE_CAPACITY);
+	}
+
+	private TradePersistenceService persister(String durability, int queueCapacity) {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		ReflectionTestUtils.setField(account, "id", ACCOUNT_ID);
+		when(accountRepository.findAllById(any())).thenAnswer(invocation ->
+				invocation.<Iterable<Long>>getArgument(0).iterator().hasNext() ? List.of(account) : List.of());
+		when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+			List<Transaction> transactions = invocation.getArgument(0);
+			if (transactions.stream().anyMatch(transaction -> UNWRITABLE.equals(transaction.getCrypto()))) {
+				throw new DataIntegrityViolationException("Constraint violated");
+			}
+			if (!transactions.isEmpty()) {
+				savedTransactions.add(transactions.size());
+			}
+			return transactions;
+		});
+		doAnswer(invocation -> {
+			List<Integer> saved = new ArrayList<>(savedTransactions);
+			try {
+				invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+				if (failuresLeft.getAndDecrement() > 0) {
+					throw new DataAccessResourceFailureException("Database unavailable");
+				}
+			} catch (RuntimeException e) {
+				// Rolled back
+				savedTransactions.clear();
+				savedTransactions.addAll(saved);
+				throw e;
+			}
+			commits.incrementAndGet();
+			return null;
+		}).when(transactionTemplate).executeWithoutResult(any());
+
+		TradePersistenceService service = new TradePersistenceService(accountRepository, transactionRepository,
+				transactionTemplate, jdbcTemplate, new TradingMetrics(meterRegistry), new StatementCounter(),
+				queueCapacity);
+		ReflectionTestUtils.setField(service, "batchSize", 500);
+		ReflectionTestUtils.setField(service, "durability", durability);
+		ReflectionTestUtils.setField(service, "maxRetries", maxRetries);
+		return service;
+	}
+
+	private static TradeRecord trade() {
+		return new TradeRecord(ACCOUNT_ID, "BTC", 1, 10.0, 10.0, BUY, System.currentTimeMillis());
+	}
+
+	private static AccountSnapshot snapshot(double balance) {
+		return new AccountSnapshot(ACCOUNT_ID, balance, Map.of("BTC", (1000.0 - balance) / 10));
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.traidingsim.service;
+
+import com.example.traidingsim.engine.PositionSnapshot;
+import com.example.traidingsim.engine.TradeEngine;
+import com.example.traidingsim.engine.TradePersister;
+import com.example.traidingsim.marketdata.PriceBook;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.metrics.TradingMetrics;
+import com.example.traidingsim.model.Account;
+import com.example.traidingsim.model.Transaction;
+import com.example.traidingsim.repository.AccountRepository;
+import com.example.traidingsim.repository.TransactionRepository;
+import com.example.traidingsim.websocket.KrakenWebSocketService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.traidingsim.model.enumeration.Type.BUY;
+import static com.example.traidingsim.model.enumeration.Type.SELL;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+class TradingServiceStartupTests {
+
+	private static final int TRADES = 2_500;
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	TransactionRepository transactionRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	EntityManager entityManager;
+
+	@Test
+	void rebuildsPositionsByStreamingTheStoredHistoryInOrder() {
+		Account account = new Account(1_000.0);
+		account.getCryptoHoldings().put("BTC/USD", 1.0);
+		account = accountRepository.save(account);
+		List<Transaction> transactions = new ArrayList<>();
+		for (int i = 0; i < TRADES; i++) {
+			// Buy 2 at 100, then sell 1 at 150: the order decides the average cost each sale realizes
+			boolean buy = i % 2 == 0;
+			Transaction transaction = new Transaction(i % 4 == 0 ? "BTC" : "BTC/USD", buy ? 2 : 1, buy ? 100 : 150,
+					buy ? 200 : 150, buy ? BUY : SELL, Instant.now());
+			transaction.setAccount(account);
+			transactions.add(transaction);
+		}
+		transactionRepository.saveAll(transactions);
+		entityManager.flush();
+		entityManager.clear();
+
+		SymbolRegistry symbolRegistry = new SymbolRegistry();
+		TradeEngine tradeEngine = new TradeEngine(new PriceBook(symbolRegistry), symbolRegistry, TradePersister.NONE);
+		new TradingService(mock(KrakenWebSocketService.class), accountRepository, transactionRepository, tradeEngine,
+				TradePersister.NONE, mock(OrderService.class), new TradingMetrics(new SimpleMeterRegistry()),
+				transactionManager);
+
+		assertEquals(1_000.0, tradeEngine.balance(account.getId()));
+		Map<String, PositionSnapshot> positions = tradeEngine.positions(account.getId());
+		assertEquals(List.of("BTC/USD"), List.copyOf(positions.keySet()));
+		PositionSnapshot position = positions.get("BTC/USD");
+		int sales = TRADES / 2;
+		assertEquals(2.0 * (TRADES - sales), position.amountBought());
+		assertEquals(sales, position.amountSold());
+		assertEquals(sales * 50.0, position.realizedProfitLoss(), 1e-6);
+	}
+}
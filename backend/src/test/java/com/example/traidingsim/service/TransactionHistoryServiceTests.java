@@ -0,0 +1,164 @@
+package com.example.traidingsim.service;
+
+import com.example.traidingsim.engine.TradeEngine;
+import com.example.traidingsim.exception.InvalidRequestException;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.model.Account;
+import com.example.traidingsim.model.Transaction;
+import com.example.traidingsim.model.dto.TransactionDTO;
+import com.example.traidingsim.model.dto.TransactionPageDTO;
+import com.example.traidingsim.model.enumeration.Type;
+import com.example.traidingsim.repository.AccountRepository;
+import com.example.traidingsim.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+class TransactionHistoryServiceTests {
+
+	private static final Instant START = Instant.parse("2024-05-01T12:00:00Z");
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	TransactionRepository transactionRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	EntityManager entityManager;
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+	private TransactionHistoryService historyService;
+	private long accountId;
+	private List<Transaction> transactions;
+
+	@BeforeEach
+	void setUp() {
+		Account account = accountRepository.save(new Account(10_000.0));
+		accountId = account.getId();
+		TradeEngine tradeEngine = mock(TradeEngine.class);
+		when(tradeEngine.hasAccount(accountId)).thenReturn(true);
+		historyService = new TransactionHistoryService(transactionRepository, tradeEngine, new SymbolRegistry(),
+				transactionManager, entityManager, objectMapper);
+
+		// Runs of equal execution times, so pages end in the middle of them. Stored under the aliases, as rows
+		// written before transactions kept the canonical symbol were
+		transactions = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			Instant executedAt = START.plusMillis(i / 7 * 1_000L);
+			Transaction transaction = new Transaction(i % 2 == 0 ? "BTC" : "ETH", 1, 100.0 + i, 100.0 + i,
+					i % 3 == 0 ? Type.SELL : Type.BUY, executedAt);
+			transaction.setAccount(account);
+			transactions.add(transaction);
+		}
+		transactionRepository.saveAll(transactions);
+		entityManager.flush();
+		entityManager.clear();
+		historyService.canonicalizeCryptos();
+	}
+
+	@Test
+	void pagesFollowTheirCursorsThroughEqualTimestampsWithoutGapsOrRepeats() {
+		List<Long> paged = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			TransactionPageDTO page = historyService.getPage(accountId, null, null, null, null, cursor, 3);
+			page.getTransactions().forEach(transaction -> paged.add(transaction.getId()));
+			assertTrue(page.getTransactions().size() == 3 || page.getNextCursor() == null);
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(7, pages);
+		assertEquals(ids(Comparator.comparing(Transaction::getExecutedAt).thenComparing(Transaction::getId).reversed()),
+				paged);
+	}
+
+	@Test
+	void cursorCarriesTheFiltersAcrossPages() {
+		TransactionPageDTO first = historyService.getPage(accountId, "BTC", Type.BUY, null, null, null, 2);
+		TransactionPageDTO second = historyService.getPage(accountId, "BTC/USD", Type.BUY, null, null,
+				first.getNextCursor(), 100);
+
+		List<Long> paged = new ArrayList<>();
+		first.getTransactions().forEach(transaction -> paged.add(transaction.getId()));
+		second.getTransactions().forEach(transaction -> paged.add(transaction.getId()));
+		List<Long> expected = transactions.stream()
+				.filter(transaction -> transaction.getCrypto().equals("BTC") && transaction.getType() == Type.BUY)
+				.sorted(Comparator.comparing(Transaction::getExecutedAt).thenComparing(Transaction::getId).reversed())
+				.map(Transaction::getId)
+				.toList();
+		assertEquals(expected, paged);
+		assertNull(second.getNextCursor());
+	}
+
+	@Test
+	void aliasRowsAreStoredAndFilteredUnderTheCanonicalSymbol() {
+		assertEquals(List.of("BTC/USD", "ETH/USD"), transactionRepository.findDistinctCryptos().stream().sorted()
+				.toList());
+
+		List<TransactionDTO> btc = historyService.getPage(accountId, "BTC", null, null, null, null, 100)
+				.getTransactions();
+		assertEquals(10, btc.size());
+		assertTrue(btc.stream().allMatch(transaction -> transaction.getCrypto().equals("BTC/USD")));
+		assertEquals(btc, historyService.getPage(accountId, "BTC/USD", null, null, null, null, 100).getTransactions());
+	}
+
+	@Test
+	void rejectsMalformedCursors() {
+		for (String cursor : List.of("", "garbage", "_12", "2024-05-01T12:00:00Z", "2024-05-01T12:00:00Z_",
+				"2024-05-01T12:00:00Z_x", "2024-13-01T12:00:00Z_12", "12_2024-05-01T12:00:00Z")) {
+			assertThrows(InvalidRequestException.class,
+					() -> historyService.getPage(accountId, null, null, null, null, cursor, 10), cursor);
+		}
+	}
+
+	@Test
+	void editedCursorOnlyMovesTheKeysetPosition() {
+		Transaction position = transactions.get(10);
+		String cursor = position.getExecutedAt() + "_" + position.getId();
+
+		List<Long> page = historyService.getPage(accountId, null, null, null, null, cursor, 100).getTransactions()
+				.stream().map(TransactionDTO::getId).toList();
+
+		assertEquals(ids(Comparator.comparing(Transaction::getExecutedAt).thenComparing(Transaction::getId).reversed())
+				.stream().filter(id -> id < position.getId()).toList(), page, "rows strictly older than the position");
+	}
+
+	@Test
+	void exportStreamsEveryMatchingTransactionOldestFirst() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		historyService.export(accountId, null, null, START.plusMillis(1_000), null).writeTo(out);
+
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		List<Long> exported = new ArrayList<>();
+		for (String line : lines) {
+			exported.add(objectMapper.readTree(line).get("id").asLong());
+		}
+		assertEquals(ids(Comparator.comparing(Transaction::getExecutedAt).thenComparing(Transaction::getId)).stream()
+				.filter(id -> id >= transactions.get(7).getId()).toList(), exported);
+	}
+
+	private List<Long> ids(Comparator<Transaction> order) {
+		return transactions.stream().sorted(order).map(Transaction::getId).toList();
+	}
+}
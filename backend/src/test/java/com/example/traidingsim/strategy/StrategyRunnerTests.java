@@ -0,0 +1,96 @@
+package com.example.traidingsim.strategy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class StrategyRunnerTests {
+
+	private final StrategyContext context = mock(StrategyContext.class);
+
+	@Test
+	void deliversUpdatesInOrderAndCountsFailures() throws Exception {
+		List<Double> prices = new ArrayList<>();
+		CountDownLatch stopped = new CountDownLatch(1);
+		Strategy strategy = new Strategy() {
+			@Override
+			public void onPrice(StrategyContext context, int symbolId, double price) {
+				prices.add(price);
+				if (price % 10 == 0) {
+					throw new IllegalStateException("rejected " + price);
+				}
+			}
+
+			@Override
+			public void stop(StrategyContext context) {
+				stopped.countDown();
+			}
+		};
+		StrategyRunner runner = new StrategyRunner("ordered", strategy, context, 1 << 16);
+		runner.start();
+
+		for (int i = 1; i <= 50_000; i++) {
+			assertTrue(runner.offer(0, i, System.nanoTime()));
+		}
+		awaitProcessed(runner, 50_000);
+		runner.stop(5, TimeUnit.SECONDS);
+
+		assertTrue(stopped.await(0, TimeUnit.SECONDS));
+		assertEquals(StrategyRunner.State.STOPPED, runner.getState());
+		assertEquals(50_000, prices.size());
+		for (int i = 0; i < prices.size(); i++) {
+			assertEquals(i + 1, prices.get(i));
+		}
+		assertEquals(5_000, runner.getErrors());
+		assertEquals("rejected 50000.0", runner.getLastError());
+		assertEquals(0, runner.getDropped());
+		assertTrue(runner.getMaxLatencyNanos() >= runner.getMeanLatencyNanos());
+	}
+
+	@Test
+	void slowStrategyDropsUpdatesInsteadOfBlockingTheFeed() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		Strategy strategy = (context, symbolId, price) -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		StrategyRunner runner = new StrategyRunner("slow", strategy, context, 100);
+		runner.start();
+		assertEquals(128, runner.getQueueCapacity());
+
+		long start = System.nanoTime();
+		int accepted = 0;
+		for (int i = 0; i < 100_000; i++) {
+			if (runner.offer(i % 20, i, System.nanoTime())) {
+				accepted++;
+			}
+		}
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "offering never waits on the strategy");
+		// The strategy holds at most one update while the queue fills
+		assertTrue(accepted <= 129, "accepted " + accepted);
+		assertEquals(100_000 - accepted, runner.getDropped());
+		assertEquals(128, runner.getMaxQueueDepth());
+
+		release.countDown();
+		awaitProcessed(runner, accepted);
+		runner.stop(5, TimeUnit.SECONDS);
+		assertEquals(0, runner.getQueueDepth());
+	}
+
+	private static void awaitProcessed(StrategyRunner runner, long count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (runner.getProcessed() < count) {
+			assertTrue(System.nanoTime() < deadline, "processed " + runner.getProcessed() + " of " + count);
+			Thread.sleep(5);
+		}
+	}
+}
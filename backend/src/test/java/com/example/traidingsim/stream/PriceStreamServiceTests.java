@@ -0,0 +1,140 @@
+package com.example.traidingsim.stream;
+
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import com.example.traidingsim.metrics.MarketDataMetrics;
+import com.example.traidingsim.model.enumeration.StreamBackpressure;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceStreamServiceTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final SymbolRegistry symbolRegistry = new SymbolRegistry();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final PriceStreamService service = new PriceStreamService(objectMapper, symbolRegistry,
+			new MarketDataMetrics(meterRegistry, symbolRegistry), 3_600_000);
+	private long sequence;
+
+	@Test
+	void startsWithTheLatestSnapshotOfEverySymbol() {
+		publish("BTC/USD", 60000.0);
+		publish("ETH/USD", 3000.0);
+
+		StepVerifier.create(service.prices(StreamBackpressure.LATEST, 1))
+				.assertNext(event -> {
+					assertEquals("prices", event.event());
+					assertEquals("2", event.id());
+					assertEquals(Map.of("BTC/USD", 60000.0, "ETH/USD", 3000.0), prices(event));
+				})
+				.then(() -> publish("BTC/USD", 60100.0))
+				.assertNext(event -> assertEquals(60100.0, prices(event).get("BTC/USD")))
+				.thenCancel()
+				.verify(TIMEOUT);
+		assertEquals(0.0, meterRegistry.get("market.data.stream.subscribers").gauge().value());
+	}
+
+	@Test
+	void latestSkipsSnapshotsWhileTheSubscriberIsBehind() {
+		List<ServerSentEvent<String>> skippedTo = new ArrayList<>();
+		publish("BTC/USD", 60000.0);
+
+		StepVerifier.create(service.prices(StreamBackpressure.LATEST, 1), 1)
+				.assertNext(event -> assertEquals("1", event.id()))
+				.then(() -> {
+					for (int i = 1; i <= 10; i++) {
+						publish("BTC/USD", 60000.0 + i);
+					}
+				})
+				.thenRequest(Long.MAX_VALUE)
+				.thenConsumeWhile(event -> !event.id().equals("11"), skippedTo::add)
+				.assertNext(event -> assertEquals("11", event.id()))
+				.then(() -> publish("BTC/USD", 70000.0))
+				.assertNext(event -> assertEquals("12", event.id()))
+				.thenCancel()
+				.verify(TIMEOUT);
+		// At most the one snapshot already handed downstream before the latest
+		assertTrue(skippedTo.size() <= 1, "Stale snapshots delivered: " + skippedTo.size());
+	}
+
+	@Test
+	void bufferEndsTheStreamWhenTheSubscriberFallsTooFarBehind() {
+		publish("BTC/USD", 60000.0);
+
+		StepVerifier.create(service.prices(StreamBackpressure.BUFFER, 4), 1)
+				.assertNext(event -> assertEquals("1", event.id()))
+				.then(() -> {
+					for (int i = 1; i <= 3; i++) {
+						publish("BTC/USD", 60000.0 + i);
+					}
+				})
+				.thenRequest(3)
+				.assertNext(event -> assertEquals("2", event.id()))
+				.assertNext(event -> assertEquals("3", event.id()))
+				.assertNext(event -> assertEquals("4", event.id()))
+				.then(() -> {
+					for (int i = 1; i <= 10; i++) {
+						publish("BTC/USD", 61000.0 + i);
+					}
+				})
+				.thenRequest(Long.MAX_VALUE)
+				.thenConsumeWhile(event -> true)
+				.expectComplete()
+				.verify(TIMEOUT);
+		assertEquals(1.0, meterRegistry.get("market.data.stream.overflows").counter().count());
+	}
+
+	@Test
+	void followSendsTheViewOnlyWhenItChanges() {
+		AtomicInteger view = new AtomicInteger(1);
+
+		StepVerifier.create(service.follow("portfolio", view::get))
+				.assertNext(event -> assertEquals("1", event.data()))
+				.then(() -> {
+					publish("BTC/USD", 60000.0);
+					view.set(2);
+					publish("BTC/USD", 60001.0);
+				})
+				.assertNext(event -> {
+					assertEquals("portfolio", event.event());
+					assertEquals("2", event.data());
+				})
+				.thenCancel()
+				.verify(TIMEOUT);
+	}
+
+	private void publish(String symbol, double price) {
+		TickBatch batch = new TickBatch();
+		batch.add(symbolRegistry.idOf(symbol), price);
+		service.publish(++sequence, System.currentTimeMillis(), batch);
+	}
+
+	private Map<String, Double> prices(ServerSentEvent<String> event) {
+		try {
+			JsonNode batch = objectMapper.readTree(event.data());
+			Map<String, Double> prices = new HashMap<>();
+			for (JsonNode price : batch.path("prices")) {
+				prices.put(price.path("symbol").asText(), price.path("price").asDouble());
+			}
+			return prices;
+		} catch (Exception e) {
+			throw new AssertionError(e);
+		}
+	}
+}
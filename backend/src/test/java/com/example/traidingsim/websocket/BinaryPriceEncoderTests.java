@@ -0,0 +1,51 @@
+package com.example.traidingsim.websocket;
+
+import com.example.traidingsim.marketdata.TickBatch;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryPriceEncoderTests {
+
+	@Test
+	void encodesTheHeaderAndOneRecordPerSymbol() {
+		TickBatch batch = new TickBatch();
+		batch.add(0, 64_250.5);
+		batch.add(7, 0.125);
+		batch.add(65_535, -1.0);
+
+		byte[] frame = BinaryPriceEncoder.encode(false, 0x0102030405060708L, 1_700_000_000_123L, batch);
+
+		assertEquals(20 + 3 * 10, frame.length);
+		ByteBuffer buffer = ByteBuffer.wrap(frame);
+		assertEquals(BinaryPriceEncoder.VERSION, buffer.get());
+		assertEquals(BinaryPriceEncoder.DELTA, buffer.get());
+		assertEquals(0x01, frame[2], "the sequence is big-endian");
+		assertEquals(0x0102030405060708L, buffer.getLong());
+		assertEquals(1_700_000_000_123L, buffer.getLong());
+		assertEquals(3, Short.toUnsignedInt(buffer.getShort()));
+
+		assertEquals(0, Short.toUnsignedInt(buffer.getShort()));
+		assertEquals(64_250.5, buffer.getDouble());
+		assertEquals(7, Short.toUnsignedInt(buffer.getShort()));
+		assertEquals(0.125, buffer.getDouble());
+		assertEquals(65_535, Short.toUnsignedInt(buffer.getShort()), "symbol IDs are unsigned");
+		assertEquals(-1.0, buffer.getDouble());
+		assertFalse(buffer.hasRemaining());
+	}
+
+	@Test
+	void flagsSnapshotsAndEncodesEmptyBatchesAsAHeader() {
+		byte[] frame = BinaryPriceEncoder.encode(true, 42, 1_000, new TickBatch());
+
+		assertEquals(20, frame.length);
+		ByteBuffer buffer = ByteBuffer.wrap(frame);
+		assertEquals(BinaryPriceEncoder.VERSION, buffer.get());
+		assertEquals(BinaryPriceEncoder.SNAPSHOT, buffer.get());
+		assertEquals(42, buffer.getLong());
+		assertEquals(1_000, buffer.getLong());
+		assertEquals(0, buffer.getShort());
+	}
+}
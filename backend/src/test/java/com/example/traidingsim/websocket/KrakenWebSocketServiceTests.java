@@ -0,0 +1,73 @@
+package com.example.traidingsim.websocket;
+
+import com.example.traidingsim.marketdata.FeedMonitor;
+import com.example.traidingsim.marketdata.MarketDataSource;
+import com.example.traidingsim.marketdata.OrderBooks;
+import com.example.traidingsim.marketdata.PriceBook;
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import com.example.traidingsim.marketdata.TickBatch;
+import com.example.traidingsim.marketdata.history.TickHistory;
+import com.example.traidingsim.metrics.MarketDataMetrics;
+import com.example.traidingsim.service.OrderService;
+import com.example.traidingsim.service.StrategyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class KrakenWebSocketServiceTests {
+
+	private final FrontendWebSocketService frontendWebSocketService = mock(FrontendWebSocketService.class);
+	private final SymbolRegistry symbolRegistry = new SymbolRegistry();
+	private final PriceBook priceBook = new PriceBook(symbolRegistry);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final KrakenWebSocketService service = new KrakenWebSocketService(new ObjectMapper(),
+			frontendWebSocketService, mock(MarketDataSource.class), symbolRegistry, priceBook,
+			mock(TickHistory.class), mock(OrderService.class), new OrderBooks(10),
+			mock(StrategyService.class), new FeedMonitor(priceBook, symbolRegistry, 10_000, 3_000, 120_000),
+			new MarketDataMetrics(meterRegistry, symbolRegistry));
+
+	@Test
+	void appliesEveryElementOfMultiSymbolFrame() {
+		service.onMessage("{\"channel\":\"ticker\",\"type\":\"snapshot\",\"data\":["
+				+ "{\"symbol\":\"BTC/USD\",\"last\":64000.5},"
+				+ "{\"symbol\":\"ETH/USD\",\"last\":3100.25},"
+				+ "{\"symbol\":\"SOL/USD\",\"last\":151.0}]}");
+
+		assertEquals(Map.of("BTC/USD", 64000.5, "ETH/USD", 3100.25, "SOL/USD", 151.0), service.getCryptoPrices());
+
+		ArgumentCaptor<TickBatch> published = ArgumentCaptor.forClass(TickBatch.class);
+		verify(frontendWebSocketService, times(1)).publishPrices(published.capture(), anyLong());
+		assertEquals(3, published.getValue().size());
+	}
+
+	@Test
+	void recordsTicksPerSymbolParseTimeAndExchangeLag() {
+		long exchangeTime = System.currentTimeMillis() - 250;
+		String timestamp = Instant.ofEpochMilli(exchangeTime).toString();
+		service.onMessage("{\"channel\":\"ticker\",\"type\":\"update\",\"data\":["
+				+ "{\"symbol\":\"BTC/USD\",\"last\":64000.5,\"timestamp\":\"" + timestamp + "\"},"
+				+ "{\"symbol\":\"ETH/USD\",\"last\":3100.25}]}");
+		service.onMessage("{\"channel\":\"ticker\",\"type\":\"update\",\"data\":["
+				+ "{\"symbol\":\"BTC/USD\",\"last\":64001.0}]}");
+
+		assertEquals(2, meterRegistry.get("market.data.ticks").tag("symbol", "BTC/USD").counter().count());
+		assertEquals(1, meterRegistry.get("market.data.ticks").tag("symbol", "ETH/USD").counter().count());
+		assertEquals(2, meterRegistry.get("market.data.parse").timer().count());
+
+		// Only the first frame carries a timestamp
+		Timer lag = meterRegistry.get("market.data.exchange.lag").timer();
+		assertEquals(1, lag.count());
+		assertTrue(lag.totalTime(TimeUnit.MILLISECONDS) >= 250, "lag " + lag.totalTime(TimeUnit.MILLISECONDS));
+	}
+}
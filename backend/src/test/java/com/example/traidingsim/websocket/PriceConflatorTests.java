@@ -0,0 +1,32 @@
+package com.example.traidingsim.websocket;
+
+import com.example.traidingsim.marketdata.TickBatch;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PriceConflatorTests {
+
+	@Test
+	void keepsOnlyLatestPricePerSymbolUntilDrained() {
+		PriceConflator conflator = new PriceConflator();
+		TickBatch ticks = new TickBatch();
+		ticks.add(0, 100.0);
+		ticks.add(1, 10.0);
+		ticks.add(0, 101.0);
+		conflator.offer(ticks);
+
+		TickBatch drained = new TickBatch();
+		conflator.drain(drained, false);
+		assertEquals(2, drained.size());
+		assertEquals(101.0, drained.price(0));
+		assertEquals(3, conflator.getTicksReceived());
+		assertEquals(1, conflator.getTicksConflated());
+
+		conflator.drain(drained, false);
+		assertEquals(0, drained.size());
+
+		conflator.drain(drained, true);
+		assertEquals(2, drained.size());
+	}
+}
@@ -0,0 +1,129 @@
+package com.example.traidingsim.websocket;
+
+import com.example.traidingsim.marketdata.SymbolRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceSubscriptionRegistryTests {
+
+	private final SymbolRegistry symbolRegistry = new SymbolRegistry();
+	private final PriceSubscriptionRegistry registry = new PriceSubscriptionRegistry(symbolRegistry);
+	private final int btc = symbolRegistry.idOf("BTC/USD");
+	private final int eth = symbolRegistry.idOf("ETH/USD");
+
+	@Test
+	void countsSubscribersPerDestination() {
+		subscribe("s1", "1", "/topic/prices/BTC-USD");
+		subscribe("s2", "1", "/topic/prices/BTC-USD");
+		subscribe("s2", "2", PriceSubscriptionRegistry.BINARY_PRICES_DESTINATION);
+		subscribe("s1", "2", "/topic/orders");
+
+		assertTrue(registry.hasSymbolSubscribers(btc));
+		assertFalse(registry.hasSymbolSubscribers(eth));
+		assertFalse(registry.hasAllPricesSubscribers());
+		assertTrue(registry.hasBinarySubscribers());
+		assertTrue(registry.isWatched(eth), "every symbol is sent to binary subscribers");
+		assertEquals("/topic/prices/BTC-USD", registry.destinationOf(btc));
+	}
+
+	@Test
+	void unsubscribeAndResubscribeReplaceTheSubscription() {
+		subscribe("s1", "1", "/topic/prices/BTC-USD");
+		subscribe("s1", "1", "/topic/prices/ETH-USD");
+		assertFalse(registry.hasSymbolSubscribers(btc), "a reused subscription ID replaces the old destination");
+		assertTrue(registry.hasSymbolSubscribers(eth));
+
+		registry.onUnsubscribe(new SessionUnsubscribeEvent(this, message(StompCommand.UNSUBSCRIBE, "s1", "1", null)));
+		assertFalse(registry.hasSymbolSubscribers(eth));
+		assertFalse(registry.isWatched(eth));
+
+		// Unknown subscriptions are ignored
+		registry.onUnsubscribe(new SessionUnsubscribeEvent(this, message(StompCommand.UNSUBSCRIBE, "s1", "1", null)));
+		assertFalse(registry.hasSymbolSubscribers(eth));
+	}
+
+	@Test
+	void disconnectDropsEverySubscriptionOfTheSession() {
+		subscribe("s1", "1", PriceSubscriptionRegistry.ALL_PRICES_DESTINATION);
+		subscribe("s1", "2", "/topic/prices/BTC-USD");
+		subscribe("s2", "1", "/topic/prices/BTC-USD");
+
+		disconnect("s1");
+
+		assertFalse(registry.hasAllPricesSubscribers());
+		assertTrue(registry.hasSymbolSubscribers(btc), "other sessions keep their subscriptions");
+		disconnect("s2");
+		assertFalse(registry.hasSymbolSubscribers(btc));
+	}
+
+	@Test
+	void subscriptionToASymbolNotYetRegisteredCountsOnceTheFeedDeliversIt() {
+		subscribe("s1", "1", "/topic/prices/NEW-USD");
+		subscribe("s2", "1", "/topic/prices/NEW-USD");
+		assertEquals(-1, symbolRegistry.idOf("NEW/USD"), "subscribing does not register the symbol");
+
+		int symbolId = symbolRegistry.intern("NEW/USD".toCharArray(), 0, "NEW/USD".length());
+		assertTrue(registry.isWatched(symbolId));
+		assertEquals("/topic/prices/NEW-USD", registry.destinationOf(symbolId));
+
+		registry.onUnsubscribe(new SessionUnsubscribeEvent(this, message(StompCommand.UNSUBSCRIBE, "s1", "1", null)));
+		assertTrue(registry.hasSymbolSubscribers(symbolId));
+		disconnect("s2");
+		assertFalse(registry.hasSymbolSubscribers(symbolId));
+	}
+
+	@Test
+	void pendingSubscriptionCanBeDroppedBeforeTheSymbolIsRegistered() {
+		subscribe("s1", "1", "/topic/prices/NEW-USD");
+		disconnect("s1");
+
+		int symbolId = symbolRegistry.intern("NEW/USD".toCharArray(), 0, "NEW/USD".length());
+		assertFalse(registry.isWatched(symbolId));
+	}
+
+	@Test
+	void destinationOfASymbolNotYetRegisteredLeadsToItsPendingSubscription() {
+		String destination = registry.destinationOf("NEW/USD");
+		assertEquals("/topic/prices/NEW-USD", destination);
+		assertEquals(registry.destinationOf(btc), registry.destinationOf("BTC/USD"));
+		assertNull(registry.destinationOf("NEW-USD"), "would not map back to the symbol");
+		assertNull(registry.destinationOf("A".repeat(SymbolRegistry.MAX_SYMBOL_LENGTH + 1)));
+		assertEquals(-1, symbolRegistry.idOf("NEW/USD"), "looking up the destination does not register the symbol");
+
+		subscribe("s1", "1", destination);
+		int symbolId = symbolRegistry.intern("NEW/USD".toCharArray(), 0, "NEW/USD".length());
+		assertTrue(registry.hasSymbolSubscribers(symbolId));
+	}
+
+	private void subscribe(String sessionId, String subscriptionId, String destination) {
+		registry.onSubscribe(new SessionSubscribeEvent(this,
+				message(StompCommand.SUBSCRIBE, sessionId, subscriptionId, destination)));
+	}
+
+	private void disconnect(String sessionId) {
+		registry.onDisconnect(new SessionDisconnectEvent(this, message(StompCommand.DISCONNECT, sessionId, null, null),
+				sessionId, CloseStatus.NORMAL));
+	}
+
+	private static Message<byte[]> message(StompCommand command, String sessionId, String subscriptionId,
+										   String destination) {
+		StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+		accessor.setSessionId(sessionId);
+		if (subscriptionId != null) {
+			accessor.setSubscriptionId(subscriptionId);
+		}
+		if (destination != null) {
+			accessor.setDestination(destination);
+		}
+		return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+	}
+}
@@ -24,6 +24,13 @@ interface PricesResponse {
   [crypto: string]: number
 }
 
+interface PriceBatch {
+  type: "snapshot" | "delta"
+  sequence: number
+  timestamp: number
+  prices: { symbol: string; price: number }[]
+}
+
 const AccountHoldings: React.FC = () => {
   const [holdings, setHoldings] = useState<Holding[]>([])
   const [error, setError] = useState<string | null>(null)
@@ -95,25 +102,25 @@ const AccountHoldings: React.FC = () => {
         console.log("Connected to WebSocket")
   
         client.subscribe("/topic/prices", (message) => {
-          const data = JSON.parse(message.body)
-          console.log(`Received price update: ${data.symbol} -> $${data.price}`)
+          const data: PriceBatch = JSON.parse(message.body)
+          const updates: Record<string, number> = {}
+          data.prices.forEach(({ symbol, price }) => {
+            updates[symbol] = price
+          })
   
           setPrices((prevPrices) => ({
             ...prevPrices,
-            [data.symbol]: data.price,
+            ...updates,
           }))
   
           setHoldings((prevHoldings) =>
             prevHoldings.map((holding) => {
-              if (holding.crypto === data.symbol) {
-                console.log(
-                  `Updating holding: ${holding.crypto} | New Price: $${data.price.toFixed(2)}`
-                )
-  
+              const price = updates[holding.crypto]
+              if (price !== undefined) {
                 return {
                   ...holding,
-                  price: data.price,
-                  totalValue: data.price * holding.amount,
+                  price,
+                  totalValue: price * holding.amount,
                 }
               }
               return holding
@@ -13,6 +13,13 @@ interface Prices {
   [key: string]: number
 }
 
+interface PriceBatch {
+  type: "snapshot" | "delta"
+  sequence: number
+  timestamp: number
+  prices: { symbol: string; price: number }[]
+}
+
 interface CryptoPricesProps {
   setBalance: React.Dispatch<React.SetStateAction<number>>
 }
@@ -52,13 +59,15 @@ const CryptoPrices: React.FC<CryptoPricesProps> = ({ setBalance }) => {
       onConnect: () => {
         console.log("Connected to WebSocket")
         client.subscribe("/topic/prices", (message) => {
-          const data = JSON.parse(message.body)
-          console.log(`Received price update: ${data.symbol} -> $${data.price}`)
-
-          setPrices((prevPrices) => ({
-            ...prevPrices,
-            [data.symbol]: data.price,
-          }))
+          const data: PriceBatch = JSON.parse(message.body)
+
+          setPrices((prevPrices) => {
+            const updatedPrices = { ...prevPrices }
+            data.prices.forEach(({ symbol, price }) => {
+              updatedPrices[symbol] = price
+            })
+            return updatedPrices
+          })
         })
       },
       onStompError: (frame) => {
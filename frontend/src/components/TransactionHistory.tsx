@@ -16,9 +16,15 @@ interface Transaction {
   id: number
 }
 
+interface TransactionPage {
+  transactions: Transaction[]
+  nextCursor: string | null
+}
+
 const TransactionHistory: React.FC = () => {
   const navigate = useNavigate()
   const [transactions, setTransactions] = useState<Transaction[]>([])
+  const [nextCursor, setNextCursor] = useState<string | null>(null)
   const [loading, setLoading] = useState<boolean>(true)
   const [error, setError] = useState<string | null>(null)
   const [balance, setBalance] = useState<number>(0)
@@ -41,21 +47,23 @@ const TransactionHistory: React.FC = () => {
     }
   }
 
-  useEffect(() => {
-    const fetchTransactions = async () => {
-      try {
-        const response = await fetch("/api/transactions")
-        if (!response.ok) throw new Error("Failed to fetch transactions")
-
-        const data: Transaction[] = await response.json()
-        setTransactions(data)
-        setLoading(false)
-      } catch (error) {
-        setError((error as Error).message)
-        setLoading(false)
-      }
+  const fetchTransactions = async (cursor: string | null = null) => {
+    try {
+      const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : ""
+      const response = await fetch(`/api/transactions${query}`)
+      if (!response.ok) throw new Error("Failed to fetch transactions")
+
+      const data: TransactionPage = await response.json()
+      setTransactions((previous) => (cursor ? [...previous, ...data.transactions] : data.transactions))
+      setNextCursor(data.nextCursor)
+      setLoading(false)
+    } catch (error) {
+      setError((error as Error).message)
+      setLoading(false)
     }
+  }
 
+  useEffect(() => {
     fetchTransactions()
     fetchBalance()
   }, [])
@@ -126,6 +134,13 @@ const TransactionHistory: React.FC = () => {
             There are no transactions at the moment.
           </div>
         )}
+        {nextCursor && (
+          <div className="flex justify-center py-6">
+            <button onClick={() => fetchTransactions(nextCursor)} className="px-4 py-2 bg-blue-500 text-white rounded-lg shadow-md">
+              Load more
+            </button>
+          </div>
+        )}
       </div>
     </div>
   )